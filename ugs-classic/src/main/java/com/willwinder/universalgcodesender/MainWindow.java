@@ -159,6 +159,7 @@ public class MainWindow extends JFrame implements UGSEventListener {
             settings.setFirmwareVersion(firmwareComboBox.getSelectedItem().toString());
 
             SettingsFactory.saveSettings(settings);
+            SettingsFactory.flushSettings();
 
             if(pendantUI!=null){
                 pendantUI.stop();
@@ -128,10 +128,23 @@ public class VisualizerCanvas extends GLCanvas implements GLEventListener, KeyLi
     private byte[] lineColorData = null;
     private FloatBuffer lineVertexBuffer = null;
     private ByteBuffer lineColorBuffer = null;
-    
+
+    // Vertex buffer objects holding the geometry and colors on the GPU.
+    private static final int VERTEX_BUFFER = 0;
+    private static final int COLOR_BUFFER = 1;
+    private final int[] bufferIds = new int[2];
+    private boolean useVertexBuffers = false;
+
+    // Guards the color array which is updated while a job is running.
+    private final Object colorLock = new Object();
+
     // Track when arrays need to be updated due to changing data.
     private boolean colorArrayDirty = false;
     private boolean vertexArrayDirty = false;
+
+    // Range of the color array (in bytes) changed since it was last uploaded.
+    private int colorDirtyStart = Integer.MAX_VALUE;
+    private int colorDirtyEnd = 0;
     
     private FPSCounter fpsCounter;
     private Overlay overlay;
@@ -163,9 +176,13 @@ public class VisualizerCanvas extends GLCanvas implements GLEventListener, KeyLi
      * This is used to gray out completed commands.
      */
     public void setCurrentCommandNumber(int num) {
-        this.currentCommandNumber = num;
-        this.createVertexBuffers();
-        this.colorArrayDirty = true;
+        synchronized (colorLock) {
+            int previousCommandNumber = this.currentCommandNumber;
+            this.currentCommandNumber = num;
+
+            // Only the segments between the old and new command changes color.
+            updateColors(Math.min(previousCommandNumber, num), Math.max(previousCommandNumber, num));
+        }
     }
     
     /**
@@ -231,6 +248,18 @@ public class VisualizerCanvas extends GLCanvas implements GLEventListener, KeyLi
         gl.glDepthFunc(GL_LEQUAL);  // the type of depth test to do
         gl.glHint(GL_PERSPECTIVE_CORRECTION_HINT, GL_NICEST); // best perspective correction
         gl.glShadeModel(GL_SMOOTH); // blends colors nicely, and smoothes out lighting
+
+        // Use vertex buffer objects if the profile supports them.
+        useVertexBuffers = !forceOldStyle
+                && gl.isFunctionAvailable( "glGenBuffers" )
+                && gl.isFunctionAvailable( "glBindBuffer" )
+                && gl.isFunctionAvailable( "glBufferData" )
+                && gl.isFunctionAvailable( "glBufferSubData" )
+                && gl.isFunctionAvailable( "glDeleteBuffers" );
+        if (useVertexBuffers) {
+            gl.glGenBuffers(bufferIds.length, bufferIds, 0);
+            this.vertexArrayDirty = true;
+        }
     }
 
     /**
@@ -374,24 +403,30 @@ public class VisualizerCanvas extends GLCanvas implements GLEventListener, KeyLi
         GL2 gl = drawable.getGL().getGL2();
         
         // Batch mode if available 
-        if(!forceOldStyle
-                && gl.isFunctionAvailable( "glGenBuffers" )
-                && gl.isFunctionAvailable( "glBindBuffer" )
-                && gl.isFunctionAvailable( "glBufferData" )
-                && gl.isFunctionAvailable( "glDeleteBuffers" ) ) {
+        if (useVertexBuffers) {
             
-            // Initialize OpenGL arrays if required.
-            if (this.colorArrayDirty) {
-                this.updateGLColorArray(drawable);
-                this.colorArrayDirty = false;
-            }
-            if (this.vertexArrayDirty) {
-                this.updateGLGeometryArray(drawable);
-                this.vertexArrayDirty = false;
+            // Initialize OpenGL buffers if required.
+            synchronized (colorLock) {
+                if (this.vertexArrayDirty) {
+                    this.updateGLGeometryArray(drawable);
+                    this.vertexArrayDirty = false;
+                    this.colorArrayDirty = true;
+                }
+                if (this.colorArrayDirty) {
+                    this.updateGLColorArray(drawable);
+                    this.colorArrayDirty = false;
+                } else if (colorDirtyStart < colorDirtyEnd) {
+                    this.updateGLColorRange(drawable);
+                }
             }
             gl.glLineWidth(1.0f);
             gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
             gl.glEnableClientState(GL2.GL_COLOR_ARRAY);
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferIds[VERTEX_BUFFER]);
+            gl.glVertexPointer( 3, GL.GL_FLOAT, 0, 0L );
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferIds[COLOR_BUFFER]);
+            gl.glColorPointer( 3, GL.GL_UNSIGNED_BYTE, 0, 0L );
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
             gl.glDrawArrays( GL.GL_LINES, 0, numberOfVertices);
             gl.glDisableClientState(GL2.GL_COLOR_ARRAY);
             gl.glDisableClientState(GL2.GL_VERTEX_ARRAY);
@@ -512,9 +547,11 @@ public class VisualizerCanvas extends GLCanvas implements GLEventListener, KeyLi
                     + Localization.getString("VisualizerCanvas.height") + "=" + format.format(objectHeight);
             
             // Now that the object is known, fill the buffers.
-            this.createVertexBuffers();
-            this.colorArrayDirty = true;
-            this.vertexArrayDirty = true;
+            synchronized (colorLock) {
+                this.createVertexBuffers();
+                this.colorArrayDirty = true;
+                this.vertexArrayDirty = true;
+            }
         } catch (GcodeParserException | IOException | GcodeStreamReader.NotGcodeStreamFile e) {
             String error = Localization.getString("mainWindow.error.openingFile") + " : " + e.getLocalizedMessage();
             logger.log(Level.SEVERE, error, e);
@@ -532,42 +569,16 @@ public class VisualizerCanvas extends GLCanvas implements GLEventListener, KeyLi
             this.lineVertexData = new float[numberOfVertices * 3];
             this.lineColorData = new byte[numberOfVertices * 3];
             
-            VisualizerUtils.Color color;
             int vertIndex = 0;
-            int colorIndex = 0;
+            int segmentIndex = 0;
             for(LineSegment ls : gcodeLineList) {
-                // Find the lines color.
-                if (ls.isArc()) {
-                    color = VisualizerUtils.Color.RED;
-                } else if (ls.isFastTraverse()) {
-                    color = VisualizerUtils.Color.BLUE;
-                } else if (ls.isZMovement()) {
-                    color = VisualizerUtils.Color.GREEN;
-                } else {
-                    color = VisualizerUtils.Color.WHITE;
-                }
-
-                // Override color if it is cutoff
-                if (ls.getLineNumber() <= this.currentCommandNumber) {
-                    color = VisualizerUtils.Color.GRAY;
-                }
-
                 // Draw it.
                 {
                     Position p1 = ls.getStart();
                     Position p2 = ls.getEnd();
-                    byte[] c = color.getBytes();
 
                     // colors
-                    //p1
-                    lineColorData[colorIndex++] = c[0];
-                    lineColorData[colorIndex++] = c[1];
-                    lineColorData[colorIndex++] = c[2];
-                    
-                    //p2
-                    lineColorData[colorIndex++] = c[0];
-                    lineColorData[colorIndex++] = c[1];
-                    lineColorData[colorIndex++] = c[2];
+                    setSegmentColor(segmentIndex++, getColor(ls));
                     
                     // TODO: take ABC axes into consideration.
                     // This is only used by the classic GUI.
@@ -585,6 +596,74 @@ public class VisualizerCanvas extends GLCanvas implements GLEventListener, KeyLi
         }
     }
     
+    /**
+     * Find the color of a line segment given the current command number.
+     */
+    private byte[] getColor(LineSegment ls) {
+        // Override color if it is cutoff
+        if (ls.getLineNumber() <= this.currentCommandNumber) {
+            return VisualizerUtils.Color.GRAY.getBytes();
+        } else if (ls.isArc()) {
+            return VisualizerUtils.Color.RED.getBytes();
+        } else if (ls.isFastTraverse()) {
+            return VisualizerUtils.Color.BLUE.getBytes();
+        } else if (ls.isZMovement()) {
+            return VisualizerUtils.Color.GREEN.getBytes();
+        }
+        return VisualizerUtils.Color.WHITE.getBytes();
+    }
+
+    /**
+     * Set the color of both vertices of a line segment in the color array.
+     */
+    private void setSegmentColor(int segmentIndex, byte[] c) {
+        int colorIndex = segmentIndex * 6;
+
+        //p1
+        lineColorData[colorIndex++] = c[0];
+        lineColorData[colorIndex++] = c[1];
+        lineColorData[colorIndex++] = c[2];
+
+        //p2
+        lineColorData[colorIndex++] = c[0];
+        lineColorData[colorIndex++] = c[1];
+        lineColorData[colorIndex] = c[2];
+    }
+
+    /**
+     * Recolor the line segments with a line number in the range (fromCommand, toCommand]
+     * and extend the dirty range of the color array. The segments are ordered by their
+     * line number so the first segment is found with a binary search.
+     */
+    private void updateColors(int fromCommand, int toCommand) {
+        List<LineSegment> lineSegments = this.gcodeLineList;
+        if (!this.isDrawable || lineSegments == null || lineColorData == null || fromCommand == toCommand) {
+            return;
+        }
+
+        int low = 0;
+        int high = lineSegments.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lineSegments.get(middle).getLineNumber() <= fromCommand) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        int segmentIndex = low;
+        while (segmentIndex < lineSegments.size() && lineSegments.get(segmentIndex).getLineNumber() <= toCommand) {
+            setSegmentColor(segmentIndex, getColor(lineSegments.get(segmentIndex)));
+            segmentIndex++;
+        }
+
+        if (segmentIndex > low) {
+            colorDirtyStart = Math.min(colorDirtyStart, low * 6);
+            colorDirtyEnd = Math.max(colorDirtyEnd, segmentIndex * 6);
+        }
+    }
+
     /**
      * Initialize or update open gl geometry array in native buffer objects.
      */
@@ -605,7 +684,10 @@ public class VisualizerCanvas extends GLCanvas implements GLEventListener, KeyLi
         
         lineVertexBuffer.put(lineVertexData);
         lineVertexBuffer.flip();
-        gl.glVertexPointer( 3, GL.GL_FLOAT, 0, lineVertexBuffer );
+
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferIds[VERTEX_BUFFER]);
+        gl.glBufferData(GL.GL_ARRAY_BUFFER, (long) lineVertexData.length * Buffers.SIZEOF_FLOAT, lineVertexBuffer, GL.GL_STATIC_DRAW);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
     }
     
     /**
@@ -629,7 +711,35 @@ public class VisualizerCanvas extends GLCanvas implements GLEventListener, KeyLi
         
         lineColorBuffer.put(lineColorData);
         lineColorBuffer.flip();
-        gl.glColorPointer( 3, GL.GL_UNSIGNED_BYTE, 0, lineColorBuffer );
+
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferIds[COLOR_BUFFER]);
+        gl.glBufferData(GL.GL_ARRAY_BUFFER, lineColorData.length, lineColorBuffer, GL.GL_DYNAMIC_DRAW);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+
+        colorDirtyStart = Integer.MAX_VALUE;
+        colorDirtyEnd = 0;
+    }
+
+    /**
+     * Upload the range of the color array that has changed since the last frame, this
+     * is what happens while a job is running and completed commands are grayed out.
+     */
+    private void updateGLColorRange(GLAutoDrawable drawable) {
+        GL2 gl = drawable.getGL().getGL2();
+
+        int length = colorDirtyEnd - colorDirtyStart;
+        ByteBuffer range = lineColorBuffer.duplicate();
+        range.position(colorDirtyStart);
+        range.put(lineColorData, colorDirtyStart, length);
+        range.position(colorDirtyStart);
+        range.limit(colorDirtyEnd);
+
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferIds[COLOR_BUFFER]);
+        gl.glBufferSubData(GL.GL_ARRAY_BUFFER, colorDirtyStart, length, range);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+
+        colorDirtyStart = Integer.MAX_VALUE;
+        colorDirtyEnd = 0;
     }
     
     // For seeing the tool path.
@@ -666,6 +776,11 @@ public class VisualizerCanvas extends GLCanvas implements GLEventListener, KeyLi
     public void dispose(GLAutoDrawable drawable) { 
         logger.log(Level.INFO, "Disposing OpenGL context.");
 
+        if (useVertexBuffers) {
+            drawable.getGL().glDeleteBuffers(bufferIds.length, bufferIds, 0);
+            useVertexBuffers = false;
+        }
+
         this.lineColorBuffer = null;
         this.lineVertexBuffer = null;
         this.gcodeLineList = null;
@@ -78,7 +78,7 @@ public class BackendInitializerHelper {
             }
 
             // If we want to send a file we must wait for the controller to be connected
-            if (configuration.hasOption(OptionEnum.FILE) || configuration.hasOption(OptionEnum.HOME)) {
+            if (configuration.hasOption(OptionEnum.FILE) || configuration.hasOption(OptionEnum.BATCH) || configuration.hasOption(OptionEnum.HOME)) {
                 waitForMachineToBeIdle(port, baudRate, backend);
             }
         } catch (Exception e) {
@@ -0,0 +1,458 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.cli;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.willwinder.universalgcodesender.IController;
+import com.willwinder.universalgcodesender.communicator.BufferedCommunicator;
+import com.willwinder.universalgcodesender.communicator.ICommunicator;
+import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.processors.CommandProcessor;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserUtils;
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.UGSEventListener;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.model.UGSEvent;
+import com.willwinder.universalgcodesender.model.events.AlarmEvent;
+import com.willwinder.universalgcodesender.model.events.CommandEvent;
+import com.willwinder.universalgcodesender.model.events.CommandEventType;
+import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
+import com.willwinder.universalgcodesender.model.events.FileState;
+import com.willwinder.universalgcodesender.model.events.FileStateEvent;
+import com.willwinder.universalgcodesender.model.events.StreamEvent;
+import com.willwinder.universalgcodesender.model.events.StreamEventType;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import com.willwinder.universalgcodesender.utils.FirmwareUtils;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.GcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.IGcodeWriter;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Streams a queue of files to the controller back to back and prints the progress as JSON lines.
+ * <p>
+ * All files are preprocessed in a background thread while the previous job is running so that the
+ * next job can be started as soon as the previous stream is completed. The lines of the next job are
+ * not queued until then, as the controller only completes a stream once the machine is idle there
+ * will be a short gap between the jobs which is reported in the job_start line.
+ * <p>
+ * The runner is driven by the backend events and will print a line for each of these events:
+ * <ul>
+ *     <li>job_start - when a file starts streaming</li>
+ *     <li>progress - periodically with the number of lines per second, the number of commands and bytes
+ *     in the controller buffer and the time it takes for the controller to respond with "ok"</li>
+ *     <li>job_complete - when a job is finished with its exit code and timing</li>
+ *     <li>batch_complete - when all jobs are finished</li>
+ * </ul>
+ * If a job fails the remaining jobs will be skipped.
+ *
+ * @author Joacim Breiler
+ */
+public class BatchJobRunner implements UGSEventListener {
+    private static final Logger LOGGER = Logger.getLogger(BatchJobRunner.class.getName());
+
+    /**
+     * The minimum time in milliseconds between each progress line
+     */
+    private static final long PROGRESS_INTERVAL = 500;
+
+    private final BackendAPI backend;
+    private final PrintStream out;
+    private final Gson gson = new Gson();
+
+    /**
+     * The time and the number of bytes for each command that has been sent but not yet completed
+     */
+    private final Deque<SentCommand> sentCommands = new ArrayDeque<>();
+
+    private CompletableFuture<JobExitCode> jobResult;
+    private JobStatistics statistics;
+    private int jobNumber;
+    private String jobName;
+    private long lastProgressTime;
+    private long jobCompletedTime;
+
+    public BatchJobRunner(BackendAPI backend, PrintStream out) {
+        this.backend = backend;
+        this.out = out;
+    }
+
+    /**
+     * Runs all files in order, the method will block until all jobs are finished
+     *
+     * @param files the files to stream
+     * @return the exit code of the first job that didn't succeed or {@link JobExitCode#SUCCESS}
+     */
+    public JobExitCode run(List<File> files) {
+        long batchStartTime = System.nanoTime();
+        ExecutorService preprocessor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "Batch preprocessor");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<Future<File>> processedFiles = new ArrayList<>();
+        files.forEach(file -> processedFiles.add(preprocessor.submit(() -> preprocess(file))));
+
+        backend.addUGSEventListener(this);
+        JobExitCode batchResult = JobExitCode.SUCCESS;
+        List<JobExitCode> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                JobExitCode result = JobExitCode.SKIPPED;
+                if (batchResult == JobExitCode.SUCCESS) {
+                    result = runJob(i + 1, files.get(i), processedFiles.get(i));
+                } else {
+                    printJobSkipped(i + 1, files.get(i));
+                }
+
+                results.add(result);
+                if (batchResult == JobExitCode.SUCCESS) {
+                    batchResult = result;
+                }
+            }
+        } finally {
+            backend.removeUGSEventListener(this);
+            preprocessor.shutdownNow();
+        }
+
+        JsonObject json = createEvent("batch_complete");
+        json.addProperty("jobs", files.size());
+        json.addProperty("succeeded", Collections.frequency(results, JobExitCode.SUCCESS));
+        json.addProperty("durationMs", toMillis(System.nanoTime() - batchStartTime));
+        json.addProperty("exitCode", batchResult.getCode());
+        print(json);
+        return batchResult;
+    }
+
+    private JobExitCode runJob(int number, File file, Future<File> processedFile) {
+        File processed;
+        try {
+            processed = processedFile.get();
+        } catch (ExecutionException e) {
+            return printJobFailed(number, file, "Couldn't process the file: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return printJobFailed(number, file, "Interrupted while processing the file");
+        }
+
+        IController controller = backend.getController();
+        try (IGcodeStreamReader reader = new GcodeStreamReader(processed, backend.getCommandCreator())) {
+            CompletableFuture<JobExitCode> result = startJob(number, file, reader.getNumRows());
+            controller.queueStream(reader);
+            controller.beginStreaming();
+
+            JobExitCode exitCode = result.get();
+            if (exitCode != JobExitCode.SUCCESS && controller.isStreaming()) {
+                controller.cancelSend();
+            }
+
+            printJobComplete(exitCode);
+            return exitCode;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finishJob(JobExitCode.FAILED);
+            return printJobFailed(number, file, "Interrupted while streaming the file");
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Couldn't stream the file " + file, e);
+            finishJob(JobExitCode.FAILED);
+            return printJobFailed(number, file, "Couldn't stream the file: " + e.getMessage());
+        }
+    }
+
+    private File preprocess(File file) throws Exception {
+        GcodeParser parser = new GcodeParser();
+        List<CommandProcessor> processors = FirmwareUtils.getParserFor(backend.getSettings().getFirmwareVersion()).orElse(Collections.emptyList());
+        processors.forEach(parser::addCommandProcessor);
+
+        File processedFile = File.createTempFile(file.getName() + "_ugs_", ".gcode");
+        processedFile.deleteOnExit();
+        try (IGcodeWriter writer = new GcodeStreamWriter(processedFile)) {
+            GcodeParserUtils.processAndExport(parser, file, writer);
+        }
+        return processedFile;
+    }
+
+    private synchronized CompletableFuture<JobExitCode> startJob(int number, File file, long numberOfRows) {
+        jobNumber = number;
+        jobName = file.getName();
+        jobResult = new CompletableFuture<>();
+        statistics = new JobStatistics(System.nanoTime());
+        sentCommands.clear();
+        lastProgressTime = statistics.startTime;
+
+        JsonObject json = createEvent("job_start");
+        json.addProperty("totalRows", numberOfRows);
+        if (jobCompletedTime > 0) {
+            json.addProperty("idleGapMs", toMillis(statistics.startTime - jobCompletedTime));
+        }
+        print(json);
+        return jobResult;
+    }
+
+    private synchronized void finishJob(JobExitCode exitCode) {
+        if (jobResult != null && !jobResult.isDone()) {
+            jobCompletedTime = System.nanoTime();
+            jobResult.complete(exitCode);
+        }
+    }
+
+    private synchronized boolean isJobRunning() {
+        return jobResult != null && !jobResult.isDone();
+    }
+
+    @Override
+    public void UGSEvent(UGSEvent event) {
+        if (!isJobRunning()) {
+            return;
+        }
+
+        if (event instanceof CommandEvent commandEvent) {
+            onCommandEvent(commandEvent);
+        } else if (event instanceof ControllerStatusEvent) {
+            printProgress(false);
+        } else if (event instanceof FileStateEvent fileStateEvent && fileStateEvent.getFileState() == FileState.FILE_STREAM_COMPLETE) {
+            printProgress(true);
+            finishJob(JobExitCode.SUCCESS);
+        } else if (event instanceof StreamEvent streamEvent && streamEvent.getType() == StreamEventType.STREAM_CANCELED) {
+            finishJob(JobExitCode.CANCELED);
+        } else if (event instanceof AlarmEvent) {
+            finishJob(JobExitCode.ALARM);
+        } else if (event instanceof ControllerStateEvent controllerStateEvent) {
+            if (controllerStateEvent.getState() == ControllerState.ALARM) {
+                finishJob(JobExitCode.ALARM);
+            } else if (controllerStateEvent.getState() == ControllerState.DISCONNECTED) {
+                finishJob(JobExitCode.FAILED);
+            }
+        }
+    }
+
+    private synchronized void onCommandEvent(CommandEvent commandEvent) {
+        GcodeCommand command = commandEvent.getCommand();
+        long now = System.nanoTime();
+        if (commandEvent.getCommandEventType() == CommandEventType.COMMAND_SENT) {
+            SentCommand sentCommand = new SentCommand(now, command.getCommandString().length() + 1);
+            sentCommands.addLast(sentCommand);
+            statistics.onCommandSent(sentCommands.size());
+        } else if (commandEvent.getCommandEventType() == CommandEventType.COMMAND_COMPLETE) {
+            // The commands are completed in the same order as they were sent
+            SentCommand sentCommand = sentCommands.pollFirst();
+            if (sentCommand != null) {
+                statistics.onCommandCompleted(now - sentCommand.time);
+            }
+
+            if (command.isError()) {
+                printError(command);
+                finishJob(JobExitCode.COMMAND_ERROR);
+                return;
+            }
+            printProgress(false);
+        }
+    }
+
+    private synchronized void printProgress(boolean force) {
+        long now = System.nanoTime();
+        if (!force && toMillis(now - lastProgressTime) < PROGRESS_INTERVAL) {
+            return;
+        }
+
+        long completedRows = backend.getNumCompletedRows();
+        JsonObject json = createEvent("progress");
+        json.addProperty("completedRows", completedRows);
+        json.addProperty("totalRows", backend.getNumRows());
+        json.addProperty("elapsedMs", toMillis(now - statistics.startTime));
+        json.addProperty("linesPerSecond", round(statistics.getLinesPerSecond(completedRows, now)));
+        json.addProperty("bufferedCommands", sentCommands.size());
+        json.addProperty("bufferedBytes", sentCommands.stream().mapToInt(SentCommand::bytes).sum());
+        getBufferSize().ifPresent(size -> json.addProperty("bufferSize", size));
+        json.addProperty("okLatencyMs", round(statistics.getIntervalLatency()));
+        json.addProperty("okLatencyMaxMs", round(statistics.getIntervalMaxLatency()));
+        json.addProperty("state", backend.getControllerState().name());
+        print(json);
+
+        statistics.resetInterval(completedRows, now);
+        lastProgressTime = now;
+    }
+
+    private synchronized void printJobComplete(JobExitCode exitCode) {
+        long now = System.nanoTime();
+        long completedRows = backend.getNumCompletedRows();
+        JsonObject json = createEvent("job_complete");
+        json.addProperty("exitCode", exitCode.getCode());
+        json.addProperty("result", exitCode.name());
+        json.addProperty("completedRows", completedRows);
+        json.addProperty("durationMs", toMillis(now - statistics.startTime));
+        json.addProperty("linesPerSecond", round(statistics.getAverageLinesPerSecond(completedRows, now)));
+        json.addProperty("okLatencyMs", round(statistics.getAverageLatency()));
+        json.addProperty("okLatencyMaxMs", round(statistics.getMaxLatency()));
+        json.addProperty("bufferedCommandsMax", statistics.maxBufferedCommands);
+        print(json);
+    }
+
+    private synchronized JobExitCode printJobFailed(int number, File file, String message) {
+        jobNumber = number;
+        jobName = file.getName();
+        JsonObject json = createEvent("job_complete");
+        json.addProperty("exitCode", JobExitCode.FAILED.getCode());
+        json.addProperty("result", JobExitCode.FAILED.name());
+        json.addProperty("message", message);
+        print(json);
+        return JobExitCode.FAILED;
+    }
+
+    private synchronized void printJobSkipped(int number, File file) {
+        jobNumber = number;
+        jobName = file.getName();
+        JsonObject json = createEvent("job_complete");
+        json.addProperty("exitCode", JobExitCode.SKIPPED.getCode());
+        json.addProperty("result", JobExitCode.SKIPPED.name());
+        print(json);
+    }
+
+    private void printError(GcodeCommand command) {
+        JsonObject json = createEvent("error");
+        json.addProperty("row", command.getCommandNumber());
+        json.addProperty("command", command.getOriginalCommandString());
+        json.addProperty("response", command.getResponse());
+        print(json);
+    }
+
+    private OptionalInt getBufferSize() {
+        ICommunicator communicator = backend.getController().getCommunicator();
+        if (communicator instanceof BufferedCommunicator bufferedCommunicator) {
+            return OptionalInt.of(bufferedCommunicator.getBufferSize());
+        }
+        return OptionalInt.empty();
+    }
+
+    private JsonObject createEvent(String event) {
+        JsonObject json = new JsonObject();
+        json.addProperty("event", event);
+        json.addProperty("timestamp", System.currentTimeMillis());
+        if (jobName != null && !"batch_complete".equals(event)) {
+            json.addProperty("job", jobNumber);
+            json.addProperty("file", jobName);
+        }
+        return json;
+    }
+
+    private void print(JsonObject json) {
+        out.println(gson.toJson(json));
+        out.flush();
+    }
+
+    private static long toMillis(long nanos) {
+        return nanos / 1_000_000;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100d) / 100d;
+    }
+
+    private record SentCommand(long time, int bytes) {
+    }
+
+    /**
+     * Keeps the timing statistics for a job, both for the whole job and since the last progress line
+     */
+    private static class JobStatistics {
+        private final long startTime;
+        private long latencySum;
+        private long latencyCount;
+        private long latencyMax;
+        private long intervalLatencySum;
+        private long intervalLatencyCount;
+        private long intervalLatencyMax;
+        private long intervalStartTime;
+        private long intervalStartRows;
+        private int maxBufferedCommands;
+
+        JobStatistics(long startTime) {
+            this.startTime = startTime;
+            this.intervalStartTime = startTime;
+        }
+
+        void onCommandSent(int bufferedCommands) {
+            maxBufferedCommands = Math.max(maxBufferedCommands, bufferedCommands);
+        }
+
+        void onCommandCompleted(long latency) {
+            latencySum += latency;
+            latencyCount++;
+            latencyMax = Math.max(latencyMax, latency);
+            intervalLatencySum += latency;
+            intervalLatencyCount++;
+            intervalLatencyMax = Math.max(intervalLatencyMax, latency);
+        }
+
+        void resetInterval(long completedRows, long time) {
+            intervalLatencySum = 0;
+            intervalLatencyCount = 0;
+            intervalLatencyMax = 0;
+            intervalStartRows = completedRows;
+            intervalStartTime = time;
+        }
+
+        double getLinesPerSecond(long completedRows, long time) {
+            return linesPerSecond(completedRows - intervalStartRows, time - intervalStartTime);
+        }
+
+        double getAverageLinesPerSecond(long completedRows, long time) {
+            return linesPerSecond(completedRows, time - startTime);
+        }
+
+        double getIntervalLatency() {
+            return intervalLatencyCount == 0 ? 0 : intervalLatencySum / (intervalLatencyCount * 1_000_000d);
+        }
+
+        double getIntervalMaxLatency() {
+            return intervalLatencyMax / 1_000_000d;
+        }
+
+        double getAverageLatency() {
+            return latencyCount == 0 ? 0 : latencySum / (latencyCount * 1_000_000d);
+        }
+
+        double getMaxLatency() {
+            return latencyMax / 1_000_000d;
+        }
+
+        private static double linesPerSecond(long rows, long duration) {
+            return duration <= 0 ? 0 : rows / (duration / 1_000_000_000d);
+        }
+    }
+}
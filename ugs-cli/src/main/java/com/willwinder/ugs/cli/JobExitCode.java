@@ -0,0 +1,67 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.cli;
+
+/**
+ * The result of a job run in batch mode. The exit code of the first job that didn't
+ * succeed will be used as the exit code of the program.
+ *
+ * @author Joacim Breiler
+ */
+public enum JobExitCode {
+    /**
+     * The file was completely streamed without any errors
+     */
+    SUCCESS(0),
+
+    /**
+     * The controller responded with an error and the stream was cancelled
+     */
+    COMMAND_ERROR(1),
+
+    /**
+     * The controller entered an alarm state while streaming
+     */
+    ALARM(2),
+
+    /**
+     * The stream was cancelled from another client
+     */
+    CANCELED(3),
+
+    /**
+     * The file couldn't be processed or the stream couldn't be started
+     */
+    FAILED(4),
+
+    /**
+     * The job was never started as a previous job failed
+     */
+    SKIPPED(5);
+
+    private final int code;
+
+    JobExitCode(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+}
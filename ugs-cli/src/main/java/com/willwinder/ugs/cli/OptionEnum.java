@@ -34,6 +34,7 @@ public enum OptionEnum {
     HELP("help", "h", false, "", "Prints the help information."),
     VERSION("version", "v", false, "", "Prints the software version."),
     FILE("file", "f", true, "filename", "Opens a file for streaming to controller and will exit upon completion."),
+    BATCH("batch", "ba", true, "filenames", "Streams a comma separated list of files back to back and exits upon completion. The progress is printed as JSON lines and the exit code will be the one of the first failing job."),
     CONTROLLER_FIRMWARE("controller", "c", true, "controller", "What type of controller firmware we are connecting to, defaults to \"" + ControllerSettings.CONTROLLER.GRBL.name() + "\". These are the available firmwares: " + FirmwareUtils.getFirmwareList()),
     PORT("port", "p", true, "port", "Which port for the controller to connect to. I.e /dev/ttyUSB0 (on Unix-like systems or COM4 (on windows)."),
     BAUD("baud", "b", true, "baudrate", "Baud rate to connect with."),
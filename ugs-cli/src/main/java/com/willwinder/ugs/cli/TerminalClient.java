@@ -51,6 +51,7 @@ public class TerminalClient {
     private final Configuration configuration;
     private BackendAPI backend;
     private PendantUI pendantUI;
+    private int exitCode = 0;
 
     public static void main(String[] args) throws IOException {
         // Load our custom log properties preventing application to log to console
@@ -116,6 +117,10 @@ public class TerminalClient {
                 sendFile();
             }
 
+            if (configuration.hasOption(OptionEnum.BATCH)) {
+                runBatch();
+            }
+
             while (configuration.hasOption(OptionEnum.DAEMON) && pendantUI != null) {
                 Thread.sleep(100);
             }
@@ -127,7 +132,7 @@ public class TerminalClient {
             System.exit(-1);
         } finally {
             // TODO This is a hack to exit threads, find out why threads aren't killed
-            System.exit(0);
+            System.exit(exitCode);
         }
     }
 
@@ -229,6 +234,25 @@ public class TerminalClient {
         }
     }
 
+    /**
+     * Streams all files given in the batch option back to back
+     */
+    private void runBatch() {
+        String filenames = configuration.getOptionValue(OptionEnum.BATCH);
+        if (StringUtils.isEmpty(filenames)) {
+            return;
+        }
+
+        List<File> files = Arrays.stream(StringUtils.split(filenames, ','))
+                .map(String::trim)
+                .filter(StringUtils::isNotEmpty)
+                .map(File::new)
+                .toList();
+
+        BatchJobRunner batchJobRunner = new BatchJobRunner(backend, System.out);
+        exitCode = batchJobRunner.run(files).getCode();
+    }
+
     private void handleResume() throws Exception {
         System.out.print("The file stream is paused, press 'ENTER' to resume ");
         while (System.in.read() != '\n') {
@@ -0,0 +1,162 @@
+package com.willwinder.ugs.cli;
+
+import com.willwinder.universalgcodesender.IController;
+import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.model.UGSEvent;
+import com.willwinder.universalgcodesender.model.events.CommandEvent;
+import com.willwinder.universalgcodesender.model.events.CommandEventType;
+import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
+import com.willwinder.universalgcodesender.model.events.FileState;
+import com.willwinder.universalgcodesender.model.events.FileStateEvent;
+import com.willwinder.universalgcodesender.model.events.StreamEvent;
+import com.willwinder.universalgcodesender.model.events.StreamEventType;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.Settings;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BatchJobRunnerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private BackendAPI backend;
+    private IController controller;
+    private ByteArrayOutputStream output;
+    private BatchJobRunner runner;
+    private List<Integer> queuedStreamRows;
+
+    @Before
+    public void setUp() throws Exception {
+        Settings settings = mock(Settings.class);
+        when(settings.getFirmwareVersion()).thenReturn("GRBL");
+
+        controller = mock(IController.class);
+        backend = mock(BackendAPI.class);
+        when(backend.getSettings()).thenReturn(settings);
+        when(backend.getController()).thenReturn(controller);
+        when(backend.getCommandCreator()).thenReturn(new DefaultCommandCreator());
+        when(backend.getControllerState()).thenReturn(ControllerState.IDLE);
+
+        queuedStreamRows = new ArrayList<>();
+        doAnswer(invocation -> {
+            IGcodeStreamReader reader = invocation.getArgument(0);
+            queuedStreamRows.add(reader.getNumRows());
+            return null;
+        }).when(controller).queueStream(any());
+
+        output = new ByteArrayOutputStream();
+        runner = new BatchJobRunner(backend, new PrintStream(output, true, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void runShouldStartNextJobWhenTheStreamIsComplete() throws Exception {
+        onBeginStreaming(() -> new FileStateEvent(FileState.FILE_STREAM_COMPLETE));
+
+        JobExitCode result = runner.run(List.of(createFile("G0 X0", "G1 X10"), createFile("G0 X0", "G1 X10", "G1 Y10")));
+
+        assertEquals(JobExitCode.SUCCESS, result);
+        assertEquals(List.of(2, 3), queuedStreamRows);
+        verify(controller, times(2)).beginStreaming();
+        verify(controller, times(0)).cancelSend();
+
+        List<String> lines = getOutputLines();
+        assertEquals(2, lines.stream().filter(line -> line.contains("\"event\":\"job_start\"")).count());
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"event\":\"job_start\"") && line.contains("\"job\":2") && line.contains("\"idleGapMs\"")));
+        assertTrue(lines.get(lines.size() - 1).contains("\"event\":\"batch_complete\""));
+        assertTrue(lines.get(lines.size() - 1).contains("\"succeeded\":2"));
+    }
+
+    @Test
+    public void runShouldCancelStreamAndSkipRemainingJobsOnCommandError() throws Exception {
+        GcodeCommand command = new GcodeCommand("G1 X10");
+        command.setDone(true);
+        command.setError(true);
+        onBeginStreaming(() -> new CommandEvent(CommandEventType.COMMAND_COMPLETE, command));
+        when(controller.isStreaming()).thenReturn(true);
+
+        JobExitCode result = runner.run(List.of(createFile("G1 X10"), createFile("G1 X20")));
+
+        assertEquals(JobExitCode.COMMAND_ERROR, result);
+        assertEquals(List.of(1), queuedStreamRows);
+        verify(controller).cancelSend();
+        assertTrue(getOutputLines().stream().anyMatch(line -> line.contains("\"event\":\"error\"")));
+        assertTrue(getOutputLines().stream().anyMatch(line -> line.contains("\"job\":2") && line.contains("\"result\":\"SKIPPED\"")));
+    }
+
+    @Test
+    public void runShouldSkipRemainingJobsWhenStreamIsCanceled() throws Exception {
+        onBeginStreaming(() -> new StreamEvent(StreamEventType.STREAM_CANCELED));
+
+        JobExitCode result = runner.run(List.of(createFile("G1 X10"), createFile("G1 X20")));
+
+        assertEquals(JobExitCode.CANCELED, result);
+        assertEquals(List.of(1), queuedStreamRows);
+        assertTrue(getOutputLines().stream().anyMatch(line -> line.contains("\"job\":1") && line.contains("\"result\":\"CANCELED\"")));
+        assertTrue(getOutputLines().stream().anyMatch(line -> line.contains("\"job\":2") && line.contains("\"result\":\"SKIPPED\"")));
+    }
+
+    @Test
+    public void runShouldFailJobOnAlarm() throws Exception {
+        onBeginStreaming(() -> new ControllerStateEvent(ControllerState.ALARM, ControllerState.RUN));
+
+        JobExitCode result = runner.run(List.of(createFile("G1 X10")));
+
+        assertEquals(JobExitCode.ALARM, result);
+    }
+
+    @Test
+    public void runShouldFailJobIfFileCouldNotBeProcessed() throws Exception {
+        onBeginStreaming(() -> new FileStateEvent(FileState.FILE_STREAM_COMPLETE));
+
+        JobExitCode result = runner.run(List.of(new File(temporaryFolder.getRoot(), "missing.gcode"), createFile("G1 X20")));
+
+        assertEquals(JobExitCode.FAILED, result);
+        assertTrue(queuedStreamRows.isEmpty());
+        assertTrue(getOutputLines().stream().anyMatch(line -> line.contains("\"job\":2") && line.contains("\"result\":\"SKIPPED\"")));
+    }
+
+    /**
+     * Dispatches the given event to the runner when the controller starts streaming
+     */
+    private void onBeginStreaming(Supplier<UGSEvent> eventSupplier) throws Exception {
+        doAnswer(invocation -> {
+            runner.UGSEvent(eventSupplier.get());
+            return null;
+        }).when(controller).beginStreaming();
+    }
+
+    private File createFile(String... lines) throws IOException {
+        File file = temporaryFolder.newFile();
+        FileUtils.writeLines(file, List.of(lines));
+        return file;
+    }
+
+    private List<String> getOutputLines() {
+        return output.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+}
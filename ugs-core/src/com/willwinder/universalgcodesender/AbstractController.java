@@ -22,9 +22,10 @@ import static com.willwinder.universalgcodesender.Utils.formatter;
 import com.willwinder.universalgcodesender.communicator.ICommunicator;
 import com.willwinder.universalgcodesender.communicator.ICommunicatorListener;
 import com.willwinder.universalgcodesender.connection.ConnectionDriver;
-import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.GcodeModalStateTracker;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
 import com.willwinder.universalgcodesender.gcode.ICommandCreator;
+import com.willwinder.universalgcodesender.gcode.util.Code;
 import com.willwinder.universalgcodesender.gcode.util.GcodeUtils;
 import com.willwinder.universalgcodesender.i18n.Localization;
 import com.willwinder.universalgcodesender.listeners.ControllerListener;
@@ -54,6 +55,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.LinkedBlockingDeque;
@@ -69,7 +71,7 @@ import java.util.logging.Logger;
  */
 public abstract class AbstractController implements ICommunicatorListener, IController {
     private static final Logger logger = Logger.getLogger(AbstractController.class.getName());
-    private final GcodeParser parser = new GcodeParser();
+    private final GcodeModalStateTracker modalStateTracker = new GcodeModalStateTracker();
     private final ConnectionWatchTimer connectionWatchTimer = new ConnectionWatchTimer(this);
     private final ICommandCreator commandCreator;
 
@@ -104,10 +106,6 @@ public abstract class AbstractController implements ICommunicatorListener, ICont
     // Listeners
     private final List<ControllerListener> listeners;
 
-    //Track current mode to restore after jogging
-    private String distanceModeCode = null;
-    private String unitsCode = null;
-
     // Maintain the current state given actions performed.
     // Concrete classes with a status field should override getControlState.
     private CommunicatorState currentState = COMM_DISCONNECTED;
@@ -477,7 +475,7 @@ public abstract class AbstractController implements ICommunicatorListener, ICont
 
     @Override
     public GcodeState getCurrentGcodeState() {
-        return parser.getCurrentState();
+        return modalStateTracker.getState();
     }
 
     /**
@@ -844,22 +842,22 @@ public abstract class AbstractController implements ICommunicatorListener, ICont
     }
 
     protected String getUnitsCode() {
-        return unitsCode;
+        return Objects.toString(modalStateTracker.getUnitsCode(), null);
     }
 
     protected void setUnitsCode(String unitsCode) {
         if (unitsCode != null) {
-            this.unitsCode = unitsCode;
+            modalStateTracker.setUnitsCode(Code.lookupCode(unitsCode));
         }
     }
 
     protected String getDistanceModeCode() {
-        return distanceModeCode;
+        return Objects.toString(modalStateTracker.getDistanceModeCode(), null);
     }
 
     protected void setDistanceModeCode(String distanceModeCode) {
         if (distanceModeCode != null) {
-            this.distanceModeCode = distanceModeCode;
+            modalStateTracker.setDistanceModeCode(Code.lookupCode(distanceModeCode));
         }
     }
 
@@ -869,25 +867,7 @@ public abstract class AbstractController implements ICommunicatorListener, ICont
             return;
         }
 
-        try {
-          parser.addCommand(command.getCommandString());
-        } catch (Exception e) {
-          logger.log(Level.SEVERE, "Problem parsing command: " + command, e);
-        }
-
-        String gcode = command.getCommandString().toUpperCase();
-        if (gcode.contains("G90")) {
-            distanceModeCode = "G90";
-        }
-        if (gcode.contains("G91")) {
-            distanceModeCode = "G91";
-        }
-        if (gcode.contains("G20")) {
-            unitsCode = "G20";
-        }
-        if (gcode.contains("G21")) {
-            unitsCode = "G21";
-        }
+        modalStateTracker.update(command.getCommandString());
     }
 
     @Override
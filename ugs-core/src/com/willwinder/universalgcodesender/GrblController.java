@@ -24,6 +24,8 @@ import com.willwinder.universalgcodesender.communicator.ICommunicator;
 import com.willwinder.universalgcodesender.connection.ConnectionDriver;
 import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
 import com.willwinder.universalgcodesender.firmware.IOverrideManager;
+import com.willwinder.universalgcodesender.firmware.ResponseClassifier;
+import com.willwinder.universalgcodesender.firmware.ResponseType;
 import com.willwinder.universalgcodesender.firmware.grbl.GrblCapabilitiesConstants;
 import com.willwinder.universalgcodesender.firmware.grbl.GrblCommandCreator;
 import com.willwinder.universalgcodesender.firmware.grbl.GrblCommandLogger;
@@ -178,60 +180,26 @@ public class GrblController extends AbstractController {
     @Override
     protected void rawResponseHandler(String response) {
         try {
-            if (GrblUtils.isOkResponse(response)) {
-                this.commandComplete();
-            }
-
-            // Error case.
-            else if (GrblUtils.isOkErrorAlarmResponse(response)) {
-                if (GrblUtils.isAlarmResponse(response)) {
-                    //this is not updating the state to Alarm in the GUI, and the alarm is no longer being processed
-                    controllerStatus = ControllerStatusBuilder
-                            .newInstance(controllerStatus)
-                            .setState(ControllerState.ALARM)
-                            .build();
-
-                    Alarm alarm = GrblUtils.parseAlarmResponse(response);
-                    dispatchAlarm(alarm);
-                    dispatchStatusString(controllerStatus);
+            ResponseType responseType = ResponseClassifier.classify(response);
+            switch (responseType) {
+                case OK -> this.commandComplete();
+                case ERROR, ALARM -> handleErrorOrAlarmResponse(response, responseType);
+                case VERSION -> {
+                    messageService.dispatchMessage(MessageType.VERBOSE, response + "\n");
+                    initializer.onControllerReady();
+                    initialize();
                 }
-
-                // If there is an active command, mark it as completed
-                Optional<GcodeCommand> activeCommand = this.getActiveCommand();
-                if (activeCommand.isPresent()) {
-                    this.commandComplete();
-                } else {
-                    String message =
-                            String.format(Localization.getString("controller.exception.unexpectedError"),
-                                    lookupCode(response)).replaceAll("\\.\\.", "\\.");
-                    dispatchConsoleMessage(MessageType.INFO, message + "\n");
+                case STATUS -> handleStatusResponse(response);
+                case PROBE -> {
+                    Position p = GrblUtils.parseProbePosition(response, getFirmwareSettings().getReportingUnits());
+                    if (p != null) {
+                        dispatchProbeCoordinates(p);
+                    }
                 }
-                checkStreamFinished();
-            } else if (GrblUtils.isGrblVersionString(response)) {
-                messageService.dispatchMessage(MessageType.VERBOSE, response + "\n");
-                initialize();
-            } else if (GrblUtils.isGrblProbeMessage(response)) {
-                Position p = GrblUtils.parseProbePosition(response, getFirmwareSettings().getReportingUnits());
-                if (p != null) {
-                    dispatchProbeCoordinates(p);
+                case PARSER_STATE, MESSAGE, FEEDBACK -> handleFeedbackResponse(response, responseType);
+                default -> {
+                    // Other responses are handled by the command listeners
                 }
-            } else if (initializer.isInitialized() && GrblUtils.isGrblStatusString(response)) {
-                // Only 1 poll is sent at a time so don't decrement, reset to zero.
-                positionPollTimer.receivedStatus();
-                messageService.dispatchMessage(MessageType.VERBOSE, response + "\n");
-
-                this.handleStatusString(response);
-                this.checkStreamFinished();
-            }
-
-            // We can only parse feedback messages when we know what capabilities the controller have
-            else if (initializer.isInitialized() && GrblUtils.isGrblFeedbackMessage(response, capabilities)) {
-                GrblFeedbackMessage grblFeedbackMessage = new GrblFeedbackMessage(response);
-                // Convert feedback message to raw commands to update modal state.
-                updateParserModalState(getCommandCreator().createCommand(GrblUtils.parseFeedbackMessage(response, capabilities)));
-                dispatchConsoleMessage(MessageType.VERBOSE, grblFeedbackMessage + "\n");
-                setDistanceModeCode(grblFeedbackMessage.getDistanceMode());
-                setUnitsCode(grblFeedbackMessage.getUnits());
             }
         } catch (Exception e) {
             String message = "";
@@ -246,6 +214,65 @@ public class GrblController extends AbstractController {
         }
     }
 
+    private void handleErrorOrAlarmResponse(String response, ResponseType responseType) throws UnexpectedCommand {
+        if (responseType == ResponseType.ALARM) {
+            //this is not updating the state to Alarm in the GUI, and the alarm is no longer being processed
+            controllerStatus = ControllerStatusBuilder
+                    .newInstance(controllerStatus)
+                    .setState(ControllerState.ALARM)
+                    .build();
+
+            Alarm alarm = GrblUtils.parseAlarmResponse(response);
+            dispatchAlarm(alarm);
+            dispatchStatusString(controllerStatus);
+        }
+
+        // If there is an active command, mark it as completed
+        Optional<GcodeCommand> activeCommand = this.getActiveCommand();
+        if (activeCommand.isPresent()) {
+            this.commandComplete();
+        } else {
+            String message =
+                    String.format(Localization.getString("controller.exception.unexpectedError"),
+                            lookupCode(response)).replaceAll("\\.\\.", "\\.");
+            dispatchConsoleMessage(MessageType.INFO, message + "\n");
+        }
+        checkStreamFinished();
+    }
+
+    private void handleStatusResponse(String response) {
+        if (initializer.isInitializing()) {
+            // The controller responded to a status query and is ready to be initialized
+            initializer.onControllerReady();
+        } else if (initializer.isInitialized()) {
+            // Only 1 poll is sent at a time so don't decrement, reset to zero.
+            positionPollTimer.receivedStatus();
+            messageService.dispatchMessage(MessageType.VERBOSE, response + "\n");
+
+            this.handleStatusString(response);
+            this.checkStreamFinished();
+        }
+    }
+
+    private void handleFeedbackResponse(String response, ResponseType responseType) {
+        // We can only parse feedback messages when we know what capabilities the controller have
+        if (!initializer.isInitialized()) {
+            return;
+        }
+
+        // Version 1 controllers only report the parser state as feedback messages
+        if (capabilities.hasCapability(GrblCapabilitiesConstants.V1_FORMAT) && responseType != ResponseType.PARSER_STATE) {
+            return;
+        }
+
+        GrblFeedbackMessage grblFeedbackMessage = new GrblFeedbackMessage(response);
+        // Convert feedback message to raw commands to update modal state.
+        updateParserModalState(getCommandCreator().createCommand(GrblUtils.parseFeedbackMessage(response, capabilities)));
+        dispatchConsoleMessage(MessageType.VERBOSE, grblFeedbackMessage + "\n");
+        setDistanceModeCode(grblFeedbackMessage.getDistanceMode());
+        setUnitsCode(grblFeedbackMessage.getUnits());
+    }
+
     @Override
     protected void pauseStreamingEvent() throws Exception {
         if (this.capabilities.hasCapability(GrblCapabilitiesConstants.REAL_TIME)) {
@@ -1,42 +1,83 @@
 package com.willwinder.universalgcodesender;
 
+import com.willwinder.universalgcodesender.communicator.ICommunicator;
+import com.willwinder.universalgcodesender.firmware.FirmwareSetting;
 import com.willwinder.universalgcodesender.firmware.grbl.GrblBuildOptions;
+import com.willwinder.universalgcodesender.firmware.grbl.GrblFirmwareSettings;
+import com.willwinder.universalgcodesender.firmware.grbl.GrblSettingsCache;
 import com.willwinder.universalgcodesender.firmware.grbl.GrblVersion;
 import com.willwinder.universalgcodesender.firmware.grbl.commands.GetBuildInfoCommand;
 import com.willwinder.universalgcodesender.firmware.grbl.commands.GetParserStateCommand;
 import com.willwinder.universalgcodesender.firmware.grbl.commands.GetSettingsCommand;
 import com.willwinder.universalgcodesender.listeners.ControllerState;
 import com.willwinder.universalgcodesender.listeners.MessageType;
-import static com.willwinder.universalgcodesender.utils.ControllerUtils.sendAndWaitForCompletion;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import com.willwinder.universalgcodesender.utils.ThreadHelper;
+import org.apache.commons.lang3.StringUtils;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
  * A class that implements an initialization protocol for GRBL and keeps an internal state of the
  * connection process. The query process will not require the controller to be reset which is needed
  * for controllers such as grblHAL or GRBL_ESP32.
  * <p/>
- * 1. It will first to query the machine for a status report 10 times, if the status is HOLD or ALARM
+ * 1. Wait for the controller to be ready, either by receiving the welcome message or a response to a
+ * status report query. If the controller doesn't respond within two seconds we will continue anyway.
+ * 2. It will query the machine for a status report 10 times, if the status is HOLD or ALARM
  * a blank line will be sent to see if the controller is responsive
- * 2. Fetch the build info for the controller
- * 3. Fetch the parser state
+ * 3. Fetch the build info, settings and parser state. These are sent at once without waiting for
+ * the previous response. If we have cached settings for the controller with the same build info
+ * these will be used and the initialization is done without waiting for the settings.
  * 4. Start the status poller
  *
  * @author Joacim Breiler
  */
 public class GrblControllerInitializer implements IControllerInitializer {
     private static final Logger LOGGER = Logger.getLogger(GrblControllerInitializer.class.getSimpleName());
+
+    /**
+     * The maximum time to wait for the controller to be ready before querying it
+     */
+    private static final long READY_TIMEOUT = 2000;
+
+    /**
+     * The interval for sending status queries while waiting for the controller to be ready
+     */
+    private static final long READY_POLL_INTERVAL = 200;
+
+    /**
+     * The maximum time to wait for each of the controller queries
+     */
+    private static final long QUERY_TIMEOUT = 4000;
+
     private final AtomicBoolean isInitializing = new AtomicBoolean(false);
     private final AtomicBoolean isInitialized = new AtomicBoolean(false);
     private final GrblController controller;
+    private final GrblSettingsCache settingsCache;
     private GrblVersion version = GrblVersion.NO_VERSION;
     private GrblBuildOptions options = new GrblBuildOptions();
+    private volatile CountDownLatch readyLatch = new CountDownLatch(1);
+    private long connectTime = -1;
 
     public GrblControllerInitializer(GrblController controller) {
+        this(controller, new GrblSettingsCache());
+    }
+
+    public GrblControllerInitializer(GrblController controller, GrblSettingsCache settingsCache) {
         this.controller = controller;
+        this.settingsCache = settingsCache;
     }
 
     @Override
@@ -46,13 +87,13 @@ public class GrblControllerInitializer implements IControllerInitializer {
             return false;
         }
 
+        long startTime = System.currentTimeMillis();
         controller.resetBuffers();
 
         controller.setControllerState(ControllerState.CONNECTING);
         isInitializing.set(true);
         try {
-            // Some controllers need this wait before we can query its status
-            Thread.sleep(2000);
+            waitForControllerToBeReady();
             if (!GrblUtils.isControllerResponsive(controller)) {
                 isInitializing.set(false);
                 controller.getMessageService().dispatchMessage(MessageType.INFO, "*** Device is in a holding or alarm state and needs to be reset\n");
@@ -60,12 +101,11 @@ public class GrblControllerInitializer implements IControllerInitializer {
                 return false;
             }
 
-            // Some controllers need this wait before we can query the rest of its information
-            Thread.sleep(2000);
-            fetchControllerVersion();
-            fetchControllerState();
+            fetchControllerInformation();
 
-            controller.getMessageService().dispatchMessage(MessageType.INFO, String.format("*** Connected to %s\n", version.toString()));
+            connectTime = System.currentTimeMillis() - startTime;
+            LOGGER.info(String.format("Connected to %s in %dms", version, connectTime));
+            controller.getMessageService().dispatchMessage(MessageType.INFO, String.format("*** Connected to %s (%dms)\n", version.toString(), connectTime));
             isInitialized.set(true);
             isInitializing.set(false);
             return true;
@@ -73,7 +113,44 @@ public class GrblControllerInitializer implements IControllerInitializer {
             isInitialized.set(false);
             isInitializing.set(false);
             closeConnection();
-            throw new ControllerException(e.getMessage());
+            throw new ControllerException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Should be called when the controller has responded with a welcome message or a status report
+     * to notify that the controller is ready to be queried.
+     */
+    public void onControllerReady() {
+        readyLatch.countDown();
+    }
+
+    /**
+     * Waits for the controller to be ready by polling it for status reports. Controllers that are reset
+     * when connecting will not respond until they have booted.
+     */
+    private void waitForControllerToBeReady() throws InterruptedException {
+        long timeout = System.currentTimeMillis() + READY_TIMEOUT;
+        while (System.currentTimeMillis() < timeout) {
+            sendStatusQuery();
+            long waitTime = Math.min(READY_POLL_INTERVAL, timeout - System.currentTimeMillis());
+            if (readyLatch.await(Math.max(waitTime, 0), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        }
+        LOGGER.info("The controller did not respond within " + READY_TIMEOUT + "ms, will try to query it anyway");
+    }
+
+    private void sendStatusQuery() {
+        ICommunicator communicator = controller.getCommunicator();
+        if (communicator == null) {
+            return;
+        }
+
+        try {
+            communicator.sendByteImmediately(GrblUtils.GRBL_STATUS_COMMAND);
+        } catch (Exception e) {
+            LOGGER.log(Level.FINE, "Could not send status query", e);
         }
     }
 
@@ -85,16 +162,17 @@ public class GrblControllerInitializer implements IControllerInitializer {
         }
     }
 
-    private void fetchControllerState() throws InterruptedException {
-        controller.getMessageService().dispatchMessage(MessageType.INFO, "*** Fetching device settings\n");
-        sendAndWaitForCompletion(controller, new GetSettingsCommand());
-        controller.getMessageService().dispatchMessage(MessageType.INFO, "*** Fetching device state\n");
-        sendAndWaitForCompletion(controller, new GetParserStateCommand());
-    }
+    /**
+     * Fetches the build info, settings and parser state from the controller. All queries are sent at once
+     * and the responses will be returned in the same order.
+     */
+    private void fetchControllerInformation() throws Exception {
+        controller.getMessageService().dispatchMessage(MessageType.INFO, "*** Fetching device version, settings and state\n");
+        CompletableFuture<GetBuildInfoCommand> buildInfoFuture = send(new GetBuildInfoCommand());
+        CompletableFuture<GetSettingsCommand> settingsFuture = send(new GetSettingsCommand());
+        CompletableFuture<GetParserStateCommand> parserStateFuture = send(new GetParserStateCommand());
 
-    private void fetchControllerVersion() throws InterruptedException {
-        controller.getMessageService().dispatchMessage(MessageType.INFO, "*** Fetching device version\n");
-        GetBuildInfoCommand getBuildInfoCommand = sendAndWaitForCompletion(controller, new GetBuildInfoCommand());
+        GetBuildInfoCommand getBuildInfoCommand = waitForCompletion(buildInfoFuture);
         Optional<GrblVersion> optionalVersion = getBuildInfoCommand.getVersion();
         if (optionalVersion.isEmpty()) {
             controller.getMessageService().dispatchMessage(MessageType.ERROR, "*** Could not detect the GRBL version\n");
@@ -103,6 +181,50 @@ public class GrblControllerInitializer implements IControllerInitializer {
 
         version = optionalVersion.get();
         options = getBuildInfoCommand.getBuildOptions();
+        if (controller.getFirmwareSettings() instanceof GrblFirmwareSettings firmwareSettings) {
+            // Only grblHAL is known to receive commands while writing settings to its non-volatile storage
+            firmwareSettings.setPipelinedSettingsSupported(getBuildInfoCommand.isGrblHal());
+        }
+
+        String buildInfo = getBuildInfo(getBuildInfoCommand);
+        Optional<List<FirmwareSetting>> cachedSettings = settingsCache.get(buildInfo);
+        settingsFuture.thenAccept(command -> {
+            // Writes the cache in the background to not block the thread handling the controller responses
+            if (command.isOk()) {
+                ThreadHelper.invokeLater(() -> settingsCache.put(buildInfo, command.getSettings()));
+            }
+        });
+
+        if (cachedSettings.isPresent() && controller.getFirmwareSettings() instanceof GrblFirmwareSettings firmwareSettings) {
+            // Use the last known settings while the settings and parser state are being fetched
+            LOGGER.info("Using cached settings for " + version);
+            cachedSettings.get().forEach(firmwareSettings::updateFirmwareSetting);
+            return;
+        }
+
+        waitForCompletion(settingsFuture);
+        waitForCompletion(parserStateFuture);
+    }
+
+    private <T extends GcodeCommand> CompletableFuture<T> send(T command) throws Exception {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        command.addListener(c -> future.complete(command));
+        controller.sendCommandImmediately(command);
+        return future;
+    }
+
+    private <T extends GcodeCommand> T waitForCompletion(CompletableFuture<T> future) throws InterruptedException, ExecutionException, TimeoutException {
+        try {
+            return future.get(QUERY_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new TimeoutException("The controller did not respond within " + QUERY_TIMEOUT + "ms");
+        }
+    }
+
+    private static String getBuildInfo(GetBuildInfoCommand command) {
+        return Arrays.stream(StringUtils.split(command.getResponse(), "\n"))
+                .filter(line -> !StringUtils.equals(line, "ok"))
+                .collect(Collectors.joining("\n"));
     }
 
     @Override
@@ -110,6 +232,7 @@ public class GrblControllerInitializer implements IControllerInitializer {
         isInitializing.set(false);
         isInitialized.set(false);
         version = GrblVersion.NO_VERSION;
+        readyLatch = new CountDownLatch(1);
     }
 
     @Override
@@ -128,4 +251,13 @@ public class GrblControllerInitializer implements IControllerInitializer {
     public GrblBuildOptions getOptions() {
         return options;
     }
+
+    /**
+     * Returns the time it took for the last successful initialization
+     *
+     * @return the connect time in milliseconds or -1 if not yet connected
+     */
+    public long getConnectTime() {
+        return connectTime;
+    }
 }
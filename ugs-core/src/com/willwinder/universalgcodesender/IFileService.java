@@ -18,9 +18,12 @@
  */
 package com.willwinder.universalgcodesender;
 
+import com.willwinder.universalgcodesender.connection.xmodem.TransferProgressListener;
 import com.willwinder.universalgcodesender.model.File;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -45,6 +48,31 @@ public interface IFileService {
      */
     void uploadFile(String filename, byte[] data) throws IOException;
 
+    /**
+     * Downloads a file from the controller and writes it to the given output stream
+     *
+     * @param file         the file to download
+     * @param outputStream the stream to write the file to
+     * @param listener     a listener for getting progress of the transfer
+     * @throws IOException on any communication error
+     */
+    default void downloadFile(File file, OutputStream outputStream, TransferProgressListener listener) throws IOException {
+        outputStream.write(downloadFile(file));
+    }
+
+    /**
+     * Upload a file to the controller with the given filename reading the data from the input stream
+     *
+     * @param filename    the file name including its path to upload
+     * @param inputStream the stream to read the file data from
+     * @param length      the number of bytes to upload
+     * @param listener    a listener for getting progress of the transfer
+     * @throws IOException on any communication error
+     */
+    default void uploadFile(String filename, InputStream inputStream, long length, TransferProgressListener listener) throws IOException {
+        uploadFile(filename, inputStream.readAllBytes());
+    }
+
     /**
      * Deletes a file or directory
      *
@@ -41,6 +41,8 @@ import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.utils.ControllerUtils;
 import com.willwinder.universalgcodesender.firmware.DefaultOverrideManager;
 import com.willwinder.universalgcodesender.firmware.IOverrideManager;
+import com.willwinder.universalgcodesender.firmware.ResponseClassifier;
+import com.willwinder.universalgcodesender.firmware.ResponseType;
 
 import java.util.List;
 import java.util.logging.Level;
@@ -181,8 +183,17 @@ public class TinyGController extends AbstractController {
 
     @Override
     protected void rawResponseHandler(String response) {
-        JsonObject jo;
+        // Only JSON responses are parsed, this avoids the cost of a failed JSON parse for plain text responses
+        ResponseType responseType = ResponseClassifier.classify(response);
+        switch (responseType) {
+            case JSON -> handleJsonResponse(response);
+            case ERROR, ALARM -> this.dispatchConsoleMessage(MessageType.ERROR, response + "\n");
+            default -> this.dispatchConsoleMessage(MessageType.VERBOSE, response + "\n");
+        }
+    }
 
+    private void handleJsonResponse(String response) {
+        JsonObject jo;
         try {
             jo = TinyGUtils.jsonToObject(response);
         } catch (Exception ignored) {
@@ -24,9 +24,12 @@ import com.willwinder.universalgcodesender.connection.Connection;
 import com.willwinder.universalgcodesender.connection.ConnectionDriver;
 import com.willwinder.universalgcodesender.connection.ConnectionFactory;
 import com.willwinder.universalgcodesender.connection.IConnectionListener;
+import com.willwinder.universalgcodesender.connection.xmodem.TransferProgressListener;
 import com.willwinder.universalgcodesender.i18n.Localization;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.logging.Logger;
 
 /**
@@ -126,6 +129,16 @@ public abstract class AbstractCommunicator implements ICommunicator, IConnection
         connection.xmodemSend(data);
     }
 
+    @Override
+    public void xmodemReceive(OutputStream outputStream, TransferProgressListener listener) throws IOException {
+        connection.xmodemReceive(outputStream, listener);
+    }
+
+    @Override
+    public void xmodemSend(InputStream inputStream, long length, TransferProgressListener listener) throws IOException {
+        connection.xmodemSend(inputStream, length, listener);
+    }
+
     @Override
     public void onConnectionClosed() {
         eventDispatcher.onConnectionClosed();
@@ -20,10 +20,13 @@ package com.willwinder.universalgcodesender.communicator;
 
 import com.willwinder.universalgcodesender.connection.Connection;
 import com.willwinder.universalgcodesender.connection.ConnectionDriver;
+import com.willwinder.universalgcodesender.connection.xmodem.TransferProgressListener;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 /**
  * An interface for describing a communicator, responsible for handling gcode command
@@ -202,4 +205,26 @@ public interface ICommunicator {
      * @throws IOException if there is a protocol error or a timeout occurs.
      */
     void xmodemSend(byte[] data) throws IOException;
+
+    /**
+     * Enters a mode for receiving files using the xmodem protocol and writes the data to the output stream
+     * as it is received. This mode will block until the file stream has been received or until the protocol
+     * times out or an error occurs.
+     *
+     * @param outputStream the stream to write the received file to
+     * @param listener     a listener for getting progress of the transfer
+     * @throws IOException if there is a protocol error or a timeout occurs.
+     */
+    void xmodemReceive(OutputStream outputStream, TransferProgressListener listener) throws IOException;
+
+    /**
+     * Enters a mode for sending files using the xmodem protocol reading the data from the input stream.
+     * This mode will block until the file stream has been sent or until the protocol times out or an error occurs.
+     *
+     * @param inputStream the stream with the data to send
+     * @param length      the number of bytes to send, only used for progress reporting
+     * @param listener    a listener for getting progress of the transfer
+     * @throws IOException if there is a protocol error or a timeout occurs.
+     */
+    void xmodemSend(InputStream inputStream, long length, TransferProgressListener listener) throws IOException;
 }
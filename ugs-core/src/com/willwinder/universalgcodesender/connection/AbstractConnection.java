@@ -18,9 +18,14 @@
  */
 package com.willwinder.universalgcodesender.connection;
 
+import com.willwinder.universalgcodesender.connection.xmodem.TransferProgressListener;
 import com.willwinder.universalgcodesender.connection.xmodem.XModemConnectionListenerHandler;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Arrays;
 
 /**
@@ -40,13 +45,18 @@ public abstract class AbstractConnection implements Connection {
 
     @Override
     public byte[] xmodemReceive() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        xmodemReceive(outputStream, TransferProgressListener.NONE);
+        return outputStream.toByteArray();
+    }
+
+    @Override
+    public void xmodemReceive(OutputStream outputStream, TransferProgressListener listener) throws IOException {
         // Switch to a special XModem response handler
         XModemConnectionListenerHandler reader = new XModemConnectionListenerHandler(this, connectionListenerManager);
         try {
             connectionListenerManager = reader;
-            byte[] result = reader.xmodemReceive();
-
-            return trimEOF(result);
+            reader.xmodemReceive(outputStream, listener);
         } finally {
             // Restore the old response message handler
             connectionListenerManager = reader.unwrap();
@@ -65,11 +75,16 @@ public abstract class AbstractConnection implements Connection {
 
     @Override
     public void xmodemSend(byte[] data) throws IOException {
+        xmodemSend(new ByteArrayInputStream(data), data.length, TransferProgressListener.NONE);
+    }
+
+    @Override
+    public void xmodemSend(InputStream inputStream, long length, TransferProgressListener listener) throws IOException {
         // Switch to a special XModem response handler
         XModemConnectionListenerHandler reader = new XModemConnectionListenerHandler(this, connectionListenerManager);
         try {
             connectionListenerManager = reader;
-            reader.xmodemSend(data);
+            reader.xmodemSend(inputStream, length, listener);
         } finally {
             // Restore the old response message handler
             connectionListenerManager = reader.unwrap();
@@ -19,7 +19,11 @@
 
 package com.willwinder.universalgcodesender.connection;
 
+import com.willwinder.universalgcodesender.connection.xmodem.TransferProgressListener;
+
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -74,6 +78,20 @@ public interface Connection {
      */
     void sendByteImmediately(byte b) throws Exception;
 
+    /**
+     * Immediately sends the given bytes. Connections should override this to write all
+     * bytes at once instead of one byte at the time.
+     *
+     * @param bytes  the buffer with bytes to send
+     * @param offset the start offset in the buffer
+     * @param length the number of bytes to send
+     */
+    default void sendBytesImmediately(byte[] bytes, int offset, int length) throws Exception {
+        for (int i = offset; i < offset + length; i++) {
+            sendByteImmediately(bytes[i]);
+        }
+    }
+
     /**
      * Sends a command to the serial device. This actually streams the bits to
      * the comm port.
@@ -113,4 +131,27 @@ public interface Connection {
      * @throws IOException if there is a protocol error or a timeout occurs.
      */
     void xmodemSend(byte[] data) throws IOException;
+
+    /**
+     * Enters a mode for receiving using the xmodem protocol and writes the file stream to the given output stream
+     * as the blocks are received. This mode will block until the file stream has been received or until the
+     * protocol times out or an error occurs.
+     *
+     * @param outputStream the stream to write the received file to
+     * @param listener     a listener for getting progress of the transfer
+     * @throws IOException if there is a protocol error or a timeout occurs.
+     */
+    void xmodemReceive(OutputStream outputStream, TransferProgressListener listener) throws IOException;
+
+    /**
+     * Enters a mode for sending file data using the xmodem protocol, reading the data from the input stream
+     * one block at the time. This mode will block until the file stream has been sent or until the protocol
+     * times out or an error occurs.
+     *
+     * @param inputStream the stream with the file data to send
+     * @param length      the number of bytes to send, only used for progress reporting
+     * @param listener    a listener for getting progress of the transfer
+     * @throws IOException if there is a protocol error or a timeout occurs.
+     */
+    void xmodemSend(InputStream inputStream, long length, TransferProgressListener listener) throws IOException;
 }
@@ -110,6 +110,11 @@ public class JSerialCommConnection extends AbstractConnection implements SerialP
         serialPort.writeBytes(new byte[]{b}, 1);
     }
 
+    @Override
+    public void sendBytesImmediately(byte[] bytes, int offset, int length) throws Exception {
+        serialPort.writeBytes(bytes, length, offset);
+    }
+
     @Override
     public void sendStringToComm(String command) throws Exception {
         serialPort.writeBytes(command.getBytes(), command.length());
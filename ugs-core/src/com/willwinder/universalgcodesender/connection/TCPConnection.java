@@ -144,6 +144,18 @@ public class TCPConnection extends AbstractConnection implements Runnable, Conne
         }
     }
 
+    @Override
+    public void sendBytesImmediately(byte[] bytes, int offset, int length) throws Exception {
+        try {
+            bufOut.write(bytes, offset, length);
+            bufOut.flush();
+        } catch (IOException e) {
+            // very likely we got disconnected, attempt to disconnect gracefully
+            connectionListenerManager.onConnectionClosed();
+            throw e;
+        }
+    }
+
     /**
      * Thread to accept data from remote host, and pass it to responseHandler
      */
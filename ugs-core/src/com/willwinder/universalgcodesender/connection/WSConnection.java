@@ -103,6 +103,11 @@ public class WSConnection  extends AbstractConnection implements Connection  {
         sendStream.flush();
     }
 
+    @Override
+    public void sendBytesImmediately(byte[] bytes, int offset, int length) throws Exception {
+        this.userSession.getBasicRemote().sendBinary(ByteBuffer.wrap(bytes, offset, length), true);
+    }
+
     @Override
     public void sendStringToComm(String command) throws Exception {
         this.userSession.getBasicRemote().sendBinary(ByteBuffer.wrap(command.getBytes(StandardCharsets.UTF_8)), true);
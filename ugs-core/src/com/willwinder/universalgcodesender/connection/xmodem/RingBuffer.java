@@ -17,6 +17,11 @@ package com.willwinder.universalgcodesender.connection.xmodem;
 import java.io.InputStream;
 import java.nio.BufferOverflowException;
 
+/**
+ * A fixed size byte buffer that can be written to by the connection thread and read
+ * by another thread. Readers can block until enough data is available using
+ * {@link #awaitAvailable(int, long)}.
+ */
 public class RingBuffer extends InputStream {
 
     private static final int DEFAULT_CAPACITY = 8;
@@ -33,17 +38,42 @@ public class RingBuffer extends InputStream {
         this.writeSequence = -1;
     }
 
-    public int read() {
+    public synchronized int read() {
         if (!isEmpty()) {
             byte nextValue = data[readSequence % capacity];
             readSequence++;
-            return nextValue;
+            return nextValue & 0xFF;
         }
 
         return -1;
     }
 
-    public void write(byte element) {
+    @Override
+    public synchronized int read(byte[] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+
+        int count = Math.min(length, available());
+        if (count == 0) {
+            return -1;
+        }
+
+        for (int i = 0; i < count; i++) {
+            buffer[offset + i] = data[readSequence % capacity];
+            readSequence++;
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized long skip(long length) {
+        int count = (int) Math.max(0, Math.min(length, available()));
+        readSequence += count;
+        return count;
+    }
+
+    public synchronized void write(byte element) {
         if (isFull()) {
             throw new BufferOverflowException();
         }
@@ -51,9 +81,10 @@ public class RingBuffer extends InputStream {
         int nextWriteSeq = writeSequence + 1;
         data[nextWriteSeq % capacity] = element;
         writeSequence++;
+        notifyAll();
     }
 
-    public void write(byte[] buffer, int offset, int length) {
+    public synchronized void write(byte[] buffer, int offset, int length) {
         for (int i = 0; i < length; i++) {
             write(buffer[offset + i]);
         }
@@ -63,20 +94,40 @@ public class RingBuffer extends InputStream {
         write(buffer, 0, buffer.length);
     }
 
+    /**
+     * Blocks until the given number of bytes are available for reading or until the timeout expires.
+     *
+     * @param count         the number of bytes to wait for
+     * @param timeoutMillis the maximum time to wait in milliseconds
+     * @return true if the bytes are available, false if the timeout expired
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public synchronized boolean awaitAvailable(int count, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (available() < count) {
+            long timeLeft = deadline - System.currentTimeMillis();
+            if (timeLeft <= 0) {
+                return false;
+            }
+            wait(timeLeft);
+        }
+        return true;
+    }
+
     public int capacity() {
         return capacity;
     }
 
     @Override
-    public int available() {
+    public synchronized int available() {
         return (writeSequence - readSequence) + 1;
     }
 
-    public boolean isEmpty() {
+    public synchronized boolean isEmpty() {
         return writeSequence < readSequence;
     }
 
-    public boolean isFull() {
+    public synchronized boolean isFull() {
         return available() >= capacity;
     }
 }
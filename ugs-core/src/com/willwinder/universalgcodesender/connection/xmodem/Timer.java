@@ -29,6 +29,10 @@ class Timer {
         return (System.currentTimeMillis() > startTime + timeout);
     }
 
+    public long getTimeLeft() {
+        return (startTime + timeout) - System.currentTimeMillis();
+    }
+
     public long getStartTime() {
         return this.startTime;
     }
@@ -0,0 +1,54 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection.xmodem;
+
+/**
+ * The progress of a file transfer
+ *
+ * @param bytesTransferred the number of bytes that has been transferred so far
+ * @param totalBytes       the total number of bytes to transfer or -1 if unknown
+ * @param elapsedMillis    the time in milliseconds since the transfer started
+ * @author Joacim Breiler
+ */
+public record TransferProgress(long bytesTransferred, long totalBytes, long elapsedMillis) {
+
+    /**
+     * Returns the average throughput of the transfer
+     *
+     * @return the average number of bytes per second
+     */
+    public double getBytesPerSecond() {
+        if (elapsedMillis <= 0) {
+            return 0;
+        }
+        return (bytesTransferred * 1000d) / elapsedMillis;
+    }
+
+    /**
+     * Returns the progress of the transfer
+     *
+     * @return the progress in percent (0-100) or -1 if the total size is unknown
+     */
+    public double getPercent() {
+        if (totalBytes <= 0) {
+            return -1;
+        }
+        return Math.min(100d, (bytesTransferred * 100d) / totalBytes);
+    }
+}
@@ -0,0 +1,31 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection.xmodem;
+
+/**
+ * A listener that will be notified for every transferred block of a file transfer
+ *
+ * @author Joacim Breiler
+ */
+public interface TransferProgressListener {
+    TransferProgressListener NONE = progress -> {
+    };
+
+    void onProgress(TransferProgress progress);
+}
@@ -0,0 +1,74 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection.xmodem;
+
+import static com.willwinder.universalgcodesender.connection.xmodem.XModemUtils.EOF;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream that will remove any trailing EOF bytes that the XModem protocol uses
+ * for padding the last block. EOF bytes are held back until a non EOF byte is written,
+ * any EOF bytes left when the stream is closed will be discarded.
+ *
+ * @author Joacim Breiler
+ */
+public class TrimEOFOutputStream extends FilterOutputStream {
+    private long pendingEOFCount;
+
+    public TrimEOFOutputStream(OutputStream outputStream) {
+        super(outputStream);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if ((b & 0xFF) == EOF) {
+            pendingEOFCount++;
+            return;
+        }
+
+        writePendingEOF();
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int length) throws IOException {
+        // Find the last byte that isn't an EOF
+        int end = offset + length;
+        int lastData = end - 1;
+        while (lastData >= offset && buffer[lastData] == EOF) {
+            lastData--;
+        }
+
+        if (lastData >= offset) {
+            writePendingEOF();
+            out.write(buffer, offset, lastData - offset + 1);
+        }
+        pendingEOFCount += end - lastData - 1;
+    }
+
+    private void writePendingEOF() throws IOException {
+        while (pendingEOFCount > 0) {
+            out.write(EOF);
+            pendingEOFCount--;
+        }
+    }
+}
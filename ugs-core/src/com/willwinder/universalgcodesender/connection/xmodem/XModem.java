@@ -3,11 +3,12 @@ package com.willwinder.universalgcodesender.connection.xmodem;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 
 
 /**
  * This is core Modem class supporting XModem (and some extensions XModem-1K, XModem-CRC), and YModem.<br/>
- * YModem support is limited (currently block 0 is ignored).<br/>
+ * YModem support is limited to single file batches.<br/>
  * <br/>
  * Created by Anton Sirotinkin (aesirot@mail.ru), Moscow 2014 <br/>
  * I hope you will find this program useful.<br/>
@@ -30,28 +31,38 @@ class XModem {
 
     protected static final int MAX_ERRORS = 10;
 
+    /**
+     * The number of times the receiver will request a CRC-16 transmission before falling back to the 8-bit checksum
+     */
+    protected static final int MAX_CRC_REQUESTS = 3;
+
+    protected static final int SHORT_BLOCK_SIZE = 128;
+    protected static final int LONG_BLOCK_SIZE = 1024;
+
     protected static final int BLOCK_TIMEOUT = 3000;
     protected static final int REQUEST_TIMEOUT = 3000;
     protected static final int WAIT_FOR_RECEIVER_TIMEOUT = 60_000;
     protected static final int SEND_BLOCK_TIMEOUT = 10_000;
 
-    private final InputStream inputStream;
+    private final RingBuffer inputStream;
     private final OutputStream outputStream;
 
     private final byte[] shortBlockBuffer;
     private final byte[] longBlockBuffer;
+    private final byte[] frameBuffer;
 
     /**
      * Constructor
      *
-     * @param inputStream  stream for reading received data from other side
+     * @param inputStream  buffer for reading received data from other side
      * @param outputStream stream for writing data to other side
      */
-    public XModem(InputStream inputStream, OutputStream outputStream) {
+    public XModem(RingBuffer inputStream, OutputStream outputStream) {
         this.inputStream = inputStream;
         this.outputStream = outputStream;
-        shortBlockBuffer = new byte[128];
-        longBlockBuffer = new byte[1024];
+        shortBlockBuffer = new byte[SHORT_BLOCK_SIZE];
+        longBlockBuffer = new byte[LONG_BLOCK_SIZE];
+        frameBuffer = new byte[3 + LONG_BLOCK_SIZE + 2];
     }
 
 
@@ -89,29 +100,81 @@ class XModem {
      * @throws java.io.IOException if the transmission failed
      */
     public void send(InputStream inputStream, boolean useBlock1K) throws IOException {
+        send(inputStream, -1, useBlock1K, TransferProgressListener.NONE);
+    }
+
+    /**
+     * Send data as an input stream, the stream will be read one block at the time.
+     *
+     * @param inputStream the data to send
+     * @param length      the total number of bytes to send or -1 if unknown, only used for progress reporting
+     * @param useBlock1K  uses a 1K send block (XModem-1K)
+     * @param listener    a listener that will be notified for each sent block
+     * @throws java.io.IOException if the transmission failed
+     */
+    public void send(InputStream inputStream, long length, boolean useBlock1K, TransferProgressListener listener) throws IOException {
         Timer timer = new Timer(WAIT_FOR_RECEIVER_TIMEOUT).start();
+        CRC crc = createCRC(waitReceiverRequest(timer));
 
-        boolean useCRC16 = waitReceiverRequest(timer);
-        CRC crc;
-        if (useCRC16)
-            crc = new CRC16();
-        else
-            crc = new CRC8();
+        sendDataBlocks(inputStream, 1, crc, useBlock1K ? longBlockBuffer : shortBlockBuffer, new TransferProgressTracker(length, listener));
 
-        byte[] block;
-        if (useBlock1K)
-            block = new byte[1024];
-        else
-            block = new byte[128];
-        sendDataBlocks(inputStream, 1, crc, block);
+        sendEOT();
+    }
 
+    /**
+     * Sends a single file using the YModem batch protocol. The file name and length will be sent in the
+     * header block which lets the receiver truncate the padding of the last block.
+     *
+     * @param fileName    the name of the file
+     * @param length      the length of the file in bytes
+     * @param inputStream the data to send
+     * @param listener    a listener that will be notified for each sent block
+     * @throws java.io.IOException if the transmission failed
+     */
+    public void sendYModem(String fileName, long length, InputStream inputStream, TransferProgressListener listener) throws IOException {
+        Timer timer = new Timer(WAIT_FOR_RECEIVER_TIMEOUT).start();
+        CRC crc = createCRC(waitReceiverRequest(timer));
+
+        // Block 0 with the file header
+        byte[] header = createYModemHeader(fileName, length);
+        sendBlock(0, header, header.length, crc);
+
+        // The receiver will request the data with a new start character
+        waitReceiverRequest(timer.start());
+        sendDataBlocks(inputStream, 1, crc, longBlockBuffer, new TransferProgressTracker(length, listener));
         sendEOT();
+
+        // End the batch with an empty header block
+        waitReceiverRequest(timer.start());
+        byte[] emptyHeader = new byte[SHORT_BLOCK_SIZE];
+        sendBlock(0, emptyHeader, emptyHeader.length, crc);
     }
 
-    protected void sendDataBlocks(InputStream dataStream, int blockNumber, CRC crc, byte[] block) throws IOException {
+    private static byte[] createYModemHeader(String fileName, long length) {
+        byte[] header = new byte[SHORT_BLOCK_SIZE];
+        byte[] name = fileName.getBytes(StandardCharsets.US_ASCII);
+        byte[] size = Long.toString(length).getBytes(StandardCharsets.US_ASCII);
+        if (name.length + size.length + 2 > header.length) {
+            throw new IllegalArgumentException("The file name is too long: " + fileName);
+        }
+
+        System.arraycopy(name, 0, header, 0, name.length);
+        System.arraycopy(size, 0, header, name.length + 1, size.length);
+        return header;
+    }
+
+    protected void sendDataBlocks(InputStream dataStream, int blockNumber, CRC crc, byte[] block, TransferProgressTracker progress) throws IOException {
         int dataLength;
-        while ((dataLength = dataStream.read(block)) != -1) {
-            sendBlock(blockNumber++, block, dataLength, crc);
+        while ((dataLength = dataStream.readNBytes(block, 0, block.length)) > 0) {
+            // Use a short block if the remaining data fits to reduce the padding
+            byte[] sendBlock = block;
+            if (block.length == LONG_BLOCK_SIZE && dataLength <= SHORT_BLOCK_SIZE) {
+                System.arraycopy(block, 0, shortBlockBuffer, 0, dataLength);
+                sendBlock = shortBlockBuffer;
+            }
+
+            sendBlock(blockNumber++, sendBlock, dataLength, crc);
+            progress.addBytes(dataLength);
         }
     }
 
@@ -146,21 +209,19 @@ class XModem {
                 block[i] = CPM_EOF;
             }
         }
-        errorCount = 0;
 
+        // Assemble the whole block so that it can be written in one go
+        frameBuffer[0] = block.length == LONG_BLOCK_SIZE ? STX : SOH;
+        frameBuffer[1] = (byte) blockNumber;
+        frameBuffer[2] = (byte) ~blockNumber;
+        System.arraycopy(block, 0, frameBuffer, 3, block.length);
+        int frameLength = 3 + block.length + writeCRC(block, crc, frameBuffer, 3 + block.length);
+
+        errorCount = 0;
         while (errorCount < MAX_ERRORS) {
             timer.start();
 
-            if (block.length == 1024) {
-                outputStream.write(STX);
-            } else { //128
-                outputStream.write(SOH);
-            }
-            outputStream.write(blockNumber);
-            outputStream.write(~blockNumber);
-
-            outputStream.write(block);
-            writeCRC(block, crc);
+            outputStream.write(frameBuffer, 0, frameLength);
             outputStream.flush();
 
             while (true) {
@@ -185,13 +246,12 @@ class XModem {
         throw new IOException("Too many errors caught, abandoning transfer");
     }
 
-    private void writeCRC(byte[] block, CRC crc) throws IOException {
-        byte[] crcBytes = new byte[crc.getCRCLength()];
+    private static int writeCRC(byte[] block, CRC crc, byte[] buffer, int offset) {
         long crcValue = crc.calcCRC(block);
         for (int i = 0; i < crc.getCRCLength(); i++) {
-            crcBytes[crc.getCRCLength() - i - 1] = (byte) ((crcValue >> (8 * i)) & 0xFF);
+            buffer[offset + crc.getCRCLength() - i - 1] = (byte) ((crcValue >> (8 * i)) & 0xFF);
         }
-        outputStream.write(crcBytes);
+        return crc.getCRCLength();
     }
 
     /**
@@ -204,31 +264,114 @@ class XModem {
      * @throws java.io.IOException if the transmission failed
      */
     public void receive(OutputStream outputStream, boolean useCRC16) throws IOException {
-        int available;
-        // clean input stream
-        if ((available = inputStream.available()) > 0) {
-            inputStream.skip(available);
+        receive(outputStream, useCRC16, TransferProgressListener.NONE);
+    }
+
+    /**
+     * Receives data and writes each block to the given output stream as soon as it has been received.
+     * If CRC-16 is requested but the sender doesn't respond it will fall back to using the 8-bit checksum.
+     *
+     * @param outputStream the stream to receive the data into
+     * @param useCRC16     if the receiver should request a CRC-16 transmission
+     * @param listener     a listener that will be notified for each received block
+     * @throws java.io.IOException if the transmission failed
+     */
+    public void receive(OutputStream outputStream, boolean useCRC16, TransferProgressListener listener) throws IOException {
+        clearInputStream();
+
+        TransmissionStart start = requestTransmissionStart(useCRC16);
+        processDataBlocks(start.crc(), start.character(), outputStream, -1, new TransferProgressTracker(-1, listener));
+    }
+
+    /**
+     * Receives a single file using the YModem batch protocol. Only the number of bytes given in the
+     * header block will be written to the output stream.
+     *
+     * @param outputStream the stream to receive the data into
+     * @param listener     a listener that will be notified for each received block
+     * @return the name of the received file
+     * @throws java.io.IOException if the transmission failed
+     */
+    public String receiveYModem(OutputStream outputStream, TransferProgressListener listener) throws IOException {
+        clearInputStream();
+
+        TransmissionStart start = requestTransmissionStart(true);
+        byte[] header = readHeaderBlock(start);
+        String[] fileInfo = parseYModemHeader(header);
+        long length = fileInfo.length > 1 ? Long.parseLong(fileInfo[1]) : -1;
+
+        // Request the data blocks
+        sendByte(ST_C);
+        int character = readNextBlockStart(true);
+        processDataBlocks(start.crc(), character, outputStream, length, new TransferProgressTracker(length, listener));
+
+        // Receive the empty header block ending the batch
+        sendByte(ST_C);
+        readHeaderBlock(new TransmissionStart(readNextBlockStart(true), start.crc()));
+        return fileInfo[0];
+    }
+
+    private byte[] readHeaderBlock(TransmissionStart start) throws IOException {
+        int errorCount = 0;
+        int character = start.character();
+        while (true) {
+            try {
+                byte[] header = readBlock(0, character == SOH, start.crc());
+                sendByte(ACK);
+                return header;
+            } catch (TimeoutException | InvalidBlockException | RepeatedBlockException e) {
+                if (++errorCount == MAX_ERRORS) {
+                    interruptTransmission();
+                    throw new IOException("Transmission aborted, error count exceeded max");
+                }
+                sendByte(NAK);
+                character = readNextBlockStart(false);
+            } catch (SynchronizationLostException e) {
+                interruptTransmission();
+                throw new IOException("Fatal transmission error", e);
+            }
         }
+    }
 
-        int character = requestTransmissionStart(useCRC16);
+    private static String[] parseYModemHeader(byte[] header) {
+        int nameEnd = indexOf(header, 0, (byte) 0);
+        String fileName = new String(header, 0, nameEnd, StandardCharsets.US_ASCII);
+        if (nameEnd + 1 >= header.length || header[nameEnd + 1] == 0) {
+            return new String[]{fileName};
+        }
+
+        int sizeEnd = nameEnd + 1;
+        while (sizeEnd < header.length && header[sizeEnd] >= '0' && header[sizeEnd] <= '9') {
+            sizeEnd++;
+        }
+        return new String[]{fileName, new String(header, nameEnd + 1, sizeEnd - nameEnd - 1, StandardCharsets.US_ASCII)};
+    }
 
-        CRC crc;
-        if (useCRC16)
-            crc = new CRC16();
-        else
-            crc = new CRC8();
+    private static int indexOf(byte[] buffer, int start, byte value) {
+        for (int i = start; i < buffer.length; i++) {
+            if (buffer[i] == value) {
+                return i;
+            }
+        }
+        return buffer.length;
+    }
 
-        processDataBlocks(crc, character, outputStream);
+    private void clearInputStream() {
+        int available;
+        if ((available = inputStream.available()) > 0) {
+            inputStream.skip(available);
+        }
     }
 
-    protected void processDataBlocks(CRC crc, int blockInitialCharacter, OutputStream dataOutput) throws IOException {
+    protected void processDataBlocks(CRC crc, int blockInitialCharacter, OutputStream dataOutput, long length, TransferProgressTracker progress) throws IOException {
         // read blocks until EOT
         boolean result = false;
         boolean shortBlock;
         int blockNumber = 1;
+        int errorCount = 0;
+        long remaining = length;
         byte[] block;
         while (true) {
-            int errorCount = 0;
             if (blockInitialCharacter == EOT) {
                 // end of transmission
                 sendByte(ACK);
@@ -239,7 +382,13 @@ class XModem {
             shortBlock = (blockInitialCharacter == SOH);
             try {
                 block = readBlock(blockNumber, shortBlock, crc);
-                dataOutput.write(block);
+                int dataLength = block.length;
+                if (length >= 0) {
+                    dataLength = (int) Math.max(0, Math.min(dataLength, remaining));
+                    remaining -= dataLength;
+                }
+                dataOutput.write(block, 0, dataLength);
+                progress.addBytes(dataLength);
                 blockNumber++;
                 errorCount = 0;
                 result = true;
@@ -275,31 +424,26 @@ class XModem {
      * Request transmission start and return first byte of "first" block from sender (block 1 for XModem, block 0 for YModem)
      *
      * @param useCRC16
-     * @return
+     * @return the first character and the checksum to use for the transmission
      * @throws java.io.IOException
      */
-    protected int requestTransmissionStart(boolean useCRC16) throws IOException {
+    protected TransmissionStart requestTransmissionStart(boolean useCRC16) throws IOException {
         int character;
         int errorCount = 0;
-        byte requestStartByte;
-        if (!useCRC16) {
-            requestStartByte = NAK;
-        } else {
-            requestStartByte = ST_C;
-        }
 
         // wait for first block start
         Timer timer = new Timer(REQUEST_TIMEOUT);
         while (errorCount < MAX_ERRORS) {
-            // request transmission start (will be repeated after 10 second timeout for 10 times)
-            sendByte(requestStartByte);
+            // request transmission start (will be repeated after timeout for 10 times)
+            boolean requestCRC16 = useCRC16 && errorCount < MAX_CRC_REQUESTS;
+            sendByte(requestCRC16 ? ST_C : NAK);
             timer.start();
             try {
                 while (true) {
                     character = readByte(timer);
 
                     if (character == SOH || character == STX) {
-                        return character;
+                        return new TransmissionStart(character, createCRC(requestCRC16));
                     }
                 }
             } catch (TimeoutException ignored) {
@@ -307,7 +451,7 @@ class XModem {
             }
         }
         interruptTransmission();
-        throw new RuntimeException("Timeout, no data received from transmitter");
+        throw new IOException("Timeout, no data received from transmitter");
     }
 
     protected int readNextBlockStart(boolean lastBlockResult) throws IOException {
@@ -330,21 +474,27 @@ class XModem {
                     sendByte(lastBlockResult ? ACK : NAK);
                 } else {
                     interruptTransmission();
-                    throw new RuntimeException("Timeout, no data received from transmitter");
+                    throw new IOException("Timeout, no data received from transmitter");
                 }
             }
         }
     }
 
-    private void shortSleep() {
+    /**
+     * Waits until the given number of bytes are available in the input stream.
+     *
+     * @return true if the bytes are available, false if the timer expired
+     */
+    private boolean awaitAvailable(int count, Timer timer) throws IOException {
         try {
-            Thread.sleep(10);
+            return inputStream.awaitAvailable(count, Math.max(0, timer.getTimeLeft()));
         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             try {
                 interruptTransmission();
             } catch (IOException ignore) {
             }
-            throw new RuntimeException("Transmission was interrupted", e);
+            throw new IOException("Transmission was interrupted", e);
         }
     }
 
@@ -367,48 +517,48 @@ class XModem {
         } else {
             block = longBlockBuffer;
         }
-        byte character;
+        int character;
 
-        character = readByte(timer);
+        character = readByte(timer) & 0xFF;
 
-        if (character == blockNumber - 1) {
+        if (character == ((blockNumber - 1) & 0xFF)) {
             // this is repeating of last block, possible ACK lost
+            // consume the rest of the block before acknowledging it
+            skipBlock(block.length + 1 + crc.getCRCLength(), timer);
             throw new RepeatedBlockException();
         }
-        if (character != blockNumber) {
+        if (character != (blockNumber & 0xFF)) {
             // wrong block - fatal loss of synchronization
             throw new SynchronizationLostException();
         }
 
-        character = readByte(timer);
+        character = readByte(timer) & 0xFF;
 
-        if (character != ~blockNumber) {
+        if (character != (~blockNumber & 0xFF)) {
             throw new InvalidBlockException();
         }
 
-        // data
-        for (int i = 0; i < block.length; i++) {
-            block[i] = readByte(timer);
+        // data and checksum
+        if (!awaitAvailable(block.length + crc.getCRCLength(), timer)) {
+            throw new TimeoutException();
         }
+        inputStream.read(block, 0, block.length);
 
-        while (true) {
-            if (inputStream.available() >= crc.getCRCLength()) {
-                if (crc.calcCRC(block) != readCRC(crc)) {
-                    throw new InvalidBlockException();
-                }
-                break;
-            }
-
-            shortSleep();
-
-            if (timer.isExpired()) {
-                throw new TimeoutException();
-            }
+        long mask = (1L << (8 * crc.getCRCLength())) - 1;
+        if ((crc.calcCRC(block) & mask) != readCRC(crc)) {
+            throw new InvalidBlockException();
         }
 
         return block;
     }
 
+    private void skipBlock(int length, Timer timer) throws IOException, TimeoutException {
+        if (!awaitAvailable(length, timer)) {
+            throw new TimeoutException();
+        }
+        inputStream.skip(length);
+    }
+
     private long readCRC(CRC crc) throws IOException {
         long checkSum = 0;
         for (int j = 0; j < crc.getCRCLength(); j++) {
@@ -418,15 +568,40 @@ class XModem {
     }
 
     private byte readByte(Timer timer) throws IOException, TimeoutException {
-        while (true) {
-            if (inputStream.available() > 0) {
-                int b = inputStream.read();
-                return (byte) b;
-            }
-            if (timer.isExpired()) {
-                throw new TimeoutException();
-            }
-            shortSleep();
+        if (!awaitAvailable(1, timer)) {
+            throw new TimeoutException();
+        }
+        return (byte) inputStream.read();
+    }
+
+    private static CRC createCRC(boolean useCRC16) {
+        if (useCRC16) {
+            return new CRC16();
+        }
+        return new CRC8();
+    }
+
+    protected record TransmissionStart(int character, CRC crc) {
+    }
+
+    /**
+     * Keeps track of the number of transferred bytes and notifies the listener
+     */
+    protected static class TransferProgressTracker {
+        private final long totalBytes;
+        private final TransferProgressListener listener;
+        private final long startTime;
+        private long bytesTransferred;
+
+        TransferProgressTracker(long totalBytes, TransferProgressListener listener) {
+            this.totalBytes = totalBytes;
+            this.listener = listener;
+            this.startTime = System.currentTimeMillis();
+        }
+
+        void addBytes(long bytes) {
+            bytesTransferred += bytes;
+            listener.onProgress(new TransferProgress(bytesTransferred, totalBytes, System.currentTimeMillis() - startTime));
         }
     }
 
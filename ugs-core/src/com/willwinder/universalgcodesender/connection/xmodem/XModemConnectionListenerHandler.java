@@ -21,11 +21,9 @@ package com.willwinder.universalgcodesender.connection.xmodem;
 import com.willwinder.universalgcodesender.connection.Connection;
 import com.willwinder.universalgcodesender.connection.IConnectionListener;
 import com.willwinder.universalgcodesender.connection.IConnectionListenerManager;
-import static com.willwinder.universalgcodesender.connection.xmodem.XModemUtils.trimEOF;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 
 /**
@@ -49,6 +47,15 @@ public class XModemConnectionListenerHandler implements IConnectionListenerManag
                     throw new IOException(e);
                 }
             }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                try {
+                    connection.sendBytesImmediately(bytes, offset, length);
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+            }
         });
     }
 
@@ -72,14 +79,29 @@ public class XModemConnectionListenerHandler implements IConnectionListenerManag
         this.buffer.write(buffer, offset, length);
     }
 
-    public byte[] xmodemReceive() throws IOException {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        modem.receive(outputStream, false);
-        return trimEOF(outputStream.toByteArray());
+    /**
+     * Receives a file and writes it to the output stream block by block. Any trailing EOF padding will be removed.
+     *
+     * @param outputStream the stream to write the received data to
+     * @param listener     a listener for getting progress of the transfer
+     * @throws IOException if there is a protocol error or a timeout occurs.
+     */
+    public void xmodemReceive(OutputStream outputStream, TransferProgressListener listener) throws IOException {
+        TrimEOFOutputStream trimmedOutputStream = new TrimEOFOutputStream(outputStream);
+        modem.receive(trimmedOutputStream, true, listener);
+        trimmedOutputStream.flush();
     }
 
-    public void xmodemSend(byte[] data) throws IOException {
-        modem.send(new ByteArrayInputStream(data), false);
+    /**
+     * Sends the data from the input stream using XModem-1K, the stream is read one block at the time.
+     *
+     * @param inputStream the data to send
+     * @param length      the number of bytes to send, only used for progress reporting
+     * @param listener    a listener for getting progress of the transfer
+     * @throws IOException if there is a protocol error or a timeout occurs.
+     */
+    public void xmodemSend(InputStream inputStream, long length, TransferProgressListener listener) throws IOException {
+        modem.send(inputStream, length, true, listener);
     }
 
     public IConnectionListenerManager unwrap() {
@@ -219,6 +219,23 @@ public interface IFirmwareSettings {
      */
     double getMaximumRate(Axis axis) throws FirmwareSettingsException;
 
+    /**
+     * Returns the acceleration for each axis in mm/sec^2.
+     *
+     * @param axis the axis to fetch the setting for
+     * @return the acceleration in mm/sec^2 or zero if unknown
+     */
+    double getAcceleration(Axis axis) throws FirmwareSettingsException;
+
+    /**
+     * Returns the junction deviation used by the motion planner to limit the speed through corners.
+     *
+     * @return the junction deviation in mm, defaults to the GRBL default if unknown
+     */
+    default double getJunctionDeviation() {
+        return 0.01;
+    }
+
     /**
      * Returns the controller max spindle speed
      *
@@ -18,6 +18,8 @@
  */
 package com.willwinder.universalgcodesender.firmware;
 
+import java.util.List;
+
 /**
  * A listener that will listen to firmware setting changes. Register it using
  * {@link IFirmwareSettings#addListener(IFirmwareSettingsListener)}
@@ -32,4 +34,14 @@ public interface IFirmwareSettingsListener {
      * @param setting the instance of the controller settings that was updated
      */
     void onUpdatedFirmwareSetting(FirmwareSetting setting);
+
+    /**
+     * Triggered when multiple controller firmware settings were updated at once. Will by default
+     * notify {@link #onUpdatedFirmwareSetting(FirmwareSetting)} for each setting.
+     *
+     * @param settings the settings that were updated
+     */
+    default void onUpdatedFirmwareSettings(List<FirmwareSetting> settings) {
+        settings.forEach(this::onUpdatedFirmwareSetting);
+    }
 }
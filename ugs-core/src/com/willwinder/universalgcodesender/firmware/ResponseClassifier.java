@@ -0,0 +1,97 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.firmware;
+
+import com.willwinder.universalgcodesender.GrblUtils;
+
+/**
+ * Classifies response lines from GRBL like controllers (GRBL, grblHAL, FluidNC) and g2core by looking at
+ * the first characters of the line. Each line is only inspected once and no regular expressions are
+ * used except for the rare welcome message.
+ * <p>
+ * Only the classification is shared, each controller dispatches the response types to its own handlers:
+ * <ul>
+ *     <li>GRBL and grblHAL handle ok, error, alarm, status, probe and feedback responses</li>
+ *     <li>FluidNC handles status, message and probe responses, the welcome message is still verified
+ *     using {@link com.willwinder.universalgcodesender.firmware.fluidnc.FluidNCUtils#isWelcomeResponse(String)}
+ *     as it may be reported with any vendor name</li>
+ *     <li>g2core and TinyG only parse JSON responses, plain text errors and alarms are reported as errors</li>
+ * </ul>
+ *
+ * @author Joacim Breiler
+ */
+public class ResponseClassifier {
+
+    private ResponseClassifier() {
+        // Utility class
+    }
+
+    /**
+     * Classifies the given response line
+     *
+     * @param response the response line from the controller
+     * @return the type of response
+     */
+    public static ResponseType classify(String response) {
+        if (response == null || response.isEmpty()) {
+            return ResponseType.OTHER;
+        }
+
+        return switch (response.charAt(0)) {
+            case 'o' -> response.startsWith("ok") ? ResponseType.OK : ResponseType.OTHER;
+            case 'e' -> response.startsWith("error") ? ResponseType.ERROR : ResponseType.OTHER;
+            case 'A' -> response.startsWith("ALARM") ? ResponseType.ALARM : ResponseType.OTHER;
+            case '<' -> response.indexOf('>', 1) > 0 ? ResponseType.STATUS : ResponseType.OTHER;
+            case '[' -> classifyFeedback(response);
+            case '$' -> isSetting(response) ? ResponseType.SETTING : ResponseType.OTHER;
+            case '{' -> ResponseType.JSON;
+            case 'G', 'C', 'g' -> isVersion(response) ? ResponseType.VERSION : ResponseType.OTHER;
+            default -> ResponseType.OTHER;
+        };
+    }
+
+    private static ResponseType classifyFeedback(String response) {
+        if (response.indexOf(']', 1) < 0) {
+            return ResponseType.OTHER;
+        } else if (response.startsWith("[PRB:")) {
+            return ResponseType.PROBE;
+        } else if (response.startsWith("[GC:")) {
+            return ResponseType.PARSER_STATE;
+        } else if (response.startsWith("[MSG:")) {
+            return ResponseType.MESSAGE;
+        }
+        return ResponseType.FEEDBACK;
+    }
+
+    /**
+     * Checks if the response is a setting in the format "$[number]=[value]"
+     */
+    private static boolean isSetting(String response) {
+        int index = 1;
+        while (index < response.length() && Character.isDigit(response.charAt(index))) {
+            index++;
+        }
+        return index > 1 && index < response.length() - 1 && response.charAt(index) == '=';
+    }
+
+    private static boolean isVersion(String response) {
+        return (response.startsWith("Grbl ") || response.startsWith("GrblHAL ") || response.startsWith("CarbideMotion ") || response.startsWith("gCarvin ")) &&
+                GrblUtils.getVersionDouble(response) != -1;
+    }
+}
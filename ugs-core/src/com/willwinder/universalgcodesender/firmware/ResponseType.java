@@ -0,0 +1,86 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.firmware;
+
+/**
+ * The type of a response line received from a controller, see {@link ResponseClassifier}
+ *
+ * @author Joacim Breiler
+ */
+public enum ResponseType {
+    /**
+     * A command was accepted, ie: "ok"
+     */
+    OK,
+
+    /**
+     * A command was rejected, ie: "error:20"
+     */
+    ERROR,
+
+    /**
+     * The controller entered an alarm state, ie: "ALARM:1"
+     */
+    ALARM,
+
+    /**
+     * A status report, ie: "&lt;Idle|MPos:0.000,0.000,0.000|FS:0,0&gt;"
+     */
+    STATUS,
+
+    /**
+     * A probe result, ie: "[PRB:0.000,0.000,1.492:1]"
+     */
+    PROBE,
+
+    /**
+     * The parser state, ie: "[GC:G0 G54 G17 G21 G90 G94 M5 M9 T0 F0 S0]"
+     */
+    PARSER_STATE,
+
+    /**
+     * A message from the controller, ie: "[MSG:Caution: Unlocked]"
+     */
+    MESSAGE,
+
+    /**
+     * Any other feedback message within brackets, ie: "[VER:1.1f.20170801:]"
+     */
+    FEEDBACK,
+
+    /**
+     * A setting, ie: "$100=250.000"
+     */
+    SETTING,
+
+    /**
+     * The welcome message with the firmware version, ie: "Grbl 1.1f ['$' for help]"
+     */
+    VERSION,
+
+    /**
+     * A JSON response used by g2core and TinyG, ie: "{"r":{},"f":[1,0,4]}"
+     */
+    JSON,
+
+    /**
+     * Anything else
+     */
+    OTHER
+}
@@ -35,6 +35,8 @@ import com.willwinder.universalgcodesender.connection.ConnectionException;
 import com.willwinder.universalgcodesender.firmware.FirmwareSettingsException;
 import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
 import com.willwinder.universalgcodesender.firmware.IOverrideManager;
+import com.willwinder.universalgcodesender.firmware.ResponseClassifier;
+import com.willwinder.universalgcodesender.firmware.ResponseType;
 import static com.willwinder.universalgcodesender.firmware.fluidnc.FluidNCUtils.DISABLE_ECHO_COMMAND;
 import static com.willwinder.universalgcodesender.firmware.fluidnc.FluidNCUtils.GRBL_COMPABILITY_VERSION;
 import com.willwinder.universalgcodesender.firmware.fluidnc.commands.DetectEchoCommand;
@@ -48,7 +50,7 @@ import com.willwinder.universalgcodesender.firmware.fluidnc.commands.GetStatusCo
 import com.willwinder.universalgcodesender.firmware.fluidnc.commands.SystemCommand;
 import com.willwinder.universalgcodesender.firmware.grbl.GrblCapabilitiesConstants;
 import com.willwinder.universalgcodesender.firmware.grbl.GrblOverrideManager;
-import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.GcodeModalStateTracker;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
 import com.willwinder.universalgcodesender.gcode.ICommandCreator;
 import com.willwinder.universalgcodesender.gcode.util.GcodeUtils;
@@ -92,7 +94,7 @@ public class FluidNCController implements IController, ICommunicatorListener {
 
     private static final Logger LOGGER = Logger.getLogger(FluidNCController.class.getSimpleName());
 
-    private final GcodeParser gcodeParser = new GcodeParser();
+    private final GcodeModalStateTracker modalStateTracker = new GcodeModalStateTracker();
     private final Set<ControllerListener> listeners = Collections.synchronizedSet(new HashSet<>());
     private final BlockingDeque<GcodeCommand> activeCommands = new LinkedBlockingDeque<>();
     private final ICommunicator communicator;
@@ -109,8 +111,6 @@ public class FluidNCController implements IController, ICommunicatorListener {
     private SemanticVersion semanticVersion = new SemanticVersion();
     private String firmwareVariant;
     private IGcodeStreamReader streamCommands;
-    private String distanceModeCode;
-    private String unitsCode;
     private boolean isInitialized = false;
 
     public FluidNCController() {
@@ -433,7 +433,7 @@ public class FluidNCController implements IController, ICommunicatorListener {
 
     @Override
     public GcodeState getCurrentGcodeState() {
-        return gcodeParser.getCurrentState();
+        return modalStateTracker.getState();
     }
 
     @Override
@@ -532,7 +532,7 @@ public class FluidNCController implements IController, ICommunicatorListener {
 
     private void initializeController() {
         positionPollTimer.stop();
-        gcodeParser.reset();
+        modalStateTracker.reset();
         resetBuffers();
 
         setControllerState(ControllerState.CONNECTING);
@@ -606,7 +606,7 @@ public class FluidNCController implements IController, ICommunicatorListener {
         messageService.dispatchMessage(MessageType.INFO, "*** Fetching device state\n");
         GetParserStateCommand getParserStateCommand = sendAndWaitForCompletion(this, new GetParserStateCommand(), 3000);
         String state = getParserStateCommand.getState().orElseThrow(() -> new ConnectionException("Could not get controller state"));
-        gcodeParser.addCommand(state);
+        modalStateTracker.update(state);
 
         sendAndWaitForCompletion(this, new SystemCommand("$verbose_errors=true"));
         refreshFirmwareSettings();
@@ -658,11 +658,11 @@ public class FluidNCController implements IController, ICommunicatorListener {
     @Override
     public void restoreParserModalState() {
         StringBuilder cmd = new StringBuilder();
-        if (distanceModeCode != null) {
-            cmd.append(distanceModeCode).append(" ");
+        if (modalStateTracker.getDistanceModeCode() != null) {
+            cmd.append(modalStateTracker.getDistanceModeCode()).append(" ");
         }
-        if (unitsCode != null) {
-            cmd.append(unitsCode).append(" ");
+        if (modalStateTracker.getUnitsCode() != null) {
+            cmd.append(modalStateTracker.getUnitsCode()).append(" ");
         }
 
         try {
@@ -680,25 +680,7 @@ public class FluidNCController implements IController, ICommunicatorListener {
             return;
         }
 
-        try {
-            gcodeParser.addCommand(command.getCommandString());
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Problem parsing command: " + command, e);
-        }
-
-        String gcode = command.getCommandString().toUpperCase();
-        if (gcode.contains("G90")) {
-            distanceModeCode = "G90";
-        }
-        if (gcode.contains("G91")) {
-            distanceModeCode = "G91";
-        }
-        if (gcode.contains("G20")) {
-            unitsCode = "G20";
-        }
-        if (gcode.contains("G21")) {
-            unitsCode = "G21";
-        }
+        modalStateTracker.update(command.getCommandString());
     }
 
     @Override
@@ -728,71 +710,108 @@ public class FluidNCController implements IController, ICommunicatorListener {
 
     @Override
     public void rawResponseListener(String response) {
-        if (GrblUtils.isGrblStatusString(response)) {
-            getActiveCommand().filter(command -> command instanceof GetStatusCommand || command.getCommandString().contains("?")).ifPresent(command -> {
-                activeCommands.removeFirst();
-                listeners.forEach(l -> l.commandComplete(command));
+        ResponseType responseType = ResponseClassifier.classify(response);
 
-                if (command instanceof SystemCommand) {
-                    messageService.dispatchMessage(MessageType.VERBOSE, command.getResponse() + "\n");
-                } else {
-                    messageService.dispatchMessage(MessageType.INFO, command.getResponse() + "\n");
-                }
-            });
-            positionPollTimer.receivedStatus();
-
-            // Don't update the state from status command if we are connecting
-            if (controllerStatus.getState() == ControllerState.CONNECTING) {
-                return;
+        // Responses to an active command has already been appended to the command by the communicator
+        if (responseType != ResponseType.STATUS && getActiveCommand().isPresent()) {
+            handleCommandResponse(response);
+            if (responseType == ResponseType.PROBE) {
+                handleProbeResponse(response);
             }
+            return;
+        }
 
-            controllerStatus = FluidNCUtils.getStatusFromStatusResponse(controllerStatus, response, getFirmwareSettings().getReportingUnits());
-            setControllerState(controllerStatus.getState());
-            listeners.forEach(l -> l.statusStringListener(controllerStatus));
-            messageService.dispatchMessage(MessageType.VERBOSE, response + "\n");
-        } else if (getActiveCommand().isPresent()) {
-            GcodeCommand command = getActiveCommand().get();
-            if (command.isDone()) {
-                activeCommands.removeFirst();
-                updateParserModalState(command);
-
-                listeners.forEach(l -> l.commandComplete(command));
-                if (command.isError() && !activeCommands.isEmpty()) {
-                    String commandString = command.getCommandString();
-                    String errorMessage = String.format(Localization.getString("controller.exception.sendError"), commandString, response).replaceAll("\\.\\.", "\\.");
-                    messageService.dispatchMessage(MessageType.ERROR, errorMessage + "\n");
-                } else if (command instanceof GetStatusCommand) {
-                    messageService.dispatchMessage(MessageType.VERBOSE, command.getResponse() + "\n");
-                } else if (command instanceof SystemCommand) {
-                    messageService.dispatchMessage(MessageType.VERBOSE, command.getResponse() + "\n");
+        switch (responseType) {
+            case STATUS -> handleStatusResponse(response);
+            case PROBE -> {
+                handleOtherResponse(response);
+                handleProbeResponse(response);
+            }
+            case MESSAGE -> handleMessageResponse(response);
+            case VERSION, OTHER -> {
+                // The welcome message may be reported with any vendor name
+                if (FluidNCUtils.isWelcomeResponse(response)) {
+                    handleWelcomeResponse(response);
                 } else {
-                    messageService.dispatchMessage(MessageType.INFO, command.getResponse() + "\n");
+                    handleOtherResponse(response);
                 }
             }
+            default -> handleOtherResponse(response);
+        }
+    }
 
-            checkStreamFinished();
-        } else if (FluidNCUtils.isWelcomeResponse(response)) {
-            messageService.dispatchMessage(MessageType.VERBOSE, response + "\n");
-            if (isInitialized) {
-                LOGGER.info("We got a welcome string, but are already initialized, ignoring...");
-                return;
+    private void handleStatusResponse(String response) {
+        getActiveCommand().filter(command -> command instanceof GetStatusCommand || command.getCommandString().contains("?")).ifPresent(command -> {
+            activeCommands.removeFirst();
+            listeners.forEach(l -> l.commandComplete(command));
+
+            if (command instanceof SystemCommand) {
+                messageService.dispatchMessage(MessageType.VERBOSE, command.getResponse() + "\n");
+            } else {
+                messageService.dispatchMessage(MessageType.INFO, command.getResponse() + "\n");
             }
+        });
+        positionPollTimer.receivedStatus();
+
+        // Don't update the state from status command if we are connecting
+        if (controllerStatus.getState() == ControllerState.CONNECTING) {
+            return;
+        }
+
+        controllerStatus = FluidNCUtils.getStatusFromStatusResponse(controllerStatus, response, getFirmwareSettings().getReportingUnits());
+        setControllerState(controllerStatus.getState());
+        listeners.forEach(l -> l.statusStringListener(controllerStatus));
+        messageService.dispatchMessage(MessageType.VERBOSE, response + "\n");
+    }
+
+    private void handleCommandResponse(String response) {
+        GcodeCommand command = getActiveCommand().orElseThrow();
+        if (command.isDone()) {
+            activeCommands.removeFirst();
+            updateParserModalState(command);
 
-            ThreadHelper.invokeLater(this::initializeController);
-        } else if (FluidNCUtils.isMessageResponse(response)) {
-            MessageType messageType = MessageType.INFO;
-            if (controllerStatus.getState() == ControllerState.CONNECTING) {
-                messageType = MessageType.VERBOSE;
+            listeners.forEach(l -> l.commandComplete(command));
+            if (command.isError() && !activeCommands.isEmpty()) {
+                String commandString = command.getCommandString();
+                String errorMessage = String.format(Localization.getString("controller.exception.sendError"), commandString, response).replaceAll("\\.\\.", "\\.");
+                messageService.dispatchMessage(MessageType.ERROR, errorMessage + "\n");
+            } else if (command instanceof GetStatusCommand) {
+                messageService.dispatchMessage(MessageType.VERBOSE, command.getResponse() + "\n");
+            } else if (command instanceof SystemCommand) {
+                messageService.dispatchMessage(MessageType.VERBOSE, command.getResponse() + "\n");
+            } else {
+                messageService.dispatchMessage(MessageType.INFO, command.getResponse() + "\n");
             }
-            messageService.dispatchMessage(messageType, FluidNCUtils.parseMessageResponse(response).orElse("") + "\n");
-        } else {
-            messageService.dispatchMessage(MessageType.VERBOSE, "Other: " + response + "\n");
         }
 
-        if (FluidNCUtils.isProbeMessage(response)) {
-            Position p = FluidNCUtils.parseProbePosition(response, getFirmwareSettings().getReportingUnits());
-            listeners.forEach(l -> l.probeCoordinates(p));
+        checkStreamFinished();
+    }
+
+    private void handleWelcomeResponse(String response) {
+        messageService.dispatchMessage(MessageType.VERBOSE, response + "\n");
+        if (isInitialized) {
+            LOGGER.info("We got a welcome string, but are already initialized, ignoring...");
+            return;
+        }
+
+        ThreadHelper.invokeLater(this::initializeController);
+    }
+
+    private void handleMessageResponse(String response) {
+        MessageType messageType = MessageType.INFO;
+        if (controllerStatus.getState() == ControllerState.CONNECTING) {
+            messageType = MessageType.VERBOSE;
         }
+        messageService.dispatchMessage(messageType, FluidNCUtils.parseMessageResponse(response).orElse("") + "\n");
+    }
+
+    private void handleProbeResponse(String response) {
+        Position p = FluidNCUtils.parseProbePosition(response, getFirmwareSettings().getReportingUnits());
+        listeners.forEach(l -> l.probeCoordinates(p));
+    }
+
+    private void handleOtherResponse(String response) {
+        messageService.dispatchMessage(MessageType.VERBOSE, "Other: " + response + "\n");
     }
 
     private void checkStreamFinished() {
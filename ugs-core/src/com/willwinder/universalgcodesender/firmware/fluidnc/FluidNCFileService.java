@@ -18,6 +18,7 @@
  */
 package com.willwinder.universalgcodesender.firmware.fluidnc;
 
+import com.willwinder.universalgcodesender.connection.xmodem.TransferProgressListener;
 import com.willwinder.universalgcodesender.model.File;
 import com.willwinder.universalgcodesender.IController;
 import com.willwinder.universalgcodesender.IFileService;
@@ -27,7 +28,11 @@ import com.willwinder.universalgcodesender.firmware.fluidnc.commands.DownloadFil
 import com.willwinder.universalgcodesender.firmware.fluidnc.commands.ListFilesCommand;
 import com.willwinder.universalgcodesender.firmware.fluidnc.commands.UploadFileCommand;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 import static com.willwinder.universalgcodesender.utils.ControllerUtils.sendAndWaitForCompletion;
@@ -44,13 +49,20 @@ public class FluidNCFileService implements IFileService {
 
     @Override
     public byte[] downloadFile(File file) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        downloadFile(file, outputStream, TransferProgressListener.NONE);
+        return outputStream.toByteArray();
+    }
+
+    @Override
+    public void downloadFile(File file, OutputStream outputStream, TransferProgressListener listener) throws IOException {
         try {
             statusPollTimer.stop();
             DownloadFileCommand command = sendAndWaitForCompletion(controller, new DownloadFileCommand(file));
             if (command.isError()) {
                 throw new IOException("Could not download the file: " + file.getAbsolutePath());
             }
-            return controller.getCommunicator().xmodemReceive();
+            controller.getCommunicator().xmodemReceive(outputStream, listener);
         } catch (Exception e) {
             throw new IOException("Couldn't download file " + file.getAbsolutePath(), e);
         } finally {
@@ -60,6 +72,11 @@ public class FluidNCFileService implements IFileService {
 
     @Override
     public void uploadFile(String filename, byte[] data) throws IOException {
+        uploadFile(filename, new ByteArrayInputStream(data), data.length, TransferProgressListener.NONE);
+    }
+
+    @Override
+    public void uploadFile(String filename, InputStream inputStream, long length, TransferProgressListener listener) throws IOException {
         try {
             statusPollTimer.stop();
 
@@ -69,7 +86,7 @@ public class FluidNCFileService implements IFileService {
             }
 
             controller.sendCommandImmediately(new UploadFileCommand(filename));
-            controller.getCommunicator().xmodemSend(data);
+            controller.getCommunicator().xmodemSend(inputStream, length, listener);
             waitOnActiveCommands(controller);
         } catch (Exception e) {
             throw new IOException("Couldn't upload file " + filename, e);
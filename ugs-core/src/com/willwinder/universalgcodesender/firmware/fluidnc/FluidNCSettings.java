@@ -241,6 +241,19 @@ public class FluidNCSettings implements IFirmwareSettings {
         return 0;
     }
 
+    @Override
+    public double getAcceleration(Axis axis) {
+        return getSetting("axes/" + axis.name().toLowerCase() + "/acceleration_mm_per_sec2")
+                .map(s -> {
+                    try {
+                        return Utils.formatter.parse(s.getValue()).doubleValue();
+                    } catch (ParseException e) {
+                        return 0d;
+                    }
+                })
+                .orElse(0d);
+    }
+
     private Optional<SpeedMap> getSpeedMap(String speedMapSetting) {
         FirmwareSetting value = settings.get(speedMapSetting);
         return Optional.ofNullable(value)
@@ -23,6 +23,7 @@ import com.willwinder.universalgcodesender.firmware.FirmwareSetting;
 import com.willwinder.universalgcodesender.firmware.FirmwareSettingsException;
 import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
 import com.willwinder.universalgcodesender.firmware.IFirmwareSettingsListener;
+import com.willwinder.universalgcodesender.firmware.grbl.commands.GetSettingsCommand;
 import com.willwinder.universalgcodesender.i18n.Localization;
 import com.willwinder.universalgcodesender.model.Axis;
 import com.willwinder.universalgcodesender.model.UnitUtils;
@@ -32,11 +33,16 @@ import org.apache.commons.lang3.math.NumberUtils;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -52,6 +58,7 @@ public class GrblFirmwareSettings implements IFirmwareSettings {
     /**
      * Setting keys for GRBL
      */
+    private static final String KEY_JUNCTION_DEVIATION = "$11";
     private static final String KEY_REPORTING_UNITS_IN_INCHES = "$13";
     private static final String KEY_SOFT_LIMITS_ENABLED = "$20";
     private static final String KEY_HARD_LIMITS_ENABLED = "$21";
@@ -69,6 +76,19 @@ public class GrblFirmwareSettings implements IFirmwareSettings {
     private static final String KEY_MAXIMUM_RATE_X = "$110";
     private static final String KEY_MAXIMUM_RATE_Y = "$111";
     private static final String KEY_MAXIMUM_RATE_Z = "$112";
+    private static final String KEY_ACCELERATION_X = "$120";
+    private static final String KEY_ACCELERATION_Y = "$121";
+    private static final String KEY_ACCELERATION_Z = "$122";
+
+    /**
+     * The maximum time in milliseconds to wait for a setting to be stored on the controller
+     */
+    private static final long SETTING_TIMEOUT = 2000;
+
+    /**
+     * The maximum time in milliseconds to wait for the settings to be read from the controller
+     */
+    private static final long SETTINGS_QUERY_TIMEOUT = 4000;
 
     /**
      * A GRBL settings description lookups
@@ -85,6 +105,11 @@ public class GrblFirmwareSettings implements IFirmwareSettings {
      */
     private final IController controller;
 
+    /**
+     * If the controller can receive settings while storing the previous
+     */
+    private volatile boolean pipelinedSettingsSupported;
+
     public GrblFirmwareSettings(IController controller) {
         this.controller = controller;
     }
@@ -357,15 +382,144 @@ public class GrblFirmwareSettings implements IFirmwareSettings {
         return getValueAsBoolean(KEY_INVERT_LIMIT_PINS);
     }
 
+    /**
+     * Sets if the controller can receive commands while storing a setting. Classic GRBL on AVR disables
+     * interrupts while writing to the EEPROM which will drop any characters received at the same time,
+     * so settings should only be sent without waiting for the previous to be stored if this is known
+     * to be safe.
+     *
+     * @param pipelinedSettingsSupported true if multiple settings can be sent at once
+     */
+    public void setPipelinedSettingsSupported(boolean pipelinedSettingsSupported) {
+        this.pipelinedSettingsSupported = pipelinedSettingsSupported;
+    }
+
+    /**
+     * Sets multiple settings on the controller. If the controller supports it the commands are sent
+     * without waiting for the previous command to complete, leaving it to the communicator to keep the
+     * RX buffer of the controller filled using character counting. Otherwise each setting is sent after
+     * the previous has been stored. Settings that didn't get a response in time are verified by
+     * reading the settings from the controller. The successfully written settings are stored and notified
+     * to the listeners in one batch.
+     *
+     * @param settings the settings to update
+     * @throws FirmwareSettingsException if one or more settings couldn't be stored on the controller.
+     */
     @Override
-    public void setSettings(List<FirmwareSetting> settings) throws FirmwareSettingsException {
-        settings.forEach(setting -> {
+    synchronized public void setSettings(List<FirmwareSetting> settings) throws FirmwareSettingsException {
+        List<String> failedSettings = new ArrayList<>();
+        List<PendingSetting> pendingSettings = new ArrayList<>();
+        boolean timedOut = false;
+        for (FirmwareSetting setting : settings) {
+            Optional<FirmwareSetting> oldSetting = getSetting(setting.getKey());
+            if (oldSetting.isEmpty()) {
+                LOGGER.warning("Couldn't find setting with key " + setting.getKey() + " to update.");
+                failedSettings.add(setting.getKey());
+                continue;
+            }
+
+            // The setting already contains the value so we do not update
+            if (oldSetting.get().getValue().equals(setting.getValue())) {
+                continue;
+            }
+
+            FirmwareSetting newSetting = new FirmwareSetting(oldSetting.get().getKey(), setting.getValue(), oldSetting.get().getUnits(), oldSetting.get().getDescription(), oldSetting.get().getShortDescription());
+
+            // Don't send any more settings to a controller that stopped responding
+            if (timedOut) {
+                LOGGER.warning("Skipped the firmware setting " + newSetting.getKey() + " as the controller did not respond");
+                failedSettings.add(newSetting.getKey());
+                continue;
+            }
+
             try {
-                setValue(setting.getKey(), setting.getValue());
-            } catch (FirmwareSettingsException e) {
-                LOGGER.warning("Couldn't set the firmware setting " + setting.getKey() + " to value " + setting.getValue() + ". Error message: " + e.getMessage());
+                PendingSetting pendingSetting = new PendingSetting(newSetting, send(newSetting));
+                pendingSettings.add(pendingSetting);
+                if (!pipelinedSettingsSupported) {
+                    timedOut = getResult(pendingSetting.result(), SETTING_TIMEOUT).isEmpty();
+                }
+            } catch (Exception e) {
+                LOGGER.warning("Couldn't send the firmware setting " + newSetting.getKey() + "=" + newSetting.getValue() + ". Error message: " + e.getMessage());
+                failedSettings.add(newSetting.getKey());
+            }
+        }
+
+        List<FirmwareSetting> updatedSettings = new ArrayList<>();
+        List<FirmwareSetting> unconfirmedSettings = new ArrayList<>();
+        timedOut = false;
+        for (PendingSetting pendingSetting : pendingSettings) {
+            // The commands are completed in order, so after a timeout we only check the ones already completed
+            Optional<GcodeCommand> result = getResult(pendingSetting.result(), timedOut ? 0 : SETTING_TIMEOUT);
+            if (result.isEmpty()) {
+                timedOut = true;
+                unconfirmedSettings.add(pendingSetting.setting());
+            } else if (result.get().isOk()) {
+                updatedSettings.add(pendingSetting.setting());
+            } else {
+                LOGGER.warning("Couldn't set the firmware setting " + pendingSetting.setting().getKey() + " to value " + pendingSetting.setting().getValue());
+                failedSettings.add(pendingSetting.setting().getKey());
+            }
+        }
+
+        if (!unconfirmedSettings.isEmpty()) {
+            verifySettings(unconfirmedSettings, updatedSettings, failedSettings);
+        }
+
+        if (!updatedSettings.isEmpty()) {
+            updatedSettings.forEach(setting -> this.settings.put(setting.getKey(), setting));
+            listeners.forEach(listener -> listener.onUpdatedFirmwareSettings(updatedSettings));
+        }
+
+        if (!failedSettings.isEmpty()) {
+            throw new FirmwareSettingsException("Couldn't set the firmware settings: " + String.join(", ", failedSettings));
+        }
+    }
+
+    /**
+     * Reads the settings from the controller to find out if the settings that didn't get a response in
+     * time were stored.
+     */
+    private void verifySettings(List<FirmwareSetting> unconfirmedSettings, List<FirmwareSetting> updatedSettings, List<String> failedSettings) {
+        Map<String, String> storedValues = new HashMap<>();
+        try {
+            CompletableFuture<GcodeCommand> future = new CompletableFuture<>();
+            GetSettingsCommand command = new GetSettingsCommand();
+            command.addListener(future::complete);
+            controller.sendCommandImmediately(command);
+            if (getResult(future, SETTINGS_QUERY_TIMEOUT).isPresent()) {
+                command.getSettings().forEach(setting -> storedValues.put(setting.getKey(), setting.getValue()));
             }
-        });
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Couldn't read the firmware settings from the controller", e);
+        }
+
+        for (FirmwareSetting setting : unconfirmedSettings) {
+            if (setting.getValue().equals(storedValues.get(setting.getKey()))) {
+                updatedSettings.add(setting);
+            } else {
+                LOGGER.warning("Couldn't confirm the firmware setting " + setting.getKey() + " with value " + setting.getValue());
+                failedSettings.add(setting.getKey());
+            }
+        }
+    }
+
+    private CompletableFuture<GcodeCommand> send(FirmwareSetting setting) throws Exception {
+        CompletableFuture<GcodeCommand> future = new CompletableFuture<>();
+        GcodeCommand command = controller.createCommand(setting.getKey() + "=" + setting.getValue());
+        command.addListener(future::complete);
+        controller.sendCommandImmediately(command);
+        return future;
+    }
+
+    private static Optional<GcodeCommand> getResult(CompletableFuture<GcodeCommand> future, long timeout) {
+        try {
+            return Optional.of(future.get(timeout, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException | TimeoutException e) {
+            return Optional.empty();
+        }
     }
 
     @Override
@@ -382,6 +536,29 @@ public class GrblFirmwareSettings implements IFirmwareSettings {
         }
     }
 
+    @Override
+    public double getAcceleration(Axis axis) throws FirmwareSettingsException {
+        switch (axis) {
+            case X:
+                return getValueAsDouble(KEY_ACCELERATION_X);
+            case Y:
+                return getValueAsDouble(KEY_ACCELERATION_Y);
+            case Z:
+                return getValueAsDouble(KEY_ACCELERATION_Z);
+            default:
+                throw new FirmwareSettingsException("Couldn't get acceleration setting for axis " + axis + ", it's not supported by the controller");
+        }
+    }
+
+    @Override
+    public double getJunctionDeviation() {
+        try {
+            return getValueAsDouble(KEY_JUNCTION_DEVIATION);
+        } catch (FirmwareSettingsException e) {
+            return IFirmwareSettings.super.getJunctionDeviation();
+        }
+    }
+
     @Override
     public int getMaxSpindleSpeed() throws FirmwareSettingsException {
         return getSetting(KEY_MAX_SPINDLE_SPEED)
@@ -472,4 +649,7 @@ public class GrblFirmwareSettings implements IFirmwareSettings {
     private boolean getValueAsBoolean(String key, boolean defaultValue) {
         return getSetting(key).map(FirmwareSetting::getValue).map("1"::equalsIgnoreCase).orElse(defaultValue);
     }
+
+    private record PendingSetting(FirmwareSetting setting, CompletableFuture<GcodeCommand> result) {
+    }
 }
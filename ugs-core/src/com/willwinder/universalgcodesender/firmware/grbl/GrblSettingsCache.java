@@ -0,0 +1,135 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.firmware.grbl;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.willwinder.universalgcodesender.firmware.FirmwareSetting;
+import com.willwinder.universalgcodesender.utils.SettingsFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A cache for the last known firmware settings of each controller. The settings are keyed on the
+ * build info of the controller which usually contains the version and machine name, making it
+ * possible to use the settings for a controller while its settings are being fetched.
+ * <p>
+ * The cache is persisted as a JSON file in the settings directory.
+ *
+ * @author Joacim Breiler
+ */
+public class GrblSettingsCache {
+    private static final Logger LOGGER = Logger.getLogger(GrblSettingsCache.class.getName());
+    private static final String CACHE_FILENAME = "grbl_settings_cache.json";
+    private static final Type CACHE_TYPE = new TypeToken<LinkedHashMap<String, List<FirmwareSetting>>>() {
+    }.getType();
+
+    /**
+     * The maximum number of controllers to keep settings for
+     */
+    private static final int MAX_ENTRIES = 20;
+
+    private final File cacheFile;
+    private final Gson gson = new Gson();
+    private Map<String, List<FirmwareSetting>> cache;
+
+    public GrblSettingsCache() {
+        this(new File(SettingsFactory.getSettingsDirectory(), CACHE_FILENAME));
+    }
+
+    public GrblSettingsCache(File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Returns the last known settings for the controller with the given build info
+     *
+     * @param buildInfo the build info response from the controller
+     * @return the cached settings or an empty optional if the controller is unknown
+     */
+    public synchronized Optional<List<FirmwareSetting>> get(String buildInfo) {
+        return Optional.ofNullable(getCache().get(buildInfo)).map(ArrayList::new);
+    }
+
+    /**
+     * Stores the settings for the controller with the given build info
+     *
+     * @param buildInfo the build info response from the controller
+     * @param settings  the settings of the controller
+     */
+    public synchronized void put(String buildInfo, List<FirmwareSetting> settings) {
+        Map<String, List<FirmwareSetting>> currentCache = getCache();
+        currentCache.remove(buildInfo);
+        currentCache.put(buildInfo, new ArrayList<>(settings));
+
+        // Remove the least recently stored controllers
+        while (currentCache.size() > MAX_ENTRIES) {
+            currentCache.remove(currentCache.keySet().iterator().next());
+        }
+        save();
+    }
+
+    private Map<String, List<FirmwareSetting>> getCache() {
+        if (cache == null) {
+            cache = load();
+        }
+        return cache;
+    }
+
+    private Map<String, List<FirmwareSetting>> load() {
+        if (!cacheFile.exists()) {
+            return new LinkedHashMap<>();
+        }
+
+        try (Reader reader = Files.newBufferedReader(cacheFile.toPath(), StandardCharsets.UTF_8)) {
+            Map<String, List<FirmwareSetting>> result = gson.fromJson(reader, CACHE_TYPE);
+            return result == null ? new LinkedHashMap<>() : result;
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Could not load the settings cache from " + cacheFile, e);
+            return new LinkedHashMap<>();
+        }
+    }
+
+    private void save() {
+        try {
+            // Write to a temporary file first to prevent a corrupt cache if interrupted
+            File tempFile = new File(cacheFile.getParentFile(), cacheFile.getName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+                gson.toJson(cache, CACHE_TYPE, writer);
+            }
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not save the settings cache to " + cacheFile, e);
+        }
+    }
+}
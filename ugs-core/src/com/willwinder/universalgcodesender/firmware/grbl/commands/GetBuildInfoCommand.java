@@ -63,6 +63,17 @@ public class GetBuildInfoCommand extends GrblSystemCommand {
                 .findFirst();
     }
 
+    /**
+     * Returns if the build info was reported by grblHAL, which reports its firmware name and
+     * extended options in separate lines
+     *
+     * @return true if the controller is running grblHAL
+     */
+    public boolean isGrblHal() {
+        return Arrays.stream(StringUtils.split(getResponse(), "\n"))
+                .anyMatch(line -> StringUtils.startsWithIgnoreCase(line, "[FIRMWARE:grblHAL") || line.startsWith("[NEWOPT:"));
+    }
+
     public GrblBuildOptions getBuildOptions() {
         String[] lines = StringUtils.split(getResponse(), "\n");
 
@@ -191,6 +191,11 @@ public class TinyGFirmwareSettings implements ICommunicatorListener, IFirmwareSe
         return 0;
     }
 
+    @Override
+    public double getAcceleration(Axis axis) throws FirmwareSettingsException {
+        return 0;
+    }
+
     @Override
     public int getMaxSpindleSpeed() throws FirmwareSettingsException {
         throw new FirmwareSettingsException("Not implemented");
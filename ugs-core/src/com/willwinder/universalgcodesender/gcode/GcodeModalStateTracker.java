@@ -0,0 +1,327 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.gcode;
+
+import com.willwinder.universalgcodesender.gcode.util.Code;
+import com.willwinder.universalgcodesender.gcode.util.Plane;
+
+import static com.willwinder.universalgcodesender.gcode.util.Code.G21;
+import static com.willwinder.universalgcodesender.gcode.util.Code.G90;
+import static com.willwinder.universalgcodesender.gcode.util.Code.G90_1;
+
+/**
+ * Keeps track of the modal state of the controller from the commands that has been completed.
+ * Each command is scanned once without creating any objects, updating the motion mode, plane,
+ * distance mode, arc distance mode, feed mode, units, work coordinate system, spindle, coolant,
+ * feed rate and spindle speed in a single {@link GcodeState} instance.
+ * <p>
+ * Unlike the {@link GcodeParser} it will not keep track of the current position.
+ *
+ * @author Joacim Breiler
+ */
+public class GcodeModalStateTracker {
+    private static final int CODE_TABLE_SIZE = 1000;
+    private static final Code[] G_CODES = new Code[CODE_TABLE_SIZE];
+    private static final Code[] M_CODES = new Code[CODE_TABLE_SIZE];
+    private static final Plane[] PLANES = new Plane[Code.values().length];
+
+    static {
+        for (Code code : Code.values()) {
+            String name = code.name();
+            char letter = name.charAt(0);
+            if ((letter != 'G' && letter != 'M') || name.length() < 2 || !Character.isDigit(name.charAt(1))) {
+                continue;
+            }
+
+            // Encodes the code number with one decimal, ie "G38_2" => 382
+            int separator = name.indexOf('_');
+            int number = Integer.parseInt(separator > 0 ? name.substring(1, separator) : name.substring(1));
+            int decimal = separator > 0 ? Integer.parseInt(name.substring(separator + 1)) : 0;
+            Code[] table = letter == 'G' ? G_CODES : M_CODES;
+            table[number * 10 + decimal] = code;
+        }
+
+        for (Plane plane : Plane.values()) {
+            PLANES[plane.code.ordinal()] = plane;
+        }
+    }
+
+    private final GcodeState state = new GcodeState();
+    private Code unitsCode;
+    private Code distanceModeCode;
+
+    // The position of the parser in the current command
+    private int position;
+
+    /**
+     * Updates the modal state with the given command
+     *
+     * @param command the command to scan
+     */
+    public void update(String command) {
+        int length = command.length();
+        position = 0;
+        while (position < length) {
+            char c = command.charAt(position);
+            if (c == '(') {
+                // Skip comments within parentheses
+                while (position < length && command.charAt(position) != ')') {
+                    position++;
+                }
+                position++;
+                continue;
+            } else if (c == ';') {
+                // The rest of the line is a comment
+                return;
+            }
+
+            position++;
+            switch (Character.toUpperCase(c)) {
+                case 'G':
+                    apply(lookupCode(G_CODES, parseCodeNumber(command)));
+                    break;
+                case 'M':
+                    apply(lookupCode(M_CODES, parseCodeNumber(command)));
+                    break;
+                case 'F':
+                    double feedRate = parseValue(command);
+                    if (!Double.isNaN(feedRate)) {
+                        state.feedRate = feedRate;
+                    }
+                    break;
+                case 'S':
+                    double spindleSpeed = parseValue(command);
+                    if (!Double.isNaN(spindleSpeed)) {
+                        state.spindleSpeed = spindleSpeed;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static Code lookupCode(Code[] codes, int codeNumber) {
+        if (codeNumber < 0 || codeNumber >= CODE_TABLE_SIZE) {
+            return null;
+        }
+        return codes[codeNumber];
+    }
+
+    private void apply(Code code) {
+        if (code == null) {
+            return;
+        }
+
+        switch (code.getType()) {
+            case Motion:
+                state.currentMotionMode = code;
+                break;
+            case Plane:
+                state.plane = PLANES[code.ordinal()];
+                break;
+            case Distance:
+                state.distanceMode = code;
+                state.inAbsoluteMode = code == G90;
+                distanceModeCode = code;
+                break;
+            case Arc:
+                state.arcDistanceMode = code;
+                state.inAbsoluteIJKMode = code == G90_1;
+                break;
+            case Feedmode:
+                state.feedMode = code;
+                break;
+            case Units:
+                state.units = code;
+                state.isMetric = code == G21;
+                unitsCode = code;
+                break;
+            case WCS:
+                state.offset = code;
+                break;
+            case Spindle:
+                state.spindle = code;
+                break;
+            case Coolant:
+                state.coolant = code;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Parses a code number with an optional decimal, ie "38.2" will be returned as 382
+     *
+     * @param command the command to parse
+     * @return the code number with one decimal or -1 if no number was found
+     */
+    private int parseCodeNumber(String command) {
+        int length = command.length();
+        int number = 0;
+        int digits = 0;
+        while (position < length && isDigit(command.charAt(position))) {
+            number = number * 10 + (command.charAt(position) - '0');
+            position++;
+            digits++;
+        }
+
+        if (digits == 0 || number >= CODE_TABLE_SIZE / 10) {
+            skipValue(command);
+            return -1;
+        }
+
+        int decimal = 0;
+        if (position < length && command.charAt(position) == '.') {
+            position++;
+            if (position < length && isDigit(command.charAt(position))) {
+                decimal = command.charAt(position) - '0';
+            }
+            skipValue(command);
+        }
+        return number * 10 + decimal;
+    }
+
+    /**
+     * Parses a decimal value
+     *
+     * @param command the command to parse
+     * @return the parsed value or NaN if no number was found
+     */
+    private double parseValue(String command) {
+        int length = command.length();
+        boolean negative = false;
+        if (position < length && (command.charAt(position) == '-' || command.charAt(position) == '+')) {
+            negative = command.charAt(position) == '-';
+            position++;
+        }
+
+        long mantissa = 0;
+        long divisor = 1;
+        boolean hasDigits = false;
+        boolean isDecimal = false;
+        while (position < length) {
+            char c = command.charAt(position);
+            if (isDigit(c)) {
+                hasDigits = true;
+                if (mantissa < Long.MAX_VALUE / 100) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (isDecimal) {
+                        divisor *= 10;
+                    }
+                }
+            } else if (c == '.' && !isDecimal) {
+                isDecimal = true;
+            } else {
+                break;
+            }
+            position++;
+        }
+
+        if (!hasDigits) {
+            return Double.NaN;
+        }
+
+        double value = (double) mantissa / divisor;
+        return negative ? -value : value;
+    }
+
+    private void skipValue(String command) {
+        while (position < command.length() && (isDigit(command.charAt(position)) || command.charAt(position) == '.')) {
+            position++;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Resets the state to the default state
+     */
+    public void reset() {
+        GcodeState defaultState = new GcodeState();
+        state.currentMotionMode = defaultState.currentMotionMode;
+        state.plane = defaultState.plane;
+        state.inAbsoluteMode = defaultState.inAbsoluteMode;
+        state.distanceMode = defaultState.distanceMode;
+        state.inAbsoluteIJKMode = defaultState.inAbsoluteIJKMode;
+        state.arcDistanceMode = defaultState.arcDistanceMode;
+        state.feedMode = defaultState.feedMode;
+        state.feedRate = defaultState.feedRate;
+        state.isMetric = defaultState.isMetric;
+        state.units = defaultState.units;
+        state.offset = defaultState.offset;
+        state.spindle = defaultState.spindle;
+        state.coolant = defaultState.coolant;
+        state.spindleSpeed = defaultState.spindleSpeed;
+        unitsCode = null;
+        distanceModeCode = null;
+    }
+
+    /**
+     * Returns the current modal state. The same instance will be updated with each command.
+     *
+     * @return the current state
+     */
+    public GcodeState getState() {
+        return state;
+    }
+
+    /**
+     * Returns the units code (G20 or G21) from the last command that changed the units
+     *
+     * @return the units code or null if no command has changed the units
+     */
+    public Code getUnitsCode() {
+        return unitsCode;
+    }
+
+    /**
+     * Sets the units code, should be used if the units has been reported by the controller
+     *
+     * @param unitsCode the units code (G20 or G21)
+     */
+    public void setUnitsCode(Code unitsCode) {
+        if (unitsCode != null && unitsCode.getType() == Code.ModalGroup.Units) {
+            apply(unitsCode);
+        }
+    }
+
+    /**
+     * Returns the distance mode code (G90 or G91) from the last command that changed the distance mode
+     *
+     * @return the distance mode code or null if no command has changed the distance mode
+     */
+    public Code getDistanceModeCode() {
+        return distanceModeCode;
+    }
+
+    /**
+     * Sets the distance mode code, should be used if the distance mode has been reported by the controller
+     *
+     * @param distanceModeCode the distance mode code (G90 or G91)
+     */
+    public void setDistanceModeCode(Code distanceModeCode) {
+        if (distanceModeCode != null && distanceModeCode.getType() == Code.ModalGroup.Distance) {
+            apply(distanceModeCode);
+        }
+    }
+}
@@ -374,7 +374,7 @@ public class GcodePreprocessorUtils {
             if (c == '(' && !readLineComment) {
                 if (blockCommentDepth == 0 && sb.length() > 0) {
                     l.add(sb.toString());
-                    sb = new StringBuilder();
+                    sb.setLength(0);
                 }
                 sb.append(c);
                 blockCommentDepth++;
@@ -385,13 +385,13 @@ public class GcodePreprocessorUtils {
                 blockCommentDepth--;
                 if (blockCommentDepth == 0) {
                     l.add(sb.toString());
-                    sb = new StringBuilder();
+                    sb.setLength(0);
                 }
                 continue;
             } else if (c == ';' && !readLineComment && blockCommentDepth == 0) {
                 if (sb.length() > 0) {
                     l.add(sb.toString());
-                    sb = new StringBuilder();
+                    sb.setLength(0);
                 }
                 sb.append(c);
                 readLineComment = true;
@@ -410,7 +410,7 @@ public class GcodePreprocessorUtils {
                 readNumeric = false; // reset flag.
 
                 l.add(sb.toString());
-                sb = new StringBuilder();
+                sb.setLength(0);
 
                 if (Character.isLetter(c)) {
                     sb.append(c);
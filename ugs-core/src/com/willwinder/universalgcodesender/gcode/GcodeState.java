@@ -83,36 +83,60 @@ public class GcodeState {
         this.currentPoint = new Position(Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Units.MM);
     }
 
+    private GcodeState(GcodeState state) {
+        set(state);
+    }
+
+    /**
+     * Creates a snapshot of this state that can be kept, the current point is copied
+     * so that the snapshot isn't affected by changes to this state.
+     *
+     * @return a copy of this state
+     */
     public GcodeState copy() {
-        GcodeState ret = new GcodeState();
-        ret.currentMotionMode = currentMotionMode;
-        ret.plane = plane;
+        GcodeState ret = new GcodeState(this);
+        if (currentPoint != null) {
+            ret.currentPoint = new Position(currentPoint.x, currentPoint.y, currentPoint.z, currentPoint.a, currentPoint.b, currentPoint.c, getUnits());
+        } else {
+            ret.currentPoint = new Position(Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Units.MM);
+        }
+        return ret;
+    }
 
-        ret.inAbsoluteMode = inAbsoluteMode;
-        ret.distanceMode = distanceMode;
+    /**
+     * Copies the given state into this state without allocating a new state object, making it
+     * possible to reuse a state as a working copy. The current point is shared with the given
+     * state as positions are replaced rather than modified when processing commands, use
+     * {@link #copy()} for taking a snapshot that can be kept.
+     *
+     * @param state the state to copy
+     */
+    public void set(GcodeState state) {
+        this.currentMotionMode = state.currentMotionMode;
+        this.plane = state.plane;
 
-        ret.inAbsoluteIJKMode = inAbsoluteIJKMode;
-        ret.arcDistanceMode = arcDistanceMode;
+        this.inAbsoluteMode = state.inAbsoluteMode;
+        this.distanceMode = state.distanceMode;
 
-        ret.feedMode = feedMode;
+        this.inAbsoluteIJKMode = state.inAbsoluteIJKMode;
+        this.arcDistanceMode = state.arcDistanceMode;
 
-        ret.isMetric = isMetric;
-        ret.units = units;
+        this.feedMode = state.feedMode;
 
-        ret.feedRate = feedRate;
-        ret.spindleSpeed = spindleSpeed;
+        this.isMetric = state.isMetric;
+        this.units = state.units;
 
-        ret.offset = offset;
+        this.feedRate = state.feedRate;
+        this.spindleSpeed = state.spindleSpeed;
 
-        ret.spindle = spindle;
+        this.offset = state.offset;
 
-        ret.coolant = coolant;
+        this.spindle = state.spindle;
 
-        if (currentPoint != null) {
-            ret.currentPoint = new Position(currentPoint.x, currentPoint.y, currentPoint.z, currentPoint.a, currentPoint.b, currentPoint.c, getUnits());
-        }
-        ret.commandNumber = commandNumber;
-        return ret;
+        this.coolant = state.coolant;
+
+        this.currentPoint = state.currentPoint;
+        this.commandNumber = state.commandNumber;
     }
 
     /**
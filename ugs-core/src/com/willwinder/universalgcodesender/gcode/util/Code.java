@@ -227,6 +227,12 @@ public enum Code {
             return null;
         }
 
+        // Most codes are already written in their normalized form
+        Code c = codeLookup.get(code);
+        if (c != null) {
+            return c;
+        }
+
         char type = Character.toUpperCase(code.charAt(0));
 
         // Strip leading zeros in a way that leaves the last zero in case of 'G0'
@@ -239,7 +245,7 @@ public enum Code {
         }
         String rest = code.substring(subStr);
 
-        Code c = codeLookup.get(type + rest);
+        c = codeLookup.get(type + rest);
         return c == null ? UNKNOWN : c;
     }
 }
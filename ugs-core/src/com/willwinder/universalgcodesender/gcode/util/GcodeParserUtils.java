@@ -18,7 +18,6 @@
  */
 package com.willwinder.universalgcodesender.gcode.util;
 
-import com.google.common.collect.Iterables;
 import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
 import com.willwinder.universalgcodesender.gcode.GcodeParser;
 import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
@@ -49,13 +48,13 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 /**
  * @author wwinder
@@ -63,6 +62,40 @@ import java.util.stream.Collectors;
 public class GcodeParserUtils {
     private static final Logger LOGGER = Logger.getLogger(GcodeParserUtils.class.getName());
 
+    /**
+     * The working state and buffers used when processing a command, reused for each command
+     * processed by the thread to avoid allocating them for every line.
+     */
+    private static final ThreadLocal<ParseContext> PARSE_CONTEXT = ThreadLocal.withInitial(ParseContext::new);
+
+    private static final class ParseContext {
+        private final GcodeState state = new GcodeState();
+        private final EnumSet<Code> seenGCodes = EnumSet.noneOf(Code.class);
+
+        /**
+         * The unique G codes of the command in the order they appear
+         */
+        private Code[] gCodes = new Code[8];
+        private int gCodeCount = 0;
+
+        private void addGCode(Code code) {
+            if (!seenGCodes.add(code)) {
+                return;
+            }
+
+            if (gCodeCount == gCodes.length) {
+                gCodes = Arrays.copyOf(gCodes, gCodeCount * 2);
+            }
+            gCodes[gCodeCount++] = code;
+        }
+
+        private void clear() {
+            seenGCodes.clear();
+            Arrays.fill(gCodes, 0, gCodeCount, null);
+            gCodeCount = 0;
+        }
+    }
+
     /**
      * For backwards compatibility this method calls processCommand with includeNonMotionStates = false.
      */
@@ -74,6 +107,9 @@ public class GcodeParserUtils {
     /**
      * Process command given an initial state. This method will not modify its
      * input parameters.
+     * <p>
+     * The command is processed using a reusable working state, a snapshot of the state is only
+     * created for each returned {@link GcodeParser.GcodeMeta}.
      *
      * @param includeNonMotionStates Create gcode meta responses even if there is no motion, for example "F100" will not
      *                               return a GcodeMeta entry unless this flag is set to true.
@@ -84,68 +120,95 @@ public class GcodeParserUtils {
         List<String> args = GcodePreprocessorUtils.splitCommand(command);
         if (args.isEmpty()) return null;
 
-        // Initialize with original state
-        GcodeState state = inputState.copy();
+        // Initialize the working state with original state
+        ParseContext context = PARSE_CONTEXT.get();
+        context.clear();
+        GcodeState state = context.state;
+        state.set(inputState);
 
         state.commandNumber = line;
 
-        // handle M codes.
-        Set<Code> mCodes = GcodePreprocessorUtils.getMCodes(args);
-        for (Code c : mCodes) {
-            switch (c.getType()) {
-                case Spindle:
-                    state.spindle = c;
-                    break;
-                case Coolant:
-                    state.coolant = c;
-                    break;
-                default:
-                    break;
+        // Handle M codes and gather the other words in one pass.
+        String fCode = null;
+        String sCode = null;
+        int fCodeCount = 0;
+        int sCodeCount = 0;
+        boolean hasAxisWords = false;
+        for (String arg : args) {
+            if (arg.isEmpty()) {
+                continue;
+            }
+
+            char letter = Character.toUpperCase(arg.charAt(0));
+            switch (letter) {
+                case 'M' -> applyMCode(Code.lookupCode(arg), state);
+                case 'G' -> context.addGCode(Code.lookupCode(arg));
+                case 'F' -> {
+                    fCode = arg.substring(1);
+                    fCodeCount++;
+                }
+                case 'S' -> {
+                    sCode = arg.substring(1);
+                    sCodeCount++;
+                }
+                case 'X', 'Y', 'Z', 'A', 'B', 'C' -> hasAxisWords |= arg.length() > 1;
+                default -> {
+                    // Not used for the state
+                }
             }
         }
 
-        List<String> fCodes = GcodePreprocessorUtils.parseCodes(args, 'F');
-        if (!fCodes.isEmpty()) {
+        if (fCodeCount > 0) {
             try {
-                state.feedRate = Double.parseDouble(Iterables.getOnlyElement(fCodes));
+                if (fCodeCount > 1) {
+                    throw new IllegalArgumentException();
+                }
+                state.feedRate = Double.parseDouble(fCode);
             } catch (IllegalArgumentException e) {
                 throw new GcodeParserException("Multiple F-codes on one line.");
             }
         }
 
-        List<String> sCodes = GcodePreprocessorUtils.parseCodes(args, 'S');
-        if (!sCodes.isEmpty()) {
+        if (sCodeCount > 0) {
             try {
-                state.spindleSpeed = Double.parseDouble(Iterables.getOnlyElement(sCodes));
+                if (sCodeCount > 1) {
+                    throw new IllegalArgumentException();
+                }
+                state.spindleSpeed = Double.parseDouble(sCode);
             } catch (IllegalArgumentException e) {
                 throw new GcodeParserException("Multiple S-codes on one line.");
             }
         }
 
-        // Gather G codes.
-        Set<Code> gCodes = GcodePreprocessorUtils.getGCodes(args);
-
-        boolean hasAxisWords = GcodePreprocessorUtils.hasAxisWords(args);
-
         // Error to mix group 1 (Motion) and certain group 0 (NonModal) codes (G10, G28, G30, G92)
-        Collection<Code> motionCodes = gCodes.stream()
-                .filter(Code::consumesMotion)
-                .collect(Collectors.toList());
+        int motionCodeCount = 0;
+        for (int i = 0; i < context.gCodeCount; i++) {
+            if (context.gCodes[i].consumesMotion()) {
+                motionCodeCount++;
+            }
+        }
 
         // 1 motion code per line.
-        if (motionCodes.size() > 1) {
+        if (motionCodeCount > 1) {
+            List<Code> motionCodes = new ArrayList<>();
+            for (int i = 0; i < context.gCodeCount; i++) {
+                if (context.gCodes[i].consumesMotion()) {
+                    motionCodes.add(context.gCodes[i]);
+                }
+            }
             throw new GcodeParserException(Localization.getString("parser.gcode.multiple-axis-commands")
                     + ": " + StringUtils.join(motionCodes, ", "));
         }
 
         // If there are axis words and nothing to use them, add the currentMotionMode.
-        if (hasAxisWords && motionCodes.isEmpty() && state.currentMotionMode != null) {
-            gCodes.add(state.currentMotionMode);
+        if (hasAxisWords && motionCodeCount == 0 && state.currentMotionMode != null) {
+            context.addGCode(state.currentMotionMode);
         }
 
         // Apply each code to the state.
-        List<GcodeParser.GcodeMeta> results = new ArrayList<>();
-        for (Code i : gCodes) {
+        List<GcodeParser.GcodeMeta> results = new ArrayList<>(context.gCodeCount);
+        for (int c = 0; c < context.gCodeCount; c++) {
+            Code i = context.gCodes[c];
             if (i == UNKNOWN) {
                 LOGGER.warning("An unknown gcode command was detected in: " + command);
             } else {
@@ -162,7 +225,7 @@ public class GcodeParserUtils {
         // Return updated state / command.
         if (results.isEmpty() && includeNonMotionStates) {
             GcodeParser.GcodeMeta meta = new GcodeParser.GcodeMeta();
-            meta.state = state;
+            meta.state = state.copy();
             meta.command = command;
             meta.code = state.currentMotionMode;
             return Collections.singletonList(meta);
@@ -171,6 +234,19 @@ public class GcodeParserUtils {
         return results;
     }
 
+    private static void applyMCode(Code code, GcodeState state) {
+        switch (code.getType()) {
+            case Spindle:
+                state.spindle = code;
+                break;
+            case Coolant:
+                state.coolant = code;
+                break;
+            default:
+                break;
+        }
+    }
+
     private static PointSegment addProbePointSegment(Position nextPoint, boolean fastTraverse, int line, GcodeState state) {
         if (nextPoint == null) {
             return null;
@@ -45,6 +45,18 @@ public interface BackendAPI extends BackendAPIReadOnly {
      */
     void setGcodeFile(File file) throws Exception;
 
+    /**
+     * Preprocesses the given file in a low priority background thread so that it is loaded without
+     * delay when it later is set using {@link #setGcodeFile(File)}. A
+     * {@link com.willwinder.universalgcodesender.model.events.FilePreprocessedEvent} is dispatched
+     * when the file is ready. The file is processed with the command processors in use when this is
+     * called, changing the command processors discards any preprocessed files. If the file hasn't been
+     * completely preprocessed when it is set it will be processed directly instead.
+     *
+     * @param file the file to preprocess
+     */
+    void preprocessGcodeFile(File file);
+
     /**
      * Resets the backend and unloads the currently loaded gcode file
      *
@@ -102,6 +114,16 @@ public interface BackendAPI extends BackendAPIReadOnly {
      */
     void removeCommandProcessor(CommandProcessor commandProcessor) throws Exception;
 
+    /**
+     * Repeats the currently loaded program at each of the given offsets when it is sent. The
+     * processed file is replayed with the offsets applied on the fly, so no new file is written
+     * or processed. The tiling is removed when the file is loaded or processed again.
+     *
+     * @param tileOffsets the offset of each copy, an empty list removes the tiling
+     * @throws Exception if the tiled program could not be loaded
+     */
+    void setGcodeTileOffsets(List<Position> tileOffsets) throws Exception;
+
     /**
      * Process the currently loaded gcode file and export it to a file.
      * Intended primarily as "save and export" style preprocessor option.
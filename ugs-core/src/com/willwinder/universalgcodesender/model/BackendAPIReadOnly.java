@@ -23,6 +23,7 @@ import com.willwinder.universalgcodesender.listeners.MessageListener;
 import com.willwinder.universalgcodesender.utils.Settings;
 
 import java.io.File;
+import java.util.List;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
 
 /**
@@ -65,6 +66,13 @@ public interface BackendAPIReadOnly {
     File getGcodeFile();
     File getProcessedGcodeFile();
 
+    /**
+     * Returns the offsets of each copy if the loaded program has been tiled
+     *
+     * @return the tile offsets or an empty list if the program isn't tiled
+     */
+    List<Position> getGcodeTileOffsets();
+
     // Controller status
     boolean isConnected();
     boolean isSendingFile();
@@ -20,6 +20,8 @@ package com.willwinder.universalgcodesender.model;
 
 import com.google.common.io.Files;
 import com.willwinder.universalgcodesender.IController;
+import com.willwinder.universalgcodesender.Utils;
+import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
 import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
 import com.willwinder.universalgcodesender.gcode.GcodeParser;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
@@ -38,18 +40,27 @@ import com.willwinder.universalgcodesender.listeners.MessageType;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
 import com.willwinder.universalgcodesender.model.UnitUtils.Units;
 import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
+import com.willwinder.universalgcodesender.model.events.FilePreprocessedEvent;
 import com.willwinder.universalgcodesender.model.events.FileState;
 import com.willwinder.universalgcodesender.model.events.FileStateEvent;
+import com.willwinder.universalgcodesender.model.events.PreprocessedFileDiscardedEvent;
 import com.willwinder.universalgcodesender.services.MessageService;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.utils.FirmwareUtils;
 import com.willwinder.universalgcodesender.utils.GcodeFileWriter;
 import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.GcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.IGcodeWriter;
+import com.willwinder.universalgcodesender.utils.JobTimeEstimate;
+import com.willwinder.universalgcodesender.utils.JobTimeEstimator;
+import com.willwinder.universalgcodesender.utils.PreprocessedGcodeFileCache;
+import com.willwinder.universalgcodesender.utils.PreprocessedGcodeFileCache.PreprocessedGcodeFile;
 import com.willwinder.universalgcodesender.utils.Settings;
 import com.willwinder.universalgcodesender.utils.Settings.FileStats;
 import com.willwinder.universalgcodesender.utils.SettingsFactory;
+import com.willwinder.universalgcodesender.utils.ThreadHelper;
+import com.willwinder.universalgcodesender.utils.TiledGcodeStreamReader;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.script.ScriptEngine;
@@ -61,6 +72,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -74,6 +87,16 @@ public class GUIBackend implements BackendAPI {
     private static final Logger logger = Logger.getLogger(GUIBackend.class.getName());
     private static final String NEW_LINE = "\n    ";
 
+    /**
+     * The maximum number of files preprocessed in the background
+     */
+    private static final int PREPROCESS_MAX_FILES = 3;
+
+    /**
+     * The maximum disk space used by files preprocessed in the background
+     */
+    private static final long PREPROCESS_MAX_DISK_SIZE = 512L * 1024 * 1024;
+
     private final MessageService messageService = new MessageService();
     private final GcodeParser gcp = new GcodeParser();
     private final UGSEventDispatcher eventDispatcher;
@@ -88,7 +111,23 @@ public class GUIBackend implements BackendAPI {
     /**
      * A temporary pointer to the active gcode stream. This is needed to make sure it is closed
      */
-    private GcodeStreamReader gcodeStream;
+    private IGcodeStreamReader gcodeStream;
+    private volatile JobTimeEstimate jobTimeEstimate;
+    private List<Position> gcodeTileOffsets = Collections.emptyList();
+    private GcodeStats gcodeStats;
+    private PreprocessedGcodeFileCache preprocessedGcodeFileCache;
+
+    /**
+     * The command processors applied in addition to the firmware processors, these are cleared when a new file is opened
+     */
+    private final List<CommandProcessor> appliedCommandProcessors = new CopyOnWriteArrayList<>();
+
+    /**
+     * The configuration of a preprocessed file, the firmware processors are created for each parser
+     * while the applied command processors are shared with the current parser
+     */
+    private record PreprocessConfiguration(String firmware, List<CommandProcessor> commandProcessors) {
+    }
 
     public GUIBackend() {
         this(new UGSEventDispatcher());
@@ -155,19 +194,24 @@ public class GUIBackend implements BackendAPI {
     private void initGcodeParser() {
         // Configure gcode parser.
         gcp.clearCommandProcessors();
+        appliedCommandProcessors.clear();
+        addFirmwareProcessors(gcp, firmware);
+    }
 
+    private static void addFirmwareProcessors(GcodeParser parser, String firmware) {
         try {
             List<CommandProcessor> processors = FirmwareUtils.getParserFor(firmware).orElse(null);
             for (CommandProcessor p : processors) {
-                gcp.addCommandProcessor(p);
+                parser.addCommandProcessor(p);
             }
         } catch (Exception e) {
-            initializeWithFallbackProcessors(gcp);
+            initializeWithFallbackProcessors(parser);
         }
     }
 
     private void updateWithFirmware(String firmware) throws Exception {
         this.firmware = firmware;
+        getPreprocessedGcodeFileCache().clear();
 
         // Load command processors for this firmware.
         try {
@@ -365,6 +409,9 @@ public class GUIBackend implements BackendAPI {
         this.gcodeFile = null;
         this.gcodeStream = null;
         this.processedGcodeFile = null;
+        this.jobTimeEstimate = null;
+        this.gcodeTileOffsets = Collections.emptyList();
+        this.gcodeStats = null;
     }
 
     @Override
@@ -376,11 +423,13 @@ public class GUIBackend implements BackendAPI {
 
     private void processGcodeFile() throws Exception {
         this.processedGcodeFile = null;
+        this.jobTimeEstimate = null;
+        this.gcodeTileOffsets = Collections.emptyList();
 
         eventDispatcher.sendUGSEvent(new FileStateEvent(FileState.FILE_LOADING));
         initializeProcessedLines(true, this.gcodeFile, this.gcp);
         if (this.processedGcodeFile != null) {
-            gcodeStream = new GcodeStreamReader(this.processedGcodeFile, getCommandCreator());
+            gcodeStream = createGcodeStreamReader();
         }
         eventDispatcher.sendUGSEvent(new FileStateEvent(FileState.FILE_LOADED));
     }
@@ -443,6 +492,10 @@ public class GUIBackend implements BackendAPI {
     public void applyCommandProcessor(CommandProcessor commandProcessor) throws Exception {
         logger.log(Level.INFO, String.format("Applying new command processor %s", commandProcessor.getClass().getSimpleName()));
         gcp.addCommandProcessor(commandProcessor);
+        if (!appliedCommandProcessors.contains(commandProcessor)) {
+            appliedCommandProcessors.add(commandProcessor);
+        }
+        getPreprocessedGcodeFileCache().clear();
 
         if (processedGcodeFile != null) {
             processGcodeFile();
@@ -452,12 +505,52 @@ public class GUIBackend implements BackendAPI {
     @Override
     public void removeCommandProcessor(CommandProcessor commandProcessor) throws Exception {
         gcp.removeCommandProcessor(commandProcessor);
+        appliedCommandProcessors.remove(commandProcessor);
+        getPreprocessedGcodeFileCache().clear();
 
         if (gcodeFile != null) {
             processGcodeFile();
         }
     }
 
+    @Override
+    public void setGcodeTileOffsets(List<Position> tileOffsets) throws Exception {
+        if (this.processedGcodeFile == null) {
+            return;
+        }
+
+        logger.log(Level.INFO, "Tiling gcode file in {0} copies.", tileOffsets.size());
+        this.gcodeTileOffsets = List.copyOf(tileOffsets);
+        this.jobTimeEstimate = null;
+        if (gcodeStream != null) {
+            gcodeStream.close();
+        }
+        gcodeStream = createGcodeStreamReader();
+
+        // Update the file stats with the bounds of all tiles
+        GcodeStats gs = getGcodeStats();
+        Position[] bounds = TiledGcodeStreamReader.getBounds(gs.getMin(), gs.getMax(), gcodeTileOffsets);
+        long commandCount = gcodeTileOffsets.isEmpty() ? gs.getCommandCount() : gcodeStream.getNumRows();
+        this.settings.setFileStats(new FileStats(bounds[0], bounds[1], commandCount));
+        eventDispatcher.sendUGSEvent(new FileStateEvent(FileState.FILE_LOADED));
+    }
+
+    @Override
+    public List<Position> getGcodeTileOffsets() {
+        return gcodeTileOffsets;
+    }
+
+    /**
+     * Creates a reader for the commands to send from the processed gcode file, repeating it for
+     * each tile if the program has been tiled.
+     */
+    private IGcodeStreamReader createGcodeStreamReader() throws GcodeStreamReader.NotGcodeStreamFile, FileNotFoundException {
+        if (gcodeTileOffsets.isEmpty()) {
+            return new GcodeStreamReader(this.processedGcodeFile, getCommandCreator());
+        }
+        return new TiledGcodeStreamReader(this.processedGcodeFile, getCommandCreator(), gcodeTileOffsets);
+    }
+
     @Override
     public File getGcodeFile() {
         logger.log(Level.FINEST, "Getting gcode file.");
@@ -472,7 +565,52 @@ public class GUIBackend implements BackendAPI {
 
         this.gcodeFile = file;
         eventDispatcher.sendUGSEvent(new FileStateEvent(FileState.OPENING_FILE));
-        processGcodeFile();
+
+        Optional<PreprocessedGcodeFile> preprocessedGcodeFile = getPreprocessedGcodeFileCache().take(file, getPreprocessConfiguration());
+        if (preprocessedGcodeFile.isPresent()) {
+            loadPreprocessedGcodeFile(preprocessedGcodeFile.get());
+        } else {
+            processGcodeFile();
+        }
+    }
+
+    /**
+     * Loads a file that has already been preprocessed in the background
+     */
+    private void loadPreprocessedGcodeFile(PreprocessedGcodeFile preprocessedGcodeFile) throws Exception {
+        logger.log(Level.INFO, "Using preprocessed file {0}", preprocessedGcodeFile.processedFile());
+        eventDispatcher.sendUGSEvent(new FileStateEvent(FileState.FILE_LOADING));
+        this.processedGcodeFile = preprocessedGcodeFile.processedFile();
+        this.gcodeStats = preprocessedGcodeFile.stats();
+        this.settings.setFileStats(new FileStats(gcodeStats.getMin(), gcodeStats.getMax(), gcodeStats.getCommandCount()));
+        gcodeStream = createGcodeStreamReader();
+        eventDispatcher.sendUGSEvent(new FileStateEvent(FileState.FILE_LOADED));
+    }
+
+    @Override
+    public void preprocessGcodeFile(File file) {
+        // Uses the same processors as the current parser, including any applied command processors
+        PreprocessConfiguration configuration = getPreprocessConfiguration();
+        getPreprocessedGcodeFileCache()
+                .preprocess(file, configuration, () -> {
+                    GcodeParser parser = new GcodeParser();
+                    addFirmwareProcessors(parser, configuration.firmware());
+                    configuration.commandProcessors().forEach(parser::addCommandProcessor);
+                    return parser;
+                })
+                .thenAccept(result -> eventDispatcher.sendUGSEvent(new FilePreprocessedEvent(result.file(), result.processedFile())));
+    }
+
+    private PreprocessConfiguration getPreprocessConfiguration() {
+        return new PreprocessConfiguration(firmware, List.copyOf(appliedCommandProcessors));
+    }
+
+    private synchronized PreprocessedGcodeFileCache getPreprocessedGcodeFileCache() {
+        if (preprocessedGcodeFileCache == null) {
+            preprocessedGcodeFileCache = new PreprocessedGcodeFileCache(getTempDir(), PREPROCESS_MAX_FILES, PREPROCESS_MAX_DISK_SIZE,
+                    discarded -> eventDispatcher.sendUGSEvent(new PreprocessedFileDiscardedEvent(discarded.file(), discarded.processedFile())));
+        }
+        return preprocessedGcodeFileCache;
     }
 
     @Override
@@ -489,13 +627,14 @@ public class GUIBackend implements BackendAPI {
             if (gcodeStream != null) {
                 gcodeStream.close();
             }
-            gcodeStream = new GcodeStreamReader(this.processedGcodeFile, getCommandCreator());
+            gcodeStream = createGcodeStreamReader();
 
             // This will throw an exception and prevent that other stuff from
             // happening (clearing the table before it is ready for clearing.
             controller.isReadyToStreamFile();
             controller.queueStream(gcodeStream);
             controller.beginStreaming();
+            estimateJobTime();
         } catch (Exception e) {
             logger.log(Level.SEVERE, Localization.getString("mainWindow.error.startingStream"), e);
             throw new Exception(Localization.getString("mainWindow.error.startingStream"), e);
@@ -538,6 +677,12 @@ public class GUIBackend implements BackendAPI {
         long completedRows = getNumCompletedRows();
         long numberOfRows = getNumRows();
 
+        // Use the estimate based on the motions in the file if available
+        JobTimeEstimate currentJobTimeEstimate = jobTimeEstimate;
+        if (currentJobTimeEstimate != null && currentJobTimeEstimate.getRowCount() == numberOfRows) {
+            return currentJobTimeEstimate.getRemainingTime(completedRows);
+        }
+
         // Early exit condition. Can't make an estimate if we haven't started.
         if (completedRows == 0 || numberOfRows == 0) {
             return -1L;
@@ -549,6 +694,32 @@ public class GUIBackend implements BackendAPI {
         return Math.max(0, estimate - elapsedTime);
     }
 
+    /**
+     * Estimates the run time of the processed file in the background using the machine limits
+     * from the firmware settings.
+     */
+    private void estimateJobTime() {
+        File file = processedGcodeFile;
+        IFirmwareSettings firmwareSettings = controller.getFirmwareSettings();
+        if (file == null || firmwareSettings == null) {
+            return;
+        }
+
+        ThreadHelper.invokeLater(() -> {
+            try {
+                JobTimeEstimate estimate = JobTimeEstimator.fromFirmwareSettings(firmwareSettings).estimate(file);
+
+                // Make sure that the file hasn't changed while estimating
+                if (file.equals(processedGcodeFile)) {
+                    jobTimeEstimate = estimate;
+                    logger.log(Level.INFO, "Estimated the job time to " + Utils.formattedMillis(estimate.getTotalTime()));
+                }
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Couldn't estimate the job time", e);
+            }
+        });
+    }
+
     @Override
     public void pauseResume() throws Exception {
         logger.log(Level.INFO, "Pause/Resume");
@@ -792,6 +963,7 @@ public class GUIBackend implements BackendAPI {
 
                 // Store gcode file stats.
                 GcodeStats gs = gcodeParser.getCurrentStats();
+                this.gcodeStats = gs;
                 this.settings.setFileStats(new FileStats(
                         gs.getMin(), gs.getMax(), gs.getCommandCount()));
             }
@@ -801,6 +973,6 @@ public class GUIBackend implements BackendAPI {
     }
 
     public GcodeStats getGcodeStats() {
-        return gcp.getCurrentStats();
+        return gcodeStats != null ? gcodeStats : gcp.getCurrentStats();
     }
 }
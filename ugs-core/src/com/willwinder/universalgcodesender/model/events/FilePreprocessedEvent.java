@@ -0,0 +1,57 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.model.events;
+
+import com.willwinder.universalgcodesender.model.UGSEvent;
+
+import java.io.File;
+
+/**
+ * An event that will be dispatched when a gcode file has been preprocessed in the background
+ * and is ready to be loaded.
+ *
+ * @author Joacim Breiler
+ */
+public class FilePreprocessedEvent implements UGSEvent {
+    private final File file;
+    private final File processedFile;
+
+    public FilePreprocessedEvent(File file, File processedFile) {
+        this.file = file;
+        this.processedFile = processedFile;
+    }
+
+    /**
+     * Returns the source gcode file
+     *
+     * @return the gcode file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the processed file which should be opened with a GcodeStreamReader
+     *
+     * @return the processed file
+     */
+    public File getProcessedFile() {
+        return processedFile;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.model.events;
+
+import com.willwinder.universalgcodesender.model.UGSEvent;
+
+import java.io.File;
+
+/**
+ * An event that will be dispatched when a file preprocessed in the background has been discarded
+ * without being loaded, see {@link FilePreprocessedEvent}.
+ *
+ * @author Joacim Breiler
+ */
+public class PreprocessedFileDiscardedEvent implements UGSEvent {
+    private final File file;
+    private final File processedFile;
+
+    public PreprocessedFileDiscardedEvent(File file, File processedFile) {
+        this.file = file;
+        this.processedFile = processedFile;
+    }
+
+    /**
+     * Returns the source gcode file
+     *
+     * @return the gcode file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the processed file which has been deleted
+     *
+     * @return the processed file
+     */
+    public File getProcessedFile() {
+        return processedFile;
+    }
+}
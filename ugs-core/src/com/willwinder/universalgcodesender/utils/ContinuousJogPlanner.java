@@ -0,0 +1,239 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Keeps track of the jog segments sent to the controller and calculates how long each segment should
+ * be and how many of them that should be queued in the controller to achieve a continuous motion.
+ * <p>
+ * The algorithm is based on the one described here: https://github.com/gnea/grbl/wiki/Grbl-v1.1-Jogging
+ * To keep the motion continuous the queued segments needs to cover both the round-trip latency for
+ * sending a command and receiving its "ok", and the distance the machine needs to decelerate:
+ * <pre>
+ *     (N - 1) * dt > max(latency, v / (2 * a))
+ * </pre>
+ * where N is the number of queued segments, dt the duration of each segment, v the jog speed and a
+ * the acceleration. The segment duration is kept as short as possible to minimize the distance the
+ * machine will travel when the jog is stopped.
+ * <p>
+ * As the controller responds with "ok" when a segment has been added to its planner, and not when it
+ * has been executed, the time when each segment will be executed is estimated to know how much motion
+ * that is queued in the controller.
+ * <p>
+ * The latency is measured from the time a segment is sent until it is acknowledged. If the controller
+ * planner is full the "ok" will be delayed until a block has been executed. If the latency of a whole
+ * round of segments is about one segment duration above the lowest measured latency the planner is
+ * assumed to be full and the planner depth estimate is lowered.
+ *
+ * @author Joacim Breiler
+ */
+public class ContinuousJogPlanner {
+    /**
+     * The minimum segment duration in seconds
+     */
+    public static final double MIN_SEGMENT_DURATION = 0.010;
+
+    /**
+     * The default planner depth used until a full planner has been detected (N=15 for regular GRBL)
+     */
+    public static final int DEFAULT_PLANNER_DEPTH = 15;
+
+    /**
+     * The smallest planner depth to use
+     */
+    private static final int MIN_PLANNER_DEPTH = 3;
+
+    /**
+     * The initial round-trip latency in seconds before anything has been measured
+     */
+    private static final double INITIAL_LATENCY = 0.010;
+
+    /**
+     * How much weight a new latency sample should have in the moving average
+     */
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    /**
+     * The number of latency samples before the lowest measured latency is reset
+     */
+    private static final int MIN_LATENCY_WINDOW = 50;
+
+    /**
+     * The extra margin added to the queue duration to handle jitter in the latency
+     */
+    private static final double MARGIN = 1.25;
+
+    private final Deque<Long> sentTimes = new ArrayDeque<>();
+    private double latency = INITIAL_LATENCY;
+    private double minLatency = Double.MAX_VALUE;
+    private double windowMinLatency = Double.MAX_VALUE;
+    private int windowSampleCount;
+    private int plannerFullCount;
+    private int plannerDepth = DEFAULT_PLANNER_DEPTH;
+    private double segmentDuration = MIN_SEGMENT_DURATION;
+    private double queueDuration = MIN_SEGMENT_DURATION;
+    private long queueEndTime;
+
+    /**
+     * Recalculates the segment duration and the amount of motion to keep queued in the controller.
+     *
+     * @param speed        the jog speed in mm/sec
+     * @param acceleration the acceleration in mm/sec^2 in the jog direction or zero if unknown
+     */
+    public void update(double speed, double acceleration) {
+        double decelerationTime = acceleration > 0 ? speed / (2 * acceleration) : 0;
+        double requiredDuration = Math.max(latency, decelerationTime) * MARGIN;
+
+        segmentDuration = Math.max(MIN_SEGMENT_DURATION, requiredDuration / (plannerDepth - 1));
+        queueDuration = Math.max(requiredDuration, segmentDuration);
+    }
+
+    /**
+     * Should be called when a segment has been sent
+     *
+     * @param time the current time in nanoseconds
+     */
+    public void onSegmentSent(long time) {
+        sentTimes.addLast(time);
+
+        // Estimate when the segment will arrive to the controller and when it will be completed
+        long arrivalTime = time + toNanos(latency / 2);
+        queueEndTime = Math.max(arrivalTime, queueEndTime) + toNanos(segmentDuration);
+    }
+
+    /**
+     * Should be called when a segment has been acknowledged by the controller, it will update the latency estimate
+     *
+     * @param time the current time in nanoseconds
+     */
+    public void onSegmentCompleted(long time) {
+        if (sentTimes.isEmpty()) {
+            return;
+        }
+
+        int segmentsInFlight = sentTimes.size();
+        double sample = (time - sentTimes.removeFirst()) / 1_000_000_000d;
+        latency = (latency * (1 - LATENCY_SMOOTHING)) + (sample * LATENCY_SMOOTHING);
+        updateMinLatency(sample);
+
+        // If the "ok" was delayed for about the time it takes to execute a segment the planner was
+        // most likely full, if it happens for a whole round of segments lower the planner depth.
+        if (sample >= minLatency + segmentDuration * 0.75) {
+            plannerFullCount++;
+            if (plannerFullCount >= Math.max(segmentsInFlight, 2)) {
+                plannerDepth = Math.max(MIN_PLANNER_DEPTH, plannerDepth - 1);
+                plannerFullCount = 0;
+            }
+        } else {
+            plannerFullCount = 0;
+        }
+    }
+
+    private void updateMinLatency(double sample) {
+        windowMinLatency = Math.min(windowMinLatency, sample);
+        minLatency = Math.min(minLatency, sample);
+        windowSampleCount++;
+        if (windowSampleCount >= MIN_LATENCY_WINDOW) {
+            // Start a new window so that the minimum latency can follow changes in the connection
+            minLatency = windowMinLatency;
+            windowMinLatency = Double.MAX_VALUE;
+            windowSampleCount = 0;
+        }
+    }
+
+    /**
+     * Clears all segments in flight, should be called when the jog has been cancelled
+     */
+    public void reset() {
+        sentTimes.clear();
+        plannerFullCount = 0;
+        queueEndTime = 0;
+    }
+
+    /**
+     * Returns if another segment should be sent to keep enough motion queued in the controller
+     *
+     * @param time the current time in nanoseconds
+     * @return true if another segment should be sent
+     */
+    public boolean shouldSendSegment(long time) {
+        return getQueuedTime(time) < toNanos(queueDuration);
+    }
+
+    /**
+     * Returns the time until another segment needs to be sent
+     *
+     * @param time the current time in nanoseconds
+     * @return the time in nanoseconds
+     */
+    public long getTimeUntilNextSegment(long time) {
+        return Math.max(0, getQueuedTime(time) - toNanos(queueDuration));
+    }
+
+    private long getQueuedTime(long time) {
+        return Math.max(0, queueEndTime - time);
+    }
+
+    /**
+     * Returns the number of segments that has been sent but not yet acknowledged by the controller
+     *
+     * @return the number of segments
+     */
+    public int getSegmentsInFlight() {
+        return sentTimes.size();
+    }
+
+    /**
+     * Returns the number of segments the planner will try to keep queued in the controller
+     *
+     * @return the number of segments
+     */
+    public int getTargetQueuedSegments() {
+        return (int) Math.ceil(queueDuration / segmentDuration);
+    }
+
+    /**
+     * Returns the duration of each jog segment
+     *
+     * @return the duration in seconds
+     */
+    public double getSegmentDuration() {
+        return segmentDuration;
+    }
+
+    /**
+     * Returns the estimated round-trip latency for a command
+     *
+     * @return the latency in seconds
+     */
+    public double getLatency() {
+        return latency;
+    }
+
+    public int getPlannerDepth() {
+        return plannerDepth;
+    }
+
+    private static long toNanos(double seconds) {
+        return (long) (seconds * 1_000_000_000d);
+    }
+}
@@ -1,5 +1,5 @@
 /*
-    Copyright 2020-2021 Will Winder
+    Copyright 2020-2025 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -18,6 +18,8 @@
  */
 package com.willwinder.universalgcodesender.utils;
 
+import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
+import com.willwinder.universalgcodesender.listeners.ControllerState;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
 import com.willwinder.universalgcodesender.model.Axis;
 import com.willwinder.universalgcodesender.model.BackendAPI;
@@ -26,14 +28,23 @@ import com.willwinder.universalgcodesender.model.UGSEvent;
 import com.willwinder.universalgcodesender.model.UnitUtils;
 import com.willwinder.universalgcodesender.model.events.CommandEvent;
 import com.willwinder.universalgcodesender.model.events.CommandEventType;
+import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
 import com.willwinder.universalgcodesender.services.JogService;
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 /**
- * A continuous jog worker that will send small jog commands at a fixed interval so that
- * it will achieve the jog feed rate set in the {@link JogService#getFeedRate()}.
+ * A continuous jog worker that will send small jog commands so that it will achieve the
+ * jog feed rate set in the {@link JogService#getFeedRate()}.
  * <p>
- * It will attempt to listen to completed commands to determine if a new jog command
- * can be sent.
+ * It will listen to completed commands to measure the latency of the connection and keep
+ * enough jog commands queued in the controller to get a continuous motion without queueing
+ * more than needed, see {@link ContinuousJogPlanner}.
  * <p>
  * Example usage:
  * ContinuousJogWorker worker = new ContinuousJogWorker(backendAPI, jogService);
@@ -44,8 +55,15 @@ import com.willwinder.universalgcodesender.services.JogService;
  * @author Joacim Breiler
  */
 public class ContinuousJogWorker implements UGSEventListener {
+    private static final Logger LOGGER = Logger.getLogger(ContinuousJogWorker.class.getName());
+    private static final Axis[] AXES = {Axis.X, Axis.Y, Axis.Z, Axis.A, Axis.B, Axis.C};
+
     private final JogService jogService;
     private final BackendAPI backendAPI;
+    private final LongSupplier clock;
+    private final BiConsumer<Runnable, Long> scheduler;
+    private final ContinuousJogPlanner planner = new ContinuousJogPlanner();
+    private final Map<Axis, Double> accelerations = new EnumMap<>(Axis.class);
     private float x;
     private float y;
     private float z;
@@ -54,10 +72,27 @@ public class ContinuousJogWorker implements UGSEventListener {
     private float c;
     private boolean isRunning = false;
     private boolean jogCanceled = true;
+    private long stopTime = -1;
+    private long stopLatency = -1;
+    private boolean isRefillScheduled = false;
 
     public ContinuousJogWorker(BackendAPI backendAPI, JogService jogService) {
+        this(backendAPI, jogService, System::nanoTime, ThreadHelper::invokeLater);
+    }
+
+    /**
+     * Creates a jog worker using the given clock for measuring latencies
+     *
+     * @param backendAPI the backend
+     * @param jogService the jog service to use for sending jog commands
+     * @param clock      a clock returning the current time in nanoseconds
+     * @param scheduler  a scheduler for executing a task after a delay given in milliseconds
+     */
+    ContinuousJogWorker(BackendAPI backendAPI, JogService jogService, LongSupplier clock, BiConsumer<Runnable, Long> scheduler) {
         this.jogService = jogService;
         this.backendAPI = backendAPI;
+        this.clock = clock;
+        this.scheduler = scheduler;
         this.x = 0f;
         this.y = 0f;
         this.z = 0f;
@@ -72,56 +107,147 @@ public class ContinuousJogWorker implements UGSEventListener {
     /**
      * Destroys this instance, removing it as a listener from the backend API.
      */
-    public void destroy() {
+    public synchronized void destroy() {
         isRunning = false;
         jogCanceled = true;
         backendAPI.removeUGSEventListener(this);
     }
 
     /**
-     * Starts sending continuous jogging commands at a fixed interval.
+     * Starts sending continuous jogging commands.
      * Use {@link #stop()} to stop sending jog commands
      */
-    public void start() {
+    public synchronized void start() {
         if (!isRunning) {
+            if (jogCanceled) {
+                planner.reset();
+            }
             isRunning = true;
             jogCanceled = false;
-            sendJogCommand();
+            stopTime = -1;
+            loadAccelerations();
+            sendJogCommands();
         }
     }
 
     /**
      * Stops sending continuous jogging commands
      */
-    public void stop() {
+    public synchronized void stop() {
+        if (isRunning) {
+            stopTime = clock.getAsLong();
+        }
         isRunning = false;
+        cancelJogIfAcknowledged();
+    }
+
+    /**
+     * Cancels the jog when all sent jog commands has been acknowledged by the controller. Otherwise
+     * the jog cancel command could reach the controller before a jog command that is still in transit.
+     */
+    private void cancelJogIfAcknowledged() {
+        if (!isRunning && !jogCanceled && planner.getSegmentsInFlight() == 0) {
+            jogService.cancelJog();
+            planner.reset();
+            jogCanceled = true;
+        }
     }
 
     /**
-     * puts one jog command in the buffer that will take JOG_COMMAND_INTERVAL ms to execute (excluding accelleration)
-     * 
-     * This function calculates the feedrate and magnitude of an individual jog command based
-     * on the algorithm described here: https://github.com/gnea/grbl/wiki/Grbl-v1.1-Jogging
-     * The algorithm has been simplified by reducing consideration for:
-     *    dt > v^2 / (2 * a * (N-1))
-     * Instead, we make some assumptions that are expected for good jog performance:
-     *  1) The latency from when we send a jog command to GRBL and receive the "ok" back is less than 10ms (typically 1-7ms).
-     *  2) The Jog feedrate and machine acceleration are such that the machine can accelerate to it's full jog rate within
-     *     the length of the command buffer (N=15 for regular GRBL).
-     *  3) The command buffer isn't larger than N=15 (if it is, we'll get increasing lag in response to direction/rate changes on the joystick)
-     * command to take 10ms to execute excluding acceleration time.
+     * Returns the time it took for the machine to stop after the last call to {@link #stop()}, measured
+     * until the controller reported that it was idle.
      *
+     * @return the stop latency in milliseconds or -1 if it hasn't been measured yet
+     */
+    public synchronized long getStopLatency() {
+        return stopLatency;
+    }
+
+    /**
+     * Returns the planner used for calculating the jog segments
+     *
+     * @return the jog planner
+     */
+    public ContinuousJogPlanner getPlanner() {
+        return planner;
+    }
+
+    private void loadAccelerations() {
+        accelerations.clear();
+        try {
+            IFirmwareSettings firmwareSettings = backendAPI.getController().getFirmwareSettings();
+            for (Axis axis : AXES) {
+                try {
+                    accelerations.put(axis, firmwareSettings.getAcceleration(axis));
+                } catch (Exception e) {
+                    // The acceleration is not available for this axis
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.FINE, "Could not load the acceleration settings", e);
+        }
+    }
+
+    /**
+     * Fills the controller with jog commands until enough motion is queued and schedules
+     * when the next jog command needs to be sent.
+     */
+    private void sendJogCommands() {
+        final double jogVectorLength = Math.sqrt((x * x) + (y * y) + (z * z) + (a * a) + (b * b) + (c * c));
+        if (!isRunning || jogVectorLength == 0) {
+            return;
+        }
+
+        final double maxFeedRate = jogService.getFeedRate() / 60.0; // maximum jog feed rate in units per second
+        final double v = maxFeedRate * jogVectorLength; // scaled jog feed rate in units per second
+        final double unitScale = UnitUtils.scaleUnits(jogService.getUnits(), UnitUtils.Units.MM);
+        planner.update(v * unitScale, getAcceleration(jogVectorLength));
+
+        while (planner.shouldSendSegment(clock.getAsLong())) {
+            planner.onSegmentSent(clock.getAsLong());
+            sendJogCommand(jogVectorLength, v, planner.getSegmentDuration());
+        }
+
+        if (!isRefillScheduled) {
+            isRefillScheduled = true;
+            long delay = Math.max(1, planner.getTimeUntilNextSegment(clock.getAsLong()) / 1_000_000);
+            scheduler.accept(this::refill, delay);
+        }
+    }
+
+    private synchronized void refill() {
+        isRefillScheduled = false;
+        sendJogCommands();
+    }
+
+    /**
+     * Calculates the maximum acceleration in the jog direction limited by the acceleration of each axis.
+     *
+     * @param jogVectorLength the length of the jog direction vector
+     * @return the acceleration in mm/sec^2 or zero if unknown
+     */
+    private double getAcceleration(double jogVectorLength) {
+        double acceleration = Double.MAX_VALUE;
+        float[] directions = {x, y, z, a, b, c};
+        for (int i = 0; i < AXES.length; i++) {
+            double unitVector = Math.abs(directions[i] / jogVectorLength);
+            double axisAcceleration = accelerations.getOrDefault(AXES[i], 0d);
+            if (unitVector > 0 && axisAcceleration > 0) {
+                acceleration = Math.min(acceleration, axisAcceleration / unitVector);
+            }
+        }
+        return acceleration == Double.MAX_VALUE ? 0 : acceleration;
+    }
+
+    /**
+     * Puts one jog command in the buffer that will take the given time to execute (excluding acceleration)
+     * <p>
      * Note: the jog command total feedrate may exceed the set feedrate if moving in more than one axis at the same time. The max rate
      * in any 1 axis will never exceed the jog feedrate.
-     *
      */
-    private void sendJogCommand() {
+    private void sendJogCommand(double jogVectorLength, double v, double dt) {
         final UnitUtils.Units units = jogService.getUnits();
-        final double jogVectorLength = Math.sqrt((x * x) + (y * y) + (z * z) + (a * a) + (b * b) + (c * c));
         final double speedFactor = jogVectorLength; //FIXME? Double.min(jogVectorLength, 1.0); // caps jog speed at 100% (1.0) of maxFeedRate
-        final double maxFeedRate = jogService.getFeedRate() / 60.0; // maximum jog feed rate in units per second
-        final double v = maxFeedRate * speedFactor; // scaled jog feed rate in units per second
-        final double dt = 0.010; // minimum dt in ms for grbl command latency
         final double s = v * dt; // s = distance in units that this jog command should travel
         final double scaleFactor = s / jogVectorLength; // determine scaleFactor required to scale jogVectorLength to s
 
@@ -176,17 +302,21 @@ public class ContinuousJogWorker implements UGSEventListener {
     }
 
     @Override
-    public void UGSEvent(UGSEvent event) {
+    public synchronized void UGSEvent(UGSEvent event) {
         if (event instanceof CommandEvent && ((CommandEvent) event).getCommandEventType() == CommandEventType.COMMAND_COMPLETE) {
+            planner.onSegmentCompleted(clock.getAsLong());
             if (isRunning) {
-                // still running, send the next jog command
-                sendJogCommand();
-            } else if (!jogCanceled) {
-                // a command has completed
+                // still running, send the next jog commands
+                sendJogCommands();
+            } else {
                 // we've been stopped, so cancel jog commands in the buffer
-                jogService.cancelJog();
-                jogCanceled = true;
+                cancelJogIfAcknowledged();
             }
+        } else if (event instanceof ControllerStateEvent && ((ControllerStateEvent) event).getState() == ControllerState.IDLE && stopTime >= 0) {
+            stopLatency = (clock.getAsLong() - stopTime) / 1_000_000;
+            stopTime = -1;
+            LOGGER.fine(() -> String.format("Jog stopped after %dms (latency %.1fms, segment %.1fms, %d queued segments)",
+                    stopLatency, planner.getLatency() * 1000, planner.getSegmentDuration() * 1000, planner.getTargetQueuedSegments()));
         }
     }
 
@@ -0,0 +1,80 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+/**
+ * The estimated run time of a job created by {@link JobTimeEstimator}. It contains the cumulative
+ * time for each row in the gcode stream making it possible to look up the elapsed and remaining
+ * time for any row.
+ *
+ * @author Joacim Breiler
+ */
+public class JobTimeEstimate {
+    /**
+     * The estimated time in seconds when each row has been completed
+     */
+    private final float[] cumulativeTimes;
+
+    JobTimeEstimate(float[] cumulativeTimes) {
+        this.cumulativeTimes = cumulativeTimes;
+    }
+
+    /**
+     * Returns the number of rows in the estimated gcode stream
+     *
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return cumulativeTimes.length;
+    }
+
+    /**
+     * Returns the estimated time for running the whole job
+     *
+     * @return the estimated time in milliseconds
+     */
+    public long getTotalTime() {
+        return getElapsedTime(cumulativeTimes.length);
+    }
+
+    /**
+     * Returns the estimated time it takes to complete the given number of rows
+     *
+     * @param completedRows the number of completed rows
+     * @return the estimated time in milliseconds
+     */
+    public long getElapsedTime(long completedRows) {
+        if (completedRows <= 0) {
+            return 0;
+        }
+
+        int row = (int) Math.min(completedRows, cumulativeTimes.length) - 1;
+        return Math.round(cumulativeTimes[row] * 1000d);
+    }
+
+    /**
+     * Returns the estimated time left of the job after the given number of rows has been completed
+     *
+     * @param completedRows the number of completed rows
+     * @return the estimated time in milliseconds
+     */
+    public long getRemainingTime(long completedRows) {
+        return Math.max(0, getTotalTime() - getElapsedTime(completedRows));
+    }
+}
@@ -0,0 +1,664 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.firmware.FirmwareSettingsException;
+import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
+import com.willwinder.universalgcodesender.model.Axis;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+import static com.willwinder.universalgcodesender.utils.GcodeStream.FIELD_SEPARATOR;
+import static com.willwinder.universalgcodesender.utils.GcodeStream.META_PREFIX;
+
+/**
+ * Estimates the run time of a job by simulating the motion planner of a GRBL like controller over
+ * a processed gcode stream file.
+ * <p>
+ * The file is read once and each row is converted to a motion segment with a length, a nominal speed
+ * and an acceleration limited by the max rate and acceleration of each axis. The speed through the
+ * junction between two segments is limited using the junction deviation in the same way as GRBL:
+ * <pre>
+ *     v = sqrt(a * δ * sin(θ/2) / (1 - sin(θ/2)))
+ * </pre>
+ * The segments are then planned in chunks that are processed in parallel. Each chunk is extended with
+ * the segments needed to accelerate to and decelerate from the max rate, which makes the speeds at the
+ * chunk boundaries the same as if the whole file had been planned at once. The chunks are then stitched
+ * together into a cumulative time for each row.
+ *
+ * @author Joacim Breiler
+ */
+public class JobTimeEstimator {
+    private static final Logger LOGGER = Logger.getLogger(JobTimeEstimator.class.getName());
+
+    /**
+     * The GRBL default max rate in mm/min used if the max rate of an axis is unknown
+     */
+    private static final double DEFAULT_MAX_RATE = 500;
+
+    /**
+     * The GRBL default acceleration in mm/sec^2 used if the acceleration of an axis is unknown
+     */
+    private static final double DEFAULT_ACCELERATION = 10;
+
+    /**
+     * The GRBL default arc tolerance in mm which decides how many line segments an arc is split into
+     */
+    private static final double ARC_TOLERANCE = 0.002;
+
+    /**
+     * The number of rows to plan in each chunk
+     */
+    private static final int DEFAULT_CHUNK_SIZE = 65_536;
+
+    private static final double MM_PER_INCH = 25.4;
+    private static final int AXIS_COUNT = 3;
+
+    private final double[] maxRates = new double[AXIS_COUNT];
+    private final double[] accelerations = new double[AXIS_COUNT];
+    private final double junctionDeviation;
+    private final int chunkSize;
+
+    /**
+     * Creates an estimator using the given machine limits
+     *
+     * @param maxRates          the max rate for the X, Y and Z axis in mm/min
+     * @param accelerations     the acceleration for the X, Y and Z axis in mm/sec^2
+     * @param junctionDeviation the junction deviation in mm
+     */
+    public JobTimeEstimator(double[] maxRates, double[] accelerations, double junctionDeviation) {
+        this(maxRates, accelerations, junctionDeviation, DEFAULT_CHUNK_SIZE);
+    }
+
+    JobTimeEstimator(double[] maxRates, double[] accelerations, double junctionDeviation, int chunkSize) {
+        for (int axis = 0; axis < AXIS_COUNT; axis++) {
+            this.maxRates[axis] = (maxRates[axis] > 0 ? maxRates[axis] : DEFAULT_MAX_RATE) / 60d;
+            this.accelerations[axis] = accelerations[axis] > 0 ? accelerations[axis] : DEFAULT_ACCELERATION;
+        }
+        this.junctionDeviation = junctionDeviation;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Creates an estimator using the machine limits from the controller firmware settings
+     *
+     * @param firmwareSettings the firmware settings of the controller
+     * @return an estimator
+     */
+    public static JobTimeEstimator fromFirmwareSettings(IFirmwareSettings firmwareSettings) {
+        Axis[] axes = {Axis.X, Axis.Y, Axis.Z};
+        double[] maxRates = new double[AXIS_COUNT];
+        double[] accelerations = new double[AXIS_COUNT];
+        for (int axis = 0; axis < AXIS_COUNT; axis++) {
+            try {
+                maxRates[axis] = firmwareSettings.getMaximumRate(axes[axis]);
+                accelerations[axis] = firmwareSettings.getAcceleration(axes[axis]);
+            } catch (FirmwareSettingsException e) {
+                LOGGER.log(Level.FINE, "Couldn't get the limits for axis " + axes[axis] + ", using defaults", e);
+            }
+        }
+        return new JobTimeEstimator(maxRates, accelerations, firmwareSettings.getJunctionDeviation());
+    }
+
+    /**
+     * Estimates the run time for each row in the given gcode stream file
+     *
+     * @param gcodeStreamFile a file in the format written by {@link GcodeStreamWriter}
+     * @return the estimated time for each row
+     * @throws IOException if the file couldn't be read
+     */
+    public JobTimeEstimate estimate(File gcodeStreamFile) throws IOException {
+        Segments segments = parse(gcodeStreamFile);
+        int chunkCount = (int) (((long) segments.size + chunkSize - 1) / chunkSize);
+        float[] times = new float[segments.size];
+        double[] chunkTimes = new double[chunkCount];
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> chunkTimes[chunk] = planChunk(segments, chunk, times));
+
+        // Stitch the chunks together by offsetting each chunk with the total time of the previous chunks
+        double[] chunkOffsets = new double[chunkCount];
+        for (int chunk = 1; chunk < chunkCount; chunk++) {
+            chunkOffsets[chunk] = chunkOffsets[chunk - 1] + chunkTimes[chunk - 1];
+        }
+
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            double time = chunkOffsets[chunk];
+            int end = (int) Math.min(segments.size, (chunk + 1L) * chunkSize);
+            for (int row = chunk * chunkSize; row < end; row++) {
+                time += times[row];
+                times[row] = (float) time;
+            }
+        });
+
+        return new JobTimeEstimate(times);
+    }
+
+    private Segments parse(File file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String metadata = StringUtils.trimToEmpty(reader.readLine());
+            if (!metadata.startsWith(META_PREFIX)) {
+                throw new IOException("The file " + file + " is not a gcode stream file");
+            }
+
+            int rowCount;
+            try {
+                rowCount = Integer.parseInt(metadata.substring(META_PREFIX.length()));
+            } catch (NumberFormatException e) {
+                throw new IOException("The file " + file + " contains corrupt metadata", e);
+            }
+
+            SegmentParser parser = new SegmentParser(rowCount);
+            String line;
+            int row = 0;
+            while (row < rowCount && (line = reader.readLine()) != null) {
+                // The processed command is found in the second column
+                int start = line.indexOf(FIELD_SEPARATOR);
+                start = start < 0 ? 0 : start + FIELD_SEPARATOR.length();
+                int end = line.indexOf(FIELD_SEPARATOR, start);
+                parser.parse(row, line, start, end < 0 ? line.length() : end);
+                row++;
+            }
+            return parser.segments;
+        }
+    }
+
+    /**
+     * Plans the speeds of the segments in the given chunk and calculates the time for each row.
+     *
+     * @param segments the segments to plan
+     * @param chunk    the chunk to plan
+     * @param times    the array to store the time in seconds for each row
+     * @return the total time in seconds for the chunk
+     */
+    private double planChunk(Segments segments, int chunk, float[] times) {
+        int start = chunk * chunkSize;
+        int end = (int) Math.min(segments.size, (long) start + chunkSize);
+
+        // Extend the chunk with the distance needed to reach the max rate or until the machine has stopped
+        double maxRate = Arrays.stream(maxRates).max().orElse(0);
+        double minAcceleration = Arrays.stream(accelerations).min().orElse(1);
+        double reach = (maxRate * maxRate) / (2 * minAcceleration);
+
+        int windowStart = start;
+        double distance = 0;
+        while (windowStart > 0 && segments.maxEntrySpeeds[windowStart] > 0 && distance < reach) {
+            windowStart--;
+            distance += segments.lengths[windowStart];
+        }
+
+        int windowEnd = end;
+        distance = 0;
+        while (windowEnd < segments.size && segments.maxEntrySpeeds[windowEnd] > 0 && distance < reach) {
+            distance += segments.lengths[windowEnd];
+            windowEnd++;
+        }
+
+        // Backward pass making sure that each segment can decelerate to the entry speed of the next segment
+        double[] entrySpeeds = new double[windowEnd - windowStart + 1];
+        for (int row = windowEnd - 1; row >= windowStart; row--) {
+            double exitSpeed = entrySpeeds[row - windowStart + 1];
+            double reachableSpeed = Math.sqrt(exitSpeed * exitSpeed + 2 * segments.accelerations[row] * segments.lengths[row]);
+            entrySpeeds[row - windowStart] = Math.min(segments.maxEntrySpeeds[row], reachableSpeed);
+        }
+
+        // Forward pass making sure that each segment can accelerate to the entry speed of the next segment
+        entrySpeeds[0] = 0;
+        for (int row = windowStart; row < windowEnd; row++) {
+            double entrySpeed = entrySpeeds[row - windowStart];
+            double reachableSpeed = Math.sqrt(entrySpeed * entrySpeed + 2 * segments.accelerations[row] * segments.lengths[row]);
+            entrySpeeds[row - windowStart + 1] = Math.min(entrySpeeds[row - windowStart + 1], reachableSpeed);
+        }
+
+        double totalTime = 0;
+        for (int row = start; row < end; row++) {
+            double time = segments.dwells[row] + getSegmentTime(
+                    segments.lengths[row],
+                    entrySpeeds[row - windowStart],
+                    entrySpeeds[row - windowStart + 1],
+                    segments.nominalSpeeds[row],
+                    segments.accelerations[row]);
+            times[row] = (float) time;
+            totalTime += time;
+        }
+        return totalTime;
+    }
+
+    /**
+     * Calculates the time it takes to move a segment using a trapezoidal velocity profile
+     *
+     * @param length       the length of the segment in mm
+     * @param entrySpeed   the speed when entering the segment in mm/sec
+     * @param exitSpeed    the speed when exiting the segment in mm/sec
+     * @param nominalSpeed the max speed of the segment in mm/sec
+     * @param acceleration the acceleration in mm/sec^2
+     * @return the time in seconds
+     */
+    static double getSegmentTime(double length, double entrySpeed, double exitSpeed, double nominalSpeed, double acceleration) {
+        if (length <= 0 || nominalSpeed <= 0) {
+            return 0;
+        }
+
+        entrySpeed = Math.min(entrySpeed, nominalSpeed);
+        exitSpeed = Math.min(exitSpeed, nominalSpeed);
+        double accelerationDistance = (nominalSpeed * nominalSpeed - entrySpeed * entrySpeed) / (2 * acceleration);
+        double decelerationDistance = (nominalSpeed * nominalSpeed - exitSpeed * exitSpeed) / (2 * acceleration);
+        if (accelerationDistance + decelerationDistance <= length) {
+            double cruiseDistance = length - accelerationDistance - decelerationDistance;
+            return (nominalSpeed - entrySpeed) / acceleration + (nominalSpeed - exitSpeed) / acceleration + cruiseDistance / nominalSpeed;
+        }
+
+        // The segment is too short to reach the nominal speed
+        double peakSpeed = Math.sqrt((2 * acceleration * length + entrySpeed * entrySpeed + exitSpeed * exitSpeed) / 2);
+        return Math.max(0, peakSpeed - entrySpeed) / acceleration + Math.max(0, peakSpeed - exitSpeed) / acceleration;
+    }
+
+    private static double limitByAxis(double[] limits, double[] direction) {
+        double limit = Double.MAX_VALUE;
+        for (int axis = 0; axis < AXIS_COUNT; axis++) {
+            if (Math.abs(direction[axis]) > 1e-9) {
+                limit = Math.min(limit, limits[axis] / Math.abs(direction[axis]));
+            }
+        }
+        return limit;
+    }
+
+    private static double valueOrDefault(double value, double defaultValue) {
+        return Double.isNaN(value) ? defaultValue : value;
+    }
+
+    /**
+     * The motion segments for each row in the gcode stream
+     */
+    private static class Segments {
+        private final int size;
+        private final float[] lengths;
+        private final float[] nominalSpeeds;
+        private final float[] accelerations;
+        private final float[] maxEntrySpeeds;
+        private final float[] dwells;
+
+        private Segments(int size) {
+            this.size = size;
+            lengths = new float[size];
+            nominalSpeeds = new float[size];
+            accelerations = new float[size];
+            maxEntrySpeeds = new float[size];
+            dwells = new float[size];
+
+            // Rows without motion will not limit the speed
+            Arrays.fill(maxEntrySpeeds, Float.MAX_VALUE);
+        }
+    }
+
+    /**
+     * A minimal gcode parser that only keeps track of the state needed to convert each row to a
+     * motion segment.
+     */
+    private class SegmentParser {
+        private final Segments segments;
+
+        // Modal state
+        private final double[] position = new double[AXIS_COUNT];
+        private int motionMode = 0;
+        private int plane = 17;
+        private boolean isMetric = true;
+        private boolean isAbsolute = true;
+        private boolean isInverseTime = false;
+        private double feedRate = 0;
+
+        // The previous motion segment used for calculating the junction speed
+        private boolean hasPreviousSegment = false;
+        private final double[] previousDirection = new double[AXIS_COUNT];
+        private double previousNominalSpeed;
+        private double previousAcceleration;
+
+        // The words of the current row
+        private final double[] axisWords = new double[AXIS_COUNT];
+        private final double[] offsetWords = new double[AXIS_COUNT];
+        private double radiusWord;
+        private double dwellWord;
+        private boolean isDwell;
+        private boolean isSynchronized;
+        private boolean isMachineCoordinates;
+        private boolean isAxisWordsConsumed;
+        private int cursor;
+
+        private SegmentParser(int rowCount) {
+            segments = new Segments(rowCount);
+        }
+
+        private void parse(int row, String line, int start, int end) {
+            Arrays.fill(axisWords, Double.NaN);
+            Arrays.fill(offsetWords, 0);
+            radiusWord = Double.NaN;
+            dwellWord = 0;
+            isDwell = false;
+            isSynchronized = false;
+            isMachineCoordinates = false;
+            isAxisWordsConsumed = false;
+
+            cursor = start;
+            while (cursor < end) {
+                char c = line.charAt(cursor);
+                if (c == '(') {
+                    while (cursor < end && line.charAt(cursor) != ')') {
+                        cursor++;
+                    }
+                    cursor++;
+                    continue;
+                } else if (c == ';') {
+                    break;
+                }
+
+                cursor++;
+                switch (Character.toUpperCase(c)) {
+                    case 'G' -> applyGcode(parseValue(line, end));
+                    case 'M' -> applyMcode(parseValue(line, end));
+                    case 'F' -> feedRate = valueOrDefault(parseValue(line, end), feedRate);
+                    case 'X' -> axisWords[0] = parseValue(line, end);
+                    case 'Y' -> axisWords[1] = parseValue(line, end);
+                    case 'Z' -> axisWords[2] = parseValue(line, end);
+                    case 'I' -> offsetWords[0] = valueOrDefault(parseValue(line, end), 0);
+                    case 'J' -> offsetWords[1] = valueOrDefault(parseValue(line, end), 0);
+                    case 'K' -> offsetWords[2] = valueOrDefault(parseValue(line, end), 0);
+                    case 'R' -> radiusWord = parseValue(line, end);
+                    case 'P' -> dwellWord = valueOrDefault(parseValue(line, end), 0);
+                    default -> parseValue(line, end);
+                }
+            }
+
+            if (isDwell || isSynchronized) {
+                // The controller will wait for all motions to complete
+                segments.maxEntrySpeeds[row] = 0;
+                segments.dwells[row] = isDwell ? (float) dwellWord : 0;
+                hasPreviousSegment = false;
+            }
+
+            if (isAxisWordsConsumed || !hasAxisWords()) {
+                return;
+            }
+
+            double scale = isMetric ? 1 : MM_PER_INCH;
+            double[] target = new double[AXIS_COUNT];
+            for (int axis = 0; axis < AXIS_COUNT; axis++) {
+                if (Double.isNaN(axisWords[axis])) {
+                    target[axis] = position[axis];
+                } else if (isAbsolute || isMachineCoordinates) {
+                    target[axis] = axisWords[axis] * scale;
+                } else {
+                    target[axis] = position[axis] + axisWords[axis] * scale;
+                }
+            }
+
+            if (motionMode == 0 || motionMode == 10) {
+                addLine(row, target, motionMode == 0);
+            } else if (motionMode == 20 || motionMode == 30) {
+                addArc(row, target, scale, motionMode == 20);
+            } else if (motionMode >= 382 && motionMode <= 385) {
+                // Probing will stop when the probe is triggered
+                addLine(row, target, false);
+                hasPreviousSegment = false;
+            }
+            System.arraycopy(target, 0, position, 0, AXIS_COUNT);
+        }
+
+        private void applyGcode(double value) {
+            int code = (int) Math.round(value * 10);
+            switch (code) {
+                case 0, 10, 20, 30, 382, 383, 384, 385, 800 -> motionMode = code;
+                case 40 -> isDwell = true;
+                case 170, 180, 190 -> plane = code / 10;
+                case 200 -> isMetric = false;
+                case 210 -> isMetric = true;
+                case 530 -> isMachineCoordinates = true;
+                case 900 -> isAbsolute = true;
+                case 910 -> isAbsolute = false;
+                case 930 -> isInverseTime = true;
+                case 940 -> isInverseTime = false;
+                case 280, 300 -> {
+                    // Homing through an intermediate point ends at an unknown position
+                    isAxisWordsConsumed = true;
+                    isSynchronized = true;
+                }
+                case 100, 920 -> isAxisWordsConsumed = true;
+                default -> {
+                    // Ignore codes that doesn't affect the motion
+                }
+            }
+        }
+
+        private void applyMcode(double value) {
+            int code = (int) Math.round(value);
+            switch (code) {
+                // Program flow, tool change, spindle and coolant changes will wait for the motions to complete
+                case 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 30 -> isSynchronized = true;
+                default -> {
+                    // Ignore codes that doesn't affect the motion
+                }
+            }
+        }
+
+        private boolean hasAxisWords() {
+            for (double axisWord : axisWords) {
+                if (!Double.isNaN(axisWord)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void addLine(int row, double[] target, boolean isRapid) {
+            double[] direction = new double[AXIS_COUNT];
+            double length = 0;
+            for (int axis = 0; axis < AXIS_COUNT; axis++) {
+                direction[axis] = target[axis] - position[axis];
+                length += direction[axis] * direction[axis];
+            }
+            length = Math.sqrt(length);
+            if (length < 1e-9) {
+                return;
+            }
+
+            for (int axis = 0; axis < AXIS_COUNT; axis++) {
+                direction[axis] /= length;
+            }
+
+            double maxRate = limitByAxis(maxRates, direction);
+            double acceleration = limitByAxis(accelerations, direction);
+            double nominalSpeed = isRapid ? maxRate : Math.min(maxRate, getFeedSpeed(length, maxRate));
+            addSegment(row, length, nominalSpeed, acceleration, direction, direction);
+        }
+
+        private void addArc(int row, double[] target, double scale, boolean isClockwise) {
+            // The axes of the plane and the linear axis, GRBL uses Z-X for the G18 plane
+            int axis0 = plane == 17 ? 0 : plane == 18 ? 2 : 1;
+            int axis1 = plane == 17 ? 1 : plane == 18 ? 0 : 2;
+            int linearAxis = plane == 17 ? 2 : plane == 18 ? 1 : 0;
+
+            double x = target[axis0] - position[axis0];
+            double y = target[axis1] - position[axis1];
+            double offset0 = offsetWords[axis0] * scale;
+            double offset1 = offsetWords[axis1] * scale;
+
+            if (!Double.isNaN(radiusWord)) {
+                // Calculate the center of the arc using the same method as GRBL
+                double radius = radiusWord * scale;
+                double heightSquared = 4 * radius * radius - x * x - y * y;
+                if (heightSquared < 0 || (x == 0 && y == 0)) {
+                    addLine(row, target, false);
+                    return;
+                }
+
+                double height = -Math.sqrt(heightSquared) / Math.hypot(x, y);
+                if (!isClockwise) {
+                    height = -height;
+                }
+                if (radius < 0) {
+                    height = -height;
+                }
+                offset0 = 0.5 * (x - (y * height));
+                offset1 = 0.5 * (y + (x * height));
+            }
+
+            double radius = Math.hypot(offset0, offset1);
+            if (radius < 1e-9) {
+                addLine(row, target, false);
+                return;
+            }
+
+            // Vectors from the center to the start and end point
+            double start0 = -offset0;
+            double start1 = -offset1;
+            double end0 = x - offset0;
+            double end1 = y - offset1;
+            double angle = Math.atan2(start0 * end1 - start1 * end0, start0 * end0 + start1 * end1);
+            if (isClockwise && angle >= -1e-9) {
+                angle -= 2 * Math.PI;
+            } else if (!isClockwise && angle <= 1e-9) {
+                angle += 2 * Math.PI;
+            }
+
+            double arcLength = Math.abs(angle) * radius;
+            double linearLength = target[linearAxis] - position[linearAxis];
+            double length = Math.hypot(arcLength, linearLength);
+
+            // The tangents at the start and the end of the arc
+            double sign = isClockwise ? -1 : 1;
+            double[] entryDirection = new double[AXIS_COUNT];
+            entryDirection[axis0] = sign * -start1 / radius * arcLength / length;
+            entryDirection[axis1] = sign * start0 / radius * arcLength / length;
+            entryDirection[linearAxis] = linearLength / length;
+
+            double endRadius = Math.max(Math.hypot(end0, end1), 1e-9);
+            double[] exitDirection = new double[AXIS_COUNT];
+            exitDirection[axis0] = sign * -end1 / endRadius * arcLength / length;
+            exitDirection[axis1] = sign * end0 / endRadius * arcLength / length;
+            exitDirection[linearAxis] = linearLength / length;
+
+            double maxRate = Math.min(maxRates[axis0], maxRates[axis1]);
+            double acceleration = Math.min(accelerations[axis0], accelerations[axis1]);
+            if (Math.abs(linearLength) > 1e-9) {
+                maxRate = Math.min(maxRate, maxRates[linearAxis]);
+                acceleration = Math.min(acceleration, accelerations[linearAxis]);
+            }
+
+            // The arc is split into small line segments by the controller, the junction speed
+            // between the segments will limit the speed through the arc
+            double arcSpeed = Math.sqrt(acceleration * radius * junctionDeviation / ARC_TOLERANCE);
+            double nominalSpeed = Math.min(Math.min(maxRate, arcSpeed), getFeedSpeed(length, maxRate));
+            addSegment(row, length, nominalSpeed, acceleration, entryDirection, exitDirection);
+        }
+
+        private void addSegment(int row, double length, double nominalSpeed, double acceleration, double[] entryDirection, double[] exitDirection) {
+            double maxEntrySpeed = 0;
+            if (hasPreviousSegment) {
+                double junctionSpeed = getJunctionSpeed(entryDirection, Math.min(acceleration, previousAcceleration));
+                maxEntrySpeed = Math.min(junctionSpeed, Math.min(nominalSpeed, previousNominalSpeed));
+            }
+
+            segments.lengths[row] = (float) length;
+            segments.nominalSpeeds[row] = (float) nominalSpeed;
+            segments.accelerations[row] = (float) acceleration;
+            segments.maxEntrySpeeds[row] = (float) Math.min(maxEntrySpeed, segments.maxEntrySpeeds[row]);
+
+            hasPreviousSegment = true;
+            System.arraycopy(exitDirection, 0, previousDirection, 0, AXIS_COUNT);
+            previousNominalSpeed = nominalSpeed;
+            previousAcceleration = acceleration;
+        }
+
+        private double getJunctionSpeed(double[] direction, double acceleration) {
+            double cosTheta = 0;
+            for (int axis = 0; axis < AXIS_COUNT; axis++) {
+                cosTheta -= previousDirection[axis] * direction[axis];
+            }
+
+            if (cosTheta > 0.999999) {
+                // The direction is reversed
+                return 0;
+            } else if (cosTheta < -0.999999) {
+                // Straight line
+                return Double.MAX_VALUE;
+            }
+
+            double sinThetaHalf = Math.sqrt(0.5 * (1.0 - cosTheta));
+            return Math.sqrt(acceleration * junctionDeviation * sinThetaHalf / (1.0 - sinThetaHalf));
+        }
+
+        private double getFeedSpeed(double length, double maxRate) {
+            if (feedRate <= 0) {
+                return maxRate;
+            } else if (isInverseTime) {
+                // The feed rate is the inverse of the time in minutes for the move
+                return length * feedRate / 60d;
+            }
+            return feedRate * (isMetric ? 1 : MM_PER_INCH) / 60d;
+        }
+
+        /**
+         * Parses a decimal value at the current position
+         *
+         * @return the parsed value or NaN if no number was found
+         */
+        private double parseValue(String line, int end) {
+            boolean negative = false;
+            if (cursor < end && (line.charAt(cursor) == '-' || line.charAt(cursor) == '+')) {
+                negative = line.charAt(cursor) == '-';
+                cursor++;
+            }
+
+            long mantissa = 0;
+            long divisor = 1;
+            boolean hasDigits = false;
+            boolean isDecimal = false;
+            while (cursor < end) {
+                char c = line.charAt(cursor);
+                if (c >= '0' && c <= '9') {
+                    hasDigits = true;
+                    if (mantissa < Long.MAX_VALUE / 100) {
+                        mantissa = mantissa * 10 + (c - '0');
+                        if (isDecimal) {
+                            divisor *= 10;
+                        }
+                    }
+                } else if (c == '.' && !isDecimal) {
+                    isDecimal = true;
+                } else {
+                    break;
+                }
+                cursor++;
+            }
+
+            if (!hasDigits) {
+                return Double.NaN;
+            }
+
+            double value = (double) mantissa / divisor;
+            return negative ? -value : value;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.GcodeStats;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Preprocesses gcode files in a low priority background thread so that they later can be loaded
+ * without waiting for the preprocessing. The number of files and the disk space used by the
+ * processed files are limited, the least recently requested files are discarded first. A listener
+ * can be given to be notified when a processed file is discarded so that any data derived from it
+ * can be released.
+ *
+ * @author Joacim Breiler
+ */
+public class PreprocessedGcodeFileCache {
+    private static final Logger LOGGER = Logger.getLogger(PreprocessedGcodeFileCache.class.getName());
+
+    private final File directory;
+    private final int maxFiles;
+    private final long maxDiskSize;
+    private final ExecutorService executor;
+    private final Consumer<PreprocessedGcodeFile> discardListener;
+
+    /**
+     * The preprocessed files in the order they were requested, guarded by this
+     */
+    private final Map<File, Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * A preprocessed gcode file
+     *
+     * @param file          the source gcode file
+     * @param lastModified  the modification time of the source file when it was processed
+     * @param length        the size of the source file when it was processed
+     * @param processedFile the processed file in the gcode stream format
+     * @param stats         the stats of the processed gcode
+     */
+    public record PreprocessedGcodeFile(File file, long lastModified, long length, File processedFile, GcodeStats stats) {
+        private boolean isStale() {
+            return file.lastModified() != lastModified || file.length() != length;
+        }
+    }
+
+    private record Entry(Object configuration, CompletableFuture<PreprocessedGcodeFile> future) {
+    }
+
+    /**
+     * Creates a cache storing the processed files in the given directory
+     *
+     * @param directory   the directory to write the processed files to
+     * @param maxFiles    the maximum number of files to keep
+     * @param maxDiskSize the maximum number of bytes the processed files may use
+     */
+    public PreprocessedGcodeFileCache(File directory, int maxFiles, long maxDiskSize) {
+        this(directory, maxFiles, maxDiskSize, preprocessedGcodeFile -> {
+        });
+    }
+
+    /**
+     * Creates a cache storing the processed files in the given directory
+     *
+     * @param directory       the directory to write the processed files to
+     * @param maxFiles        the maximum number of files to keep
+     * @param maxDiskSize     the maximum number of bytes the processed files may use
+     * @param discardListener is notified with each processed file that is deleted from the cache
+     */
+    public PreprocessedGcodeFileCache(File directory, int maxFiles, long maxDiskSize, Consumer<PreprocessedGcodeFile> discardListener) {
+        this.directory = directory;
+        this.maxFiles = maxFiles;
+        this.maxDiskSize = maxDiskSize;
+        this.discardListener = discardListener;
+        this.executor = ThreadHelper.createLowPriorityExecutor("Gcode preprocessor");
+    }
+
+    /**
+     * Preprocesses the given file in the background unless it already has been processed with the
+     * same configuration.
+     *
+     * @param file            the file to preprocess
+     * @param configuration   the configuration of the parser such as its command processors, the file
+     *                        will be processed again if it isn't equal to the configuration it was processed with
+     * @param parserSupplier  supplies a new parser to preprocess the file with
+     * @return a future with the preprocessed file
+     */
+    public synchronized CompletableFuture<PreprocessedGcodeFile> preprocess(File file, Object configuration, Supplier<GcodeParser> parserSupplier) {
+        Entry entry = entries.remove(file);
+        if (entry != null && Objects.equals(entry.configuration(), configuration) && !isStale(entry)) {
+            // Move it last as the most recently requested file
+            entries.put(file, entry);
+            return entry.future();
+        } else if (entry != null) {
+            discard(entry);
+        }
+
+        CompletableFuture<PreprocessedGcodeFile> future = new CompletableFuture<>();
+        entries.put(file, new Entry(configuration, future));
+        executor.execute(() -> run(file, parserSupplier, future));
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxFiles && iterator.hasNext()) {
+            discard(iterator.next());
+            iterator.remove();
+        }
+        return future;
+    }
+
+    /**
+     * Takes the preprocessed file out of the cache if it has been completely processed, a file that
+     * is still queued or being processed is discarded so that the caller can process it directly
+     * instead of waiting behind other background work. The processed file is then owned by the caller.
+     *
+     * @param file          the source gcode file
+     * @param configuration the configuration of the parser that is expected
+     * @return the preprocessed file or empty if it wasn't processed or isn't valid anymore
+     */
+    public Optional<PreprocessedGcodeFile> take(File file, Object configuration) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.remove(file);
+        }
+
+        if (entry == null) {
+            return Optional.empty();
+        } else if (!Objects.equals(entry.configuration(), configuration) || !entry.future().isDone()) {
+            discard(entry);
+            return Optional.empty();
+        }
+
+        try {
+            PreprocessedGcodeFile preprocessedGcodeFile = entry.future().get();
+            if (preprocessedGcodeFile.isStale()) {
+                discard(entry);
+                return Optional.empty();
+            }
+            return Optional.of(preprocessedGcodeFile);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            discard(entry);
+        } catch (ExecutionException | CancellationException e) {
+            LOGGER.log(Level.FINE, "Could not use the preprocessed file " + file, e);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Discards all preprocessed files
+     */
+    public void clear() {
+        List<Entry> discarded;
+        synchronized (this) {
+            discarded = new ArrayList<>(entries.values());
+            entries.clear();
+        }
+        discarded.forEach(this::discard);
+    }
+
+    private void run(File file, Supplier<GcodeParser> parserSupplier, CompletableFuture<PreprocessedGcodeFile> future) {
+        // Skip the file if it was discarded before we got to it
+        if (future.isDone()) {
+            return;
+        }
+
+        try {
+            PreprocessedGcodeFile preprocessedGcodeFile = preprocessFile(file, parserSupplier.get());
+            if (!future.complete(preprocessedGcodeFile)) {
+                deleteProcessedFile(preprocessedGcodeFile);
+            }
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private PreprocessedGcodeFile preprocessFile(File file, GcodeParser parser) throws Exception {
+        long lastModified = file.lastModified();
+        long length = file.length();
+        if (getUsedDiskSize() + length > maxDiskSize) {
+            throw new IOException("Not enough disk space left for preprocessing " + file);
+        }
+
+        long startTime = System.currentTimeMillis();
+        File processedFile = new File(directory, file.getName() + "_ugs_" + startTime);
+        try (IGcodeWriter gcw = new GcodeStreamWriter(processedFile)) {
+            GcodeParserUtils.processAndExport(parser, file, gcw);
+        }
+
+        PreprocessedGcodeFile preprocessedGcodeFile = new PreprocessedGcodeFile(file, lastModified, length, processedFile, parser.getCurrentStats());
+        if (getUsedDiskSize() + processedFile.length() > maxDiskSize) {
+            deleteProcessedFile(preprocessedGcodeFile);
+            throw new IOException("Not enough disk space left for preprocessing " + file);
+        }
+
+        LOGGER.log(Level.INFO, "Preprocessed {0} in the background in {1}ms", new Object[]{file, System.currentTimeMillis() - startTime});
+        return preprocessedGcodeFile;
+    }
+
+    private synchronized long getUsedDiskSize() {
+        return entries.values().stream()
+                .map(Entry::future)
+                .filter(future -> future.isDone() && !future.isCompletedExceptionally())
+                .mapToLong(future -> future.join().processedFile().length())
+                .sum();
+    }
+
+    private static boolean isStale(Entry entry) {
+        CompletableFuture<PreprocessedGcodeFile> future = entry.future();
+        return future.isCompletedExceptionally() || (future.isDone() && future.join().isStale());
+    }
+
+    private void discard(Entry entry) {
+        CompletableFuture<PreprocessedGcodeFile> future = entry.future();
+        if (!future.cancel(false) && !future.isCompletedExceptionally()) {
+            PreprocessedGcodeFile preprocessedGcodeFile = future.join();
+            deleteProcessedFile(preprocessedGcodeFile);
+            discardListener.accept(preprocessedGcodeFile);
+        }
+    }
+
+    private static void deleteProcessedFile(PreprocessedGcodeFile preprocessedGcodeFile) {
+        try {
+            Files.deleteIfExists(preprocessedGcodeFile.processedFile().toPath());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not delete preprocessed file " + preprocessedGcodeFile.processedFile(), e);
+        }
+    }
+}
@@ -38,7 +38,12 @@ public class SettingsFactory {
     private static final Logger logger = Logger.getLogger(SettingsFactory.class.getName());
     private static final String USER_HOME = "user.home";
     private static final String FALSE = "false";
+    private static final Gson GSON = new GsonBuilder()
+            .setPrettyPrinting()
+            .serializeSpecialFloatingPointValues()
+            .create();
     private static Settings settings;
+    private static SettingsPersistence settingsPersistence;
 
     public static final String SETTINGS_DIRECTORY_NAME = "ugs";
     public static final String PROPERTIES_FILENAME = "UniversalGcodeSender.properties";
@@ -57,7 +62,7 @@ public class SettingsFactory {
                 try (InputStream fileInputStream = new FileInputStream(settingsFile)){
                     logger.log(Level.INFO, "Log location: {0}", settingsFile.getAbsolutePath());
                     logger.info("Loading settings.");
-                    settings = new Gson().fromJson(new InputStreamReader(fileInputStream, StandardCharsets.UTF_8), Settings.class);
+                    settings = GSON.fromJson(new InputStreamReader(fileInputStream, StandardCharsets.UTF_8), Settings.class);
                     if (settings != null) {
                         settings.finalizeInitialization();
                     }
@@ -73,21 +78,31 @@ public class SettingsFactory {
         return settings;
     }
 
+    /**
+     * Saves the settings in the background. Multiple calls within a short time will be written
+     * to the settings file at once, use {@link #flushSettings()} to make sure they are written.
+     *
+     * @param settings the settings to save
+     */
     public static void saveSettings(Settings settings) {
-        logger.info(Localization.getString("settings.log.saving"));
-        try {
-            // Save json file.
-            File jsonFile = getSettingsFile();
-            try (Writer writer = new OutputStreamWriter(new FileOutputStream(jsonFile), StandardCharsets.UTF_8)) {
-                Gson gson = new GsonBuilder()
-                        .setPrettyPrinting()
-                        .serializeSpecialFloatingPointValues()
-                        .create();
-                writer.write(gson.toJson(settings, Settings.class));
-            }
-         } catch (Exception e) {
-            logger.log(Level.SEVERE, Localization.getString("settings.log.saveerror"), e);
+        getSettingsPersistence().save(settings);
+    }
+
+    /**
+     * Writes any settings that are waiting to be saved, should be called before exiting the application.
+     */
+    public static void flushSettings() {
+        getSettingsPersistence().flush();
+    }
+
+    private static synchronized SettingsPersistence getSettingsPersistence() {
+        if (settingsPersistence == null) {
+            settingsPersistence = new SettingsPersistence(getSettingsFile(), GSON, SettingsPersistence.DEFAULT_DELAY);
+
+            // Make sure that any pending changes are written on exit
+            Runtime.getRuntime().addShutdownHook(new Thread(settingsPersistence::flush, "SettingsPersistence"));
         }
+        return settingsPersistence;
     }
 
     /**
@@ -145,6 +160,7 @@ public class SettingsFactory {
                 out.updateMacro("customGcode5", 5, null, null, properties.getProperty("customGcode5", ""));
                 out.setLanguage(properties.getProperty("language", "en_US"));
                 saveSettings(out);
+                flushSettings();
 
                 // Delete the old settings file if it exists.
                 oldPropertyFile.delete();
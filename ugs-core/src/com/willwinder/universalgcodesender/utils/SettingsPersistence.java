@@ -0,0 +1,145 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.google.gson.Gson;
+import com.willwinder.universalgcodesender.i18n.Localization;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persists settings to a JSON file in the background. The settings are serialized in the thread
+ * requesting the save so that the background thread never reads the shared settings object while it
+ * is being modified. Multiple save requests within the delay are coalesced into a single write of the
+ * latest settings. The file is first written to a temporary
+ * file which then replaces the settings file so that a crash never leaves a partially written file.
+ *
+ * @author Joacim Breiler
+ */
+public class SettingsPersistence {
+    private static final Logger LOGGER = Logger.getLogger(SettingsPersistence.class.getName());
+
+    /**
+     * The default time in milliseconds to wait for more changes before writing the settings
+     */
+    public static final long DEFAULT_DELAY = 500;
+
+    private final File file;
+    private final Gson gson;
+    private final long delay;
+    private final AtomicReference<String> pendingJson = new AtomicReference<>();
+    private final AtomicInteger writeCount = new AtomicInteger();
+    private final Object writeLock = new Object();
+    private ScheduledFuture<?> scheduledWrite;
+
+    /**
+     * Creates a settings persistence
+     *
+     * @param file  the file to write the settings to
+     * @param gson  the gson instance used for serializing the settings
+     * @param delay the time in milliseconds to wait for more changes before writing
+     */
+    public SettingsPersistence(File file, Gson gson, long delay) {
+        this.file = file;
+        this.gson = gson;
+        this.delay = delay;
+    }
+
+    /**
+     * Requests the settings to be saved. The settings are serialized immediately in the calling thread
+     * and will be written in a background thread after the delay, any other requests made before that
+     * will replace the pending content.
+     *
+     * @param settings the settings to save
+     */
+    public void save(Settings settings) {
+        pendingJson.set(gson.toJson(settings, Settings.class));
+        scheduleWrite();
+    }
+
+    /**
+     * Writes any pending settings immediately in the calling thread, should be used before exiting the application.
+     */
+    public void flush() {
+        synchronized (writeLock) {
+            String json = pendingJson.getAndSet(null);
+            if (json == null) {
+                return;
+            }
+
+            try {
+                write(json);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.SEVERE, Localization.getString("settings.log.saveerror"), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of times the settings file has been written
+     *
+     * @return the number of writes
+     */
+    public int getWriteCount() {
+        return writeCount.get();
+    }
+
+    private synchronized void scheduleWrite() {
+        if (scheduledWrite == null) {
+            scheduledWrite = ThreadHelper.invokeLater(this::writePendingSettings, delay);
+        }
+    }
+
+    private void writePendingSettings() {
+        synchronized (this) {
+            // Any save requests from now on will need a new write
+            scheduledWrite = null;
+        }
+        flush();
+    }
+
+    private void write(String json) throws IOException {
+        LOGGER.info(Localization.getString("settings.log.saving"));
+
+        Path target = file.toPath().toAbsolutePath();
+        Path temporaryFile = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+        try {
+            Files.writeString(temporaryFile, json, StandardCharsets.UTF_8);
+            try {
+                Files.move(temporaryFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            writeCount.incrementAndGet();
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+}
@@ -19,6 +19,7 @@
 package com.willwinder.universalgcodesender.utils;
 
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
@@ -45,6 +46,22 @@ public class ThreadHelper {
         return scheduledExecutor.submit(r);
     }
 
+    /**
+     * Creates a single threaded executor that runs its tasks in a low priority daemon thread.
+     * Intended for background work that shouldn't compete with streaming or the user interface.
+     *
+     * @param name the name of the thread
+     * @return a new executor
+     */
+    static public ExecutorService createLowPriorityExecutor(String name) {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
     /**
      * Schedules a timer that will be executed at a fixed interval given in milliseconds
      *
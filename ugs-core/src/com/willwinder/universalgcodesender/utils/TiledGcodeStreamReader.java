@@ -0,0 +1,220 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
+import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.ICommandCreator;
+import com.willwinder.universalgcodesender.gcode.processors.M30Processor;
+import com.willwinder.universalgcodesender.gcode.processors.Translator;
+import com.willwinder.universalgcodesender.gcode.util.Code;
+import com.willwinder.universalgcodesender.gcode.util.GcodeUtils;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static com.willwinder.universalgcodesender.Utils.formatter;
+
+/**
+ * Replays an already processed 'GcodeStream' file once for every tile offset, translating the
+ * commands of each tile on the fly. This makes it possible to run a program in a grid of copies
+ * without writing and processing a new file containing all the copies.
+ * <p>
+ * Each tile starts with setting the units and absolute mode followed by a rapid move to the
+ * tile offset. The commands are numbered in the order they are streamed, which means that the
+ * command numbers of all but the first tile won't match the line numbers of the stream file.
+ *
+ * @author Joacim Breiler
+ */
+public class TiledGcodeStreamReader implements IGcodeStreamReader {
+    /**
+     * The number of commands added in front of each tile
+     */
+    private static final int TILE_PROLOGUE_ROWS = 2;
+
+    private final File gcodeStreamFile;
+    private final ICommandCreator commandCreator;
+    private final List<Position> tileOffsets;
+    private final int rowsPerTile;
+    private final int numRows;
+    private final M30Processor m30Processor = new M30Processor();
+
+    private IGcodeStreamReader tileReader;
+    private Translator translator;
+    private GcodeState state;
+    private int currentRow;
+
+    /**
+     * Creates a reader replaying the given stream file at each of the tile offsets
+     *
+     * @param gcodeStreamFile a processed gcode stream file
+     * @param commandCreator  the command creator to use for creating the commands
+     * @param tileOffsets     the offsets of each tile, must contain at least one offset
+     * @throws GcodeStreamReader.NotGcodeStreamFile if the file isn't a gcode stream file
+     * @throws FileNotFoundException                if the file couldn't be found
+     */
+    public TiledGcodeStreamReader(File gcodeStreamFile, ICommandCreator commandCreator, List<Position> tileOffsets) throws GcodeStreamReader.NotGcodeStreamFile, FileNotFoundException {
+        if (tileOffsets.isEmpty()) {
+            throw new IllegalArgumentException("At least one tile offset is needed");
+        }
+
+        this.gcodeStreamFile = gcodeStreamFile;
+        this.commandCreator = commandCreator;
+        this.tileOffsets = new ArrayList<>(tileOffsets);
+        this.tileReader = new GcodeStreamReader(gcodeStreamFile, commandCreator);
+        this.rowsPerTile = tileReader.getNumRows() + TILE_PROLOGUE_ROWS;
+        this.numRows = rowsPerTile * tileOffsets.size();
+        this.currentRow = 0;
+    }
+
+    /**
+     * Returns the bounds of the tiled program given the bounds of the program in the stream
+     *
+     * @param min         the minimum coordinate of a single tile
+     * @param max         the maximum coordinate of a single tile
+     * @param tileOffsets the offsets of each tile
+     * @return an array with the minimum and maximum coordinate for all tiles
+     */
+    public static Position[] getBounds(Position min, Position max, List<Position> tileOffsets) {
+        if (tileOffsets.isEmpty()) {
+            return new Position[]{new Position(min), new Position(max)};
+        }
+
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, minZ = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE, maxZ = -Double.MAX_VALUE;
+        for (Position tileOffset : tileOffsets) {
+            Position offset = tileOffset.getPositionIn(min.getUnits());
+            minX = Math.min(minX, min.x + offset.x);
+            minY = Math.min(minY, min.y + offset.y);
+            minZ = Math.min(minZ, min.z + offset.z);
+            maxX = Math.max(maxX, max.x + offset.x);
+            maxY = Math.max(maxY, max.y + offset.y);
+            maxZ = Math.max(maxZ, max.z + offset.z);
+        }
+        return new Position[]{new Position(minX, minY, minZ, min.getUnits()), new Position(maxX, maxY, maxZ, max.getUnits())};
+    }
+
+    @Override
+    public boolean ready() {
+        return getNumRowsRemaining() > 0;
+    }
+
+    @Override
+    public int getNumRows() {
+        return numRows;
+    }
+
+    @Override
+    public int getNumRowsRemaining() {
+        return numRows - currentRow;
+    }
+
+    @Override
+    public GcodeCommand getNextCommand() throws IOException {
+        if (getNumRowsRemaining() <= 0) {
+            return null;
+        }
+
+        int commandNumber = currentRow++;
+        int tileRow = commandNumber % rowsPerTile;
+        Position offset = tileOffsets.get(commandNumber / rowsPerTile);
+        if (tileRow == 0) {
+            startTile(commandNumber / rowsPerTile, offset);
+            String command = GcodeUtils.unitCommand(offset.getUnits()) + "G90";
+            return commandCreator.createCommand(command, command, "", commandNumber);
+        } else if (tileRow == 1) {
+            String command = "G0X" + formatter.format(offset.x) + "Y" + formatter.format(offset.y);
+            return commandCreator.createCommand(command, command, "", commandNumber);
+        }
+
+        GcodeCommand command = tileReader.getNextCommand();
+        if (command == null) {
+            throw new IOException("Unexpected end of gcode stream: " + gcodeStreamFile);
+        }
+        return commandCreator.createCommand(translate(command.getCommandString()), command.getOriginalCommandString(), command.getComment(), commandNumber);
+    }
+
+    private void startTile(int tile, Position offset) throws IOException {
+        // The first tile reuses the stream opened when counting the rows
+        if (tile > 0) {
+            tileReader.close();
+            try {
+                tileReader = new GcodeStreamReader(gcodeStreamFile, commandCreator);
+            } catch (GcodeStreamReader.NotGcodeStreamFile e) {
+                throw new IOException("Could not reopen gcode stream: " + gcodeStreamFile, e);
+            }
+        }
+
+        translator = new Translator(offset);
+        state = new GcodeState();
+        state.units = offset.getUnits() == UnitUtils.Units.INCH ? Code.G20 : Code.G21;
+        state.isMetric = state.units == Code.G21;
+        state.inAbsoluteMode = true;
+    }
+
+    /**
+     * Translates the command with the offset of the current tile, keeping track of the modal
+     * states needed for knowing how the coordinates should be translated.
+     */
+    private String translate(String command) {
+        if (StringUtils.isBlank(command) || command.startsWith("$")) {
+            return command;
+        }
+
+        Set<Code> codes = GcodePreprocessorUtils.getGCodes(GcodePreprocessorUtils.splitCommand(command));
+        for (Code code : codes) {
+            switch (code) {
+                case G20, G21 -> {
+                    state.units = code;
+                    state.isMetric = code == Code.G21;
+                }
+                case G90 -> state.inAbsoluteMode = true;
+                case G91 -> state.inAbsoluteMode = false;
+                case G90_1 -> state.inAbsoluteIJKMode = true;
+                case G91_1 -> state.inAbsoluteIJKMode = false;
+                default -> {
+                    // Doesn't affect the translation
+                }
+            }
+        }
+
+        // Remove the program end so that the following tiles will be run
+        String result = m30Processor.processCommand(command, state).get(0);
+
+        // Machine coordinates and coordinate system changes should not be translated
+        if (codes.contains(Code.G53) || codes.contains(Code.G10) || codes.contains(Code.G92)) {
+            return result;
+        }
+        return translator.processCommand(result, state).get(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        currentRow = numRows;
+        tileReader.close();
+    }
+}
@@ -22,9 +22,11 @@ import com.willwinder.universalgcodesender.communicator.AbstractCommunicator;
 import com.willwinder.universalgcodesender.gcode.util.Code;
 import com.willwinder.universalgcodesender.listeners.ControllerListener;
 import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.MessageType;
 import com.willwinder.universalgcodesender.model.CommunicatorState;
 import com.willwinder.universalgcodesender.model.PartialPosition;
 import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.services.MessageService;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import org.junit.Before;
 import org.junit.Test;
@@ -77,6 +79,21 @@ public class G2CoreControllerTest {
         verify(communicator).sendByteImmediately(TinyGUtils.COMMAND_ENQUIRE_STATUS);
     }
 
+    @Test
+    public void rawResponseWithPlainTextResponsesShouldNotBeParsedAsJson() {
+        MessageService messageService = mock(MessageService.class);
+        controller.setMessageService(messageService);
+
+        controller.rawResponseHandler("ok");
+        controller.rawResponseHandler("error:20");
+        controller.rawResponseHandler("ALARM:1");
+
+        verify(messageService).dispatchMessage(MessageType.VERBOSE, "ok\n");
+        verify(messageService).dispatchMessage(MessageType.ERROR, "error:20\n");
+        verify(messageService).dispatchMessage(MessageType.ERROR, "ALARM:1\n");
+        verify(communicator, times(0)).queueCommand(any());
+    }
+
     @Test
     public void rawResponseWithAckResponse() {
         // When
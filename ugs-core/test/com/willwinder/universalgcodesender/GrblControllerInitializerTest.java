@@ -1,33 +1,58 @@
 package com.willwinder.universalgcodesender;
 
+import com.willwinder.universalgcodesender.communicator.ICommunicator;
+import com.willwinder.universalgcodesender.firmware.FirmwareSetting;
+import com.willwinder.universalgcodesender.firmware.grbl.GrblFirmwareSettings;
+import com.willwinder.universalgcodesender.firmware.grbl.GrblSettingsCache;
 import com.willwinder.universalgcodesender.firmware.grbl.commands.GetBuildInfoCommand;
 import com.willwinder.universalgcodesender.firmware.grbl.commands.GetParserStateCommand;
 import com.willwinder.universalgcodesender.firmware.grbl.commands.GetSettingsCommand;
 import com.willwinder.universalgcodesender.firmware.grbl.commands.GetStatusCommand;
+import com.willwinder.universalgcodesender.firmware.grbl.commands.GrblCommand;
 import com.willwinder.universalgcodesender.firmware.grbl.commands.GrblSystemCommand;
 import com.willwinder.universalgcodesender.listeners.ControllerState;
 import com.willwinder.universalgcodesender.services.MessageService;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyByte;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class GrblControllerInitializerTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Mock
     private GrblController controller;
 
+    @Mock
+    private ICommunicator communicator;
+
+    private GrblSettingsCache settingsCache;
+    private GrblControllerInitializer instance;
+
     private static void mockParserStateCommand(GrblController controller) throws Exception {
         doAnswer((arguments) -> {
             GcodeCommand command = arguments.getArgument(0);
@@ -39,6 +64,8 @@ public class GrblControllerInitializerTest {
     private static void mockSettingsCommand(GrblController controller) throws Exception {
         doAnswer((arguments) -> {
             GcodeCommand command = arguments.getArgument(0);
+            command.setResponse("$0=10\n$1=25\nok\n");
+            command.setOk(true);
             command.setDone(true);
             return null;
         }).when(controller).sendCommandImmediately(any(GetSettingsCommand.class));
@@ -63,10 +90,20 @@ public class GrblControllerInitializerTest {
     }
 
     @Before
-    public void setUp() {
+    public void setUp() throws Exception {
         MockitoAnnotations.initMocks(this);
         when(controller.isCommOpen()).thenReturn(true);
         when(controller.getMessageService()).thenReturn(new MessageService());
+        when(controller.getCommunicator()).thenReturn(communicator);
+
+        // Simulate that the controller responds to the status query
+        doAnswer((arguments) -> {
+            instance.onControllerReady();
+            return null;
+        }).when(communicator).sendByteImmediately(anyByte());
+
+        settingsCache = new GrblSettingsCache(new File(temporaryFolder.getRoot(), "cache.json"));
+        instance = new GrblControllerInitializer(controller, settingsCache);
     }
 
     @Test
@@ -76,7 +113,6 @@ public class GrblControllerInitializerTest {
         mockSettingsCommand(controller);
         mockParserStateCommand(controller);
 
-        GrblControllerInitializer instance = new GrblControllerInitializer(controller);
         assertTrue(instance.initialize());
         assertEquals(1.1d, instance.getVersion().getVersionNumber(), 0.01);
         assertEquals(Character.valueOf('f'), instance.getVersion().getVersionLetter());
@@ -90,14 +126,12 @@ public class GrblControllerInitializerTest {
         mockSettingsCommand(controller);
         mockParserStateCommand(controller);
 
-        GrblControllerInitializer instance = new GrblControllerInitializer(controller);
         assertTrue(instance.initialize());
         assertFalse(instance.initialize());
     }
 
     @Test
     public void initializeShouldThrowErrorWhenNoStatusResponseFromController() throws Exception {
-        GrblControllerInitializer instance = new GrblControllerInitializer(controller);
         RuntimeException exception = assertThrows(RuntimeException.class, instance::initialize);
         assertEquals("Could not query the device status", exception.getMessage());
 
@@ -107,7 +141,6 @@ public class GrblControllerInitializerTest {
 
     @Test
     public void initializeShouldResetControllerIfTheControllerIsNotResponsive() throws Exception {
-        GrblControllerInitializer instance = new GrblControllerInitializer(controller);
 
         // Mock status as HOLD which will force it to send command with empty line break to see if it is still responsive
         mockStatusCommand(controller, ControllerState.HOLD);
@@ -117,4 +150,99 @@ public class GrblControllerInitializerTest {
         verify(controller, times(1)).sendCommandImmediately(any(GrblSystemCommand.class));
         verify(controller, times(1)).issueSoftReset();
     }
+
+    @Test
+    public void initializeShouldNotWaitForControllerIfReady() throws Exception {
+        mockStatusCommand(controller, ControllerState.IDLE);
+        mockBuildInfoCommand(controller);
+        mockSettingsCommand(controller);
+        mockParserStateCommand(controller);
+
+        long startTime = System.currentTimeMillis();
+        assertTrue(instance.initialize());
+        assertTrue("Expected the initialization to be faster than the old fixed delays", System.currentTimeMillis() - startTime < 2000);
+        assertTrue(instance.getConnectTime() >= 0);
+        verify(communicator, times(1)).sendByteImmediately(GrblUtils.GRBL_STATUS_COMMAND);
+    }
+
+    @Test
+    public void initializeShouldContinueIfControllerNeverSignalsReady() throws Exception {
+        doAnswer(arguments -> null).when(communicator).sendByteImmediately(anyByte());
+        mockStatusCommand(controller, ControllerState.IDLE);
+        mockBuildInfoCommand(controller);
+        mockSettingsCommand(controller);
+        mockParserStateCommand(controller);
+
+        assertTrue(instance.initialize());
+        assertTrue(instance.getConnectTime() >= 2000);
+        verify(communicator, times(10)).sendByteImmediately(GrblUtils.GRBL_STATUS_COMMAND);
+    }
+
+    @Test
+    public void initializeShouldSendQueriesWithoutWaitingForResponses() throws Exception {
+        List<GcodeCommand> sentCommands = new ArrayList<>();
+        doAnswer((arguments) -> {
+            sentCommands.add(arguments.getArgument(0));
+
+            // Respond to all queries once all of them has been sent
+            if (sentCommands.size() == 3) {
+                sentCommands.get(0).setResponse("[VER:1.1f]\nok\n");
+                sentCommands.forEach(command -> {
+                    command.setOk(true);
+                    command.setDone(true);
+                });
+            }
+            return null;
+        }).when(controller).sendCommandImmediately(any(GrblCommand.class));
+        mockStatusCommand(controller, ControllerState.IDLE);
+
+        assertTrue(instance.initialize());
+        assertEquals(3, sentCommands.size());
+        assertTrue(sentCommands.get(0) instanceof GetBuildInfoCommand);
+        assertTrue(sentCommands.get(1) instanceof GetSettingsCommand);
+        assertTrue(sentCommands.get(2) instanceof GetParserStateCommand);
+    }
+
+    @Test
+    public void initializeShouldThrowTimeoutErrorWhenControllerDoesNotRespondToQueries() throws Exception {
+        mockStatusCommand(controller, ControllerState.IDLE);
+
+        ControllerException exception = assertThrows(ControllerException.class, instance::initialize);
+
+        assertTrue(exception.getCause() instanceof TimeoutException);
+        assertFalse(instance.isInitializing());
+        verify(controller).closeCommPort();
+    }
+
+    @Test
+    public void initializeShouldCacheSettingsAndUseThemOnNextConnect() throws Exception {
+        GrblFirmwareSettings firmwareSettings = mock(GrblFirmwareSettings.class);
+        when(controller.getFirmwareSettings()).thenReturn(firmwareSettings);
+        mockStatusCommand(controller, ControllerState.IDLE);
+        mockBuildInfoCommand(controller);
+        mockSettingsCommand(controller);
+        mockParserStateCommand(controller);
+
+        assertTrue(instance.initialize());
+        verify(firmwareSettings, never()).updateFirmwareSetting(any());
+        verify(firmwareSettings).setPipelinedSettingsSupported(false);
+
+        // Wait for the settings to be cached asynchronously
+        long timeout = System.currentTimeMillis() + 2000;
+        while (settingsCache.get("[VER:1.1f]").isEmpty() && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        List<FirmwareSetting> cachedSettings = settingsCache.get("[VER:1.1f]").orElse(null);
+        assertNotNull(cachedSettings);
+        assertEquals(2, cachedSettings.size());
+
+        // The settings should be loaded from the cache when connecting again
+        GrblControllerInitializer newInstance = new GrblControllerInitializer(controller, new GrblSettingsCache(new File(temporaryFolder.getRoot(), "cache.json")));
+        doAnswer((arguments) -> {
+            newInstance.onControllerReady();
+            return null;
+        }).when(communicator).sendByteImmediately(anyByte());
+        assertTrue(newInstance.initialize());
+        verify(firmwareSettings, times(2)).updateFirmwareSetting(any());
+    }
 }
@@ -6,7 +6,9 @@ import java.io.IOException;
 import java.nio.BufferOverflowException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
 public class RingBufferTest {
 
@@ -46,4 +48,31 @@ public class RingBufferTest {
 
         assertThrows(BufferOverflowException.class, () -> buffer.write(new byte[]{10}));
     }
+
+    @Test
+    public void awaitAvailableShouldReturnWhenDataIsWritten() throws InterruptedException {
+        RingBuffer buffer = new RingBuffer(10);
+        Thread writer = new Thread(() -> buffer.write(new byte[]{1, 2}));
+        writer.start();
+
+        assertTrue(buffer.awaitAvailable(2, 5000));
+        writer.join();
+    }
+
+    @Test
+    public void awaitAvailableShouldReturnFalseOnTimeout() throws InterruptedException {
+        RingBuffer buffer = new RingBuffer(10);
+        buffer.write(new byte[]{1});
+
+        assertFalse(buffer.awaitAvailable(2, 10));
+    }
+
+    @Test
+    public void readShouldReturnUnsignedBytes() {
+        RingBuffer buffer = new RingBuffer(10);
+        buffer.write((byte) 0xFF);
+
+        assertEquals(255, buffer.read());
+        assertEquals(-1, buffer.read());
+    }
 }
@@ -0,0 +1,47 @@
+package com.willwinder.universalgcodesender.connection.xmodem;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class TrimEOFOutputStreamTest {
+
+    @Test
+    public void writeShouldTrimTrailingEOF() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        TrimEOFOutputStream trimStream = new TrimEOFOutputStream(outputStream);
+
+        trimStream.write(new byte[]{1, 2, 0x1A, 0x1A}, 0, 4);
+        trimStream.close();
+
+        assertArrayEquals(new byte[]{1, 2}, outputStream.toByteArray());
+    }
+
+    @Test
+    public void writeShouldKeepEOFBetweenBlocks() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        TrimEOFOutputStream trimStream = new TrimEOFOutputStream(outputStream);
+
+        trimStream.write(new byte[]{1, 0x1A, 0x1A}, 0, 3);
+        trimStream.write(new byte[]{0x1A, 0x1A}, 0, 2);
+        trimStream.write(2);
+        trimStream.write(new byte[]{0x1A}, 0, 1);
+        trimStream.close();
+
+        assertArrayEquals(new byte[]{1, 0x1A, 0x1A, 0x1A, 0x1A, 2}, outputStream.toByteArray());
+    }
+
+    @Test
+    public void writeWithOnlyEOFShouldWriteNothing() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        TrimEOFOutputStream trimStream = new TrimEOFOutputStream(outputStream);
+
+        trimStream.write(new byte[]{0x1A, 0x1A}, 0, 2);
+        trimStream.close();
+
+        assertArrayEquals(new byte[0], outputStream.toByteArray());
+    }
+}
@@ -0,0 +1,151 @@
+package com.willwinder.universalgcodesender.connection.xmodem;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class XModemTest {
+
+    private XModem sender;
+    private XModem receiver;
+
+    @Before
+    public void setUp() {
+        RingBuffer senderBuffer = new RingBuffer(4096);
+        RingBuffer receiverBuffer = new RingBuffer(4096);
+        sender = new XModem(senderBuffer, new LoopbackOutputStream(receiverBuffer));
+        receiver = new XModem(receiverBuffer, new LoopbackOutputStream(senderBuffer));
+    }
+
+    @Test
+    public void sendAndReceiveWithShortBlocks() throws Exception {
+        byte[] data = createData(1000);
+
+        byte[] result = transfer(data, false, false);
+
+        assertArrayEquals(data, XModemUtils.trimEOF(result));
+        assertEquals(1024, result.length);
+    }
+
+    @Test
+    public void sendAndReceiveWithLongBlocksAndCRC16() throws Exception {
+        byte[] data = createData(300_000);
+
+        byte[] result = transfer(data, true, true);
+
+        assertArrayEquals(data, XModemUtils.trimEOF(result));
+    }
+
+    @Test
+    public void sendWithLongBlocksShouldUseShortBlockForLastData() throws Exception {
+        byte[] data = createData(1024 + 100);
+
+        byte[] result = transfer(data, true, true);
+
+        assertEquals(1024 + 128, result.length);
+        assertArrayEquals(data, XModemUtils.trimEOF(result));
+    }
+
+    @Test
+    public void sendAndReceiveShouldHandleMoreThan255Blocks() throws Exception {
+        byte[] data = createData(128 * 600);
+
+        byte[] result = transfer(data, false, true);
+
+        assertArrayEquals(data, result);
+    }
+
+    @Test
+    public void sendAndReceiveShouldNotifyProgress() throws Exception {
+        byte[] data = createData(5000);
+        List<TransferProgress> sendProgress = new ArrayList<>();
+        List<TransferProgress> receiveProgress = new ArrayList<>();
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        CompletableFuture<Void> receive = CompletableFuture.runAsync(() -> {
+            try {
+                receiver.receive(outputStream, true, receiveProgress::add);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        sender.send(new ByteArrayInputStream(data), data.length, true, sendProgress::add);
+        receive.get(10, TimeUnit.SECONDS);
+
+        TransferProgress lastSendProgress = sendProgress.get(sendProgress.size() - 1);
+        assertEquals(5000, lastSendProgress.bytesTransferred());
+        assertEquals(100, lastSendProgress.getPercent(), 0.01);
+        assertEquals(sendProgress.size(), receiveProgress.size());
+    }
+
+    @Test
+    public void sendAndReceiveYModemShouldTruncateToFileLength() throws Exception {
+        byte[] data = createData(10_000);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        CompletableFuture<String> receive = CompletableFuture.supplyAsync(() -> {
+            try {
+                return receiver.receiveYModem(outputStream, TransferProgressListener.NONE);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        sender.sendYModem("test.gcode", data.length, new ByteArrayInputStream(data), TransferProgressListener.NONE);
+
+        assertEquals("test.gcode", receive.get(10, TimeUnit.SECONDS));
+        assertArrayEquals(data, outputStream.toByteArray());
+    }
+
+    private byte[] transfer(byte[] data, boolean useBlock1K, boolean useCRC16) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        CompletableFuture<Void> receive = CompletableFuture.runAsync(() -> {
+            try {
+                receiver.receive(outputStream, useCRC16);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        sender.send(new ByteArrayInputStream(data), useBlock1K);
+        receive.get(10, TimeUnit.SECONDS);
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] createData(int length) {
+        byte[] data = new byte[length];
+        new Random(1).nextBytes(data);
+
+        // Make sure the data doesn't end with EOF as it would be trimmed
+        data[length - 1] = 'A';
+        return data;
+    }
+
+    private static class LoopbackOutputStream extends OutputStream {
+        private final RingBuffer buffer;
+
+        public LoopbackOutputStream(RingBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer.write((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            buffer.write(bytes, offset, length);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.willwinder.universalgcodesender.firmware;
+
+import com.willwinder.universalgcodesender.GrblUtils;
+import com.willwinder.universalgcodesender.firmware.fluidnc.FluidNCUtils;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assume.assumeTrue;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+public class ResponseClassifierTest {
+    private static final String TRANSCRIPT_FILE = "../test_files/grbl_serial_transcript.txt";
+
+    @Test
+    public void classifyShouldDetectCommandResponses() {
+        assertEquals(ResponseType.OK, ResponseClassifier.classify("ok"));
+        assertEquals(ResponseType.ERROR, ResponseClassifier.classify("error:20"));
+        assertEquals(ResponseType.ERROR, ResponseClassifier.classify("error: Bad number format"));
+        assertEquals(ResponseType.ALARM, ResponseClassifier.classify("ALARM:1"));
+    }
+
+    @Test
+    public void classifyShouldDetectStatusResponses() {
+        assertEquals(ResponseType.STATUS, ResponseClassifier.classify("<Idle|MPos:0.000,0.000,0.000|FS:0,0>"));
+        assertEquals(ResponseType.STATUS, ResponseClassifier.classify("<Idle,MPos:5.529,0.560,7.000,WPos:1.529,-5.440,-0.000>"));
+        assertEquals(ResponseType.OTHER, ResponseClassifier.classify("<Idle|MPos:0.000"));
+    }
+
+    @Test
+    public void classifyShouldDetectBracketedResponses() {
+        assertEquals(ResponseType.PROBE, ResponseClassifier.classify("[PRB:1.000,2.000,3.000:1]"));
+        assertEquals(ResponseType.PARSER_STATE, ResponseClassifier.classify("[GC:G0 G54 G17 G21 G90 G94 M5 M9 T0 F0 S0]"));
+        assertEquals(ResponseType.MESSAGE, ResponseClassifier.classify("[MSG:Pgm End]"));
+        assertEquals(ResponseType.FEEDBACK, ResponseClassifier.classify("[G54:0.000,0.000,0.000]"));
+        assertEquals(ResponseType.FEEDBACK, ResponseClassifier.classify("[G0 G54 G17 G21 G90 G94 M0 M5 M9 T0 F0.]"));
+        assertEquals(ResponseType.OTHER, ResponseClassifier.classify("[MSG:Pgm End"));
+    }
+
+    @Test
+    public void classifyShouldDetectSettings() {
+        assertEquals(ResponseType.SETTING, ResponseClassifier.classify("$100=250.000"));
+        assertEquals(ResponseType.SETTING, ResponseClassifier.classify("$0=10"));
+        assertEquals(ResponseType.OTHER, ResponseClassifier.classify("$100="));
+        assertEquals(ResponseType.OTHER, ResponseClassifier.classify("$N0=G20"));
+        assertEquals(ResponseType.OTHER, ResponseClassifier.classify("$$"));
+    }
+
+    @Test
+    public void classifyShouldDetectVersionStrings() {
+        assertEquals(ResponseType.VERSION, ResponseClassifier.classify("Grbl 1.1h ['$' for help]"));
+        assertEquals(ResponseType.VERSION, ResponseClassifier.classify("Grbl 0.9j ['$' for help]"));
+        assertEquals(ResponseType.VERSION, ResponseClassifier.classify("GrblHAL 1.1f ['$' or '$HELP' for help]"));
+        assertEquals(ResponseType.VERSION, ResponseClassifier.classify("CarbideMotion 0.9g ['$' for help]"));
+        assertEquals(ResponseType.VERSION, ResponseClassifier.classify("gCarvin 2.0.0 ['$' for help]"));
+        assertEquals(ResponseType.VERSION, ResponseClassifier.classify("Grbl 3.7 [FluidNC v3.7.8 (wifi) '$' for help]"));
+        assertEquals(ResponseType.OTHER, ResponseClassifier.classify("Grbl"));
+        assertEquals(ResponseType.OTHER, ResponseClassifier.classify("G1 X10"));
+    }
+
+    @Test
+    public void classifyShouldDetectJsonResponses() {
+        assertEquals(ResponseType.JSON, ResponseClassifier.classify("{\"r\":{\"sr\":{\"stat\":3}},\"f\":[1,0,0]}"));
+    }
+
+    @Test
+    public void classifyShouldHandleUnknownResponses() {
+        assertEquals(ResponseType.OTHER, ResponseClassifier.classify(null));
+        assertEquals(ResponseType.OTHER, ResponseClassifier.classify(""));
+        assertEquals(ResponseType.OTHER, ResponseClassifier.classify("Unknown response"));
+    }
+
+    @Test
+    public void classifyShouldMatchPreviousPatternsForTranscript() throws IOException {
+        List<String> responses = loadTranscript();
+        for (String response : responses) {
+            assertEquals("Unexpected type for response \"" + response + "\"", classifyUsingPatterns(response), ResponseClassifier.classify(response));
+        }
+    }
+
+    @Test
+    public void classifyShouldFindAllResponseTypesInTranscript() throws IOException {
+        Map<ResponseType, Integer> counts = new EnumMap<>(ResponseType.class);
+        loadTranscript().forEach(response -> counts.merge(ResponseClassifier.classify(response), 1, Integer::sum));
+
+        assertEquals(Integer.valueOf(1794), counts.get(ResponseType.OK));
+        assertEquals(Integer.valueOf(46), counts.get(ResponseType.ERROR));
+        assertEquals(Integer.valueOf(13), counts.get(ResponseType.ALARM));
+        assertEquals(Integer.valueOf(544), counts.get(ResponseType.STATUS));
+        assertEquals(Integer.valueOf(29), counts.get(ResponseType.PROBE));
+        assertEquals(Integer.valueOf(47), counts.get(ResponseType.PARSER_STATE));
+        assertEquals(Integer.valueOf(21), counts.get(ResponseType.MESSAGE));
+        assertEquals(Integer.valueOf(7), counts.get(ResponseType.FEEDBACK));
+        assertEquals(Integer.valueOf(34), counts.get(ResponseType.SETTING));
+        assertEquals(Integer.valueOf(13), counts.get(ResponseType.VERSION));
+        assertNull(counts.get(ResponseType.JSON));
+        assertNull(counts.get(ResponseType.OTHER));
+    }
+
+    /**
+     * Classifies the response using the predicate chain that was previously used by the controllers
+     */
+    private static ResponseType classifyUsingPatterns(String response) {
+        if (GrblUtils.isOkResponse(response)) {
+            return ResponseType.OK;
+        } else if (GrblUtils.isErrorResponse(response)) {
+            return ResponseType.ERROR;
+        } else if (GrblUtils.isAlarmResponse(response)) {
+            return ResponseType.ALARM;
+        } else if (GrblUtils.isGrblVersionString(response)) {
+            return ResponseType.VERSION;
+        } else if (FluidNCUtils.isProbeMessage(response)) {
+            return ResponseType.PROBE;
+        } else if (GrblUtils.isGrblStatusString(response)) {
+            return ResponseType.STATUS;
+        } else if (GrblUtils.isGrblFeedbackMessageV1(response)) {
+            return ResponseType.PARSER_STATE;
+        } else if (FluidNCUtils.isMessageResponse(response)) {
+            return ResponseType.MESSAGE;
+        } else if (response.matches("\\[.*]")) {
+            return ResponseType.FEEDBACK;
+        } else if (GrblUtils.isGrblSettingMessage(response)) {
+            return ResponseType.SETTING;
+        }
+        return ResponseType.OTHER;
+    }
+
+    private static List<String> loadTranscript() throws IOException {
+        File file = new File(TRANSCRIPT_FILE);
+        assumeTrue("Missing transcript " + file.getAbsolutePath(), file.exists());
+        return Files.readAllLines(file.toPath());
+    }
+}
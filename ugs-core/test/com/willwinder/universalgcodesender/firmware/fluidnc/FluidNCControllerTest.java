@@ -235,6 +235,41 @@ public class FluidNCControllerTest {
         messagesInOrder.verifyNoMoreInteractions();
     }
 
+    @Test
+    public void rawResponseListenerShouldDispatchResponsesByType() {
+        ControllerListener listener = mock(ControllerListener.class);
+        target.addListener(listener);
+
+        target.rawResponseListener("[MSG:Caution: Unlocked]");
+        target.rawResponseListener("[PRB:1.000,2.000,3.000:1]");
+        target.rawResponseListener("unknown response");
+
+        verify(messageService, times(1)).dispatchMessage(MessageType.INFO, "Caution: Unlocked\n");
+        verify(messageService, times(1)).dispatchMessage(MessageType.VERBOSE, "Other: [PRB:1.000,2.000,3.000:1]\n");
+        verify(messageService, times(1)).dispatchMessage(MessageType.VERBOSE, "Other: unknown response\n");
+
+        ArgumentCaptor<Position> positionCaptor = ArgumentCaptor.forClass(Position.class);
+        verify(listener, times(1)).probeCoordinates(positionCaptor.capture());
+        assertEquals(new Position(1, 2, 3, UnitUtils.Units.MM), positionCaptor.getValue());
+        verify(listener, times(0)).commandComplete(any());
+    }
+
+    @Test
+    public void rawResponseListenerShouldCompleteActiveCommandAndDispatchProbeCoordinates() {
+        ControllerListener listener = mock(ControllerListener.class);
+        target.addListener(listener);
+
+        GcodeCommand command = new GcodeCommand("G38.2 Z-10 F100");
+        target.commandSent(command);
+        command.appendResponse("[PRB:1.000,2.000,3.000:1]");
+        command.appendResponse("ok");
+        target.rawResponseListener("[PRB:1.000,2.000,3.000:1]");
+
+        verify(listener, times(1)).commandComplete(command);
+        verify(listener, times(1)).probeCoordinates(any());
+        verify(messageService, times(0)).dispatchMessage(eq(MessageType.VERBOSE), startsWith("Other:"));
+    }
+
     @Test
     public void restoreParserModalStateShouldRestoreRelativeMode() {
         target.updateParserModalState(new GcodeCommand("G91"));
@@ -19,6 +19,7 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -28,6 +29,8 @@ import static org.mockito.Mockito.when;
 import org.mockito.invocation.InvocationOnMock;
 
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
@@ -437,6 +440,182 @@ public class GrblFirmwareSettingsTest {
         assertEquals(1000, target.getMaxSpindleSpeed());
     }
 
+    @Test
+    public void setSettingsShouldSendAllCommandsWithoutWaitingForResponses() throws Exception {
+        // Given
+        List<GcodeCommand> sentCommands = mockSentCommands();
+        target.setPipelinedSettingsSupported(true);
+        setFirmwareSetting("$0", "10");
+        setFirmwareSetting("$1", "25");
+        setFirmwareSetting("$2", "0");
+        setFirmwareSetting("$3", "0");
+
+        IFirmwareSettingsListener firmwareSettingsListener = mock(IFirmwareSettingsListener.class);
+        target.addListener(firmwareSettingsListener);
+
+        // When
+        Future<?> setSettingsFuture = Executors.newCachedThreadPool().submit(() -> {
+            target.setSettings(List.of(
+                    new FirmwareSetting("$0", "11"),
+                    new FirmwareSetting("$1", "26"),
+                    new FirmwareSetting("$2", "0"),
+                    new FirmwareSetting("$3", "1")));
+            return null;
+        });
+
+        // All changed settings should be sent before any response is received
+        waitForSentCommands(sentCommands, 3);
+        assertEquals("$0=11", sentCommands.get(0).getCommandString());
+        assertEquals("$1=26", sentCommands.get(1).getCommandString());
+        assertEquals("$3=1", sentCommands.get(2).getCommandString());
+        assertFalse(setSettingsFuture.isDone());
+
+        // Simulate the responses from the controller
+        sentCommands.forEach(command -> {
+            command.setOk(true);
+            command.setDone(true);
+        });
+        setSettingsFuture.get();
+
+        // Then
+        assertEquals("11", target.getSetting("$0").get().getValue());
+        assertEquals("26", target.getSetting("$1").get().getValue());
+        assertEquals("0", target.getSetting("$2").get().getValue());
+        assertEquals("1", target.getSetting("$3").get().getValue());
+
+        ArgumentCaptor<List<FirmwareSetting>> settingsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(firmwareSettingsListener, times(1)).onUpdatedFirmwareSettings(settingsCaptor.capture());
+        verify(firmwareSettingsListener, times(0)).onUpdatedFirmwareSetting(any());
+        assertEquals(3, settingsCaptor.getValue().size());
+    }
+
+    @Test
+    public void setSettingsShouldStoreSuccessfulSettingsAndThrowExceptionForFailedSettings() throws Exception {
+        // Given
+        List<GcodeCommand> sentCommands = mockSentCommands();
+        target.setPipelinedSettingsSupported(true);
+        setFirmwareSetting("$0", "10");
+        setFirmwareSetting("$1", "25");
+        setFirmwareSetting("$2", "0");
+
+        // When
+        Future<?> setSettingsFuture = Executors.newCachedThreadPool().submit(() -> {
+            target.setSettings(List.of(
+                    new FirmwareSetting("$0", "11"),
+                    new FirmwareSetting("$1", "26"),
+                    new FirmwareSetting("$2", "1"),
+                    new FirmwareSetting("$99", "1")));
+            return null;
+        });
+
+        // Simulate the responses from the controller where the second setting fails
+        waitForSentCommands(sentCommands, 3);
+        sentCommands.get(0).setOk(true);
+        sentCommands.get(1).setError(true);
+        sentCommands.get(2).setOk(true);
+        sentCommands.forEach(command -> command.setDone(true));
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class, setSettingsFuture::get);
+        assertTrue(exception.getCause() instanceof FirmwareSettingsException);
+        assertEquals("Couldn't set the firmware settings: $99, $1", exception.getCause().getMessage());
+        assertEquals("11", target.getSetting("$0").get().getValue());
+        assertEquals("25", target.getSetting("$1").get().getValue());
+        assertEquals("1", target.getSetting("$2").get().getValue());
+    }
+
+    @Test
+    public void setSettingsShouldWaitForEachSettingToBeStoredIfPipeliningIsNotSupported() throws Exception {
+        // Given
+        List<GcodeCommand> sentCommands = mockSentCommands();
+        setFirmwareSetting("$0", "10");
+        setFirmwareSetting("$100", "250");
+
+        // When
+        Future<?> setSettingsFuture = Executors.newCachedThreadPool().submit(() -> {
+            target.setSettings(List.of(
+                    new FirmwareSetting("$0", "11"),
+                    new FirmwareSetting("$100", "800")));
+            return null;
+        });
+
+        // The next setting should not be sent until the first one is stored
+        waitForSentCommands(sentCommands, 1);
+        Thread.sleep(100);
+        assertEquals(1, sentCommands.size());
+        sentCommands.get(0).setOk(true);
+        sentCommands.get(0).setDone(true);
+
+        waitForSentCommands(sentCommands, 2);
+        assertEquals("$100=800", sentCommands.get(1).getCommandString());
+        sentCommands.get(1).setOk(true);
+        sentCommands.get(1).setDone(true);
+        setSettingsFuture.get();
+
+        // Then
+        assertEquals("11", target.getSetting("$0").get().getValue());
+        assertEquals("800", target.getSetting("$100").get().getValue());
+    }
+
+    @Test
+    public void setSettingsShouldReadSettingsFromControllerIfResponseTimedOut() throws Exception {
+        // Given
+        List<GcodeCommand> sentCommands = mockSentCommands();
+        target.setPipelinedSettingsSupported(true);
+        setFirmwareSetting("$0", "10");
+        setFirmwareSetting("$1", "25");
+        setFirmwareSetting("$2", "0");
+
+        // When
+        Future<?> setSettingsFuture = Executors.newCachedThreadPool().submit(() -> {
+            target.setSettings(List.of(
+                    new FirmwareSetting("$0", "11"),
+                    new FirmwareSetting("$1", "26"),
+                    new FirmwareSetting("$2", "1")));
+            return null;
+        });
+
+        // Only the first setting gets a response in time
+        waitForSentCommands(sentCommands, 3);
+        sentCommands.get(0).setOk(true);
+        sentCommands.get(0).setDone(true);
+
+        // The settings should then be read from the controller where only the second setting was stored
+        waitForSentCommands(sentCommands, 4, 4000);
+        GcodeCommand getSettingsCommand = sentCommands.get(3);
+        assertEquals("$$", getSettingsCommand.getCommandString());
+        getSettingsCommand.appendResponse("$0=11");
+        getSettingsCommand.appendResponse("$1=26");
+        getSettingsCommand.appendResponse("$2=0");
+        getSettingsCommand.appendResponse("ok");
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class, setSettingsFuture::get);
+        assertEquals("Couldn't set the firmware settings: $2", exception.getCause().getMessage());
+        assertEquals("11", target.getSetting("$0").get().getValue());
+        assertEquals("26", target.getSetting("$1").get().getValue());
+        assertEquals("0", target.getSetting("$2").get().getValue());
+    }
+
+    private List<GcodeCommand> mockSentCommands() throws Exception {
+        List<GcodeCommand> sentCommands = new CopyOnWriteArrayList<>();
+        when(controller.createCommand(anyString())).thenAnswer((InvocationOnMock invocation) -> new GcodeCommand(invocation.getArgument(0)));
+        doAnswer(invocation -> sentCommands.add(invocation.getArgument(0))).when(controller).sendCommandImmediately(any());
+        return sentCommands;
+    }
+
+    private static void waitForSentCommands(List<GcodeCommand> sentCommands, int count) throws InterruptedException {
+        waitForSentCommands(sentCommands, count, 1000);
+    }
+
+    private static void waitForSentCommands(List<GcodeCommand> sentCommands, int count, long timeout) throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        while (sentCommands.size() < count && System.currentTimeMillis() < startTime + timeout) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, sentCommands.size());
+    }
+
     private void setFirmwareSetting(String key, String value) {
         target.updateFirmwareSetting(new FirmwareSetting(key, value));
     }
@@ -69,4 +69,24 @@ public class GetBuildInfoCommandTest {
             assertFalse(options.isEnabled(option));
         }
     }
+
+    @Test
+    public void isGrblHalShouldReturnTrueIfFirmwareIsReported() {
+        GetBuildInfoCommand command = new GetBuildInfoCommand();
+        command.appendResponse("[VER:1.1f.20230919:]");
+        command.appendResponse("[OPT:VNMSL,35,1024,3,0]");
+        command.appendResponse("[NEWOPT:ENUMS,RT+,HOME,TC,SED]");
+        command.appendResponse("[FIRMWARE:grblHAL]");
+        command.appendResponse("ok");
+        assertTrue(command.isGrblHal());
+    }
+
+    @Test
+    public void isGrblHalShouldReturnFalseForGrbl() {
+        GetBuildInfoCommand command = new GetBuildInfoCommand();
+        command.appendResponse("[VER:1.1h.20190825:]");
+        command.appendResponse("[OPT:V,15,128]");
+        command.appendResponse("ok");
+        assertFalse(command.isGrblHal());
+    }
 }
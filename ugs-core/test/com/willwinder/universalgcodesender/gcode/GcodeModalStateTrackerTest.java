@@ -0,0 +1,194 @@
+package com.willwinder.universalgcodesender.gcode;
+
+import com.willwinder.universalgcodesender.gcode.util.Plane;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static com.willwinder.universalgcodesender.gcode.util.Code.G0;
+import static com.willwinder.universalgcodesender.gcode.util.Code.G1;
+import static com.willwinder.universalgcodesender.gcode.util.Code.G20;
+import static com.willwinder.universalgcodesender.gcode.util.Code.G21;
+import static com.willwinder.universalgcodesender.gcode.util.Code.G38_2;
+import static com.willwinder.universalgcodesender.gcode.util.Code.G54;
+import static com.willwinder.universalgcodesender.gcode.util.Code.G55;
+import static com.willwinder.universalgcodesender.gcode.util.Code.G59_1;
+import static com.willwinder.universalgcodesender.gcode.util.Code.G90;
+import static com.willwinder.universalgcodesender.gcode.util.Code.G90_1;
+import static com.willwinder.universalgcodesender.gcode.util.Code.G91;
+import static com.willwinder.universalgcodesender.gcode.util.Code.G93;
+import static com.willwinder.universalgcodesender.gcode.util.Code.G94;
+import static com.willwinder.universalgcodesender.gcode.util.Code.M3;
+import static com.willwinder.universalgcodesender.gcode.util.Code.M5;
+import static com.willwinder.universalgcodesender.gcode.util.Code.M8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class GcodeModalStateTrackerTest {
+
+    @Test
+    public void updateShouldTrackModalState() {
+        GcodeModalStateTracker tracker = new GcodeModalStateTracker();
+        tracker.update("G20 G91 G55 G18 G93 G90.1 M3 M8 S1000 F200.5 G1 X10");
+
+        GcodeState state = tracker.getState();
+        assertEquals(G20, state.units);
+        assertFalse(state.isMetric);
+        assertEquals(G91, state.distanceMode);
+        assertFalse(state.inAbsoluteMode);
+        assertEquals(G55, state.offset);
+        assertEquals(Plane.ZX, state.plane);
+        assertEquals(G93, state.feedMode);
+        assertEquals(G90_1, state.arcDistanceMode);
+        assertTrue(state.inAbsoluteIJKMode);
+        assertEquals(M3, state.spindle);
+        assertEquals(M8, state.coolant);
+        assertEquals(1000, state.spindleSpeed, 0.0001);
+        assertEquals(200.5, state.feedRate, 0.0001);
+        assertEquals(G1, state.currentMotionMode);
+        assertEquals(G20, tracker.getUnitsCode());
+        assertEquals(G91, tracker.getDistanceModeCode());
+    }
+
+    @Test
+    public void updateShouldHandleCompactAndLowerCaseCommands() {
+        GcodeModalStateTracker tracker = new GcodeModalStateTracker();
+        tracker.update("g20g91g59.1g38.2z-10f100");
+
+        GcodeState state = tracker.getState();
+        assertEquals(G20, state.units);
+        assertEquals(G91, state.distanceMode);
+        assertEquals(G59_1, state.offset);
+        assertEquals(G38_2, state.currentMotionMode);
+        assertEquals(100, state.feedRate, 0.0001);
+    }
+
+    @Test
+    public void updateShouldHandleLeadingZeros() {
+        GcodeModalStateTracker tracker = new GcodeModalStateTracker();
+        tracker.update("G01 M03");
+
+        assertEquals(G1, tracker.getState().currentMotionMode);
+        assertEquals(M3, tracker.getState().spindle);
+    }
+
+    @Test
+    public void updateShouldIgnoreComments() {
+        GcodeModalStateTracker tracker = new GcodeModalStateTracker();
+        tracker.update("G0 X10 (G20 G91) ; G55 M3");
+
+        GcodeState state = tracker.getState();
+        assertEquals(G21, state.units);
+        assertEquals(G90, state.distanceMode);
+        assertEquals(G54, state.offset);
+        assertEquals(M5, state.spindle);
+        assertNull(tracker.getUnitsCode());
+        assertNull(tracker.getDistanceModeCode());
+    }
+
+    @Test
+    public void updateShouldNotMatchPartialCodes() {
+        GcodeModalStateTracker tracker = new GcodeModalStateTracker();
+        tracker.update("G900 G2100 X20.91 Y-90 M30 $G");
+
+        GcodeState state = tracker.getState();
+        assertEquals(G21, state.units);
+        assertEquals(G90, state.distanceMode);
+        assertNull(tracker.getUnitsCode());
+        assertNull(tracker.getDistanceModeCode());
+    }
+
+    @Test
+    public void updateShouldParseParserStateResponse() {
+        GcodeModalStateTracker tracker = new GcodeModalStateTracker();
+        tracker.update("[GC:G1 G55 G17 G20 G91 G94 M0 M3 M9 T0 F1500. S12000.]");
+
+        GcodeState state = tracker.getState();
+        assertEquals(G1, state.currentMotionMode);
+        assertEquals(G55, state.offset);
+        assertEquals(G20, state.units);
+        assertEquals(G91, state.distanceMode);
+        assertEquals(G94, state.feedMode);
+        assertEquals(M3, state.spindle);
+        assertEquals(1500, state.feedRate, 0.0001);
+        assertEquals(12000, state.spindleSpeed, 0.0001);
+    }
+
+    @Test
+    public void resetShouldRestoreDefaultState() {
+        GcodeModalStateTracker tracker = new GcodeModalStateTracker();
+        GcodeState state = tracker.getState();
+        tracker.update("G20 G91 G55 G1 M3 S1000 F100");
+
+        tracker.reset();
+
+        assertSame(state, tracker.getState());
+        assertEquals(G21, state.units);
+        assertEquals(G90, state.distanceMode);
+        assertEquals(G54, state.offset);
+        assertEquals(G0, state.currentMotionMode);
+        assertEquals(M5, state.spindle);
+        assertEquals(0, state.feedRate, 0.0001);
+        assertNull(tracker.getUnitsCode());
+        assertNull(tracker.getDistanceModeCode());
+    }
+
+    @Test
+    public void setUnitsAndDistanceModeShouldUpdateState() {
+        GcodeModalStateTracker tracker = new GcodeModalStateTracker();
+        tracker.setUnitsCode(G20);
+        tracker.setDistanceModeCode(G91);
+
+        // Codes from other modal groups should be ignored
+        tracker.setUnitsCode(G1);
+        tracker.setDistanceModeCode(null);
+
+        assertEquals(G20, tracker.getUnitsCode());
+        assertEquals(G91, tracker.getDistanceModeCode());
+        assertFalse(tracker.getState().isMetric);
+        assertFalse(tracker.getState().inAbsoluteMode);
+    }
+
+    @Test
+    public void updateShouldTrackStateOfRepeatedCommandsWithoutAllocatingMemory() {
+        GcodeModalStateTracker tracker = new GcodeModalStateTracker();
+        String[] commands = {
+                "G21 G90 G17 G94 G54",
+                "G0 X10.000 Y20.000 Z5.000",
+                "G1 X12.345 Y-23.456 F1200.0",
+                "G2 X1 Y1 I0.5 J0.5 (arc move)",
+                "M3 S12000 ; start the spindle",
+                "G38.2 Z-10 F100",
+        };
+
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        boolean canMeasureAllocations = threadMXBean instanceof com.sun.management.ThreadMXBean sunThreadMXBean && sunThreadMXBean.isThreadAllocatedMemorySupported();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = canMeasureAllocations ? ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(threadId) : 0;
+        for (int i = 0; i < commands.length * 500; i++) {
+            tracker.update(commands[i % commands.length]);
+        }
+        long allocatedAfter = canMeasureAllocations ? ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(threadId) : 0;
+
+        GcodeState state = tracker.getState();
+        assertEquals(G21, state.units);
+        assertEquals(G90, state.distanceMode);
+        assertEquals(Plane.XY, state.plane);
+        assertEquals(G94, state.feedMode);
+        assertEquals(G54, state.offset);
+        assertEquals(M3, state.spindle);
+        assertEquals(12000, state.spindleSpeed, 0.0001);
+        assertEquals(100, state.feedRate, 0.0001);
+        assertEquals(G38_2, state.currentMotionMode);
+
+        // Only verified on JVMs that can measure the allocations, allows some bytes for the measurement itself
+        if (canMeasureAllocations) {
+            long allocated = allocatedAfter - allocatedBefore;
+            assertTrue("Expected no allocations but was " + allocated + " bytes", allocated < 10_000);
+        }
+    }
+}
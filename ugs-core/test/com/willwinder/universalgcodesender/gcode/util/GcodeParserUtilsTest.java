@@ -13,11 +13,16 @@ import static com.willwinder.universalgcodesender.model.UnitUtils.Units.MM;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
+import java.lang.management.ManagementFactory;
 import java.util.List;
 
 public class GcodeParserUtilsTest {
+    // Processing a line used to allocate about 2800 bytes before reusing the working state
+    private static final long BYTES_PER_LINE_LIMIT = 1500;
+
     @Test
     public void stateInitialized() throws Exception {
         GcodeState state = new GcodeState();
@@ -132,4 +137,31 @@ public class GcodeParserUtilsTest {
         GcodeParser.GcodeMeta meta = Iterables.getOnlyElement(metaList);
         assertThat(meta.state.spindleSpeed).isEqualTo(100.0);
     }
+
+    @Test
+    public void processCommandAllocationPerLine() throws Exception {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported());
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        String[] commands = {"G1 X10.5 Y-3.25 F1200", "X11 Y-3", "F500", "M3 S10000", "G4 P1", "G21 G90 G17"};
+        GcodeState state = new GcodeState();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        int lines = commands.length * 500;
+        for (int i = 0; i < lines; i++) {
+            state = processLine(commands[i % commands.length], i, state);
+        }
+        long bytesPerLine = (threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore) / lines;
+
+        assertThat(state.currentPoint.x).isEqualTo(11.0);
+        assertThat(state.currentPoint.y).isEqualTo(-3.0);
+        assertThat(state.feedRate).isEqualTo(500.0);
+        assertThat(state.spindleSpeed).isEqualTo(10000.0);
+        assertThat(bytesPerLine).isLessThan(BYTES_PER_LINE_LIMIT);
+    }
+
+    private static GcodeState processLine(String command, int line, GcodeState state) throws GcodeParserException {
+        List<GcodeParser.GcodeMeta> metaList = GcodeParserUtils.processCommand(command, line, state, true);
+        return metaList.get(metaList.size() - 1).state;
+    }
 }
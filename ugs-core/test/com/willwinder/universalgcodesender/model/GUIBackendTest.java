@@ -21,15 +21,18 @@ package com.willwinder.universalgcodesender.model;
 import com.willwinder.universalgcodesender.AbstractController;
 import com.willwinder.universalgcodesender.IController;
 import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
+import com.willwinder.universalgcodesender.gcode.processors.TranslateProcessor;
 import com.willwinder.universalgcodesender.listeners.ControllerState;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
 import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
+import com.willwinder.universalgcodesender.model.events.FilePreprocessedEvent;
 import com.willwinder.universalgcodesender.model.events.FileState;
 import com.willwinder.universalgcodesender.model.events.FileStateEvent;
 import com.willwinder.universalgcodesender.model.events.SettingChangedEvent;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.utils.Settings;
+import com.willwinder.universalgcodesender.utils.ThreadHelper;
 import org.apache.commons.io.FileUtils;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -56,6 +59,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Unit test for GUIBackend
@@ -381,6 +385,87 @@ public class GUIBackendTest {
         assertFalse(instance.canSend());
     }
 
+    @Test
+    public void setGcodeTileOffsetsShouldRepeatTheProgramWithoutReprocessingTheFile() throws Exception {
+        // Given
+        File tempFile = File.createTempFile("ugs-", ".gcode");
+        FileUtils.writeStringToFile(tempFile, "G0 X0 Y0\nG1 X10 Y5\n", StandardCharsets.UTF_8);
+        instance.setGcodeFile(tempFile);
+        File processedGcodeFile = instance.getProcessedGcodeFile();
+        long numberOfRows = instance.getNumRows();
+
+        // When
+        instance.setGcodeTileOffsets(List.of(new Position(0, 0, 0, UnitUtils.Units.MM), new Position(20, 0, 0, UnitUtils.Units.MM)));
+
+        // Then
+        assertEquals(processedGcodeFile, instance.getProcessedGcodeFile());
+        assertEquals((numberOfRows + 2) * 2, instance.getNumRows());
+        assertEquals(30, instance.getSettings().getFileStats().maxCoordinate.x, 0.001);
+        assertEquals(FileStateEvent.class, eventArgumentCaptor.getValue().getClass());
+        assertEquals(FileState.FILE_LOADED, ((FileStateEvent) eventArgumentCaptor.getValue()).getFileState());
+
+        // When
+        instance.setGcodeTileOffsets(List.of());
+
+        // Then
+        assertEquals(numberOfRows, instance.getNumRows());
+        assertEquals(10, instance.getSettings().getFileStats().maxCoordinate.x, 0.001);
+    }
+
+    @Test
+    public void setGcodeFileShouldUseFilePreprocessedInTheBackground() throws Exception {
+        // Given
+        File tempFile = File.createTempFile("ugs-", ".gcode");
+        FileUtils.writeStringToFile(tempFile, "G0 X0 Y0\nG1 X10 Y5\n", StandardCharsets.UTF_8);
+        instance.preprocessGcodeFile(tempFile);
+        ThreadHelper.waitUntil(() -> eventArgumentCaptor.getAllValues().stream().anyMatch(FilePreprocessedEvent.class::isInstance), 10, TimeUnit.SECONDS);
+        FilePreprocessedEvent event = (FilePreprocessedEvent) eventArgumentCaptor.getAllValues().stream().filter(FilePreprocessedEvent.class::isInstance).findFirst().orElseThrow();
+
+        // When
+        instance.setGcodeFile(tempFile);
+
+        // Then
+        assertEquals(tempFile, event.getFile());
+        assertEquals(event.getProcessedFile(), instance.getProcessedGcodeFile());
+        assertEquals(2, instance.getNumRows());
+        assertEquals(10, instance.getSettings().getFileStats().maxCoordinate.x, 0.001);
+        assertEquals(10, instance.getGcodeStats().getMax().x, 0.001);
+        verify(instance, times(0)).preprocessAndExportToFile(any(), any(), any());
+    }
+
+    @Test
+    public void preprocessGcodeFileShouldUseAppliedCommandProcessors() throws Exception {
+        // Given
+        File tempFile = File.createTempFile("ugs-", ".gcode");
+        FileUtils.writeStringToFile(tempFile, "G0 X0 Y0\nG1 X10 Y5\n", StandardCharsets.UTF_8);
+        instance.applyCommandProcessor(new TranslateProcessor(new Position(5, 0, 0, UnitUtils.Units.MM)));
+
+        // When
+        instance.preprocessGcodeFile(tempFile);
+
+        // Then
+        ThreadHelper.waitUntil(() -> eventArgumentCaptor.getAllValues().stream().anyMatch(FilePreprocessedEvent.class::isInstance), 10, TimeUnit.SECONDS);
+        FilePreprocessedEvent event = (FilePreprocessedEvent) eventArgumentCaptor.getAllValues().stream().filter(FilePreprocessedEvent.class::isInstance).findFirst().orElseThrow();
+        String processedGcode = FileUtils.readFileToString(event.getProcessedFile(), StandardCharsets.UTF_8);
+        assertTrue(processedGcode.contains("X15"));
+    }
+
+    @Test
+    public void setGcodeFileShouldProcessFileIfCommandProcessorsChangedAfterPreprocessing() throws Exception {
+        // Given
+        File tempFile = File.createTempFile("ugs-", ".gcode");
+        FileUtils.writeStringToFile(tempFile, "G0 X0 Y0\nG1 X10 Y5\n", StandardCharsets.UTF_8);
+        instance.preprocessGcodeFile(tempFile);
+        ThreadHelper.waitUntil(() -> eventArgumentCaptor.getAllValues().stream().anyMatch(FilePreprocessedEvent.class::isInstance), 10, TimeUnit.SECONDS);
+        instance.applyCommandProcessor(new TranslateProcessor(new Position(5, 0, 0, UnitUtils.Units.MM)));
+
+        // When
+        instance.setGcodeFile(tempFile);
+
+        // Then
+        verify(instance, times(1)).preprocessAndExportToFile(any(), any(), any());
+    }
+
     @Test
     public void disconnectShouldCloseTheConnection() throws Exception {
         // Given
@@ -0,0 +1,194 @@
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.model.PartialPosition;
+import com.willwinder.universalgcodesender.model.events.CommandEvent;
+import com.willwinder.universalgcodesender.model.events.CommandEventType;
+import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.PriorityQueue;
+
+/**
+ * A simple discrete event simulator of a controller with a planner buffer connected through a connection
+ * with latency. Jog commands are delayed by half the round-trip latency before they reach the controller,
+ * where they are put in the planner if there is room or left in the serial buffer until there is.
+ * The "ok" is sent when the command has been added to the planner.
+ * <p>
+ * Acceleration is not simulated, each segment will be executed in the time given by its length and feed rate.
+ */
+public class ContinuousJogSimulator {
+    private final long oneWayLatency;
+    private final int plannerDepth;
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private final Deque<Long> planner = new ArrayDeque<>();
+    private final Deque<Long> serialBuffer = new ArrayDeque<>();
+
+    private ContinuousJogWorker worker;
+    private long now;
+    private long sequence;
+    private int generation;
+    private boolean executing;
+    private long idleSince = -1;
+    private long idleTime;
+    private long movingTime;
+    private int commandCount;
+
+    /**
+     * Creates a simulator
+     *
+     * @param roundTripLatencyMillis the time it takes to send a command and receive a response
+     * @param plannerDepth           the number of blocks that fits in the controller planner
+     */
+    public ContinuousJogSimulator(double roundTripLatencyMillis, int plannerDepth) {
+        this.oneWayLatency = (long) (roundTripLatencyMillis * 1_000_000 / 2);
+        this.plannerDepth = plannerDepth;
+    }
+
+    public void setWorker(ContinuousJogWorker worker) {
+        this.worker = worker;
+    }
+
+    public long getTime() {
+        return now;
+    }
+
+    /**
+     * Should be called when a jog command has been sent to the controller
+     *
+     * @param distance the distance to move in mm
+     * @param feedRate the feed rate in mm/min
+     */
+    public void onJogCommand(PartialPosition distance, double feedRate) {
+        double length = Math.sqrt(distance.getAll().values().stream().mapToDouble(v -> v * v).sum());
+        long duration = (long) (length / (feedRate / 60d) * 1_000_000_000d);
+        commandCount++;
+        int commandGeneration = generation;
+        schedule(oneWayLatency, () -> {
+            if (commandGeneration == generation) {
+                onCommandReceived(duration);
+            }
+        });
+    }
+
+    /**
+     * Should be called when the jog cancel command has been sent to the controller
+     */
+    public void onCancelJog() {
+        schedule(oneWayLatency, () -> {
+            generation++;
+            planner.clear();
+            serialBuffer.clear();
+            if (executing) {
+                executing = false;
+                schedule(oneWayLatency, () -> worker.UGSEvent(new ControllerStateEvent(ControllerState.IDLE, ControllerState.JOG)));
+            }
+        });
+    }
+
+    /**
+     * Runs the simulation for the given time
+     *
+     * @param millis the time to run the simulation
+     */
+    public void run(long millis) {
+        long end = now + millis * 1_000_000;
+        while (!events.isEmpty() && events.peek().time <= end) {
+            Event event = events.poll();
+            now = event.time;
+            event.action.run();
+        }
+        now = end;
+    }
+
+    /**
+     * Starts measuring the time the machine is moving and idle
+     */
+    public void resetStatistics() {
+        idleTime = 0;
+        movingTime = 0;
+        idleSince = executing ? -1 : now;
+    }
+
+    /**
+     * Returns the ratio of time the machine was moving since the statistics was reset
+     *
+     * @return the utilization between 0 and 1
+     */
+    public double getUtilization() {
+        long currentIdleTime = idleTime + (idleSince >= 0 ? now - idleSince : 0);
+        return 1d - (currentIdleTime / (double) (movingTime + idleTime + (idleSince >= 0 ? now - idleSince : 0)));
+    }
+
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    private void onCommandReceived(long duration) {
+        if (planner.size() < plannerDepth) {
+            addToPlanner(duration);
+        } else {
+            serialBuffer.addLast(duration);
+        }
+    }
+
+    private void addToPlanner(long duration) {
+        planner.addLast(duration);
+        schedule(oneWayLatency, () -> worker.UGSEvent(new CommandEvent(CommandEventType.COMMAND_COMPLETE, null)));
+        if (!executing) {
+            executeNextSegment();
+        }
+    }
+
+    private void executeNextSegment() {
+        if (planner.isEmpty()) {
+            executing = false;
+            idleSince = now;
+            return;
+        }
+
+        if (idleSince >= 0) {
+            idleTime += now - idleSince;
+            idleSince = -1;
+        }
+
+        executing = true;
+        long duration = planner.peekFirst();
+        int segmentGeneration = generation;
+        schedule(duration, () -> {
+            if (segmentGeneration != generation) {
+                return;
+            }
+
+            movingTime += duration;
+            planner.removeFirst();
+            if (!serialBuffer.isEmpty()) {
+                addToPlanner(serialBuffer.removeFirst());
+            }
+            executeNextSegment();
+        });
+    }
+
+    /**
+     * Schedules a task to be executed in the simulation
+     *
+     * @param action       the task to execute
+     * @param delayMillis  the delay in milliseconds
+     */
+    public void schedule(Runnable action, Long delayMillis) {
+        schedule(delayMillis * 1_000_000, action);
+    }
+
+    private void schedule(long delay, Runnable action) {
+        events.add(new Event(now + delay, sequence++, action));
+    }
+
+    private record Event(long time, long sequence, Runnable action) implements Comparable<Event> {
+        @Override
+        public int compareTo(Event o) {
+            int result = Long.compare(time, o.time);
+            return result != 0 ? result : Long.compare(sequence, o.sequence);
+        }
+    }
+}
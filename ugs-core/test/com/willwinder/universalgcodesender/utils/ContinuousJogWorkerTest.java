@@ -0,0 +1,145 @@
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.Capabilities;
+import com.willwinder.universalgcodesender.IController;
+import com.willwinder.universalgcodesender.firmware.FirmwareSettingsException;
+import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
+import com.willwinder.universalgcodesender.model.Axis;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.model.PartialPosition;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.services.JogService;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ContinuousJogWorkerTest {
+    private static final int FEED_RATE = 3000;
+
+    @Test
+    public void jogOnSerialConnectionShouldUseShortSegments() throws Exception {
+        ContinuousJogSimulator simulator = new ContinuousJogSimulator(2, 15);
+        ContinuousJogWorker worker = createWorker(simulator, 0);
+
+        worker.setDirection(1, 0, 0);
+        worker.start();
+        simulator.run(500);
+        simulator.resetStatistics();
+        simulator.run(2000);
+
+        assertTrue("Expected continuous motion but was " + simulator.getUtilization(), simulator.getUtilization() > 0.99);
+        assertEquals(ContinuousJogPlanner.MIN_SEGMENT_DURATION, worker.getPlanner().getSegmentDuration(), 0.0001);
+
+        worker.stop();
+        simulator.run(500);
+        assertTrue("Expected a short stop latency but was " + worker.getStopLatency(), worker.getStopLatency() >= 0 && worker.getStopLatency() < 20);
+    }
+
+    @Test
+    public void jogOnHighLatencyConnectionShouldKeepMoreSegmentsInFlight() throws Exception {
+        ContinuousJogSimulator simulator = new ContinuousJogSimulator(60, 15);
+        ContinuousJogWorker worker = createWorker(simulator, 0);
+
+        worker.setDirection(0, 1, 0);
+        worker.start();
+        simulator.run(1000);
+        simulator.resetStatistics();
+        simulator.run(3000);
+
+        assertTrue("Expected continuous motion but was " + simulator.getUtilization(), simulator.getUtilization() > 0.98);
+        assertEquals(0.060, worker.getPlanner().getLatency(), 0.005);
+        assertTrue(worker.getPlanner().getTargetQueuedSegments() > 2);
+
+        // The machine should stop within one round trip and a couple of segments
+        worker.stop();
+        simulator.run(1000);
+        assertTrue("Expected a short stop latency but was " + worker.getStopLatency(), worker.getStopLatency() >= 60 && worker.getStopLatency() < 150);
+    }
+
+    @Test
+    public void jogWithSlowAccelerationShouldUseLongerSegments() throws Exception {
+        ContinuousJogSimulator simulator = new ContinuousJogSimulator(2, 15);
+        ContinuousJogWorker worker = createWorker(simulator, 100);
+
+        worker.setDirection(1, 0, 0);
+        worker.start();
+        simulator.run(1000);
+
+        // The queued segments needs to cover the distance to decelerate v / (2 * a)
+        ContinuousJogPlanner planner = worker.getPlanner();
+        double decelerationTime = (FEED_RATE / 60d) / (2 * 100);
+        assertTrue(planner.getTargetQueuedSegments() * planner.getSegmentDuration() >= decelerationTime);
+        assertTrue(planner.getSegmentDuration() > ContinuousJogPlanner.MIN_SEGMENT_DURATION);
+    }
+
+    @Test
+    public void jogWithSmallPlannerShouldDetectPlannerDepth() throws Exception {
+        ContinuousJogSimulator simulator = new ContinuousJogSimulator(100, 4);
+        ContinuousJogWorker worker = createWorker(simulator, 0);
+
+        worker.setDirection(1, 1, 0);
+        worker.start();
+        simulator.run(5000);
+
+        assertTrue("Expected planner depth to be detected but was " + worker.getPlanner().getPlannerDepth(), worker.getPlanner().getPlannerDepth() <= 5);
+        simulator.resetStatistics();
+        simulator.run(2000);
+        assertTrue("Expected continuous motion but was " + simulator.getUtilization(), simulator.getUtilization() > 0.95);
+    }
+
+    @Test
+    public void stopShouldNotSendMoreCommands() throws Exception {
+        ContinuousJogSimulator simulator = new ContinuousJogSimulator(10, 15);
+        ContinuousJogWorker worker = createWorker(simulator, 0);
+
+        worker.setDirection(1, 0, 0);
+        worker.start();
+        simulator.run(500);
+        worker.stop();
+        simulator.run(500);
+        int commandCount = simulator.getCommandCount();
+
+        simulator.run(500);
+        assertEquals(commandCount, simulator.getCommandCount());
+        assertEquals(0, worker.getPlanner().getSegmentsInFlight());
+    }
+
+    private static ContinuousJogWorker createWorker(ContinuousJogSimulator simulator, double acceleration) throws FirmwareSettingsException {
+        IFirmwareSettings firmwareSettings = mock(IFirmwareSettings.class);
+        when(firmwareSettings.getAcceleration(any(Axis.class))).thenReturn(acceleration);
+
+        Capabilities capabilities = mock(Capabilities.class);
+        when(capabilities.hasAxis(any(Axis.class))).thenReturn(true);
+
+        IController controller = mock(IController.class);
+        when(controller.getFirmwareSettings()).thenReturn(firmwareSettings);
+        when(controller.getCapabilities()).thenReturn(capabilities);
+
+        BackendAPI backendAPI = mock(BackendAPI.class);
+        when(backendAPI.getController()).thenReturn(controller);
+
+        JogService jogService = mock(JogService.class);
+        when(jogService.getFeedRate()).thenReturn(FEED_RATE);
+        when(jogService.getUnits()).thenReturn(UnitUtils.Units.MM);
+        doAnswer(invocation -> {
+            PartialPosition distance = invocation.getArgument(0);
+            double speedFactor = invocation.getArgument(1);
+            simulator.onJogCommand(distance, FEED_RATE * speedFactor);
+            return null;
+        }).when(jogService).adjustManualLocation(any(PartialPosition.class), anyDouble());
+        doAnswer(invocation -> {
+            simulator.onCancelJog();
+            return null;
+        }).when(jogService).cancelJog();
+
+        ContinuousJogWorker worker = new ContinuousJogWorker(backendAPI, jogService, simulator::getTime, simulator::schedule);
+        simulator.setWorker(worker);
+        return worker;
+    }
+}
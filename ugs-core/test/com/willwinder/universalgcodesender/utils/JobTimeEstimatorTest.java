@@ -0,0 +1,207 @@
+package com.willwinder.universalgcodesender.utils;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JobTimeEstimatorTest {
+    private static final double[] MAX_RATES = {6000, 6000, 6000};
+    private static final double[] ACCELERATIONS = {100, 100, 100};
+    private static final double JUNCTION_DEVIATION = 0.01;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private JobTimeEstimator estimator;
+
+    @Before
+    public void setUp() {
+        estimator = new JobTimeEstimator(MAX_RATES, ACCELERATIONS, JUNCTION_DEVIATION);
+    }
+
+    @Test
+    public void longMoveShouldAccelerateCruiseAndDecelerate() throws IOException {
+        // 1s to accelerate 50mm, 1s to cruise 100mm and 1s to decelerate 50mm
+        JobTimeEstimate estimate = estimator.estimate(createStream("G1 X200 F6000"));
+        assertEquals(3000, estimate.getTotalTime());
+    }
+
+    @Test
+    public void shortMoveShouldNotReachNominalSpeed() throws IOException {
+        // Accelerates to sqrt(100 * 10) mm/s half way and then decelerates
+        JobTimeEstimate estimate = estimator.estimate(createStream("G1 X10 F6000"));
+        assertEquals(Math.round(2 * Math.sqrt(1000) / 100 * 1000), estimate.getTotalTime());
+    }
+
+    @Test
+    public void rapidMovesShouldUseMaxRate() throws IOException {
+        JobTimeEstimate estimate = estimator.estimate(createStream("F100", "G0 X200"));
+        assertEquals(3000, estimate.getTotalTime());
+    }
+
+    @Test
+    public void maxRateShouldLimitFeedRate() throws IOException {
+        JobTimeEstimate estimate = estimator.estimate(createStream("G1 X200 F20000"));
+        assertEquals(3000, estimate.getTotalTime());
+    }
+
+    @Test
+    public void collinearMovesShouldNotStopBetweenSegments() throws IOException {
+        JobTimeEstimate estimate = estimator.estimate(createStream("G1 X100 F6000", "G1 X150", "G1 X200"));
+        assertEquals(3000, estimate.getTotalTime());
+    }
+
+    @Test
+    public void cornersShouldSlowDownToJunctionSpeed() throws IOException {
+        // Two separate moves would take 4s, the junction speed of the corner is about 1.5 mm/s
+        JobTimeEstimate estimate = estimator.estimate(createStream("G1 X100 F6000", "G1 Y100"));
+        assertTrue(estimate.getTotalTime() < 4000);
+        assertTrue(estimate.getTotalTime() > 3950);
+    }
+
+    @Test
+    public void reversingShouldStopBetweenSegments() throws IOException {
+        JobTimeEstimate estimate = estimator.estimate(createStream("G1 X200 F6000", "G1 X0"));
+        assertEquals(6000, estimate.getTotalTime());
+    }
+
+    @Test
+    public void dwellShouldStopAndAddTime() throws IOException {
+        JobTimeEstimate estimate = estimator.estimate(createStream("G1 X100 F6000", "G4 P1.5", "G1 X200"));
+        assertEquals(5500, estimate.getTotalTime());
+    }
+
+    @Test
+    public void spindleChangesShouldStopMotion() throws IOException {
+        JobTimeEstimate estimate = estimator.estimate(createStream("G1 X100 F6000", "M3 S1000", "G1 X200"));
+        assertEquals(4000, estimate.getTotalTime());
+    }
+
+    @Test
+    public void inchesShouldBeConvertedToMillimeters() throws IOException {
+        // 254mm at 25.4 mm/s, accelerating 3.2258mm in 0.254s
+        JobTimeEstimate estimate = estimator.estimate(createStream("G20", "G1 X10 F60"));
+        assertEquals(10254, estimate.getTotalTime(), 1);
+    }
+
+    @Test
+    public void incrementalMovesShouldBeRelativeToCurrentPosition() throws IOException {
+        JobTimeEstimate estimate = estimator.estimate(createStream("G91", "G1 X100 F6000", "G1 X100"));
+        assertEquals(3000, estimate.getTotalTime());
+    }
+
+    @Test
+    public void inverseTimeFeedRateShouldSetDurationOfMove() throws IOException {
+        // One move per minute is 200mm/60s, accelerating for 0.033s
+        JobTimeEstimate estimate = estimator.estimate(createStream("G93", "G1 X200 F1"));
+        assertEquals(60033, estimate.getTotalTime(), 1);
+    }
+
+    @Test
+    public void arcsShouldUseArcLength() throws IOException {
+        // Half circle with radius 5 at 10 mm/s, accelerating 0.5mm in 0.1s
+        double expectedTime = (5 * Math.PI - 1) / 10 + 0.2;
+
+        JobTimeEstimate estimate = estimator.estimate(createStream("G2 X10 Y0 I5 J0 F600"));
+        assertEquals(Math.round(expectedTime * 1000), estimate.getTotalTime(), 1);
+
+        estimate = estimator.estimate(createStream("G2 X10 Y0 R5 F600"));
+        assertEquals(Math.round(expectedTime * 1000), estimate.getTotalTime(), 1);
+    }
+
+    @Test
+    public void fullCircleShouldUseCircumference() throws IOException {
+        double expectedTime = (10 * Math.PI - 1) / 10 + 0.2;
+        JobTimeEstimate estimate = estimator.estimate(createStream("G3 X0 Y0 I5 J0 F600"));
+        assertEquals(Math.round(expectedTime * 1000), estimate.getTotalTime(), 1);
+    }
+
+    @Test
+    public void arcsShouldContinueSmoothlyFromTangentLines() throws IOException {
+        JobTimeEstimate arcOnly = estimator.estimate(createStream("G0 X-10 Y0", "G1 X0 F600", "G2 X10 Y0 I5 J0", "G1 X20"));
+        JobTimeEstimate withStops = estimator.estimate(createStream("G0 X-10 Y0", "G1 X0 F600", "G4 P0", "G2 X10 Y0 I5 J0", "G4 P0", "G1 X20"));
+        assertTrue(arcOnly.getTotalTime() < withStops.getTotalTime());
+    }
+
+    @Test
+    public void remainingTimeShouldBeLookedUpFromCompletedRows() throws IOException {
+        JobTimeEstimate estimate = estimator.estimate(createStream("G1 X100 F6000", "G4 P1", "G1 X200", "G4 P2"));
+        assertEquals(4, estimate.getRowCount());
+        assertEquals(7000, estimate.getTotalTime());
+        assertEquals(7000, estimate.getRemainingTime(0));
+        assertEquals(5000, estimate.getRemainingTime(1));
+        assertEquals(4000, estimate.getRemainingTime(2));
+        assertEquals(2000, estimate.getRemainingTime(3));
+        assertEquals(0, estimate.getRemainingTime(4));
+        assertEquals(0, estimate.getRemainingTime(10));
+        assertEquals(3000, estimate.getElapsedTime(2));
+    }
+
+    @Test
+    public void emptyStreamShouldHaveNoTime() throws IOException {
+        JobTimeEstimate estimate = estimator.estimate(createStream());
+        assertEquals(0, estimate.getRowCount());
+        assertEquals(0, estimate.getTotalTime());
+    }
+
+    @Test
+    public void chunksShouldBeStitchedTogetherAsIfPlannedAtOnce() throws IOException {
+        File file = createStream(createZigZag(5000));
+        JobTimeEstimate singleChunk = new JobTimeEstimator(MAX_RATES, ACCELERATIONS, JUNCTION_DEVIATION, Integer.MAX_VALUE).estimate(file);
+        JobTimeEstimate multipleChunks = new JobTimeEstimator(MAX_RATES, ACCELERATIONS, JUNCTION_DEVIATION, 97).estimate(file);
+
+        assertEquals(singleChunk.getRowCount(), multipleChunks.getRowCount());
+        for (int row = 0; row <= singleChunk.getRowCount(); row += 13) {
+            assertEquals(singleChunk.getElapsedTime(row), multipleChunks.getElapsedTime(row), 2);
+        }
+        assertEquals(singleChunk.getTotalTime(), multipleChunks.getTotalTime(), 2);
+    }
+
+    @Test
+    public void estimateShouldCountAllRowsOfLargerFiles() throws IOException {
+        JobTimeEstimate estimate = estimator.estimate(createStream(createZigZag(10_000)));
+
+        assertEquals(10_000, estimate.getRowCount());
+        assertTrue(estimate.getTotalTime() > 0);
+    }
+
+    private static List<String> createZigZag(int rows) {
+        List<String> commands = new ArrayList<>(rows);
+        commands.add("G21 G90 G17 F1200");
+        for (int i = 1; i < rows; i++) {
+            double x = (i % 200) * 0.5;
+            double y = (i / 200) * 0.5;
+            if (i % 50 == 0) {
+                commands.add(String.format("G0 X%.3f Y%.3f Z5", x, y));
+            } else if (i % 7 == 0) {
+                commands.add(String.format("G2 X%.3f Y%.3f R1", x, y));
+            } else {
+                commands.add(String.format("G1 X%.3f Y%.3f Z%.3f", x, y + (i % 3) * 0.1, -(i % 5) * 0.1));
+            }
+        }
+        return commands;
+    }
+
+    private File createStream(List<String> commands) throws IOException {
+        return createStream(commands.toArray(new String[0]));
+    }
+
+    private File createStream(String... commands) throws IOException {
+        File file = temporaryFolder.newFile();
+        try (GcodeStreamWriter writer = new GcodeStreamWriter(file)) {
+            for (int i = 0; i < commands.length; i++) {
+                writer.addLine(commands[i], commands[i], "", i);
+            }
+        }
+        return file;
+    }
+}
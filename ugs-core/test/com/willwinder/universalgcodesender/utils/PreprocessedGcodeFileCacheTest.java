@@ -0,0 +1,192 @@
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
+import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.processors.CommentProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.WhitespaceProcessor;
+import com.willwinder.universalgcodesender.utils.PreprocessedGcodeFileCache.PreprocessedGcodeFile;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class PreprocessedGcodeFileCacheTest {
+    private static final String CONFIGURATION = "GRBL";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File cacheDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        cacheDirectory = temporaryFolder.newFolder();
+    }
+
+    @Test
+    public void takeShouldReturnThePreprocessedFile() throws Exception {
+        PreprocessedGcodeFileCache cache = new PreprocessedGcodeFileCache(cacheDirectory, 2, Long.MAX_VALUE);
+        File file = createGcodeFile("G0 X0 Y0 (start)\nG1 X10 Y5 F100\n");
+
+        cache.preprocess(file, CONFIGURATION, PreprocessedGcodeFileCacheTest::createParser).get(10, TimeUnit.SECONDS);
+        Optional<PreprocessedGcodeFile> preprocessedGcodeFile = cache.take(file, CONFIGURATION);
+
+        assertTrue(preprocessedGcodeFile.isPresent());
+        assertEquals(file, preprocessedGcodeFile.get().file());
+        assertEquals(10, preprocessedGcodeFile.get().stats().getMax().x, 0.001);
+        try (IGcodeStreamReader reader = new GcodeStreamReader(preprocessedGcodeFile.get().processedFile(), new DefaultCommandCreator())) {
+            assertEquals(2, reader.getNumRows());
+        }
+
+        // It should only be possible to take it once
+        assertFalse(cache.take(file, CONFIGURATION).isPresent());
+    }
+
+    @Test
+    public void takeShouldNotWaitForFileBeingProcessed() throws Exception {
+        PreprocessedGcodeFileCache cache = new PreprocessedGcodeFileCache(cacheDirectory, 2, Long.MAX_VALUE);
+        File file = createGcodeFile("G0 X0 Y0\nG1 X10 Y5 F100\n");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<PreprocessedGcodeFile> future = cache.preprocess(file, CONFIGURATION, () -> {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return createParser();
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        assertFalse(cache.take(file, CONFIGURATION).isPresent());
+        assertTrue(future.isCancelled());
+
+        // The file processed after being discarded should be removed
+        release.countDown();
+        ThreadHelper.waitUntil(() -> cacheDirectory.list().length == 0, 10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void takeShouldReturnEmptyIfFileWasNotPreprocessed() throws Exception {
+        PreprocessedGcodeFileCache cache = new PreprocessedGcodeFileCache(cacheDirectory, 2, Long.MAX_VALUE);
+        assertFalse(cache.take(createGcodeFile("G0 X0\n"), CONFIGURATION).isPresent());
+    }
+
+    @Test
+    public void takeShouldReturnEmptyIfConfigurationHasChanged() throws Exception {
+        PreprocessedGcodeFileCache cache = new PreprocessedGcodeFileCache(cacheDirectory, 2, Long.MAX_VALUE);
+        File file = createGcodeFile("G0 X0\n");
+        PreprocessedGcodeFile preprocessedGcodeFile = cache.preprocess(file, CONFIGURATION, PreprocessedGcodeFileCacheTest::createParser).get(10, TimeUnit.SECONDS);
+
+        assertFalse(cache.take(file, "TinyG").isPresent());
+        assertFalse("The discarded file should have been deleted", preprocessedGcodeFile.processedFile().exists());
+    }
+
+    @Test
+    public void takeShouldReturnEmptyIfFileHasBeenModified() throws Exception {
+        PreprocessedGcodeFileCache cache = new PreprocessedGcodeFileCache(cacheDirectory, 2, Long.MAX_VALUE);
+        File file = createGcodeFile("G0 X0\n");
+        cache.preprocess(file, CONFIGURATION, PreprocessedGcodeFileCacheTest::createParser).get(10, TimeUnit.SECONDS);
+
+        FileUtils.writeStringToFile(file, "G0 X0\nG0 X10\n", StandardCharsets.UTF_8);
+
+        assertFalse(cache.take(file, CONFIGURATION).isPresent());
+    }
+
+    @Test
+    public void preprocessShouldReuseAlreadyProcessedFile() throws Exception {
+        PreprocessedGcodeFileCache cache = new PreprocessedGcodeFileCache(cacheDirectory, 2, Long.MAX_VALUE);
+        File file = createGcodeFile("G0 X0\n");
+
+        PreprocessedGcodeFile first = cache.preprocess(file, CONFIGURATION, PreprocessedGcodeFileCacheTest::createParser).get(10, TimeUnit.SECONDS);
+        PreprocessedGcodeFile second = cache.preprocess(file, CONFIGURATION, PreprocessedGcodeFileCacheTest::createParser).get(10, TimeUnit.SECONDS);
+
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void preprocessShouldDiscardTheOldestFilesWhenExceedingMaxFiles() throws Exception {
+        PreprocessedGcodeFileCache cache = new PreprocessedGcodeFileCache(cacheDirectory, 2, Long.MAX_VALUE);
+        File file1 = createGcodeFile("G0 X1\n");
+        File file2 = createGcodeFile("G0 X2\n");
+        File file3 = createGcodeFile("G0 X3\n");
+
+        PreprocessedGcodeFile preprocessedFile1 = cache.preprocess(file1, CONFIGURATION, PreprocessedGcodeFileCacheTest::createParser).get(10, TimeUnit.SECONDS);
+        cache.preprocess(file2, CONFIGURATION, PreprocessedGcodeFileCacheTest::createParser).get(10, TimeUnit.SECONDS);
+        cache.preprocess(file3, CONFIGURATION, PreprocessedGcodeFileCacheTest::createParser).get(10, TimeUnit.SECONDS);
+
+        assertFalse(preprocessedFile1.processedFile().exists());
+        assertFalse(cache.take(file1, CONFIGURATION).isPresent());
+        assertTrue(cache.take(file2, CONFIGURATION).isPresent());
+        assertTrue(cache.take(file3, CONFIGURATION).isPresent());
+    }
+
+    @Test
+    public void preprocessShouldFailWhenExceedingDiskBudget() throws Exception {
+        PreprocessedGcodeFileCache cache = new PreprocessedGcodeFileCache(cacheDirectory, 2, 100);
+        File file = createGcodeFile("G0 X0 Y0 Z0\n".repeat(20));
+
+        assertThrows(ExecutionException.class, () -> cache.preprocess(file, CONFIGURATION, PreprocessedGcodeFileCacheTest::createParser).get(10, TimeUnit.SECONDS));
+        assertFalse(cache.take(file, CONFIGURATION).isPresent());
+        assertEquals(0, cacheDirectory.list().length);
+    }
+
+    @Test
+    public void clearShouldDeleteAllPreprocessedFiles() throws Exception {
+        PreprocessedGcodeFileCache cache = new PreprocessedGcodeFileCache(cacheDirectory, 2, Long.MAX_VALUE);
+        File file = createGcodeFile("G0 X0\n");
+        cache.preprocess(file, CONFIGURATION, PreprocessedGcodeFileCacheTest::createParser).get(10, TimeUnit.SECONDS);
+
+        cache.clear();
+
+        assertEquals(0, cacheDirectory.list().length);
+        assertFalse(cache.take(file, CONFIGURATION).isPresent());
+    }
+
+    @Test
+    public void discardListenerShouldBeNotifiedWhenProcessedFilesAreDeleted() throws Exception {
+        List<PreprocessedGcodeFile> discardedFiles = new CopyOnWriteArrayList<>();
+        PreprocessedGcodeFileCache cache = new PreprocessedGcodeFileCache(cacheDirectory, 1, Long.MAX_VALUE, discardedFiles::add);
+        File file1 = createGcodeFile("G0 X1\n");
+        File file2 = createGcodeFile("G0 X2\n");
+
+        PreprocessedGcodeFile preprocessedFile1 = cache.preprocess(file1, CONFIGURATION, PreprocessedGcodeFileCacheTest::createParser).get(10, TimeUnit.SECONDS);
+        PreprocessedGcodeFile preprocessedFile2 = cache.preprocess(file2, CONFIGURATION, PreprocessedGcodeFileCacheTest::createParser).get(10, TimeUnit.SECONDS);
+        assertEquals(List.of(preprocessedFile1), discardedFiles);
+
+        cache.clear();
+        assertEquals(List.of(preprocessedFile1, preprocessedFile2), discardedFiles);
+    }
+
+    private static GcodeParser createParser() {
+        GcodeParser parser = new GcodeParser();
+        parser.addCommandProcessor(new CommentProcessor());
+        parser.addCommandProcessor(new WhitespaceProcessor());
+        return parser;
+    }
+
+    private File createGcodeFile(String content) throws IOException {
+        File file = temporaryFolder.newFile();
+        FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Joacim Breiler
+ */
+public class SettingsPersistenceTest {
+    private static final Gson GSON = new GsonBuilder()
+            .serializeSpecialFloatingPointValues()
+            .create();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File settingsFile;
+
+    @Before
+    public void setUp() throws IOException {
+        settingsFile = new File(temporaryFolder.getRoot(), "settings.json");
+    }
+
+    @Test
+    public void saveShouldCoalesceRapidChanges() throws TimeoutException, IOException {
+        SettingsPersistence persistence = new SettingsPersistence(settingsFile, GSON, 100);
+        Settings settings = new Settings();
+
+        for (int i = 0; i < 1000; i++) {
+            settings.setManualModeStepSize(i);
+            persistence.save(settings);
+        }
+
+        ThreadHelper.waitUntil(() -> persistence.getWriteCount() > 0, 2000, TimeUnit.MILLISECONDS);
+        assertTrue("Expected only a few writes but got " + persistence.getWriteCount(), persistence.getWriteCount() <= 2);
+
+        // The last change should have been written
+        persistence.flush();
+        Settings savedSettings = GSON.fromJson(Files.readString(settingsFile.toPath(), StandardCharsets.UTF_8), Settings.class);
+        assertEquals(999, savedSettings.getManualModeStepSize(), 0.001);
+    }
+
+    @Test
+    public void flushShouldWritePendingSettingsImmediately() throws IOException {
+        SettingsPersistence persistence = new SettingsPersistence(settingsFile, GSON, 10000);
+        Settings settings = new Settings();
+        settings.setPort("/dev/ttyUSB0");
+        persistence.save(settings);
+
+        persistence.flush();
+
+        assertEquals(1, persistence.getWriteCount());
+        Settings savedSettings = GSON.fromJson(Files.readString(settingsFile.toPath(), StandardCharsets.UTF_8), Settings.class);
+        assertEquals("/dev/ttyUSB0", savedSettings.getPort());
+    }
+
+    @Test
+    public void saveShouldWriteSettingsAsTheyWereWhenRequested() throws IOException {
+        SettingsPersistence persistence = new SettingsPersistence(settingsFile, GSON, 10000);
+        Settings settings = new Settings();
+        settings.setPort("/dev/ttyUSB0");
+        persistence.save(settings);
+        settings.setPort("/dev/ttyUSB1");
+
+        persistence.flush();
+
+        Settings savedSettings = GSON.fromJson(Files.readString(settingsFile.toPath(), StandardCharsets.UTF_8), Settings.class);
+        assertEquals("/dev/ttyUSB0", savedSettings.getPort());
+    }
+
+    @Test
+    public void flushShouldNotWriteWithoutChanges() {
+        SettingsPersistence persistence = new SettingsPersistence(settingsFile, GSON, 10000);
+        persistence.flush();
+        assertEquals(0, persistence.getWriteCount());
+    }
+
+    @Test
+    public void writeShouldReplaceFileWithoutLeavingTemporaryFiles() throws IOException {
+        Files.writeString(settingsFile.toPath(), "old content", StandardCharsets.UTF_8);
+        SettingsPersistence persistence = new SettingsPersistence(settingsFile, GSON, 10000);
+        persistence.save(new Settings());
+
+        persistence.flush();
+
+        String[] files = temporaryFolder.getRoot().list();
+        assertEquals(1, files.length);
+        assertTrue(Files.readString(settingsFile.toPath(), StandardCharsets.UTF_8).startsWith("{"));
+    }
+}
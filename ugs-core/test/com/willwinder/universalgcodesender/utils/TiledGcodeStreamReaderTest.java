@@ -0,0 +1,145 @@
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class TiledGcodeStreamReaderTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void getNextCommandShouldReplayStreamForEachTile() throws Exception {
+        File file = createStream("G21", "G0X0Y0", "G1X10Y5F100");
+        List<Position> offsets = List.of(
+                new Position(0, 0, 0, UnitUtils.Units.MM),
+                new Position(20, 0, 0, UnitUtils.Units.MM));
+
+        try (IGcodeStreamReader reader = new TiledGcodeStreamReader(file, new DefaultCommandCreator(), offsets)) {
+            assertEquals(10, reader.getNumRows());
+            assertEquals(List.of(
+                    "G21G90", "G0X0Y0", "G21", "G0X0Y0", "G1X10Y5F100",
+                    "G21G90", "G0X20Y0", "G21", "G0X20Y0", "G1X30Y5F100"), readCommandStrings(reader));
+            assertEquals(0, reader.getNumRowsRemaining());
+            assertFalse(reader.ready());
+            assertNull(reader.getNextCommand());
+        }
+    }
+
+    @Test
+    public void getNextCommandShouldNumberCommandsInStreamOrder() throws Exception {
+        File file = createStream("G0X0Y0", "G1X10Y5F100");
+        List<Position> offsets = List.of(
+                new Position(0, 0, 0, UnitUtils.Units.MM),
+                new Position(0, 20, 0, UnitUtils.Units.MM),
+                new Position(0, 40, 0, UnitUtils.Units.MM));
+
+        try (IGcodeStreamReader reader = new TiledGcodeStreamReader(file, new DefaultCommandCreator(), offsets)) {
+            for (int i = 0; i < 12; i++) {
+                assertEquals(i, reader.getNextCommand().getCommandNumber());
+            }
+        }
+    }
+
+    @Test
+    public void getNextCommandShouldKeepOriginalCommandAndComment() throws Exception {
+        File file = temporaryFolder.newFile();
+        try (GcodeStreamWriter writer = new GcodeStreamWriter(file)) {
+            writer.addLine("G1 X10 (cut)", "G1X10", "cut", 1);
+        }
+
+        try (IGcodeStreamReader reader = new TiledGcodeStreamReader(file, new DefaultCommandCreator(), List.of(new Position(5, 5, 0, UnitUtils.Units.MM)))) {
+            reader.getNextCommand();
+            reader.getNextCommand();
+            GcodeCommand command = reader.getNextCommand();
+            assertEquals("G1X15", command.getCommandString());
+            assertEquals("G1 X10 (cut)", command.getOriginalCommandString());
+            assertEquals("cut", command.getComment());
+        }
+    }
+
+    @Test
+    public void getNextCommandShouldNotTranslateIncrementalMoves() throws Exception {
+        File file = createStream("G91", "G1X10", "G90", "G1X10");
+        try (IGcodeStreamReader reader = new TiledGcodeStreamReader(file, new DefaultCommandCreator(), List.of(new Position(5, 0, 0, UnitUtils.Units.MM)))) {
+            assertEquals(List.of("G21G90", "G0X5Y0", "G91", "G1X10", "G90", "G1X15"), readCommandStrings(reader));
+        }
+    }
+
+    @Test
+    public void getNextCommandShouldTranslateInCurrentUnits() throws Exception {
+        File file = createStream("G20", "G1X1", "G21", "G1X1");
+        try (IGcodeStreamReader reader = new TiledGcodeStreamReader(file, new DefaultCommandCreator(), List.of(new Position(25.4, 0, 0, UnitUtils.Units.MM)))) {
+            assertEquals(List.of("G21G90", "G0X25.4Y0", "G20", "G1X2", "G21", "G1X26.4"), readCommandStrings(reader));
+        }
+    }
+
+    @Test
+    public void getNextCommandShouldNotTranslateMachineCoordinatesOrOffsetChanges() throws Exception {
+        File file = createStream("G53G0Z0", "G92X0Y0", "G10L20P1X0");
+        try (IGcodeStreamReader reader = new TiledGcodeStreamReader(file, new DefaultCommandCreator(), List.of(new Position(5, 5, 0, UnitUtils.Units.MM)))) {
+            assertEquals(List.of("G21G90", "G0X5Y5", "G53G0Z0", "G92X0Y0", "G10L20P1X0"), readCommandStrings(reader));
+        }
+    }
+
+    @Test
+    public void getNextCommandShouldRemoveProgramEnd() throws Exception {
+        File file = createStream("G1X1", "M30");
+        try (IGcodeStreamReader reader = new TiledGcodeStreamReader(file, new DefaultCommandCreator(), List.of(new Position(0, 0, 0, UnitUtils.Units.MM), new Position(5, 0, 0, UnitUtils.Units.MM)))) {
+            assertEquals(List.of("G21G90", "G0X0Y0", "G1X1", "", "G21G90", "G0X5Y0", "G1X6", ""), readCommandStrings(reader));
+        }
+    }
+
+    @Test
+    public void getBoundsShouldIncludeAllTiles() {
+        Position min = new Position(-1, -2, -3, UnitUtils.Units.MM);
+        Position max = new Position(10, 5, 0, UnitUtils.Units.MM);
+        List<Position> offsets = List.of(
+                new Position(0, 0, 0, UnitUtils.Units.MM),
+                new Position(1, 0, 0, UnitUtils.Units.INCH),
+                new Position(0, 20, 0, UnitUtils.Units.MM));
+
+        Position[] bounds = TiledGcodeStreamReader.getBounds(min, max, offsets);
+        assertEquals(new Position(-1, -2, -3, UnitUtils.Units.MM), bounds[0]);
+        assertEquals(new Position(35.4, 25, 0, UnitUtils.Units.MM), bounds[1]);
+    }
+
+    @Test(expected = GcodeStreamReader.NotGcodeStreamFile.class)
+    public void constructorShouldThrowErrorOnPlainGcodeFile() throws Exception {
+        File file = temporaryFolder.newFile();
+        java.nio.file.Files.writeString(file.toPath(), "G0 X0\n");
+        new TiledGcodeStreamReader(file, new DefaultCommandCreator(), List.of(new Position(0, 0, 0, UnitUtils.Units.MM)));
+    }
+
+    private static List<String> readCommandStrings(IGcodeStreamReader reader) throws IOException {
+        List<String> commands = new ArrayList<>();
+        while (reader.getNumRowsRemaining() > 0) {
+            commands.add(reader.getNextCommand().getCommandString());
+        }
+        return commands;
+    }
+
+    private File createStream(String... commands) throws IOException {
+        File file = temporaryFolder.newFile();
+        try (GcodeStreamWriter writer = new GcodeStreamWriter(file)) {
+            for (int i = 0; i < commands.length; i++) {
+                writer.addLine(commands[i], commands[i], "", i);
+            }
+        }
+        return file;
+    }
+}
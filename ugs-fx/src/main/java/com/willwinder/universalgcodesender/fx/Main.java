@@ -126,6 +126,7 @@ public class Main extends Application {
 
         primaryStage.setOnCloseRequest(event -> {
             SettingsFactory.saveSettings();
+            SettingsFactory.flushSettings();
             Platform.exit();
             System.exit(0);
         });
@@ -0,0 +1,131 @@
+package com.willwinder.universalgcodesender.fx.component.visualizer;
+
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.visualizer.LineSegment;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Builds the arrays for a toolpath triangle mesh from line segments. Each segment is drawn as a thin
+ * rectangle made out of two triangles with one texture coordinate per segment, making it possible to
+ * color each segment using a {@link SegmentTexture}.
+ * <p>
+ * All arrays are allocated once with their final size and the segments are written in parallel chunks
+ * as each segment is written to a fixed place in the arrays.
+ */
+public class GcodeMeshBuilder {
+    public static final int POINTS_PER_SEGMENT = 4;
+    public static final int FLOATS_PER_SEGMENT = POINTS_PER_SEGMENT * 3;
+    public static final int FACE_INDEXES_PER_SEGMENT = 12;
+
+    /**
+     * The number of segments processed by each parallel task
+     */
+    private static final int CHUNK_SIZE = 16384;
+
+    /**
+     * The arrays of a triangle mesh using the default {@link javafx.scene.shape.VertexFormat#POINT_TEXCOORD} format
+     *
+     * @param points    the points with three floats (x, y, z) per point
+     * @param texCoords the texture coordinates with two floats (u, v) per segment in the {@link SegmentTexture} layout
+     * @param faces     the faces with one point and texture coordinate index pair per triangle vertex
+     * @param lineIndex the index for finding the segments that belongs to a gcode line
+     */
+    public record GcodeMesh(float[] points, float[] texCoords, int[] faces, LineSegmentIndex lineIndex) {
+    }
+
+    private GcodeMeshBuilder() {
+    }
+
+    /**
+     * Builds a mesh from the given line segments
+     *
+     * @param lineSegments the line segments to build a mesh from
+     * @param width        the width of the lines in millimeters
+     * @return the arrays of the mesh
+     */
+    public static GcodeMesh build(List<LineSegment> lineSegments, float width) {
+        int segmentCount = lineSegments.size();
+        float[] points = new float[segmentCount * FLOATS_PER_SEGMENT];
+        float[] texCoords = new float[segmentCount * 2];
+        int[] faces = new int[segmentCount * FACE_INDEXES_PER_SEGMENT];
+
+        int textureSize = SegmentTexture.getSize(segmentCount);
+        int chunks = (segmentCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int end = Math.min(segmentCount, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                addSegment(lineSegments.get(i), i, textureSize, width, points, texCoords, faces);
+            }
+        });
+
+        return new GcodeMesh(points, texCoords, faces, LineSegmentIndex.create(lineSegments));
+    }
+
+    private static void addSegment(LineSegment lineSegment, int segmentIndex, int textureSize, float width, float[] points, float[] texCoords, int[] faces) {
+        Position start = lineSegment.getStart();
+        Position end = lineSegment.getEnd();
+        double startScale = UnitUtils.scaleUnits(start.getUnits(), UnitUtils.Units.MM);
+        double endScale = UnitUtils.scaleUnits(end.getUnits(), UnitUtils.Units.MM);
+        float x1 = (float) (start.x * startScale);
+        float y1 = (float) (start.y * startScale);
+        float z1 = (float) (start.z * startScale);
+        float x2 = (float) (end.x * endScale);
+        float y2 = (float) (end.y * endScale);
+        float z2 = (float) (end.z * endScale);
+
+        // A vector perpendicular to the direction in the XY-plane giving the line its width
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+        double length = Math.sqrt(dx * dx + dy * dy);
+        float perpX;
+        float perpY;
+        float perpZ;
+        if (length == 0 || Double.isNaN(length)) {
+            // The segment is parallel to the Z axis, use the X axis
+            perpX = width;
+            perpY = 0;
+            perpZ = width;
+        } else {
+            perpX = (float) (dy / length * width);
+            perpY = (float) (-dx / length * width);
+            perpZ = 0;
+        }
+
+        int p = segmentIndex * FLOATS_PER_SEGMENT;
+        points[p] = x1 + perpX;
+        points[p + 1] = y1 + perpY;
+        points[p + 2] = z1 + perpZ;
+        points[p + 3] = x1 - perpX;
+        points[p + 4] = y1 - perpY;
+        points[p + 5] = z1 - perpZ;
+        points[p + 6] = x2 + perpX;
+        points[p + 7] = y2 + perpY;
+        points[p + 8] = z2 + perpZ;
+        points[p + 9] = x2 - perpX;
+        points[p + 10] = y2 - perpY;
+        points[p + 11] = z2 - perpZ;
+
+        // The center of the texel for the segment
+        texCoords[segmentIndex * 2] = SegmentTexture.getU(segmentIndex, textureSize);
+        texCoords[segmentIndex * 2 + 1] = SegmentTexture.getV(segmentIndex, textureSize);
+
+        // Two triangles per segment (rectangle)
+        int baseIndex = segmentIndex * POINTS_PER_SEGMENT;
+        int f = segmentIndex * FACE_INDEXES_PER_SEGMENT;
+        faces[f] = baseIndex;
+        faces[f + 1] = segmentIndex;
+        faces[f + 2] = baseIndex + 2;
+        faces[f + 3] = segmentIndex;
+        faces[f + 4] = baseIndex + 1;
+        faces[f + 5] = segmentIndex;
+        faces[f + 6] = baseIndex + 2;
+        faces[f + 7] = segmentIndex;
+        faces[f + 8] = baseIndex + 3;
+        faces[f + 9] = segmentIndex;
+        faces[f + 10] = baseIndex + 1;
+        faces[f + 11] = segmentIndex;
+    }
+}
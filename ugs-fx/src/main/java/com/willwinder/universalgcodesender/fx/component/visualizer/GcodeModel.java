@@ -6,9 +6,7 @@ import static com.willwinder.universalgcodesender.fx.helper.Colors.interpolate;
 import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
 import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
 import com.willwinder.universalgcodesender.model.BackendAPI;
-import com.willwinder.universalgcodesender.model.Position;
 import com.willwinder.universalgcodesender.model.UGSEvent;
-import com.willwinder.universalgcodesender.model.UnitUtils;
 import com.willwinder.universalgcodesender.model.events.CommandEvent;
 import com.willwinder.universalgcodesender.model.events.FileState;
 import com.willwinder.universalgcodesender.model.events.FileStateEvent;
@@ -21,32 +19,34 @@ import com.willwinder.universalgcodesender.utils.ThreadHelper;
 import com.willwinder.universalgcodesender.visualizer.GcodeViewParse;
 import com.willwinder.universalgcodesender.visualizer.LineSegment;
 import com.willwinder.universalgcodesender.visualizer.VisualizerUtils;
+import javafx.application.Platform;
 import javafx.scene.Group;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.CullFace;
 import javafx.scene.shape.MeshView;
 import javafx.scene.shape.TriangleMesh;
-import org.fxyz3d.geometry.Point3D;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class GcodeModel extends Group {
     private static final Logger LOGGER = Logger.getLogger(GcodeModel.class.getName());
-    public static final Point3D ZERO = new Point3D(0, 0, 0);
     public static final double ARC_SEGMENT_LENGTH = 0.8;
+
+    /**
+     * Thin width for visual line approximation
+     */
+    private static final float LINE_WIDTH = 0.05f;
+
     private final GcodeViewParse gcvp;
     private final MeshView meshView;
     private final BackendAPI backendAPI;
 
-    private GcodeModelMaterial material = new GcodeModelMaterial(0);
-    private Map<Integer, List<Integer>> lineToTextureMap = new HashMap<>();
+    private volatile GcodeModelMaterial material = new GcodeModelMaterial(0);
+    private volatile LineSegmentIndex lineIndex = LineSegmentIndex.empty();
 
     private Color rapidColor;
     private Color arcColor;
@@ -111,8 +111,12 @@ public class GcodeModel extends Group {
                 ThreadHelper.invokeLater(() -> {
                     try {
                         List<LineSegment> lineSegments = loadModel(gcvp, backendAPI.getGcodeFile().getAbsolutePath());
-                        TriangleMesh mesh = pointsToMesh(lineSegments);
-                        meshView.setMesh(mesh);
+                        GcodeMeshBuilder.GcodeMesh gcodeMesh = GcodeMeshBuilder.build(lineSegments, LINE_WIDTH);
+                        TriangleMesh mesh = pointsToMesh(gcodeMesh);
+                        List<Color> lineColors = lineSegments.stream().map(this::getColor).toList();
+
+                        // The material has an animation timer which needs to be started and stopped on the FX thread
+                        Platform.runLater(() -> setMesh(mesh, gcodeMesh.lineIndex(), lineColors));
                     } catch (Exception e) {
                         LOGGER.log(Level.SEVERE, "Could not load model", e);
                     }
@@ -124,8 +128,8 @@ public class GcodeModel extends Group {
             }
         } else if (event instanceof CommandEvent commandEvent) {
             if (commandEvent.getCommand().isDone()) {
-                lineToTextureMap.getOrDefault(commandEvent.getCommand().getCommandNumber(), new ArrayList<>()).forEach(
-                        lineIndex -> material.updateLineColor(lineIndex, completedColor)
+                lineIndex.forEachSegment(commandEvent.getCommand().getCommandNumber(),
+                        segmentIndex -> material.updateLineColor(segmentIndex, completedColor)
                 );
             }
         } else if (event instanceof SettingChangedEvent) {
@@ -133,65 +137,27 @@ public class GcodeModel extends Group {
         }
     }
 
-    private TriangleMesh pointsToMesh(List<LineSegment> lineSegments) {
+    private static TriangleMesh pointsToMesh(GcodeMeshBuilder.GcodeMesh gcodeMesh) {
         TriangleMesh mesh = new TriangleMesh();
-        float width = 0.05f; // Thin width for visual line approximation
-        lineToTextureMap = new HashMap<>();
-
-        material = new GcodeModelMaterial(lineSegments.size());
-        meshView.setMaterial(material);
-
-        for (int i = 0; i < lineSegments.size(); i++) {
-            float v = (i + 0.5f) / lineSegments.size(); // Center of texel
-            mesh.getTexCoords().addAll(0f, v);          // one per segment
-        }
-
-
-        for (int i = 0; i < lineSegments.size(); i++) {
-            LineSegment lineSegment = lineSegments.get(i);
-            List<Integer> lineSegmentTextureIndexes = lineToTextureMap.getOrDefault(lineSegment.getLineNumber(), new ArrayList<>());
-            Point3D p1 = toPoint(lineSegment.getStart().getPositionIn(UnitUtils.Units.MM));
-            Point3D p2 = toPoint(lineSegment.getEnd().getPositionIn(UnitUtils.Units.MM));
-
-            // Compute direction and a perpendicular vector for width
-            Point3D dir = p2.substract(p1).normalize();
-            Point3D perp = dir.crossProduct(ZERO.add(0, 0, 1)).normalize().multiply(width);
-            if (perp.magnitude() == 0) { // If dir is parallel to Z, use X axis
-                perp = new Point3D(width, 0, width);
-            }
-
-            // Add 4 points for the rectangle
-            int baseIndex = mesh.getPoints().size() / 3;
-
-
-            Point3D p1a = p1.add(perp);
-            Point3D p1b = p1.substract(perp);
-            Point3D p2a = p2.add(perp);
-            Point3D p2b = p2.substract(perp);
-
-            material.setLineColor(i, getColor(lineSegment));
-            lineSegmentTextureIndexes.add(i);
-            lineToTextureMap.put(lineSegment.getLineNumber(), lineSegmentTextureIndexes);
-
-            // Two triangles per segment (rectangle)
-            mesh.getFaces().addAll(
-                    baseIndex, i, baseIndex + 2, i, baseIndex + 1, i,
-                    baseIndex + 2, i, baseIndex + 3, i, baseIndex + 1, i
-            );
+        mesh.getPoints().setAll(gcodeMesh.points());
+        mesh.getTexCoords().setAll(gcodeMesh.texCoords());
+        mesh.getFaces().setAll(gcodeMesh.faces());
+        return mesh;
+    }
 
-            mesh.getPoints().addAll(
-                    p1a.getX(), p1a.getY(), p1a.getZ(),
-                    p1b.getX(), p1b.getY(), p1b.getZ(),
-                    p2a.getX(), p2a.getY(), p2a.getZ(),
-                    p2b.getX(), p2b.getY(), p2b.getZ()
-            );
+    private void setMesh(TriangleMesh mesh, LineSegmentIndex meshLineIndex, List<Color> lineColors) {
+        GcodeModelMaterial newMaterial = new GcodeModelMaterial(lineColors.size());
+        for (int i = 0; i < lineColors.size(); i++) {
+            newMaterial.setLineColor(i, lineColors.get(i));
         }
 
-        material.reset();
-        return mesh;
+        material.dispose();
+        material = newMaterial;
+        lineIndex = meshLineIndex;
+        meshView.setMaterial(newMaterial);
+        meshView.setMesh(mesh);
     }
 
-
     private Color getColor(LineSegment lineSegment) {
         if (lineSegment.isArc()) {
             return arcColor;
@@ -218,8 +184,4 @@ public class GcodeModel extends Group {
         Color speedColor = maxSpindleSpeed < 0.1 ? spindleMaxColor : interpolate(spindleMinColor, spindleMaxColor, speedPercent);
         return blend(speedColor, feedColor);
     }
-
-    private Point3D toPoint(Position pos) {
-        return new Point3D(pos.getX(), pos.getY(), pos.getZ());
-    }
 }
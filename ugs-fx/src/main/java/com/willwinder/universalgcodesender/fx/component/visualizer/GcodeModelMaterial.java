@@ -1,29 +1,52 @@
 package com.willwinder.universalgcodesender.fx.component.visualizer;
 
+import static com.willwinder.universalgcodesender.fx.helper.Colors.toArgb;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
 import javafx.scene.image.PixelFormat;
-import javafx.scene.image.PixelReader;
-import javafx.scene.image.PixelWriter;
 import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.PhongMaterial;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A material for coloring each line segment of the gcode model using a texture. The segment colors are
+ * packed into a square texture, see {@link SegmentTexture}, and any changes are written to the texture
+ * in one batch on each animation pulse. The animation timer is only running while there are changes
+ * to write.
+ */
 public class GcodeModelMaterial extends PhongMaterial {
-    private final WritableImage originalTexture;
+    private final SegmentTexture segmentTexture;
     private final WritableImage texture;
+    private final AnimationTimer textureUpdater;
+    private final AtomicBoolean isUpdating = new AtomicBoolean();
+    private volatile boolean isDisposed;
 
     public GcodeModelMaterial(int numberOfLines) {
         super();
-        numberOfLines = Math.max(numberOfLines, 1);
+        segmentTexture = new SegmentTexture(numberOfLines);
+        texture = new WritableImage(segmentTexture.getSize(), segmentTexture.getSize());
+        setDiffuseMap(texture);
 
-        originalTexture = new WritableImage(1, numberOfLines);
-        texture = new WritableImage(1, numberOfLines);
+        textureUpdater = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                boolean isFlushed = segmentTexture.flush((y, height, pixels, offset, stride) ->
+                        texture.getPixelWriter().setPixels(0, y, stride, height, PixelFormat.getIntArgbInstance(), pixels, offset, stride));
 
-        PixelWriter writer = originalTexture.getPixelWriter();
-        for (int i = 0; i < numberOfLines; i++) {
-            writer.setColor(0, i, Color.BLACK);
-        }
+                if (!isFlushed) {
+                    stop();
+                    isUpdating.set(false);
 
-        setDiffuseMap(texture);
+                    // Restart if a color was changed while stopping
+                    if (segmentTexture.isDirty()) {
+                        requestUpdate();
+                    }
+                }
+            }
+        };
+        requestUpdate();
     }
 
     /**
@@ -33,37 +56,53 @@ public class GcodeModelMaterial extends PhongMaterial {
      * @param color     the color to set
      */
     public void setLineColor(int lineIndex, Color color) {
-        originalTexture.getPixelWriter().setColor(0, lineIndex, color);
-        texture.getPixelWriter().setColor(0, lineIndex, color);
+        segmentTexture.setColor(lineIndex, toArgb(color));
+        requestUpdate();
     }
 
     /**
-     * Updates the current line color temporarily and will be reset back using with the {@link #reset()} function
+     * Updates the current line color temporarily and will be reset back using with the {@link #reset()} function.
+     * The texture will be updated on the next animation pulse.
      *
      * @param lineIndex the line to update
      * @param color     the color to temporarily use
      */
     public void updateLineColor(int lineIndex, Color color) {
-        texture.getPixelWriter().setColor(0, lineIndex, color);
+        segmentTexture.updateColor(lineIndex, toArgb(color));
+        requestUpdate();
     }
 
     /**
      * Resets all line colors back to the initial color
      */
     public void reset() {
-        copyTexture(originalTexture, texture);
+        segmentTexture.reset();
+        requestUpdate();
     }
 
-    private void copyTexture(WritableImage source, WritableImage destination) {
-        PixelReader reader = source.getPixelReader();
-        PixelWriter writer = destination.getPixelWriter();
+    /**
+     * Stops updating the texture, should be called on the JavaFX application thread when the material
+     * isn't used anymore
+     */
+    public void dispose() {
+        isDisposed = true;
+        textureUpdater.stop();
+    }
 
-        int width = (int) source.getWidth();
-        int height = (int) source.getHeight();
+    /**
+     * Starts the animation timer on the JavaFX application thread unless it is already running
+     */
+    private void requestUpdate() {
+        if (isDisposed || !segmentTexture.isDirty() || !isUpdating.compareAndSet(false, true)) {
+            return;
+        }
 
-        byte[] buffer = new byte[width * height * 4]; // BGRA format (4 bytes per pixel)
-        reader.getPixels(0, 0, width, height, PixelFormat.getByteBgraInstance(), buffer, 0, width * 4);
-        writer.setPixels(0, 0, width, height, PixelFormat.getByteBgraInstance(), buffer, 0, width * 4);
+        Platform.runLater(() -> {
+            if (isDisposed) {
+                isUpdating.set(false);
+                return;
+            }
+            textureUpdater.start();
+        });
     }
-
 }
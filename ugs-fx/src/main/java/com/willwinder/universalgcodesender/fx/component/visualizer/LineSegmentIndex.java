@@ -0,0 +1,102 @@
+package com.willwinder.universalgcodesender.fx.component.visualizer;
+
+import com.willwinder.universalgcodesender.visualizer.LineSegment;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * An index for finding the line segments belonging to a gcode line number. The segment indexes are
+ * stored in a compressed sparse row layout using two int arrays, where the segments of a line are
+ * found between its offset and the offset of the next line.
+ */
+public class LineSegmentIndex {
+    private static final LineSegmentIndex EMPTY = new LineSegmentIndex(0, new int[1], new int[0]);
+
+    private final int firstLineNumber;
+    private final int[] offsets;
+    private final int[] segments;
+
+    private LineSegmentIndex(int firstLineNumber, int[] offsets, int[] segments) {
+        this.firstLineNumber = firstLineNumber;
+        this.offsets = offsets;
+        this.segments = segments;
+    }
+
+    /**
+     * Returns an index without any lines
+     *
+     * @return an empty index
+     */
+    public static LineSegmentIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates an index mapping the line numbers to the index of the segments in the given list
+     *
+     * @param lineSegments the line segments
+     * @return the index
+     */
+    public static LineSegmentIndex create(List<LineSegment> lineSegments) {
+        if (lineSegments.isEmpty()) {
+            return EMPTY;
+        }
+
+        int firstLineNumber = Integer.MAX_VALUE;
+        int lastLineNumber = Integer.MIN_VALUE;
+        for (LineSegment lineSegment : lineSegments) {
+            firstLineNumber = Math.min(firstLineNumber, lineSegment.getLineNumber());
+            lastLineNumber = Math.max(lastLineNumber, lineSegment.getLineNumber());
+        }
+
+        // Count the segments of each line and turn the counts into offsets
+        int[] offsets = new int[lastLineNumber - firstLineNumber + 2];
+        for (LineSegment lineSegment : lineSegments) {
+            offsets[lineSegment.getLineNumber() - firstLineNumber + 1]++;
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+
+        int[] positions = new int[offsets.length - 1];
+        System.arraycopy(offsets, 0, positions, 0, positions.length);
+        int[] segments = new int[lineSegments.size()];
+        for (int i = 0; i < lineSegments.size(); i++) {
+            segments[positions[lineSegments.get(i).getLineNumber() - firstLineNumber]++] = i;
+        }
+
+        return new LineSegmentIndex(firstLineNumber, offsets, segments);
+    }
+
+    /**
+     * Calls the consumer with the index of each segment belonging to the given line number
+     *
+     * @param lineNumber the gcode line number
+     * @param consumer   the consumer of the segment indexes
+     */
+    public void forEachSegment(int lineNumber, IntConsumer consumer) {
+        int line = lineNumber - firstLineNumber;
+        if (line < 0 || line >= offsets.length - 1) {
+            return;
+        }
+
+        for (int i = offsets[line]; i < offsets[line + 1]; i++) {
+            consumer.accept(segments[i]);
+        }
+    }
+
+    /**
+     * Returns the number of segments belonging to the given line number
+     *
+     * @param lineNumber the gcode line number
+     * @return the number of segments
+     */
+    public int getSegmentCount(int lineNumber) {
+        int line = lineNumber - firstLineNumber;
+        if (line < 0 || line >= offsets.length - 1) {
+            return 0;
+        }
+        return offsets[line + 1] - offsets[line];
+    }
+}
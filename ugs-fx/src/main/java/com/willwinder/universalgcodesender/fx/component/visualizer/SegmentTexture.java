@@ -0,0 +1,155 @@
+package com.willwinder.universalgcodesender.fx.component.visualizer;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the colors of the toolpath segments as ARGB pixels in a square texture, with segment
+ * {@code i} at column {@code i % size} and row {@code i / size}. Packing the segments in a square
+ * keeps the texture within the maximum texture size of the GPU even for very large programs.
+ * <p>
+ * Color changes are only made to the pixel arrays and the rows that have changed are tracked so
+ * that they can be written to the actual texture in a single batch using {@link #flush(PixelWriter)}.
+ */
+public class SegmentTexture {
+    private static final int BLACK = 0xFF000000;
+
+    private final int size;
+    private final int[] originalPixels;
+    private final int[] pixels;
+
+    /**
+     * The range of rows that has been changed since the last flush, guarded by this
+     */
+    private int dirtyStartRow;
+    private int dirtyEndRow;
+
+    /**
+     * Writes a range of rows to the texture
+     */
+    public interface PixelWriter {
+        /**
+         * @param y      the first row to write
+         * @param height the number of rows to write
+         * @param pixels the ARGB pixels of the whole texture
+         * @param offset the index of the first pixel to write
+         * @param stride the number of pixels in each row
+         */
+        void setPixels(int y, int height, int[] pixels, int offset, int stride);
+    }
+
+    /**
+     * Creates a texture with room for the given number of segments
+     *
+     * @param segmentCount the number of segments
+     */
+    public SegmentTexture(int segmentCount) {
+        size = getSize(segmentCount);
+        originalPixels = new int[size * size];
+        pixels = new int[size * size];
+        Arrays.fill(originalPixels, BLACK);
+        Arrays.fill(pixels, BLACK);
+        setAllDirty();
+    }
+
+    /**
+     * Returns the width and height of the texture needed for the given number of segments
+     *
+     * @param segmentCount the number of segments
+     * @return the texture size in pixels
+     */
+    public static int getSize(int segmentCount) {
+        return Math.max(1, (int) Math.ceil(Math.sqrt(segmentCount)));
+    }
+
+    /**
+     * Returns the texture coordinate of the center of the texel for the given segment
+     *
+     * @param segmentIndex the index of the segment
+     * @param size         the size of the texture
+     * @return the u texture coordinate
+     */
+    public static float getU(int segmentIndex, int size) {
+        return (segmentIndex % size + 0.5f) / size;
+    }
+
+    /**
+     * Returns the texture coordinate of the center of the texel for the given segment
+     *
+     * @param segmentIndex the index of the segment
+     * @param size         the size of the texture
+     * @return the v texture coordinate
+     */
+    public static float getV(int segmentIndex, int size) {
+        return (segmentIndex / size + 0.5f) / size;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Sets the initial color of a segment
+     *
+     * @param segmentIndex the index of the segment
+     * @param argb         the color as ARGB
+     */
+    public synchronized void setColor(int segmentIndex, int argb) {
+        originalPixels[segmentIndex] = argb;
+        updateColor(segmentIndex, argb);
+    }
+
+    /**
+     * Updates the current color of a segment temporarily until the texture is reset
+     *
+     * @param segmentIndex the index of the segment
+     * @param argb         the color as ARGB
+     */
+    public synchronized void updateColor(int segmentIndex, int argb) {
+        if (pixels[segmentIndex] == argb) {
+            return;
+        }
+
+        pixels[segmentIndex] = argb;
+        int row = segmentIndex / size;
+        dirtyStartRow = Math.min(dirtyStartRow, row);
+        dirtyEndRow = Math.max(dirtyEndRow, row + 1);
+    }
+
+    /**
+     * Resets all segments back to their initial color
+     */
+    public synchronized void reset() {
+        System.arraycopy(originalPixels, 0, pixels, 0, pixels.length);
+        setAllDirty();
+    }
+
+    public synchronized int getColor(int segmentIndex) {
+        return pixels[segmentIndex];
+    }
+
+    public synchronized boolean isDirty() {
+        return dirtyStartRow < dirtyEndRow;
+    }
+
+    /**
+     * Writes the rows that have changed since the last flush to the given writer
+     *
+     * @param writer the writer to write the changed rows to
+     * @return true if anything was written
+     */
+    public synchronized boolean flush(PixelWriter writer) {
+        if (!isDirty()) {
+            return false;
+        }
+
+        writer.setPixels(dirtyStartRow, dirtyEndRow - dirtyStartRow, pixels, dirtyStartRow * size, size);
+        dirtyStartRow = Integer.MAX_VALUE;
+        dirtyEndRow = 0;
+        return true;
+    }
+
+    private void setAllDirty() {
+        dirtyStartRow = 0;
+        dirtyEndRow = size;
+    }
+}
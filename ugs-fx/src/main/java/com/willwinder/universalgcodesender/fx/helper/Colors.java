@@ -32,6 +32,20 @@ public class Colors {
         }
     }
 
+    /**
+     * Returns the color as a packed ARGB integer
+     *
+     * @param color the color
+     * @return the color with eight bits per channel
+     */
+    public static int toArgb(Color color) {
+        int r = (int) Math.round(color.getRed() * 255);
+        int g = (int) Math.round(color.getGreen() * 255);
+        int b = (int) Math.round(color.getBlue() * 255);
+        int a = (int) Math.round(color.getOpacity() * 255);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
     /**
      * Blends multiple colors with each other
      *
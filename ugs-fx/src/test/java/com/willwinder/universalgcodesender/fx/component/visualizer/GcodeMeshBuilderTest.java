@@ -0,0 +1,149 @@
+package com.willwinder.universalgcodesender.fx.component.visualizer;
+
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.visualizer.LineSegment;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class GcodeMeshBuilderTest {
+
+    @Test
+    public void buildShouldCreateRectangleForEachSegment() {
+        List<LineSegment> lineSegments = List.of(
+                new LineSegment(new Position(0, 0, 0, UnitUtils.Units.MM), new Position(10, 0, 0, UnitUtils.Units.MM), 1),
+                new LineSegment(new Position(10, 0, 0, UnitUtils.Units.MM), new Position(10, 0, -1, UnitUtils.Units.MM), 2)
+        );
+
+        GcodeMeshBuilder.GcodeMesh mesh = GcodeMeshBuilder.build(lineSegments, 1f);
+
+        assertArrayEquals(new float[]{
+                0, -1, 0,
+                0, 1, 0,
+                10, -1, 0,
+                10, 1, 0,
+
+                // Segments along the Z axis uses the X axis for the width
+                11, 0, 1,
+                9, 0, -1,
+                11, 0, 0,
+                9, 0, -2
+        }, mesh.points(), 0.0001f);
+
+        // The segments are packed into a square texture with two segments in the first row
+        assertArrayEquals(new float[]{0.25f, 0.25f, 0.75f, 0.25f}, mesh.texCoords(), 0.0001f);
+        assertArrayEquals(new int[]{
+                0, 0, 2, 0, 1, 0, 2, 0, 3, 0, 1, 0,
+                4, 1, 6, 1, 5, 1, 6, 1, 7, 1, 5, 1
+        }, mesh.faces());
+    }
+
+    @Test
+    public void buildShouldConvertPositionsToMillimeters() {
+        List<LineSegment> lineSegments = List.of(
+                new LineSegment(new Position(0, 0, 0, UnitUtils.Units.INCH), new Position(1, 0, 0, UnitUtils.Units.INCH), 1)
+        );
+
+        GcodeMeshBuilder.GcodeMesh mesh = GcodeMeshBuilder.build(lineSegments, 1f);
+
+        assertEquals(25.4, mesh.points()[6], 0.0001);
+    }
+
+    @Test
+    public void lineIndexShouldReturnAllSegmentsOfLine() {
+        List<LineSegment> lineSegments = List.of(
+                createLineSegment(5),
+                createLineSegment(7),
+                createLineSegment(5),
+                createLineSegment(8)
+        );
+
+        LineSegmentIndex lineIndex = GcodeMeshBuilder.build(lineSegments, 1f).lineIndex();
+
+        assertEquals(List.of(0, 2), getSegments(lineIndex, 5));
+        assertEquals(List.of(), getSegments(lineIndex, 6));
+        assertEquals(List.of(1), getSegments(lineIndex, 7));
+        assertEquals(List.of(3), getSegments(lineIndex, 8));
+        assertEquals(List.of(), getSegments(lineIndex, 4));
+        assertEquals(List.of(), getSegments(lineIndex, 9));
+        assertEquals(2, lineIndex.getSegmentCount(5));
+    }
+
+    @Test
+    public void buildShouldHandleEmptyList() {
+        GcodeMeshBuilder.GcodeMesh mesh = GcodeMeshBuilder.build(List.of(), 1f);
+        assertEquals(0, mesh.points().length);
+        assertEquals(0, mesh.lineIndex().getSegmentCount(0));
+    }
+
+    @Test
+    public void buildShouldCreateMeshForToolpath() {
+        List<LineSegment> lineSegments = List.of(
+                new LineSegment(new Position(0, 0, 0, UnitUtils.Units.MM), new Position(10, 0, 0, UnitUtils.Units.MM), 1),
+                new LineSegment(new Position(10, 0, 0, UnitUtils.Units.MM), new Position(10, 10, 0, UnitUtils.Units.MM), 2),
+                new LineSegment(new Position(10, 10, 0, UnitUtils.Units.MM), new Position(0, 10, 0, UnitUtils.Units.MM), 3),
+                new LineSegment(new Position(0, 10, 0, UnitUtils.Units.MM), new Position(0, 0, 0, UnitUtils.Units.MM), 4)
+        );
+
+        GcodeMeshBuilder.GcodeMesh mesh = GcodeMeshBuilder.build(lineSegments, 0.5f);
+
+        // Each rectangle is offset to the right and left of the direction of the segment
+        assertArrayEquals(new float[]{
+                0, -0.5f, 0, 0, 0.5f, 0, 10, -0.5f, 0, 10, 0.5f, 0,
+                10.5f, 0, 0, 9.5f, 0, 0, 10.5f, 10, 0, 9.5f, 10, 0,
+                10, 10.5f, 0, 10, 9.5f, 0, 0, 10.5f, 0, 0, 9.5f, 0,
+                -0.5f, 10, 0, 0.5f, 10, 0, -0.5f, 0, 0, 0.5f, 0, 0
+        }, mesh.points(), 0.0001f);
+
+        // The four segments are packed into a texture of two by two texels
+        assertArrayEquals(new float[]{
+                0.25f, 0.25f,
+                0.75f, 0.25f,
+                0.25f, 0.75f,
+                0.75f, 0.75f
+        }, mesh.texCoords(), 0.0001f);
+
+        assertArrayEquals(new int[]{
+                0, 0, 2, 0, 1, 0, 2, 0, 3, 0, 1, 0,
+                4, 1, 6, 1, 5, 1, 6, 1, 7, 1, 5, 1,
+                8, 2, 10, 2, 9, 2, 10, 2, 11, 2, 9, 2,
+                12, 3, 14, 3, 13, 3, 14, 3, 15, 3, 13, 3
+        }, mesh.faces());
+    }
+
+    @Test
+    public void buildShouldWriteAllSegmentsWhenBuiltInParallelChunks() {
+        int segmentCount = 40_000;
+        List<LineSegment> lineSegments = new ArrayList<>(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            lineSegments.add(new LineSegment(new Position(i, 0, 0, UnitUtils.Units.MM), new Position(i + 1, 0, 0, UnitUtils.Units.MM), i));
+        }
+
+        GcodeMeshBuilder.GcodeMesh mesh = GcodeMeshBuilder.build(lineSegments, 1f);
+
+        int textureSize = SegmentTexture.getSize(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            assertEquals(i, mesh.points()[i * GcodeMeshBuilder.FLOATS_PER_SEGMENT], 0.0001);
+            assertEquals(i + 1, mesh.points()[i * GcodeMeshBuilder.FLOATS_PER_SEGMENT + 6], 0.0001);
+            assertEquals(SegmentTexture.getU(i, textureSize), mesh.texCoords()[i * 2], 0.0001);
+            assertEquals(SegmentTexture.getV(i, textureSize), mesh.texCoords()[i * 2 + 1], 0.0001);
+            assertEquals(i * GcodeMeshBuilder.POINTS_PER_SEGMENT, mesh.faces()[i * GcodeMeshBuilder.FACE_INDEXES_PER_SEGMENT]);
+            assertEquals(i, mesh.faces()[i * GcodeMeshBuilder.FACE_INDEXES_PER_SEGMENT + 1]);
+        }
+    }
+
+    private static List<Integer> getSegments(LineSegmentIndex lineIndex, int lineNumber) {
+        List<Integer> segments = new ArrayList<>();
+        lineIndex.forEachSegment(lineNumber, segments::add);
+        return segments;
+    }
+
+    private static LineSegment createLineSegment(int lineNumber) {
+        return new LineSegment(new Position(0, 0, 0, UnitUtils.Units.MM), new Position(1, 1, 1, UnitUtils.Units.MM), lineNumber);
+    }
+}
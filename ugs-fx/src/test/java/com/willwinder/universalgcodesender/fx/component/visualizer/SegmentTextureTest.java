@@ -0,0 +1,95 @@
+package com.willwinder.universalgcodesender.fx.component.visualizer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SegmentTextureTest {
+    private static final int RED = 0xFFFF0000;
+    private static final int GREEN = 0xFF00FF00;
+
+    @Test
+    public void getSizeShouldReturnSideOfSquareFittingAllSegments() {
+        assertEquals(1, SegmentTexture.getSize(0));
+        assertEquals(1, SegmentTexture.getSize(1));
+        assertEquals(2, SegmentTexture.getSize(4));
+        assertEquals(3, SegmentTexture.getSize(5));
+        assertEquals(1000, SegmentTexture.getSize(1_000_000));
+    }
+
+    @Test
+    public void texCoordsShouldPointToCenterOfTexel() {
+        assertEquals(0.5f / 3, SegmentTexture.getU(3, 3), 0.0001);
+        assertEquals(1.5f / 3, SegmentTexture.getV(3, 3), 0.0001);
+        assertEquals(2.5f / 3, SegmentTexture.getU(8, 3), 0.0001);
+        assertEquals(2.5f / 3, SegmentTexture.getV(8, 3), 0.0001);
+    }
+
+    @Test
+    public void flushShouldWriteAllRowsInitially() {
+        SegmentTexture segmentTexture = new SegmentTexture(9);
+
+        List<int[]> writes = flush(segmentTexture);
+
+        assertEquals(1, writes.size());
+        assertEquals(0, writes.get(0)[0]);
+        assertEquals(3, writes.get(0)[1]);
+        assertFalse(segmentTexture.isDirty());
+    }
+
+    @Test
+    public void flushShouldWriteChangedRowsInOneBatch() {
+        SegmentTexture segmentTexture = new SegmentTexture(16);
+        flush(segmentTexture);
+
+        segmentTexture.updateColor(5, RED);
+        segmentTexture.updateColor(6, RED);
+        segmentTexture.updateColor(9, RED);
+
+        List<int[]> writes = flush(segmentTexture);
+        assertEquals(1, writes.size());
+
+        // Row one and two starting at pixel four
+        assertEquals(1, writes.get(0)[0]);
+        assertEquals(2, writes.get(0)[1]);
+        assertEquals(4, writes.get(0)[2]);
+        assertTrue(flush(segmentTexture).isEmpty());
+    }
+
+    @Test
+    public void updateColorWithSameColorShouldNotMakeTextureDirty() {
+        SegmentTexture segmentTexture = new SegmentTexture(4);
+        segmentTexture.setColor(1, GREEN);
+        flush(segmentTexture);
+
+        segmentTexture.updateColor(1, GREEN);
+
+        assertFalse(segmentTexture.isDirty());
+    }
+
+    @Test
+    public void resetShouldRestoreInitialColors() {
+        SegmentTexture segmentTexture = new SegmentTexture(4);
+        segmentTexture.setColor(1, GREEN);
+        segmentTexture.updateColor(1, RED);
+        segmentTexture.updateColor(2, RED);
+        flush(segmentTexture);
+
+        segmentTexture.reset();
+
+        assertTrue(segmentTexture.isDirty());
+        assertEquals(GREEN, segmentTexture.getColor(1));
+        assertEquals(0xFF000000, segmentTexture.getColor(2));
+    }
+
+    private static List<int[]> flush(SegmentTexture segmentTexture) {
+        List<int[]> writes = new ArrayList<>();
+        segmentTexture.flush((y, height, pixels, offset, stride) -> writes.add(new int[]{y, height, offset, stride}));
+        return writes;
+    }
+}
@@ -23,22 +23,19 @@ import com.willwinder.ugs.nbp.lib.lookup.CentralLookup;
 import com.willwinder.ugs.nbp.lib.services.LocalizingService;
 import static com.willwinder.ugs.nbp.lib.services.LocalizingService.lang;
 import com.willwinder.ugs.nbp.lib.services.TopComponentLocalizer;
-import com.willwinder.universalgcodesender.gcode.GcodeParser;
-import com.willwinder.universalgcodesender.gcode.processors.M30Processor;
-import com.willwinder.universalgcodesender.gcode.processors.Translator;
-import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
-import com.willwinder.universalgcodesender.gcode.util.GcodeUtils;
+import com.willwinder.universalgcodesender.gcode.GcodeStats;
 import com.willwinder.universalgcodesender.i18n.Localization;
 import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.model.Position;
 import com.willwinder.universalgcodesender.model.UnitUtils;
-import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.utils.GUIHelpers;
+import com.willwinder.universalgcodesender.utils.GcodeFileWriter;
 import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
-import com.willwinder.universalgcodesender.utils.Settings;
+import com.willwinder.universalgcodesender.utils.IGcodeWriter;
 import com.willwinder.universalgcodesender.utils.SwingHelpers;
 import static com.willwinder.universalgcodesender.utils.SwingHelpers.selectedUnit;
+import com.willwinder.universalgcodesender.utils.TiledGcodeStreamReader;
 
 import org.netbeans.api.settings.ConvertAsProperties;
 import org.openide.awt.ActionID;
@@ -46,21 +43,12 @@ import org.openide.awt.ActionReference;
 import org.openide.windows.TopComponent;
 
 import javax.swing.*;
-import java.io.BufferedReader;
-import java.io.DataInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.List;
 import net.miginfocom.swing.MigLayout;
-import org.apache.commons.lang3.StringUtils;
 import org.openide.modules.OnStart;
-import org.openide.util.Exceptions;
 
 /**
  * Top component which displays something.
@@ -108,8 +96,6 @@ public final class GcodeTilerTopComponent extends TopComponent {
   private static Double xWidth = null;
   private static Double yWidth = null;
 
-  private File outputFile = null;
-
   @OnStart
   public static class Localizer extends TopComponentLocalizer {
     public Localizer() {
@@ -133,11 +119,6 @@ public final class GcodeTilerTopComponent extends TopComponent {
     generateGcodeButton.addActionListener(al -> generateGcode());
     exportGcodeButton.addActionListener(al -> exportGcode());
 
-    // Change listeners
-    numCopiesX.addChangeListener(l -> controlChangeListener());
-    numCopiesY.addChangeListener(l -> controlChangeListener());
-    padding.addChangeListener(l -> controlChangeListener());
-
     // Dowel settings
     setLayout(new MigLayout("fillx, wrap 4"));
 
@@ -160,66 +141,45 @@ public final class GcodeTilerTopComponent extends TopComponent {
     add(exportGcodeButton, "growx, span2");
   }
 
-  private void controlChangeListener() {
-    // Clear the cached output file if settings are changed.
-    if (this.outputFile != null && this.outputFile.exists()) {
-      this.outputFile.delete();
-    }
-  }
-
   private boolean loadDimensions() {
     if (backend.getProcessedGcodeFile() == null) {
       GUIHelpers.displayErrorDialog("Must load gcode file first.");
       return false;
     }
 
-    Settings.FileStats fs = backend.getSettings().getFileStats();
+    // Use the stats of the processed program as the file stats will include any current tiling
+    GcodeStats stats = backend.getGcodeStats();
 
     UnitUtils.Units u = selectedUnit(this.units.getSelectedIndex());
-    Position min = fs.minCoordinate.getPositionIn(u);
-    Position max = fs.maxCoordinate.getPositionIn(u);
+    Position min = stats.getMin().getPositionIn(u);
+    Position max = stats.getMax().getPositionIn(u);
     GcodeTilerTopComponent.xWidth = max.x - min.x;
     GcodeTilerTopComponent.yWidth = max.y - min.y;
 
     return true;
   }
 
-  private void generateAndLoadGcode(File file) {
-    try {
-      if (this.outputFile == null) {
-        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
-          double padding = SwingHelpers.getDouble(this.padding);
-          double stepX = padding + GcodeTilerTopComponent.xWidth;
-          double stepY = padding + GcodeTilerTopComponent.yWidth;
-
-          // loop over offsets and call generateOneTile a bunch
-          for (int x = 0; x < SwingHelpers.getInt(this.numCopiesX); x++) {
-            for (int y = 0; y < SwingHelpers.getInt(this.numCopiesY); y++) {
-              this.generateOneTile(
-                  (x * stepX),
-                  (y * stepY),
-                  writer);
-            }
-          }
-        }
+  private List<Position> createTileOffsets() {
+    UnitUtils.Units u = selectedUnit(this.units.getSelectedIndex());
+    double padding = SwingHelpers.getDouble(this.padding);
+    double stepX = padding + GcodeTilerTopComponent.xWidth;
+    double stepY = padding + GcodeTilerTopComponent.yWidth;
+
+    List<Position> tileOffsets = new ArrayList<>();
+    for (int x = 0; x < SwingHelpers.getInt(this.numCopiesX); x++) {
+      for (int y = 0; y < SwingHelpers.getInt(this.numCopiesY); y++) {
+        tileOffsets.add(new Position(x * stepX, y * stepY, 0.0, u));
       }
-      backend.setGcodeFile(file);
-    } catch (IOException e) {
-      GUIHelpers.displayErrorDialog(ERROR_GENERATING + e.getLocalizedMessage());
-    } catch (Exception e) {
-      GUIHelpers.displayErrorDialog(ERROR_LOADING + e.getLocalizedMessage());
     }
+    return tileOffsets;
   }
 
   private void generateGcode() {
     if (!loadDimensions()) return;
 
-    Path path = null;
     try {
-      path = Files.createTempFile("dowel_program", ".gcode");
-      File file = path.toFile();
-      generateAndLoadGcode(file);
-    } catch (IOException e) {
+      backend.setGcodeTileOffsets(createTileOffsets());
+    } catch (Exception e) {
       GUIHelpers.displayErrorDialog(ERROR_LOADING + e.getLocalizedMessage());
     }
   }
@@ -229,54 +189,25 @@ public final class GcodeTilerTopComponent extends TopComponent {
     String sourceDir = backend.getSettings().getLastOpenedFilename();
     SwingHelpers
           .createFile(sourceDir)
-          .ifPresent(file -> generateAndLoadGcode(file));
+          .ifPresent(this::exportTiledGcode);
   }
 
-  // Helpers to actually process the gcode
-  private void applyTranslation(String command, GcodeParser parser, PrintWriter output) throws GcodeParserException {
-    if (StringUtils.isEmpty(command)) return;
-
-    Collection<String> lines = parser.preprocessCommand(command, parser.getCurrentState());
-    for(String processedLine : lines) {
-      output.println(processedLine);
+  private void exportTiledGcode(File file) {
+    List<Position> tileOffsets = createTileOffsets();
+    try (IGcodeStreamReader reader = new TiledGcodeStreamReader(backend.getProcessedGcodeFile(), backend.getCommandCreator(), tileOffsets);
+         IGcodeWriter writer = new GcodeFileWriter(file)) {
+      while (reader.getNumRowsRemaining() > 0) {
+        writer.addLine(reader.getNextCommand());
+      }
+    } catch (GcodeStreamReader.NotGcodeStreamFile | IOException e) {
+      GUIHelpers.displayErrorDialog(ERROR_GENERATING + e.getLocalizedMessage());
+      return;
     }
-    parser.addCommand(command);
-  }
-
-  private void generateOneTile(double offsetX, double offsetY, PrintWriter output) {
-    String gcodeFile = backend.getGcodeFile().getAbsolutePath();
-
-    UnitUtils.Units u = selectedUnit(this.units.getSelectedIndex());
-
-    GcodeParser parser = new GcodeParser();
-    parser.addCommandProcessor(new Translator(new Position(offsetX, offsetY, 0.0, u)));
-    parser.addCommandProcessor(new M30Processor());
-   
-    output.println(GcodeUtils.unitCommand(u) + "G90");
-    output.println("G0X" + offsetX + "Y" + offsetY);
 
     try {
-      File file = new File(gcodeFile);
-      try {
-          try (IGcodeStreamReader gsr = new GcodeStreamReader(file, backend.getCommandCreator())) {
-            while (gsr.getNumRowsRemaining() > 0) {
-              GcodeCommand next = gsr.getNextCommand();
-              applyTranslation(next.getCommandString(), parser, output);
-            }
-          }
-      } catch (GcodeStreamReader.NotGcodeStreamFile e) {
-        try (
-            FileInputStream fstream = new FileInputStream(file);
-            DataInputStream dis = new DataInputStream(fstream);
-            BufferedReader fileStream = new BufferedReader(new InputStreamReader(dis, StandardCharsets.UTF_8))) {
-          String line;
-          while ((line = fileStream.readLine()) != null) {
-            applyTranslation(line, parser, output);
-          }
-        }
-      }
-    } catch (GcodeParserException|IOException ex) {
-      Exceptions.printStackTrace(ex);
+      backend.setGcodeTileOffsets(tileOffsets);
+    } catch (Exception e) {
+      GUIHelpers.displayErrorDialog(ERROR_LOADING + e.getLocalizedMessage());
     }
   }
 
@@ -119,7 +119,8 @@ public class SourceMultiviewElement extends MultiViewEditorElement implements UG
     public void UGSEvent(UGSEvent ugsEvent) {
         if (ugsEvent instanceof ControllerStateEvent) {
             setEditable();
-        } else if (ugsEvent instanceof CommandEvent && ((CommandEvent) ugsEvent).getCommandEventType() == CommandEventType.COMMAND_COMPLETE) {
+        } else if (ugsEvent instanceof CommandEvent && ((CommandEvent) ugsEvent).getCommandEventType() == CommandEventType.COMMAND_COMPLETE && backend.getGcodeTileOffsets().isEmpty()) {
+            // The command numbers of a tiled program don't match the lines in the editor, so only follow untiled programs
             followLineUpdater.updateCurrentLine(obj, ((CommandEvent) ugsEvent).getCommand().getCommandNumber());
         }
     }
@@ -124,6 +124,11 @@ public class SentCommandsHighlightContainer extends AbstractHighlightsContainer
     }
 
     private void handleCommandEvent(CommandEvent event) {
+        // The commands of a tiled program are numbered across all tiles and don't match the lines in the editor
+        if (!backend.getGcodeTileOffsets().isEmpty()) {
+            return;
+        }
+
         try {
             int lineNumber = event.getCommand().getCommandNumber();
             if (event.getCommandEventType() == CommandEventType.COMMAND_COMPLETE && lineNumber >= 0) {
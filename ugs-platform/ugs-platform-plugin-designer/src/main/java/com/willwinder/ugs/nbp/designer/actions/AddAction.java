@@ -79,6 +79,11 @@ public class AddAction extends AbstractDesignAction implements DrawAction, Undoa
         execute();
     }
 
+    @Override
+    public long getMemoryUsage() {
+        return MemoryUsageUtils.estimateEntities(entities);
+    }
+
     @Override
     public String toString() {
         if (entities.size() > 1) {
@@ -156,6 +156,11 @@ public class BreakApartAction extends AbstractDesignAction implements SelectionL
             }
         }
 
+        @Override
+        public long getMemoryUsage() {
+            return MemoryUsageUtils.estimateEntities(List.of(entity));
+        }
+
         @Override
         public String toString() {
             return "entity break apart";
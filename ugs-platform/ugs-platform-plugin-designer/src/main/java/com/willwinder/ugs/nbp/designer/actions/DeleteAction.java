@@ -119,6 +119,11 @@ public class DeleteAction extends AbstractDesignAction implements SelectionListe
             drawing.repaint();
         }
 
+        @Override
+        public long getMemoryUsage() {
+            return MemoryUsageUtils.estimateEntities(entities);
+        }
+
         @Override
         public String toString() {
             return "delete entity";
@@ -20,9 +20,14 @@ package com.willwinder.ugs.nbp.designer.actions;
 
 import com.willwinder.ugs.nbp.designer.io.png.PngWriter;
 import com.willwinder.ugs.nbp.designer.logic.Controller;
+import net.miginfocom.swing.MigLayout;
 import org.openide.util.ImageUtilities;
 
 import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JSpinner;
+import javax.swing.SpinnerNumberModel;
 import javax.swing.filechooser.FileFilter;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.event.ActionEvent;
@@ -35,6 +40,8 @@ public class ExportPngAction extends AbstractDesignAction {
 
     private static final String SMALL_ICON_PATH = "img/export.svg";
     private static final String LARGE_ICON_PATH = "img/export24.svg";
+    private static final double MIN_DPI = 10;
+    private static final double MAX_DPI = 2400;
     private final transient Controller controller;
 
     public ExportPngAction(Controller controller) {
@@ -55,12 +62,18 @@ public class ExportPngAction extends AbstractDesignAction {
                 "Portable Network Graphics", "png");
         fileDialog.addChoosableFileFilter(filter);
 
+        JSpinner dpiSpinner = new JSpinner(new SpinnerNumberModel(PngWriter.DEFAULT_DPI, MIN_DPI, MAX_DPI, 10d));
+        JPanel dpiPanel = new JPanel(new MigLayout("fillx"));
+        dpiPanel.add(new JLabel("Resolution (DPI)"), "wrap");
+        dpiPanel.add(dpiSpinner, "growx");
+        fileDialog.setAccessory(dpiPanel);
+
         fileDialog.setSelectedFile(new File("out.png"));
-        fileDialog.showSaveDialog(null);
+        int status = fileDialog.showSaveDialog(null);
 
         File f = fileDialog.getSelectedFile();
-        if (f != null) {
-            PngWriter pngWriter = new PngWriter();
+        if (status == JFileChooser.APPROVE_OPTION && f != null) {
+            PngWriter pngWriter = new PngWriter((double) dpiSpinner.getValue());
             pngWriter.write(f, controller);
         }
     }
@@ -109,6 +109,11 @@ public class GroupAction extends AbstractDesignAction implements SelectionListen
             controller.getSelectionManager().setSelection(entities);
         }
 
+        @Override
+        public long getMemoryUsage() {
+            return MemoryUsageUtils.estimateReferences(entities);
+        }
+
         @Override
         public String toString() {
             return "group entities";
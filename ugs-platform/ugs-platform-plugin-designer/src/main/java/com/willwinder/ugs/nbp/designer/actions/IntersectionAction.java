@@ -24,6 +24,7 @@ import com.willwinder.ugs.nbp.designer.entities.cuttable.Path;
 import com.willwinder.ugs.nbp.designer.entities.selection.SelectionEvent;
 import com.willwinder.ugs.nbp.designer.entities.selection.SelectionListener;
 import com.willwinder.ugs.nbp.designer.entities.selection.SelectionManager;
+import com.willwinder.ugs.nbp.designer.logic.BooleanOperations;
 import com.willwinder.ugs.nbp.designer.logic.Controller;
 import com.willwinder.ugs.nbp.designer.logic.ControllerFactory;
 import com.willwinder.ugs.nbp.lib.services.LocalizingService;
@@ -31,8 +32,8 @@ import org.openide.awt.ActionID;
 import org.openide.awt.ActionRegistration;
 import org.openide.util.ImageUtilities;
 
+import java.awt.Shape;
 import java.awt.event.ActionEvent;
-import java.awt.geom.Area;
 import java.util.List;
 
 /**
@@ -91,9 +92,7 @@ public class IntersectionAction extends AbstractDesignAction implements Selectio
 
         @Override
         public void redo() {
-            Area area = new Area();
-            area.add(new Area(entities.get(0).getShape()));
-            area.intersect(new Area(entities.get(1).getShape()));
+            Shape shape = BooleanOperations.intersect(entities.stream().map(Entity::getShape).toList());
 
             path = new Path();
             if (entities.get(0) instanceof Cuttable cuttable) {
@@ -102,7 +101,7 @@ public class IntersectionAction extends AbstractDesignAction implements Selectio
                 path.setTargetDepth(cuttable.getTargetDepth());
                 path.setName(cuttable.getName());
             }
-            path.append(area);
+            path.append(shape);
 
             controller.getSelectionManager().clearSelection();
             controller.getDrawing().removeEntities(entities);
@@ -121,6 +120,11 @@ public class IntersectionAction extends AbstractDesignAction implements Selectio
             }
         }
 
+        @Override
+        public long getMemoryUsage() {
+            return MemoryUsageUtils.estimateEntities(entities);
+        }
+
         @Override
         public String toString() {
             return "entity intersection";
@@ -0,0 +1,106 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.actions;
+
+import com.willwinder.ugs.nbp.designer.entities.Entity;
+import com.willwinder.ugs.nbp.designer.entities.EntityGroup;
+
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.util.Collection;
+
+/**
+ * Estimates how much memory undoable actions are retaining. The estimates are rough and based on
+ * the number of entities and path segments referenced by an action, they are used for keeping the
+ * undo history within a memory budget.
+ *
+ * @author Joacim Breiler
+ */
+public class MemoryUsageUtils {
+    /**
+     * The estimated size of an action that only references a few small objects
+     */
+    public static final long ACTION_SIZE = 64;
+
+    /**
+     * The estimated size of an entity without its shape, including its transform and listeners
+     */
+    public static final long ENTITY_SIZE = 256;
+
+    /**
+     * The estimated size of a path segment with its type and coordinates
+     */
+    public static final long SEGMENT_SIZE = 24;
+
+    /**
+     * The size of an object reference
+     */
+    public static final long REFERENCE_SIZE = 8;
+
+    private MemoryUsageUtils() {
+    }
+
+    /**
+     * Estimates the memory used by an action that only references the given entities, such as a transform
+     * that is recorded as a delta.
+     *
+     * @param entities the entities referenced
+     * @return the estimated memory usage in bytes
+     */
+    public static long estimateReferences(Collection<? extends Entity> entities) {
+        return ACTION_SIZE + entities.size() * REFERENCE_SIZE;
+    }
+
+    /**
+     * Estimates the memory used by the given entities including their shapes and children. This should be
+     * used for actions that may be the only one keeping the entities, such as removed entities.
+     *
+     * @param entities the entities to estimate the memory usage for
+     * @return the estimated memory usage in bytes
+     */
+    public static long estimateEntities(Collection<? extends Entity> entities) {
+        long size = ACTION_SIZE;
+        for (Entity entity : entities) {
+            size += estimateEntity(entity);
+        }
+        return size;
+    }
+
+    private static long estimateEntity(Entity entity) {
+        if (entity instanceof EntityGroup entityGroup) {
+            return ENTITY_SIZE + estimateEntities(entityGroup.getChildren());
+        }
+
+        return ENTITY_SIZE + REFERENCE_SIZE + countSegments(entity.getRelativeShape()) * SEGMENT_SIZE;
+    }
+
+    private static long countSegments(Shape shape) {
+        if (shape == null) {
+            return 0;
+        }
+
+        long segments = 0;
+        PathIterator pathIterator = shape.getPathIterator(null);
+        while (!pathIterator.isDone()) {
+            segments++;
+            pathIterator.next();
+        }
+        return segments;
+    }
+}
@@ -62,6 +62,11 @@ public class MoveAction implements DrawAction, UndoableAction {
         entityList.forEach(entity -> entity.move(negativeMovement));
     }
 
+    @Override
+    public long getMemoryUsage() {
+        return MemoryUsageUtils.estimateReferences(entityList);
+    }
+
     @Override
     public String toString() {
         return "move entity";
@@ -68,6 +68,11 @@ public class ResizeAction implements UndoableAction {
         ResizeUtils.performScaling(entityGroup, anchor, newSize, originalSize);
     }
 
+    @Override
+    public long getMemoryUsage() {
+        return MemoryUsageUtils.estimateReferences(entities);
+    }
+
     @Override
     public String toString() {
         return "resize entity";
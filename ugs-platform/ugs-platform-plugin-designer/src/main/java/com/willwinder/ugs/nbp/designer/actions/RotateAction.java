@@ -63,6 +63,11 @@ public class RotateAction implements DrawAction, UndoableAction {
         entityList.forEach(entity -> entity.rotate(center, -rotation));
     }
 
+    @Override
+    public long getMemoryUsage() {
+        return MemoryUsageUtils.estimateReferences(entityList);
+    }
+
     @Override
     public String toString() {
         return "rotate entity";
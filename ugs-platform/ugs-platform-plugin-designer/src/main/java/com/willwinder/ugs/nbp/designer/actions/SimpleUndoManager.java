@@ -22,6 +22,9 @@ import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 /**
  * UndoManager is a simplistic reusable component to support an undo-redo
@@ -31,33 +34,54 @@ import java.util.Set;
  * @author Alex Lagerstedt
  */
 public class SimpleUndoManager implements UndoManager {
+    private static final Logger LOGGER = Logger.getLogger(SimpleUndoManager.class.getSimpleName());
+
+    /**
+     * The default amount of memory the undo history is allowed to use
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 128L * 1024 * 1024;
 
     // Undo and redo stacks which contain the UndoableAction objects
     // When a new action is made it is put in the undo stack. When an operation
     // is undone, it is places in the redo stack.
 
-    private final Deque<UndoableAction> undoStack;
-    private final Deque<UndoableAction> redoStack;
+    private final Deque<UndoEntry> undoStack;
+    private final Deque<UndoEntry> redoStack;
     private final Set<UndoManagerListener> listeners;
+    private long memoryBudget;
+    private long memoryUsage;
 
     /**
      * Constructs a empty Undo Manager.
      */
     public SimpleUndoManager() {
+        this(DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * Constructs a empty Undo Manager with the given memory budget.
+     *
+     * @param memoryBudget the estimated amount of memory in bytes the undo history is allowed to use
+     */
+    public SimpleUndoManager(long memoryBudget) {
         undoStack = new ArrayDeque<>();
         redoStack = new ArrayDeque<>();
         listeners = new HashSet<>();
+        this.memoryBudget = memoryBudget;
     }
 
     /**
-     * Adds a new undoable action into this Undo Manager.
+     * Adds a new undoable action into this Undo Manager. If the memory budget is exceeded
+     * the oldest actions will be removed from the history.
      *
      * @param action the UndoableAction to be added.
      */
     @Override
     public void addAction(UndoableAction action) {
         redoStack.clear();
-        undoStack.push(action);
+        undoStack.push(new UndoEntry(action, action.getMemoryUsage()));
+        updateMemoryUsage();
+        evictActions();
         listeners.forEach(UndoManagerListener::onChanged);
     }
 
@@ -88,9 +112,9 @@ public class SimpleUndoManager implements UndoManager {
     @Override
     public void redo() {
         if (canRedo()) {
-            UndoableAction action = redoStack.pop();
-            action.redo();
-            undoStack.push(action);
+            UndoEntry entry = redoStack.pop();
+            entry.action().redo();
+            undoStack.push(entry);
             listeners.forEach(UndoManagerListener::onChanged);
         }
     }
@@ -102,9 +126,9 @@ public class SimpleUndoManager implements UndoManager {
     @Override
     public void undo() {
         if (canUndo()) {
-            UndoableAction action = undoStack.pop();
-            action.undo();
-            redoStack.push(action);
+            UndoEntry entry = undoStack.pop();
+            entry.action().undo();
+            redoStack.push(entry);
             listeners.forEach(UndoManagerListener::onChanged);
         }
     }
@@ -114,7 +138,7 @@ public class SimpleUndoManager implements UndoManager {
         if (!canUndo()) {
             return "";
         }
-        return undoStack.peek().toString();
+        return undoStack.peek().action().toString();
     }
 
     @Override
@@ -122,7 +146,7 @@ public class SimpleUndoManager implements UndoManager {
         if (!canRedo()) {
             return "";
         }
-        return redoStack.peek().toString();
+        return redoStack.peek().action().toString();
     }
 
     @Override
@@ -134,6 +158,7 @@ public class SimpleUndoManager implements UndoManager {
     public void clear() {
         undoStack.clear();
         redoStack.clear();
+        updateMemoryUsage();
         listeners.forEach(UndoManagerListener::onChanged);
     }
 
@@ -141,4 +166,53 @@ public class SimpleUndoManager implements UndoManager {
     public void removeListener(UndoManagerListener undoListener) {
         listeners.remove(undoListener);
     }
+
+    @Override
+    public long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    @Override
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    @Override
+    public void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        if (evictActions()) {
+            listeners.forEach(UndoManagerListener::onChanged);
+        }
+    }
+
+    /**
+     * Removes the oldest actions until the history fits within the memory budget. The latest
+     * action is always kept so that it can be undone.
+     *
+     * @return true if any actions were removed
+     */
+    private boolean evictActions() {
+        int evictedActions = 0;
+        while (memoryUsage > memoryBudget && undoStack.size() > 1) {
+            memoryUsage -= undoStack.removeLast().memoryUsage();
+            evictedActions++;
+        }
+
+        if (evictedActions > 0) {
+            LOGGER.log(Level.FINE, "Removed {0} actions from the undo history to stay within the memory budget", evictedActions);
+        }
+        return evictedActions > 0;
+    }
+
+    private void updateMemoryUsage() {
+        memoryUsage = Stream.concat(undoStack.stream(), redoStack.stream())
+                .mapToLong(UndoEntry::memoryUsage)
+                .sum();
+    }
+
+    /**
+     * An action in the history with its memory usage estimated when it was added
+     */
+    private record UndoEntry(UndoableAction action, long memoryUsage) {
+    }
 }
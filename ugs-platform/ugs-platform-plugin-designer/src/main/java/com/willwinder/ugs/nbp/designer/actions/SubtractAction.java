@@ -25,6 +25,7 @@ import com.willwinder.ugs.nbp.designer.entities.cuttable.Path;
 import com.willwinder.ugs.nbp.designer.entities.selection.SelectionEvent;
 import com.willwinder.ugs.nbp.designer.entities.selection.SelectionListener;
 import com.willwinder.ugs.nbp.designer.entities.selection.SelectionManager;
+import com.willwinder.ugs.nbp.designer.logic.BooleanOperations;
 import com.willwinder.ugs.nbp.designer.logic.Controller;
 import com.willwinder.ugs.nbp.designer.logic.ControllerFactory;
 import com.willwinder.ugs.nbp.lib.services.LocalizingService;
@@ -32,8 +33,9 @@ import org.openide.awt.ActionID;
 import org.openide.awt.ActionRegistration;
 import org.openide.util.ImageUtilities;
 
+import java.awt.Shape;
 import java.awt.event.ActionEvent;
-import java.awt.geom.Area;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -92,15 +94,16 @@ public class SubtractAction extends AbstractDesignAction implements SelectionLis
 
         @Override
         public void redo() {
-            Area area = new Area(entities.get(0).getShape());
+            List<Shape> subtrahends = new ArrayList<>();
             for (int i = 1; i < entities.size(); i++) {
                 Entity entity = entities.get(i);
                 if (entity instanceof Group group) {
-                    group.getAllChildren().forEach(groupEntity -> area.subtract(new Area(groupEntity.getShape())));
+                    group.getAllChildren().forEach(groupEntity -> subtrahends.add(groupEntity.getShape()));
                 } else {
-                    area.subtract(new Area(entity.getShape()));
+                    subtrahends.add(entity.getShape());
                 }
             }
+            Shape shape = BooleanOperations.subtract(entities.get(0).getShape(), subtrahends);
 
             path = new Path();
             if (entities.get(0) instanceof Cuttable cuttable) {
@@ -109,7 +112,7 @@ public class SubtractAction extends AbstractDesignAction implements SelectionLis
                 path.setTargetDepth(cuttable.getTargetDepth());
                 path.setName(cuttable.getName());
             }
-            path.append(area);
+            path.append(shape);
 
             controller.getSelectionManager().clearSelection();
             controller.getDrawing().removeEntities(entities);
@@ -128,6 +131,11 @@ public class SubtractAction extends AbstractDesignAction implements SelectionLis
             }
         }
 
+        @Override
+        public long getMemoryUsage() {
+            return MemoryUsageUtils.estimateEntities(entities);
+        }
+
         @Override
         public String toString() {
             return "entity subtraction";
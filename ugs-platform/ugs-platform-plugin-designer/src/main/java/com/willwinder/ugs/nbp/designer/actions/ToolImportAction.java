@@ -18,6 +18,8 @@
  */
 package com.willwinder.ugs.nbp.designer.actions;
 
+import com.willwinder.ugs.nbp.designer.io.DesignImporter;
+import com.willwinder.ugs.nbp.designer.io.DesignReader;
 import com.willwinder.ugs.nbp.designer.io.c2d.C2dReader;
 import com.willwinder.ugs.nbp.designer.io.dxf.DxfReader;
 import com.willwinder.ugs.nbp.designer.io.eagle.EaglePnpReader;
@@ -26,8 +28,6 @@ import com.willwinder.ugs.nbp.designer.io.svg.SvgReader;
 import com.willwinder.ugs.nbp.designer.io.ugsd.UgsDesignReader;
 import com.willwinder.ugs.nbp.designer.logic.Controller;
 import com.willwinder.ugs.nbp.designer.logic.ControllerFactory;
-import com.willwinder.ugs.nbp.designer.logic.Tool;
-import com.willwinder.ugs.nbp.designer.model.Design;
 import com.willwinder.ugs.nbp.lib.lookup.CentralLookup;
 import com.willwinder.ugs.nbp.lib.services.LocalizingService;
 import com.willwinder.universalgcodesender.model.BackendAPI;
@@ -79,37 +79,27 @@ public final class ToolImportAction extends AbstractDesignAction {
     }
 
     public static void readDesign(Controller controller, BackendAPI backend, File f) {
-        Optional<Design> optionalDesign = Optional.empty();
+        DesignReader reader = createReader(backend, f)
+                .orElseThrow(() -> new RuntimeException("Could not open: " + f.getName()));
+        new DesignImporter(controller).importFile(f, reader);
+    }
+
+    private static Optional<DesignReader> createReader(BackendAPI backend, File f) {
         if (StringUtils.endsWithIgnoreCase(f.getName(), ".svg")) {
-            SvgReader svgReader = new SvgReader();
-            optionalDesign = svgReader.read(f);
+            return Optional.of(new SvgReader());
         } else if (StringUtils.endsWithIgnoreCase(f.getName(), ".dxf")) {
-            DxfReader reader = new DxfReader(backend.getSettings());
-            optionalDesign = reader.read(f);
+            return Optional.of(new DxfReader(backend.getSettings()));
         } else if (StringUtils.endsWithIgnoreCase(f.getName(), ".c2d")) {
-            C2dReader reader = new C2dReader();
-            optionalDesign = reader.read(f);
+            return Optional.of(new C2dReader());
         } else if (StringUtils.endsWithIgnoreCase(f.getName(), ".mnt") ||
                 StringUtils.endsWithIgnoreCase(f.getName(), ".mnb")) {
-            EaglePnpReader reader = new EaglePnpReader();
-            optionalDesign = reader.read(f);
+            return Optional.of(new EaglePnpReader());
         } else if (StringUtils.endsWithIgnoreCase(f.getName(), ".pos")) {
-            KiCadPosReader reader = new KiCadPosReader();
-            optionalDesign = reader.read(f);
+            return Optional.of(new KiCadPosReader());
         } else if (StringUtils.endsWithIgnoreCase(f.getName(), ".ugsd")) {
-            UgsDesignReader reader = new UgsDesignReader();
-            optionalDesign = reader.read(f);
-        }
-
-        if (optionalDesign.isPresent()) {
-            Design design = optionalDesign.get();
-            controller.setTool(Tool.SELECT);
-            controller.addEntities(design.getEntities());
-            controller.getSelectionManager().addSelection(design.getEntities());
-            controller.getDrawing().repaint();
-        } else {
-            throw new RuntimeException("Could not open: " + f.getName());
+            return Optional.of(new UgsDesignReader());
         }
+        return Optional.empty();
     }
 
     @Override
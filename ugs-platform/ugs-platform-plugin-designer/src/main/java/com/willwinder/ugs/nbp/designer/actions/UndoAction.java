@@ -19,6 +19,7 @@
 package com.willwinder.ugs.nbp.designer.actions;
 
 import com.willwinder.ugs.nbp.designer.logic.ControllerFactory;
+import org.apache.commons.io.FileUtils;
 import org.openide.util.ImageUtilities;
 
 import java.awt.event.ActionEvent;
@@ -55,5 +56,8 @@ public class UndoAction extends AbstractDesignAction implements UndoManagerListe
             putValue("menuText", "Undo " + undoManager.getUndoPresentationName());
             putValue(NAME, "Undo " + undoManager.getUndoPresentationName());
         }
+
+        putValue(SHORT_DESCRIPTION, "Undo history uses " + FileUtils.byteCountToDisplaySize(undoManager.getMemoryUsage()) +
+                " of " + FileUtils.byteCountToDisplaySize(undoManager.getMemoryBudget()));
     }
 }
@@ -48,6 +48,13 @@ public class UndoActionList implements UndoableAction {
         actionList.forEach(UndoableAction::undo);
     }
 
+    @Override
+    public long getMemoryUsage() {
+        return MemoryUsageUtils.ACTION_SIZE + actionList.stream()
+                .mapToLong(UndoableAction::getMemoryUsage)
+                .sum();
+    }
+
     @Override
     public String toString() {
         return actionList.stream()
@@ -41,4 +41,25 @@ public interface UndoManager {
     void clear();
 
     void removeListener(UndoManagerListener undoListener);
+
+    /**
+     * Returns the estimated memory used by the actions in the undo and redo history
+     *
+     * @return the memory usage in bytes
+     */
+    long getMemoryUsage();
+
+    /**
+     * Returns the estimated amount of memory the history is allowed to use before the oldest actions are removed
+     *
+     * @return the memory budget in bytes
+     */
+    long getMemoryBudget();
+
+    /**
+     * Sets the amount of memory the history is allowed to use, the oldest actions will be removed if it is exceeded
+     *
+     * @param memoryBudget the memory budget in bytes
+     */
+    void setMemoryBudget(long memoryBudget);
 }
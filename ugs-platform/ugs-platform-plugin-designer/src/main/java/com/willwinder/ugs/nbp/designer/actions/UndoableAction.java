@@ -31,4 +31,14 @@ public interface UndoableAction {
      * This method undoes an action performed and recorded in an UndoManager.
      */
     void undo();
+
+    /**
+     * Returns an estimate of the memory retained by this action while it is kept in the undo history.
+     * Actions that are the only holder of entities, such as removed entities, should include the size of them.
+     *
+     * @return the estimated memory usage in bytes
+     */
+    default long getMemoryUsage() {
+        return MemoryUsageUtils.ACTION_SIZE;
+    }
 }
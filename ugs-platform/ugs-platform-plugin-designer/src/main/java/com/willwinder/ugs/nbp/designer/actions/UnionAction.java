@@ -24,6 +24,7 @@ import com.willwinder.ugs.nbp.designer.entities.cuttable.Path;
 import com.willwinder.ugs.nbp.designer.entities.selection.SelectionEvent;
 import com.willwinder.ugs.nbp.designer.entities.selection.SelectionListener;
 import com.willwinder.ugs.nbp.designer.entities.selection.SelectionManager;
+import com.willwinder.ugs.nbp.designer.logic.BooleanOperations;
 import com.willwinder.ugs.nbp.designer.logic.Controller;
 import com.willwinder.ugs.nbp.designer.logic.ControllerFactory;
 import com.willwinder.ugs.nbp.lib.services.LocalizingService;
@@ -31,8 +32,8 @@ import org.openide.awt.ActionID;
 import org.openide.awt.ActionRegistration;
 import org.openide.util.ImageUtilities;
 
+import java.awt.Shape;
 import java.awt.event.ActionEvent;
-import java.awt.geom.Area;
 import java.util.List;
 
 /**
@@ -92,12 +93,10 @@ public class UnionAction extends AbstractDesignAction implements SelectionListen
 
         @Override
         public void redo() {
-            Path temporaryPath = new Path();
-            entities.forEach(e -> temporaryPath.append(e.getShape()));
-            Area area = new Area(temporaryPath.getShape());
+            Shape shape = BooleanOperations.union(entities.stream().map(Entity::getShape).toList());
 
             path = new Path();
-            path.append(area);
+            path.append(shape);
 
             if (entities.get(0) instanceof Cuttable cuttable) {
                 path.setCutType(cuttable.getCutType());
@@ -123,6 +122,11 @@ public class UnionAction extends AbstractDesignAction implements SelectionListen
             }
         }
 
+        @Override
+        public long getMemoryUsage() {
+            return MemoryUsageUtils.estimateEntities(entities);
+        }
+
         @Override
         public String toString() {
             return "entity union";
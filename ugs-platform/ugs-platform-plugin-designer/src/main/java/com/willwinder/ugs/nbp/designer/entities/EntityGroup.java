@@ -27,9 +27,12 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.NoninvertibleTransformException;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Stream;
 
@@ -126,14 +129,37 @@ public class EntityGroup extends AbstractEntity implements EntityListener {
         cachedBounds = null;
     }
 
+    /**
+     * Adds all entities that aren't already a part of this group. The entities are added at once to avoid
+     * copying the list of children and searching through the group for each entity.
+     *
+     * @param entities the entities to add
+     */
     public void addAll(List<Entity> entities) {
+        Set<Entity> existingEntities = Collections.newSetFromMap(new IdentityHashMap<>());
+        collectDescendants(existingEntities);
+
+        List<Entity> entitiesToAdd = new ArrayList<>(entities.size());
         entities.forEach(entity -> {
-            if (!containsChild(entity)) {
-                children.add(entity);
+            if (existingEntities.add(entity)) {
+                entitiesToAdd.add(entity);
                 entity.addListener(this);
             }
         });
-        invalidateBounds();
+
+        if (!entitiesToAdd.isEmpty()) {
+            children.addAll(entitiesToAdd);
+            invalidateBounds();
+        }
+    }
+
+    private void collectDescendants(Set<Entity> result) {
+        children.forEach(child -> {
+            result.add(child);
+            if (child instanceof EntityGroup entityGroup) {
+                entityGroup.collectDescendants(result);
+            }
+        });
     }
 
     @Override
@@ -0,0 +1,138 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.entities.cuttable;
+
+import java.awt.Font;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A shared cache of glyph outlines that is used for creating text shapes without laying out the
+ * glyphs of the whole text each time. The outlines are cached by font (including its size and
+ * style) and code point, the least recently used outlines are evicted when the cache is full.
+ * <p>
+ * The cache is thread safe and can be used from background threads.
+ *
+ * @author Joacim Breiler
+ */
+public class GlyphOutlineCache {
+    /**
+     * The maximum number of glyph outlines to keep in the cache
+     */
+    public static final int MAX_SIZE = 4096;
+
+    /**
+     * The same render context as the default graphics of an image, without antialiasing and
+     * fractional metrics so that the glyph advances are the same as when laying out the whole text
+     */
+    private static final FontRenderContext FONT_RENDER_CONTEXT = new FontRenderContext(null, false, false);
+
+    private static final Map<GlyphKey, Glyph> CACHE = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<GlyphKey, Glyph> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+
+    private GlyphOutlineCache() {
+    }
+
+    /**
+     * Creates the outline of the given text by placing the cached outline of each character after
+     * each other. The shape is in font coordinates with the baseline at zero and the y-axis pointing down.
+     *
+     * @param font the font to use
+     * @param text the text to create the shape for
+     * @return the shape of the text
+     */
+    public static Shape createTextShape(Font font, String text) {
+        Path2D.Double result = new Path2D.Double();
+        AffineTransform glyphTransform = new AffineTransform();
+        double x = 0;
+        for (int offset = 0; offset < text.length(); ) {
+            int codePoint = text.codePointAt(offset);
+            Glyph glyph = getGlyph(font, codePoint);
+            glyphTransform.setToTranslation(x, 0);
+            result.append(glyph.outline().getPathIterator(glyphTransform), false);
+            x += glyph.advance();
+            offset += Character.charCount(codePoint);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of cached glyph outlines
+     *
+     * @return the number of cached glyphs
+     */
+    public static int size() {
+        synchronized (CACHE) {
+            return CACHE.size();
+        }
+    }
+
+    /**
+     * Removes all cached glyph outlines
+     */
+    public static void clear() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+
+    private static Glyph getGlyph(Font font, int codePoint) {
+        GlyphKey key = new GlyphKey(font, codePoint);
+        synchronized (CACHE) {
+            Glyph glyph = CACHE.get(key);
+            if (glyph != null) {
+                return glyph;
+            }
+        }
+
+        // Create the outline outside the lock so that other threads can use the cache in the meantime
+        Glyph glyph = createGlyph(font, codePoint);
+        synchronized (CACHE) {
+            Glyph existingGlyph = CACHE.putIfAbsent(key, glyph);
+            return existingGlyph != null ? existingGlyph : glyph;
+        }
+    }
+
+    private static Glyph createGlyph(Font font, int codePoint) {
+        GlyphVector glyphVector = font.createGlyphVector(FONT_RENDER_CONTEXT, Character.toChars(codePoint));
+        double advance = glyphVector.getGlyphPosition(glyphVector.getNumGlyphs()).getX();
+        return new Glyph(new Path2D.Double(glyphVector.getOutline(0, 0)), advance);
+    }
+
+    /**
+     * The key of a cached glyph, fonts are equal if they have the same name, style, size and transform
+     */
+    private record GlyphKey(Font font, int codePoint) {
+    }
+
+    /**
+     * A cached glyph outline, the outline must never be modified
+     */
+    private record Glyph(Shape outline, double advance) {
+    }
+}
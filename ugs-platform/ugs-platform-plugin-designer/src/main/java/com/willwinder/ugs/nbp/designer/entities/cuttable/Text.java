@@ -1,5 +1,5 @@
 /*
-    Copyright 2021-2024 Will Winder
+    Copyright 2021-2025 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -25,12 +25,9 @@ import com.willwinder.ugs.nbp.designer.entities.EntitySetting;
 import org.apache.commons.lang3.StringUtils;
 
 import java.awt.Font;
-import java.awt.Graphics2D;
 import java.awt.Shape;
-import java.awt.font.GlyphVector;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
-import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -60,11 +57,8 @@ public class Text extends AbstractCuttable {
 
     private void regenerateShape() {
         if (StringUtils.isNotEmpty(text)) {
-            BufferedImage img = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g2 = img.createGraphics();
             Font font = new Font(this.fontFamily, Font.PLAIN, 18);
-            GlyphVector glyphVector = font.createGlyphVector(g2.getFontRenderContext(), text);
-            shape = transform.createTransformedShape(glyphVector.getOutline(0, 0));
+            shape = transform.createTransformedShape(GlyphOutlineCache.createTextShape(font, text));
         } else {
             // Create a temporary shape
             shape = transform.createTransformedShape(new Rectangle2D.Double(0, 0, 2, 12));
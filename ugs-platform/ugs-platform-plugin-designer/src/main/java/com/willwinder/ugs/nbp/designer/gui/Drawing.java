@@ -124,6 +124,22 @@ public class Drawing extends JPanel implements ISnapToGridListener {
         snapToGridUpdated(1);
     }
 
+    /**
+     * Creates a drawing without any controls with a fixed scale, used for rendering the entities outside
+     * of the editor, ie: when exporting an image
+     *
+     * @param scale the scale of a pixel, if set to 1 means that one pixel is equal to one millimeter
+     */
+    public Drawing(double scale) {
+        refreshThrottler = new Throttler(this::refresh, 1000);
+        globalRoot = new EntityGroup();
+        entitiesRoot = new EntityGroup();
+        globalRoot.addChild(entitiesRoot);
+        controlsRoot = new EntityGroup();
+        globalRoot.addChild(controlsRoot);
+        this.scale = Math.max(Math.abs(scale), MIN_SCALE);
+    }
+
     @Override
     public void addNotify() {
         super.addNotify();
@@ -164,7 +180,7 @@ public class Drawing extends JPanel implements ISnapToGridListener {
     }
 
     public void insertEntities(List<Entity> entities) {
-        entities.forEach(entitiesRoot::addChild);
+        entitiesRoot.addAll(entities);
         notifyListeners(DrawingEvent.ENTITY_ADDED);
     }
 
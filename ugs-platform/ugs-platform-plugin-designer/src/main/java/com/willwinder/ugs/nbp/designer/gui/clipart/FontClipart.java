@@ -1,5 +1,5 @@
 /*
-    Copyright 2022 Will Winder
+    Copyright 2022-2025 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -19,18 +19,14 @@
 package com.willwinder.ugs.nbp.designer.gui.clipart;
 
 import com.willwinder.ugs.nbp.designer.entities.cuttable.Cuttable;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.GlyphOutlineCache;
 import com.willwinder.ugs.nbp.designer.entities.cuttable.Path;
 import com.willwinder.universalgcodesender.uielements.helpers.ThemeColors;
 
-import javax.swing.JLabel;
-import javax.swing.SwingConstants;
 import java.awt.Component;
 import java.awt.Font;
-import java.awt.Graphics2D;
 import java.awt.Shape;
-import java.awt.font.GlyphVector;
 import java.awt.geom.AffineTransform;
-import java.awt.image.BufferedImage;
 
 /**
  * A clipart type based on a font and a letter
@@ -39,7 +35,7 @@ import java.awt.image.BufferedImage;
  */
 public class FontClipart implements Clipart {
     private final Category category;
-    private final JLabel label;
+    private final FontClipartPreview preview;
     private final String name;
     private final String text;
     private final Font font;
@@ -52,10 +48,8 @@ public class FontClipart implements Clipart {
         this.font = font;
         this.source = source;
 
-        label = new ClipartLabel(text);
-        label.setFont(font);
-        label.setHorizontalAlignment(SwingConstants.CENTER);
-        label.setForeground(ThemeColors.VERY_DARK_GREY);
+        preview = new FontClipartPreview(font, text);
+        preview.setForeground(ThemeColors.VERY_DARK_GREY);
     }
 
     @Override
@@ -70,17 +64,13 @@ public class FontClipart implements Clipart {
 
     @Override
     public Component getPreview() {
-        return label;
+        return preview;
     }
 
     @Override
     public Cuttable getCuttable() {
-        BufferedImage img = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2 = img.createGraphics();
-        GlyphVector glyphVector = font.createGlyphVector(g2.getFontRenderContext(), text);
-
         AffineTransform transform = AffineTransform.getScaleInstance(1, -1);
-        Shape shape = transform.createTransformedShape(glyphVector.getOutline(0, 0));
+        Shape shape = transform.createTransformedShape(GlyphOutlineCache.createTextShape(font, text));
         Path path = new Path();
         path.append(shape);
         return path;
@@ -0,0 +1,108 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.gui.clipart;
+
+import com.willwinder.ugs.nbp.designer.entities.cuttable.GlyphOutlineCache;
+import com.willwinder.universalgcodesender.utils.ThreadHelper;
+
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A preview of a font clipart that paints the glyph outlines scaled to fit the component. The
+ * outlines are created in a shared low priority background thread the first time the preview is painted so that
+ * showing a category with many cliparts doesn't block the event dispatch thread.
+ *
+ * @author Joacim Breiler
+ */
+public class FontClipartPreview extends JComponent {
+    private static final Logger LOGGER = Logger.getLogger(FontClipartPreview.class.getSimpleName());
+    private static final int PADDING = 8;
+    private static final ExecutorService PREVIEW_EXECUTOR = ThreadHelper.createLowPriorityExecutor("Clipart preview");
+
+    private final transient Font font;
+    private final String text;
+    private final AtomicBoolean isLoading = new AtomicBoolean();
+    private transient volatile Shape outline;
+
+    public FontClipartPreview(Font font, String text) {
+        this.font = font;
+        this.text = text;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Shape shape = outline;
+        if (shape == null) {
+            loadOutline();
+            return;
+        }
+
+        Rectangle2D bounds = shape.getBounds2D();
+        double availableWidth = getWidth() - PADDING * 2d;
+        double availableHeight = getHeight() - PADDING * 2d;
+        if (bounds.isEmpty() || availableWidth <= 0 || availableHeight <= 0) {
+            return;
+        }
+
+        double scale = Math.min(availableWidth / bounds.getWidth(), availableHeight / bounds.getHeight());
+        AffineTransform transform = new AffineTransform();
+        transform.translate(getWidth() / 2d, getHeight() / 2d);
+        transform.scale(scale, scale);
+        transform.translate(-bounds.getCenterX(), -bounds.getCenterY());
+
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setColor(getForeground());
+            g2.fill(transform.createTransformedShape(shape));
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    private void loadOutline() {
+        if (!isLoading.compareAndSet(false, true)) {
+            return;
+        }
+
+        PREVIEW_EXECUTOR.submit(() -> {
+            try {
+                outline = GlyphOutlineCache.createTextShape(font, text);
+                SwingUtilities.invokeLater(this::repaint);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Could not create the preview for clipart \"" + text + "\"", e);
+            } finally {
+                isLoading.set(false);
+            }
+        });
+    }
+}
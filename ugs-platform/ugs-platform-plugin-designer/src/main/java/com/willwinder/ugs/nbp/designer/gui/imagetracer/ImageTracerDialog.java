@@ -56,9 +56,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
 import javax.swing.JOptionPane;
 import javax.swing.JTabbedPane;
 import javax.swing.ProgressMonitor;
+import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
 import org.locationtech.jts.awt.ShapeWriter;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
@@ -78,6 +81,8 @@ public class ImageTracerDialog extends JDialog {
     private File selectedFile;
     private String generatedSvgData;
     private final JTabbedPane tabs = new JTabbedPane();
+    private final JProgressBar traceProgress = new JProgressBar(0, 100);
+    private transient ParallelImageTracer currentTracer;
     
     public ImageTracerDialog() {
         super((JFrame) null, true);
@@ -92,6 +97,10 @@ public class ImageTracerDialog extends JDialog {
         add(tabs, "grow, wrap");
 
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        traceProgress.setStringPainted(true);
+        traceProgress.setVisible(false);
+        buttonPanel.add(traceProgress);
+
         JButton openImage = new JButton("Open");
         openImage.addActionListener(e -> openFile());
         buttonPanel.add(openImage);
@@ -113,16 +122,61 @@ public class ImageTracerDialog extends JDialog {
     }
 
     private void refreshSvg() {
+        cancelTrace();
         ThreadHelper.invokeLater(() -> {
             if (selectedFile != null) {
-                generatedSvgData = TraceUtils.traceImage(selectedFile, settingsPanel.getSettings());
-                svgCanvas.setSvgData(generatedSvgData);
+                TraceSettings settings = settingsPanel.getSettings();
+                ParallelImageTracer tracer = TraceUtils.createTracer(settings);
+                tracer.addListener(this::onTraceProgress);
+                setCurrentTracer(tracer);
+                try {
+                    SwingUtilities.invokeLater(() -> {
+                        traceProgress.setValue(0);
+                        traceProgress.setVisible(true);
+                    });
+                    generatedSvgData = TraceUtils.traceImage(selectedFile, settings, tracer);
+                    svgCanvas.setSvgData(generatedSvgData);
+                } catch (CancellationException e) {
+                    // A new trace has been started or the dialog was closed
+                } finally {
+                    clearCurrentTracer(tracer);
+                }
             } else {
                 svgCanvas.setSvgData(DEFAULT_SVG);
 //                svgCanvas.setSVGDocument(null);
             }
         });
     }
+
+    private void onTraceProgress(int completedSteps, int totalSteps) {
+        int progress = (int) ((completedSteps * 100L) / Math.max(1, totalSteps));
+        SwingUtilities.invokeLater(() -> traceProgress.setValue(progress));
+    }
+
+    private synchronized void setCurrentTracer(ParallelImageTracer tracer) {
+        currentTracer = tracer;
+    }
+
+    private synchronized void clearCurrentTracer(ParallelImageTracer tracer) {
+        if (currentTracer == tracer) {
+            currentTracer = null;
+            SwingUtilities.invokeLater(() -> traceProgress.setVisible(false));
+        }
+    }
+
+    private synchronized void cancelTrace() {
+        if (currentTracer != null) {
+            currentTracer.cancel();
+            currentTracer = null;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        cancelTrace();
+        super.dispose();
+    }
+
     private String lastOpenedFile = null;
             
     private void openFile() {
@@ -0,0 +1,784 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.gui.imagetracer;
+
+import jankovicsandras.imagetracer.ImageTracer;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A multi-threaded version of the {@link ImageTracer} which produces the same SVG output.
+ * <p>
+ * Loading and color quantization is split into horizontal bands of the image, while edge
+ * detection, path scanning, interpolation and tracing is done for each color layer in parallel.
+ * Only one edge node layer per worker thread is kept in memory and all path data is stored in
+ * primitive arrays instead of nested lists with boxed values.
+ * <p>
+ * A trace can be aborted using {@link #cancel()} which will make the trace throw a
+ * {@link CancellationException}.
+ *
+ * @author Joacim Breiler
+ */
+public class ParallelImageTracer {
+    private static final int BAND_HEIGHT = 64;
+
+    /**
+     * The number of values for each point in a scanned path: x, y and edge node type
+     */
+    private static final int PATH_POINT_SIZE = 3;
+
+    /**
+     * The number of values for each interpolated point: x, y and direction
+     */
+    private static final int NODE_SIZE = 3;
+
+    /**
+     * The number of values for each traced segment: type, x1, y1, x2, y2, x3, y3
+     */
+    private static final int SEGMENT_SIZE = 7;
+
+    private final HashMap<String, Float> options;
+    private final int parallelism;
+    private final List<TraceProgressListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    private final AtomicInteger completedSteps = new AtomicInteger();
+    private volatile int totalSteps = 1;
+
+    /**
+     * Creates a tracer
+     *
+     * @param options     the tracing options, see {@link ImageTracer#checkoptions(HashMap)} for available options
+     * @param parallelism the number of worker threads to use
+     */
+    public ParallelImageTracer(Map<String, Float> options, int parallelism) {
+        this.options = ImageTracer.checkoptions(options == null ? null : new HashMap<>(options));
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public void addListener(TraceProgressListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Aborts any ongoing trace
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * Traces the given image and returns it as an SVG string.
+     *
+     * @param image   the image to trace
+     * @param palette the palette to use, if null a palette will be generated
+     * @return the traced image as an SVG string
+     * @throws CancellationException if the trace was cancelled
+     */
+    public String imageToSVG(BufferedImage image, byte[][] palette) {
+        TraceResult result = imageToTracedata(image, palette);
+        checkCancelled();
+        return getSvgString(result);
+    }
+
+    /**
+     * Traces the given image and returns the traced layers.
+     *
+     * @param image   the image to trace
+     * @param palette the palette to use, if null a palette will be generated
+     * @return the traced layers
+     * @throws CancellationException if the trace was cancelled
+     */
+    public TraceResult imageToTracedata(BufferedImage image, byte[][] palette) {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            int bands = (image.getHeight() + BAND_HEIGHT - 1) / BAND_HEIGHT;
+            int cycles = (int) Math.floor(options.get("colorquantcycles"));
+            int numberOfColors = palette == null ? (int) Math.floor(options.get("numberofcolors")) : palette.length;
+            completedSteps.set(0);
+            totalSteps = bands + (bands * Math.max(cycles, 0)) + numberOfColors;
+
+            ImageTracer.ImageData imageData = loadImageData(executor, image);
+            if (palette == null) {
+                palette = options.get("colorsampling") != 0 ? ImageTracer.samplepalette(numberOfColors, imageData) : ImageTracer.generatepalette(numberOfColors);
+            }
+
+            if (options.get("blurradius") > 0) {
+                imageData = ImageTracer.blur(imageData, options.get("blurradius"), options.get("blurdelta"));
+            }
+
+            int[] indexedImage = colorQuantization(executor, imageData, palette);
+            double[][][] layers = traceLayers(executor, indexedImage, imageData.width + 2, imageData.height + 2, palette.length);
+            return new TraceResult(imageData.width, imageData.height, palette, layers);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ImageTracer.ImageData loadImageData(ExecutorService executor, BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        byte[] data = new byte[width * height * 4];
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int startRow = 0; startRow < height; startRow += BAND_HEIGHT) {
+            int bandStart = startRow;
+            int bandRows = Math.min(BAND_HEIGHT, height - startRow);
+            tasks.add(() -> {
+                checkCancelled();
+                int[] rawData = image.getRGB(0, bandStart, width, bandRows, null, 0, width);
+                int offset = bandStart * width * 4;
+                for (int i = 0; i < rawData.length; i++) {
+                    int idx = offset + (i * 4);
+                    data[idx] = ImageTracer.bytetrans((byte) (rawData[i] >>> 16));
+                    data[idx + 1] = ImageTracer.bytetrans((byte) (rawData[i] >>> 8));
+                    data[idx + 2] = ImageTracer.bytetrans((byte) (rawData[i]));
+                    data[idx + 3] = ImageTracer.bytetrans((byte) (rawData[i] >>> 24));
+                }
+                stepCompleted();
+                return null;
+            });
+        }
+        invokeAll(executor, tasks);
+        return new ImageTracer.ImageData(width, height, data);
+    }
+
+    /**
+     * Color quantization based on K-means clustering, see {@link ImageTracer#colorquantization}.
+     * Each cycle is calculated in horizontal bands with separate palette accumulators that
+     * are merged when all bands are done.
+     *
+     * @return an indexed image with a border of -1 in every direction
+     */
+    private int[] colorQuantization(ExecutorService executor, ImageTracer.ImageData imageData, byte[][] palette) {
+        float minRatio = options.get("mincolorratio");
+        int cycles = (int) Math.floor(options.get("colorquantcycles"));
+        int width = imageData.width;
+        int height = imageData.height;
+        int stride = width + 2;
+
+        int[] indexedImage = new int[stride * (height + 2)];
+        Arrays.fill(indexedImage, 0, stride, -1);
+        Arrays.fill(indexedImage, stride * (height + 1), indexedImage.length, -1);
+        for (int j = 0; j < height + 2; j++) {
+            indexedImage[j * stride] = -1;
+            indexedImage[(j * stride) + width + 1] = -1;
+        }
+
+        long[][] paletteAcc = new long[palette.length][5];
+        for (int cnt = 0; cnt < cycles; cnt++) {
+            if (cnt > 0) {
+                averagePalette(palette, paletteAcc, minRatio, cnt < (cycles - 1), width * height);
+            }
+
+            List<Callable<long[][]>> tasks = new ArrayList<>();
+            for (int startRow = 0; startRow < height; startRow += BAND_HEIGHT) {
+                int bandStart = startRow;
+                int bandEnd = Math.min(height, startRow + BAND_HEIGHT);
+                tasks.add(() -> {
+                    long[][] bandAcc = quantizeBand(imageData, palette, indexedImage, bandStart, bandEnd);
+                    stepCompleted();
+                    return bandAcc;
+                });
+            }
+
+            for (long[] acc : paletteAcc) {
+                Arrays.fill(acc, 0);
+            }
+
+            for (long[][] bandAcc : invokeAll(executor, tasks)) {
+                for (int k = 0; k < palette.length; k++) {
+                    for (int c = 0; c < 5; c++) {
+                        paletteAcc[k][c] += bandAcc[k][c];
+                    }
+                }
+            }
+        }
+
+        return indexedImage;
+    }
+
+    private static void averagePalette(byte[][] palette, long[][] paletteAcc, float minRatio, boolean hasMoreCycles, int pixelCount) {
+        for (int k = 0; k < palette.length; k++) {
+            if (paletteAcc[k][3] > 0) {
+                palette[k][0] = (byte) (-128 + (paletteAcc[k][0] / paletteAcc[k][4]));
+                palette[k][1] = (byte) (-128 + (paletteAcc[k][1] / paletteAcc[k][4]));
+                palette[k][2] = (byte) (-128 + (paletteAcc[k][2] / paletteAcc[k][4]));
+                palette[k][3] = (byte) (-128 + (paletteAcc[k][3] / paletteAcc[k][4]));
+            }
+            float ratio = (float) ((double) (paletteAcc[k][4]) / (double) pixelCount);
+
+            // Randomizing a color, if there are too few pixels and there will be a new cycle
+            if ((ratio < minRatio) && hasMoreCycles) {
+                palette[k][0] = (byte) (-128 + Math.floor(Math.random() * 255));
+                palette[k][1] = (byte) (-128 + Math.floor(Math.random() * 255));
+                palette[k][2] = (byte) (-128 + Math.floor(Math.random() * 255));
+                palette[k][3] = (byte) (-128 + Math.floor(Math.random() * 255));
+            }
+        }
+    }
+
+    private long[][] quantizeBand(ImageTracer.ImageData imageData, byte[][] palette, int[] indexedImage, int startRow, int endRow) {
+        long[][] paletteAcc = new long[palette.length][5];
+        int stride = imageData.width + 2;
+        byte[] data = imageData.data;
+
+        for (int j = startRow; j < endRow; j++) {
+            checkCancelled();
+            for (int i = 0; i < imageData.width; i++) {
+                int idx = ((j * imageData.width) + i) * 4;
+
+                // Find the closest color from the palette using the rectilinear distance
+                int closestDistance = 256 + 256 + 256 + 256;
+                int closestIndex = 0;
+                for (int k = 0; k < palette.length; k++) {
+                    int distance = Math.abs(palette[k][0] - data[idx]) +
+                            Math.abs(palette[k][1] - data[idx + 1]) +
+                            Math.abs(palette[k][2] - data[idx + 2]) +
+                            (Math.abs(palette[k][3] - data[idx + 3]) * 4);
+
+                    if (distance < closestDistance) {
+                        closestDistance = distance;
+                        closestIndex = k;
+                    }
+                }
+
+                paletteAcc[closestIndex][0] += 128 + data[idx];
+                paletteAcc[closestIndex][1] += 128 + data[idx + 1];
+                paletteAcc[closestIndex][2] += 128 + data[idx + 2];
+                paletteAcc[closestIndex][3] += 128 + data[idx + 3];
+                paletteAcc[closestIndex][4]++;
+
+                indexedImage[((j + 1) * stride) + i + 1] = closestIndex;
+            }
+        }
+        return paletteAcc;
+    }
+
+    private double[][][] traceLayers(ExecutorService executor, int[] indexedImage, int stride, int rows, int layerCount) {
+        float pathOmit = (float) Math.floor(options.get("pathomit"));
+        float lineThreshold = options.get("ltres");
+        float quadThreshold = options.get("qtres");
+
+        List<Callable<double[][]>> tasks = new ArrayList<>();
+        for (int color = 0; color < layerCount; color++) {
+            int layerColor = color;
+            tasks.add(() -> {
+                byte[] layer = createLayer(indexedImage, stride, rows, layerColor);
+                List<int[]> paths = pathScan(layer, stride, rows, pathOmit);
+
+                DoubleList segments = new DoubleList();
+                double[][] tracedPaths = new double[paths.size()][];
+                for (int p = 0; p < paths.size(); p++) {
+                    checkCancelled();
+                    tracedPaths[p] = tracePath(internodes(paths.get(p)), lineThreshold, quadThreshold, segments);
+                }
+                stepCompleted();
+                return tracedPaths;
+            });
+        }
+
+        List<double[][]> result = invokeAll(executor, tasks);
+        return result.toArray(new double[0][][]);
+    }
+
+    /**
+     * Edge detection for a single color layer, see {@link ImageTracer#layering}. The pixels are visited in the
+     * same order as in the original implementation to get the exact same edge node types.
+     */
+    private byte[] createLayer(int[] indexedImage, int stride, int rows, int color) {
+        byte[] layer = new byte[indexedImage.length];
+        for (int j = 1; j < rows - 1; j++) {
+            checkCancelled();
+            int rowOffset = j * stride;
+            for (int i = 1; i < stride - 1; i++) {
+                int idx = rowOffset + i;
+                if (indexedImage[idx] != color) {
+                    continue;
+                }
+
+                int n1 = indexedImage[idx - stride - 1] == color ? 1 : 0;
+                int n2 = indexedImage[idx - stride] == color ? 1 : 0;
+                int n3 = indexedImage[idx - stride + 1] == color ? 1 : 0;
+                int n4 = indexedImage[idx - 1] == color ? 1 : 0;
+                int n5 = indexedImage[idx + 1] == color ? 1 : 0;
+                int n6 = indexedImage[idx + stride - 1] == color ? 1 : 0;
+                int n7 = indexedImage[idx + stride] == color ? 1 : 0;
+                int n8 = indexedImage[idx + stride + 1] == color ? 1 : 0;
+
+                layer[idx + stride + 1] = (byte) (1 + (n5 * 2) + (n8 * 4) + (n7 * 8));
+                if (n4 == 0) {
+                    layer[idx + stride] = (byte) (2 + (n7 * 4) + (n6 * 8));
+                }
+                if (n2 == 0) {
+                    layer[idx + 1] = (byte) ((n3 * 2) + (n5 * 4) + 8);
+                }
+                if (n1 == 0) {
+                    layer[idx] = (byte) ((n2 * 2) + 4 + (n4 * 8));
+                }
+            }
+        }
+        return layer;
+    }
+
+    /**
+     * Walks through the edge node layer and creates paths, see {@link ImageTracer#pathscan}.
+     *
+     * @return a list of paths where each path is stored as x, y and edge node type for each point
+     */
+    private List<int[]> pathScan(byte[] layer, int stride, int rows, float pathOmit) {
+        List<int[]> paths = new ArrayList<>();
+        IntList points = new IntList();
+
+        for (int j = 0; j < rows; j++) {
+            checkCancelled();
+            for (int i = 0; i < stride; i++) {
+                int value = layer[(j * stride) + i];
+                if (value == 0 || value == 15) {
+                    continue;
+                }
+
+                int px = i;
+                int py = j;
+                int dir = ImageTracer.pathscan_dir_lookup[value];
+                boolean holePath = ImageTracer.pathscan_holepath_lookup[value];
+                points.clear();
+
+                boolean pathFinished = false;
+                while (!pathFinished) {
+                    int cell = (py * stride) + px;
+                    int cellValue = layer[cell];
+                    points.add(px - 1);
+                    points.add(py - 1);
+                    points.add(cellValue);
+
+                    // Clear this cell, turn if required and walk forward
+                    byte[] lookupRow = ImageTracer.pathscan_combined_lookup[cellValue][dir];
+                    layer[cell] = lookupRow[0];
+                    dir = lookupRow[1];
+                    px += lookupRow[2];
+                    py += lookupRow[3];
+
+                    if (((px - 1) == points.get(0)) && ((py - 1) == points.get(1))) {
+                        pathFinished = true;
+
+                        // Discarding hole type paths and paths shorter than path omit
+                        if (!holePath && (points.size() / PATH_POINT_SIZE) >= pathOmit) {
+                            paths.add(points.toArray());
+                        }
+                    }
+                }
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Interpolates between the path points, see {@link ImageTracer#internodes}.
+     *
+     * @return the interpolated nodes stored as x, y and direction for each node
+     */
+    private static double[] internodes(int[] path) {
+        int pathLength = path.length / PATH_POINT_SIZE;
+        double[] nodes = new double[pathLength * NODE_SIZE];
+
+        for (int pcnt = 0; pcnt < pathLength; pcnt++) {
+            int p1 = pcnt * PATH_POINT_SIZE;
+            int p2 = ((pcnt + 1) % pathLength) * PATH_POINT_SIZE;
+            int p3 = ((pcnt + 2) % pathLength) * PATH_POINT_SIZE;
+
+            double x = (path[p1] + path[p2]) / 2.0;
+            double y = (path[p1 + 1] + path[p2 + 1]) / 2.0;
+            double nextX = (path[p2] + path[p3]) / 2.0;
+            double nextY = (path[p2 + 1] + path[p3 + 1]) / 2.0;
+
+            int node = pcnt * NODE_SIZE;
+            nodes[node] = x;
+            nodes[node + 1] = y;
+            nodes[node + 2] = getDirection(x, y, nextX, nextY);
+        }
+        return nodes;
+    }
+
+    private static double getDirection(double x, double y, double nextX, double nextY) {
+        if (x < nextX) {
+            if (y < nextY) {
+                return 1.0; // SE
+            } else if (y > nextY) {
+                return 7.0; // NE
+            }
+            return 0.0; // E
+        } else if (x > nextX) {
+            if (y < nextY) {
+                return 3.0; // SW
+            } else if (y > nextY) {
+                return 5.0; // NW
+            }
+            return 4.0; // W
+        }
+
+        if (y < nextY) {
+            return 2.0; // S
+        } else if (y > nextY) {
+            return 6.0; // N
+        }
+        return 8.0; // Center, should not happen
+    }
+
+    /**
+     * Fits straight and quadratic segments on the interpolated path, see {@link ImageTracer#tracepath}.
+     *
+     * @param path     the interpolated path nodes
+     * @param segments a reusable buffer for the segments
+     * @return the segments stored as type, x1, y1, x2, y2, x3, y3 for each segment
+     */
+    private static double[] tracePath(double[] path, float lineThreshold, float quadThreshold, DoubleList segments) {
+        segments.clear();
+        int pathLength = path.length / NODE_SIZE;
+        int pcnt = 0;
+
+        while (pcnt < pathLength) {
+            // Find sequences of points with only two segment types
+            double segmentType1 = path[(pcnt * NODE_SIZE) + 2];
+            double segmentType2 = -1;
+            int seqEnd = pcnt + 1;
+            while (((path[(seqEnd * NODE_SIZE) + 2] == segmentType1) || (path[(seqEnd * NODE_SIZE) + 2] == segmentType2) || (segmentType2 == -1))
+                    && (seqEnd < (pathLength - 1))) {
+                if ((path[(seqEnd * NODE_SIZE) + 2] != segmentType1) && (segmentType2 == -1)) {
+                    segmentType2 = path[(seqEnd * NODE_SIZE) + 2];
+                }
+                seqEnd++;
+            }
+            if (seqEnd == (pathLength - 1)) {
+                seqEnd = 0;
+            }
+
+            fitSequence(path, lineThreshold, quadThreshold, pcnt, seqEnd, segments);
+            pcnt = seqEnd > 0 ? seqEnd : pathLength;
+        }
+
+        return segments.toArray();
+    }
+
+    /**
+     * Recursively fits a straight or quadratic line segment on the sequence of path nodes, see
+     * {@link ImageTracer#fitseq}.
+     */
+    private static void fitSequence(double[] path, float lineThreshold, float quadThreshold, int seqStart, int seqEnd, DoubleList segments) {
+        int pathLength = path.length / NODE_SIZE;
+        if ((seqEnd > pathLength) || (seqEnd < 0)) {
+            return;
+        }
+
+        double startX = path[seqStart * NODE_SIZE];
+        double startY = path[(seqStart * NODE_SIZE) + 1];
+        double endX = path[seqEnd * NODE_SIZE];
+        double endY = path[(seqEnd * NODE_SIZE) + 1];
+
+        int errorPoint = seqStart;
+        boolean curvePass = true;
+        double errorValue = 0;
+        double tl = seqEnd - seqStart;
+        if (tl < 0) {
+            tl += pathLength;
+        }
+        double vx = (endX - startX) / tl;
+        double vy = (endY - startY) / tl;
+
+        // Fit a straight line on the sequence
+        int pcnt = (seqStart + 1) % pathLength;
+        while (pcnt != seqEnd) {
+            double pl = pcnt - seqStart;
+            if (pl < 0) {
+                pl += pathLength;
+            }
+            double dx = path[pcnt * NODE_SIZE] - (startX + (vx * pl));
+            double dy = path[(pcnt * NODE_SIZE) + 1] - (startY + (vy * pl));
+            double dist2 = (dx * dx) + (dy * dy);
+            if (dist2 > lineThreshold) {
+                curvePass = false;
+            }
+            if (dist2 > errorValue) {
+                errorPoint = pcnt;
+                errorValue = dist2;
+            }
+            pcnt = (pcnt + 1) % pathLength;
+        }
+
+        if (curvePass) {
+            segments.add(1.0, startX, startY, endX, endY, 0.0, 0.0);
+            return;
+        }
+
+        // Fit a quadratic spline through the point with the biggest error
+        int fitPoint = errorPoint;
+        curvePass = true;
+        errorValue = 0;
+
+        double t = (fitPoint - seqStart) / tl;
+        double t1 = (1.0 - t) * (1.0 - t);
+        double t2 = 2.0 * (1.0 - t) * t;
+        double t3 = t * t;
+        double cpx = (((t1 * startX) + (t3 * endX)) - path[fitPoint * NODE_SIZE]) / -t2;
+        double cpy = (((t1 * startY) + (t3 * endY)) - path[(fitPoint * NODE_SIZE) + 1]) / -t2;
+
+        pcnt = seqStart + 1;
+        while (pcnt != seqEnd) {
+            t = (pcnt - seqStart) / tl;
+            t1 = (1.0 - t) * (1.0 - t);
+            t2 = 2.0 * (1.0 - t) * t;
+            t3 = t * t;
+            double dx = path[pcnt * NODE_SIZE] - ((t1 * startX) + (t2 * cpx) + (t3 * endX));
+            double dy = path[(pcnt * NODE_SIZE) + 1] - ((t1 * startY) + (t2 * cpy) + (t3 * endY));
+            double dist2 = (dx * dx) + (dy * dy);
+            if (dist2 > quadThreshold) {
+                curvePass = false;
+            }
+            if (dist2 > errorValue) {
+                errorPoint = pcnt;
+                errorValue = dist2;
+            }
+            pcnt = (pcnt + 1) % pathLength;
+        }
+
+        if (curvePass) {
+            segments.add(2.0, startX, startY, cpx, cpy, endX, endY);
+            return;
+        }
+
+        // Split the sequence and recursively fit the two halves
+        int splitPoint = (fitPoint + errorPoint) / 2;
+        fitSequence(path, lineThreshold, quadThreshold, seqStart, splitPoint, segments);
+        fitSequence(path, lineThreshold, quadThreshold, splitPoint, seqEnd, segments);
+    }
+
+    /**
+     * Converts the trace result to an SVG string with the paths drawn according to their Z-index,
+     * see {@link ImageTracer#getsvgstring}.
+     */
+    public String getSvgString(TraceResult result) {
+        float scale = options.get("scale");
+        int w = (int) (result.getWidth() * scale);
+        int h = (int) (result.getHeight() * scale);
+        String viewBoxOrViewPort = options.get("viewbox") != 0 ? "viewBox=\"0 0 " + w + " " + h + "\" " : "width=\"" + w + "\" height=\"" + h + "\" ";
+        StringBuilder svg = new StringBuilder("<svg " + viewBoxOrViewPort + "version=\"1.1\" xmlns=\"http://www.w3.org/2000/svg\" ");
+        if (options.get("desc") != 0) {
+            svg.append("desc=\"Created with ImageTracer.java version ").append(ImageTracer.versionnumber).append("\" ");
+        }
+        svg.append(">");
+
+        // The Z-index is the start point of the path, linearized
+        double[][][] layers = result.getLayers();
+        TreeMap<Double, int[]> zIndex = new TreeMap<>();
+        for (int k = 0; k < layers.length; k++) {
+            for (int p = 0; p < layers[k].length; p++) {
+                double label = (layers[k][p][2] * w) + layers[k][p][1];
+                zIndex.put(label, new int[]{k, p});
+            }
+        }
+
+        for (int[] entry : zIndex.values()) {
+            String description = options.get("desc") != 0 ? "desc=\"l " + entry[0] + " p " + entry[1] + "\" " : "";
+            appendSvgPath(svg, description, layers[entry[0]][entry[1]], ImageTracer.tosvgcolorstr(result.getPalette()[entry[0]]));
+        }
+
+        svg.append("</svg>");
+        return svg.toString();
+    }
+
+    private void appendSvgPath(StringBuilder sb, String description, double[] segments, String colorString) {
+        float scale = options.get("scale");
+        float lcpr = options.get("lcpr");
+        float qcpr = options.get("qcpr");
+        float roundCoords = (float) Math.floor(options.get("roundcoords"));
+
+        sb.append("<path ").append(description).append(colorString).append("d=\"").append("M ").append(segments[1] * scale).append(" ").append(segments[2] * scale).append(" ");
+        for (int s = 0; s < segments.length; s += SEGMENT_SIZE) {
+            if (segments[s] == 1.0) {
+                sb.append("L ");
+                appendCoordinates(sb, segments, s + 3, 2, scale, roundCoords);
+            } else {
+                sb.append("Q ");
+                appendCoordinates(sb, segments, s + 3, 4, scale, roundCoords);
+            }
+        }
+        sb.append("Z\" />");
+
+        // Rendering control points
+        for (int s = 0; s < segments.length; s += SEGMENT_SIZE) {
+            if ((lcpr > 0) && (segments[s] == 1.0)) {
+                sb.append("<circle cx=\"").append(segments[s + 3] * scale).append("\" cy=\"").append(segments[s + 4] * scale).append("\" r=\"").append(lcpr).append("\" fill=\"white\" stroke-width=\"").append(lcpr * 0.2).append("\" stroke=\"black\" />");
+            }
+            if ((qcpr > 0) && (segments[s] == 2.0)) {
+                sb.append("<circle cx=\"").append(segments[s + 3] * scale).append("\" cy=\"").append(segments[s + 4] * scale).append("\" r=\"").append(qcpr).append("\" fill=\"cyan\" stroke-width=\"").append(qcpr * 0.2).append("\" stroke=\"black\" />");
+                sb.append("<circle cx=\"").append(segments[s + 5] * scale).append("\" cy=\"").append(segments[s + 6] * scale).append("\" r=\"").append(qcpr).append("\" fill=\"white\" stroke-width=\"").append(qcpr * 0.2).append("\" stroke=\"black\" />");
+                sb.append("<line x1=\"").append(segments[s + 1] * scale).append("\" y1=\"").append(segments[s + 2] * scale).append("\" x2=\"").append(segments[s + 3] * scale).append("\" y2=\"").append(segments[s + 4] * scale).append("\" stroke-width=\"").append(qcpr * 0.2).append("\" stroke=\"cyan\" />");
+                sb.append("<line x1=\"").append(segments[s + 3] * scale).append("\" y1=\"").append(segments[s + 4] * scale).append("\" x2=\"").append(segments[s + 5] * scale).append("\" y2=\"").append(segments[s + 6] * scale).append("\" stroke-width=\"").append(qcpr * 0.2).append("\" stroke=\"cyan\" />");
+            }
+        }
+    }
+
+    private static void appendCoordinates(StringBuilder sb, double[] segments, int offset, int count, float scale, float roundCoords) {
+        for (int i = offset; i < offset + count; i++) {
+            if (roundCoords == -1) {
+                sb.append(segments[i] * scale).append(" ");
+            } else {
+                sb.append(ImageTracer.roundtodec((float) (segments[i] * scale), roundCoords)).append(" ");
+            }
+        }
+    }
+
+    private <T> List<T> invokeAll(ExecutorService executor, List<Callable<T>> tasks) {
+        try {
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            throw new CancellationException("The trace was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Could not trace image", e.getCause());
+        }
+    }
+
+    private void checkCancelled() {
+        if (cancelled.get()) {
+            throw new CancellationException("The trace was cancelled");
+        }
+    }
+
+    private void stepCompleted() {
+        int completed = completedSteps.incrementAndGet();
+        listeners.forEach(listener -> listener.onProgress(completed, totalSteps));
+    }
+
+    /**
+     * The traced layers of an image where each layer contains the paths of one palette color.
+     * Each path is stored as a flat array with seven values for each segment where the first value
+     * is 1.0 for straight lines and 2.0 for quadratic curves followed by the coordinates x1, y1, x2,
+     * y2, x3, y3.
+     */
+    public static class TraceResult {
+        private final int width;
+        private final int height;
+        private final byte[][] palette;
+        private final double[][][] layers;
+
+        public TraceResult(int width, int height, byte[][] palette, double[][][] layers) {
+            this.width = width;
+            this.height = height;
+            this.palette = palette;
+            this.layers = layers;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public byte[][] getPalette() {
+            return palette;
+        }
+
+        public double[][][] getLayers() {
+            return layers;
+        }
+    }
+
+    private static class IntList {
+        private int[] values = new int[256];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static class DoubleList {
+        private double[] values = new double[SEGMENT_SIZE * 64];
+        private int size;
+
+        void add(double type, double x1, double y1, double x2, double y2, double x3, double y3) {
+            if (size + SEGMENT_SIZE > values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = type;
+            values[size++] = x1;
+            values[size++] = y1;
+            values[size++] = x2;
+            values[size++] = y2;
+            values[size++] = x3;
+            values[size++] = y3;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        double[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
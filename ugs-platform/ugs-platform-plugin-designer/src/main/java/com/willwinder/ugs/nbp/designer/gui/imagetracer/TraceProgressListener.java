@@ -0,0 +1,35 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.gui.imagetracer;
+
+/**
+ * A listener for getting progress updates from the {@link ParallelImageTracer}.
+ * It may be called from any of the tracing worker threads.
+ *
+ * @author Joacim Breiler
+ */
+public interface TraceProgressListener {
+    /**
+     * Called when a tracing step has been completed
+     *
+     * @param completedSteps the number of completed steps
+     * @param totalSteps     the total number of steps for the trace
+     */
+    void onProgress(int completedSteps, int totalSteps);
+}
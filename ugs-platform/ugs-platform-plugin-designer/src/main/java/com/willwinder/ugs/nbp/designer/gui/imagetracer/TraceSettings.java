@@ -37,6 +37,7 @@ public class TraceSettings {
     private boolean invertedColormap;
     private boolean cutLayerContents;
     private double minimumDetailSize;
+    private boolean multiThreaded = true;
     
     
     public float getLineThreshold() {
@@ -151,4 +152,11 @@ public class TraceSettings {
     public double getMinimumDetailSize() {
         return this.minimumDetailSize;
     }   
+
+    public void setMultiThreaded(boolean value) {
+        this.multiThreaded = value;
+    }
+    public boolean isMultiThreaded() {
+        return this.multiThreaded;
+    }
 }
@@ -59,6 +59,7 @@ public class TraceSettingsPanel extends JPanel {
     
     private final JCheckBox invertDepthmap = new JCheckBox("Invert Z-Axis", false);
     private final JCheckBox cutLayerContents = new JCheckBox("Cut Layer Contents", false);
+    private final JCheckBox multiThreaded = new JCheckBox("Multi-threaded tracing", true);
     private final TextFieldWithUnit minimumDetailSize = new TextFieldWithUnit(TextFieldUnit.MM, 2, 1);
     
     private final List<ChangeListener> changeListeners = new ArrayList<>();
@@ -115,6 +116,9 @@ public class TraceSettingsPanel extends JPanel {
         add(lblBlurDelta);
         add(setupSlider(blurDelta), "grow, wrap");
         
+        multiThreaded.addChangeListener(this::updateValues);
+        add(multiThreaded, "grow, wrap");
+
         add(new JSeparator(SwingConstants.HORIZONTAL), "grow, wrap");
         
         enableAdvanced.addChangeListener(this::updateValues);        
@@ -233,6 +237,7 @@ public class TraceSettingsPanel extends JPanel {
         settings.setCutLayerContents(cutLayerContents.isSelected()); // TODO REMOVE. 
                 
         settings.setMinimumDetailSize(minimumDetailSize.getDoubleValue());
+        settings.setMultiThreaded(multiThreaded.isSelected());
         return settings;
     }
 
@@ -246,6 +251,7 @@ public class TraceSettingsPanel extends JPanel {
         colorsQuantization.setEnabled(enabled);
         blurRadius.setEnabled(enabled);
         blurDelta.setEnabled(enabled);
+        multiThreaded.setEnabled(enabled);
         startColor.setEnabled(enabled);
         endColor.setEnabled(enabled);
         enableAdvanced.setEnabled(enabled);
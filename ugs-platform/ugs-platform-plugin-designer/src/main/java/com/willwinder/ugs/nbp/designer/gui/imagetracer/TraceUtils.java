@@ -25,7 +25,9 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.awt.image.WritableRaster;
 import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.concurrent.CancellationException;
 
 /**
  * @author Joacim Breiler
@@ -33,6 +35,43 @@ import java.util.HashMap;
 public class TraceUtils {
 
     public static String traceImage(File selectedFile, TraceSettings settingsPanel) {
+        try {
+            BufferedImage gray = loadImage(selectedFile, settingsPanel);
+            byte[][] palette = generatePalette(settingsPanel.getNumberOfColors(), settingsPanel.getStartColor(), settingsPanel.getEndColor());
+            return ImageTracer.imageToSVG(gray, createOptions(settingsPanel), palette);
+        } catch (Exception e) {
+            throw new RuntimeException("Could not trace image", e);
+        }
+    }
+
+    /**
+     * Traces the image using the given tracer which can be used for monitoring the progress
+     * or cancelling the trace.
+     *
+     * @param selectedFile the image file to trace
+     * @param settings     the trace settings
+     * @param tracer       the tracer to use, created with {@link #createTracer(TraceSettings)}
+     * @return the traced image as an SVG string
+     * @throws CancellationException if the trace was cancelled
+     */
+    public static String traceImage(File selectedFile, TraceSettings settings, ParallelImageTracer tracer) {
+        try {
+            BufferedImage gray = loadImage(selectedFile, settings);
+            byte[][] palette = generatePalette(settings.getNumberOfColors(), settings.getStartColor(), settings.getEndColor());
+            return tracer.imageToSVG(gray, palette);
+        } catch (CancellationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Could not trace image", e);
+        }
+    }
+
+    public static ParallelImageTracer createTracer(TraceSettings settings) {
+        int parallelism = settings.isMultiThreaded() ? Runtime.getRuntime().availableProcessors() : 1;
+        return new ParallelImageTracer(createOptions(settings), parallelism);
+    }
+
+    private static HashMap<String, Float> createOptions(TraceSettings settingsPanel) {
         // Options
         HashMap<String, Float> options = new HashMap<>();
 
@@ -59,35 +98,31 @@ public class TraceUtils {
         // Selective Gauss Blur
         options.put("blurradius", Integer.valueOf(settingsPanel.getBlurRadius()).floatValue()); // 0f means deactivated; 1f .. 5f : blur with this radius
         options.put("blurdelta", Integer.valueOf(settingsPanel.getBlurDelta()).floatValue()); // smaller than this RGB difference will be blurred
+        return options;
+    }
 
+    private static BufferedImage loadImage(File selectedFile, TraceSettings settingsPanel) throws IOException {
+        BufferedImage img = ImageIO.read(selectedFile);
+        BufferedImage gray = new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = gray.createGraphics();
+        g.drawImage(img, 0, 0, null);
 
-        try {
-            BufferedImage img = ImageIO.read(selectedFile);
-            BufferedImage gray = new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
-            Graphics2D g = gray.createGraphics();
-            g.drawImage(img, 0, 0, null);
-            
-            double[] dArray={0.0, 0.0, 0.0 };
-            
-            if (settingsPanel.isInvertedColorMap()) {
-                WritableRaster raster = gray.getRaster();
-                for (int w=0; w< raster.getWidth(); w++) {
-                    for (int h=0; h< raster.getHeight(); h++) {
-                        dArray=raster.getPixel(w, h, dArray);
-                        dArray[0] = 1.0-dArray[0];
-                        dArray[1] = 1.0-dArray[1];
-                        dArray[2] = 1.0-dArray[2];                    
-                        raster.setPixel(w, h, dArray);
-                    }
-                }        
-                gray.setData(raster);
+        double[] dArray={0.0, 0.0, 0.0 };
+
+        if (settingsPanel.isInvertedColorMap()) {
+            WritableRaster raster = gray.getRaster();
+            for (int w=0; w< raster.getWidth(); w++) {
+                for (int h=0; h< raster.getHeight(); h++) {
+                    dArray=raster.getPixel(w, h, dArray);
+                    dArray[0] = 1.0-dArray[0];
+                    dArray[1] = 1.0-dArray[1];
+                    dArray[2] = 1.0-dArray[2];
+                    raster.setPixel(w, h, dArray);
+                }
             }
-            
-            byte[][] palette = generatePalette(numberOfColors, settingsPanel.getStartColor(), settingsPanel.getEndColor());
-            return ImageTracer.imageToSVG(gray, options, palette);
-        } catch (Exception e) {
-            throw new RuntimeException("Could not trace image", e);
+            gray.setData(raster);
         }
+        return gray;
     }
 
     private static byte[][] generatePalette(int numberOfColors, int startColorValue, int endColorValue) {
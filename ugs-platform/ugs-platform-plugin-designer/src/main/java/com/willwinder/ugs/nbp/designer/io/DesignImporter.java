@@ -0,0 +1,193 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.io;
+
+import com.willwinder.ugs.nbp.designer.actions.AddAction;
+import com.willwinder.ugs.nbp.designer.entities.Entity;
+import com.willwinder.ugs.nbp.designer.logic.Controller;
+import com.willwinder.ugs.nbp.designer.logic.Tool;
+import com.willwinder.ugs.nbp.designer.model.Design;
+import org.apache.commons.io.input.ProxyInputStream;
+
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingUtilities;
+import java.awt.EventQueue;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Imports a design file into the drawing. The file is parsed in the calling thread, which may not be
+ * the event dispatch thread, while showing the progress in a dialog that can be used for cancelling
+ * the import. The entities are then added to the drawing in batches with a single drawing and selection
+ * event for each batch so that the designer stays responsive while importing large files.
+ *
+ * @author Joacim Breiler
+ */
+public class DesignImporter {
+    private static final Logger LOGGER = Logger.getLogger(DesignImporter.class.getSimpleName());
+
+    /**
+     * The number of entities to add to the drawing at once
+     */
+    private static final int BATCH_SIZE = 200;
+
+    /**
+     * The progress of the parsing compared to adding the entities
+     */
+    private static final int PARSE_PROGRESS = 80;
+
+    private final Controller controller;
+
+    public DesignImporter(Controller controller) {
+        this.controller = controller;
+    }
+
+    /**
+     * Reads the design from the file and adds its entities to the drawing. Can not be executed in the
+     * event dispatch thread.
+     *
+     * @param file   the file to import
+     * @param reader the reader to parse the file with
+     * @return false if the import was cancelled
+     * @throws DesignReaderException if the file could not be read
+     */
+    public boolean importFile(File file, DesignReader reader) {
+        if (EventQueue.isDispatchThread()) {
+            throw new DesignReaderException("Method can not be executed in dispatch thread");
+        }
+
+        ProgressMonitor progressMonitor = new ProgressMonitor(controller.getDrawing(), "Importing " + file.getName(), "Reading file", 0, 100);
+        progressMonitor.setMillisToDecideToPopup(200);
+        try {
+            Optional<Design> design = readDesign(file, reader, progressMonitor);
+            if (progressMonitor.isCanceled()) {
+                return false;
+            }
+
+            if (design.isEmpty()) {
+                throw new DesignReaderException("Could not open: " + file.getName());
+            }
+
+            return addEntities(design.get().getEntities(), progressMonitor);
+        } finally {
+            SwingUtilities.invokeLater(progressMonitor::close);
+        }
+    }
+
+    private Optional<Design> readDesign(File file, DesignReader reader, ProgressMonitor progressMonitor) {
+        long fileSize = Math.max(1, file.length());
+        try (InputStream inputStream = new ProgressInputStream(new FileInputStream(file), fileSize, progressMonitor)) {
+            return reader.read(inputStream);
+        } catch (IOException | RuntimeException e) {
+            if (progressMonitor.isCanceled()) {
+                LOGGER.log(Level.FINE, "Import of {0} was cancelled", file);
+                return Optional.empty();
+            } else if (e instanceof DesignReaderException designReaderException) {
+                throw designReaderException;
+            }
+            throw new DesignReaderException("Could not read file", e);
+        }
+    }
+
+    private boolean addEntities(List<Entity> entities, ProgressMonitor progressMonitor) {
+        List<Entity> addedEntities = new ArrayList<>();
+        invokeAndWait(() -> {
+            progressMonitor.setNote("Adding entities");
+            controller.setTool(Tool.SELECT);
+            controller.getSelectionManager().clearSelection();
+        });
+
+        for (int i = 0; i < entities.size(); i += BATCH_SIZE) {
+            if (progressMonitor.isCanceled()) {
+                invokeAndWait(() -> {
+                    controller.getSelectionManager().clearSelection();
+                    controller.getDrawing().removeEntities(addedEntities);
+                });
+                return false;
+            }
+
+            List<Entity> batch = entities.subList(i, Math.min(entities.size(), i + BATCH_SIZE));
+            int progress = PARSE_PROGRESS + (int) ((100 - PARSE_PROGRESS) * (i + batch.size()) / (double) entities.size());
+            invokeAndWait(() -> {
+                controller.getDrawing().insertEntities(batch);
+                controller.getSelectionManager().addSelection(batch);
+                progressMonitor.setProgress(progress);
+            });
+            addedEntities.addAll(batch);
+        }
+
+        controller.getUndoManager().addAction(new AddAction(controller, addedEntities));
+        invokeAndWait(() -> controller.getDrawing().repaint());
+        return true;
+    }
+
+    private static void invokeAndWait(Runnable runnable) {
+        try {
+            SwingUtilities.invokeAndWait(runnable);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DesignReaderException("Interrupted while importing", e);
+        } catch (InvocationTargetException e) {
+            throw new DesignReaderException("Could not add the imported entities", e);
+        }
+    }
+
+    /**
+     * Reports the number of bytes read as parse progress and aborts the reading if the import is cancelled
+     */
+    private static class ProgressInputStream extends ProxyInputStream {
+        private final long fileSize;
+        private final ProgressMonitor progressMonitor;
+        private long bytesRead;
+        private int progress;
+
+        public ProgressInputStream(InputStream inputStream, long fileSize, ProgressMonitor progressMonitor) {
+            super(inputStream);
+            this.fileSize = fileSize;
+            this.progressMonitor = progressMonitor;
+        }
+
+        @Override
+        protected void afterRead(int n) throws IOException {
+            if (progressMonitor.isCanceled()) {
+                throw new InterruptedIOException("The import was cancelled");
+            }
+
+            if (n <= 0) {
+                return;
+            }
+
+            bytesRead += n;
+            int newProgress = (int) (PARSE_PROGRESS * Math.min(1d, bytesRead / (double) fileSize));
+            if (newProgress != progress) {
+                progress = newProgress;
+                SwingUtilities.invokeLater(() -> progressMonitor.setProgress(newProgress));
+            }
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.io.dxf;
+
+import com.willwinder.ugs.nbp.designer.entities.Entity;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Ellipse;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Group;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Path;
+import com.willwinder.ugs.nbp.designer.model.Size;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.utils.Settings;
+import org.kabeja.dxf.Bounds;
+import org.kabeja.dxf.DXFArc;
+import org.kabeja.dxf.DXFCircle;
+import org.kabeja.dxf.DXFConstants;
+import org.kabeja.dxf.DXFEllipse;
+import org.kabeja.dxf.DXFEntity;
+import org.kabeja.dxf.DXFLine;
+import org.kabeja.dxf.DXFPoint;
+import org.kabeja.dxf.DXFPolyline;
+import org.kabeja.dxf.DXFSpline;
+import org.kabeja.dxf.DXFVertex;
+import org.kabeja.dxf.helpers.DXFSplineConverter;
+import org.kabeja.dxf.helpers.Point;
+import org.kabeja.dxf.helpers.Vector;
+import org.kabeja.parser.DXFEntityListener;
+
+import java.awt.geom.Arc2D;
+import java.awt.geom.Path2D;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts DXF entities to design entities as they are parsed, without keeping the parsed DXF
+ * entities in memory. The entities are grouped by their layer and type in the order the layers
+ * first appear in the file.
+ *
+ * @author Joacim Breiler
+ */
+public class DxfEntityConverter implements DXFEntityListener {
+    public static final double MILLIMETERS_PER_INCH = 25.4;
+
+    private final Settings settings;
+    private final Map<String, LayerEntities> layers = new LinkedHashMap<>();
+
+    public DxfEntityConverter(Settings settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public void onDXFEntity(DXFEntity entity) {
+        LayerEntities layer = layers.computeIfAbsent(getLayerName(entity), LayerEntities::new);
+        switch (entity.getType()) {
+            case DXFConstants.ENTITY_TYPE_POINT -> layer.points.add(convertPoint((DXFPoint) entity));
+            case DXFConstants.ENTITY_TYPE_CIRCLE -> layer.circles.add(convertCircle((DXFCircle) entity));
+            case DXFConstants.ENTITY_TYPE_LINE -> addLine(layer, (DXFLine) entity);
+            case DXFConstants.ENTITY_TYPE_ARC -> layer.arcs.add(convertArc((DXFArc) entity));
+            case DXFConstants.ENTITY_TYPE_POLYLINE -> addPolyline(layer.polylines, (DXFPolyline) entity);
+            case DXFConstants.ENTITY_TYPE_SPLINE ->
+                    addPolyline(layer.splines, DXFSplineConverter.toDXFPolyline((DXFSpline) entity));
+            case DXFConstants.ENTITY_TYPE_ELLIPSE -> layer.ellipses.add(convertEllipse((DXFEllipse) entity));
+            default -> {
+                // Unsupported entity type
+            }
+        }
+    }
+
+    /**
+     * Returns a group with all converted entities grouped by layer, layers without entities are skipped
+     *
+     * @return the group with all converted entities
+     */
+    public Group getResult() {
+        Group group = new Group();
+        layers.values().stream()
+                .map(LayerEntities::toGroup)
+                .filter(layerGroup -> !layerGroup.getChildren().isEmpty())
+                .forEach(group::addChild);
+        return group;
+    }
+
+    private static String getLayerName(DXFEntity entity) {
+        String layerName = entity.getLayerName();
+        if (layerName != null && entity.getDXFDocument().containsDXFLayer(layerName)) {
+            return layerName;
+        }
+        return DXFConstants.DEFAULT_LAYER;
+    }
+
+    private Entity convertEllipse(DXFEllipse ellipse) {
+        // Major axis vector
+        Vector majorAxis = ellipse.getMajorAxisDirection();
+        double majorX = majorAxis.getX();
+        double majorY = majorAxis.getY();
+
+        double width = Math.hypot(majorX, majorY);
+        double height = width * ellipse.getRatio();
+
+        // Rotation angle (in radians)
+        double angle = Math.atan2(majorY, majorX);
+        double angleDegrees = Math.toDegrees(angle);
+
+        // To get the upper-left corner, compute the bounding box
+        // First get unit vectors for major and minor axes
+        double ux = majorX / width;
+        double uy = majorY / width;
+        double vx = -uy;
+
+        // Corners in local space
+        double centerX = ellipse.getCenterPoint().getX();
+        double centerY = ellipse.getCenterPoint().getY();
+        double[] cornerX = new double[]{
+                centerX + ux * width + vx * height,
+                centerX + ux * width - vx * height,
+                centerX - ux * width + vx * height,
+                centerX - ux * width - vx * height
+        };
+
+        double[] cornerY = new double[]{
+                centerY + uy * width + ux * height,
+                centerY + uy * width - ux * height,
+                centerY - uy * width + ux * height,
+                centerY - uy * width - ux * height
+        };
+
+        // Compute bounding box
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < 4; i++) {
+            minX = Math.min(minX, cornerX[i]);
+            minY = Math.min(minY, cornerY[i]);
+            maxX = Math.max(maxX, cornerX[i]);
+            maxY = Math.max(maxY, cornerY[i]);
+        }
+
+        Ellipse entity = new Ellipse(minX, minY);
+        entity.setSize(new Size(maxX - minX, maxY - minY));
+        entity.setRotation(angleDegrees);
+        return entity;
+    }
+
+    private void addPolyline(List<Entity> result, DXFPolyline polyline) {
+        int vertexCount = polyline.getVertexCount();
+        if (vertexCount == 0) {
+            return;
+        }
+
+        // Writes the vertices directly to the path coordinate array instead of going through the entity transform
+        Path2D.Double shape = new Path2D.Double(Path2D.WIND_NON_ZERO, vertexCount + 1);
+        DXFVertex vertex = polyline.getVertex(0);
+        shape.moveTo(convertCoordinate(vertex.getX()), convertCoordinate(vertex.getY()));
+        for (int i = 1; i < vertexCount; i++) {
+            vertex = polyline.getVertex(i);
+            shape.lineTo(convertCoordinate(vertex.getX()), convertCoordinate(vertex.getY()));
+        }
+        shape.closePath();
+
+        Path path = new Path();
+        path.append(shape);
+        result.add(path);
+    }
+
+    private static Entity convertArc(DXFArc arc) {
+        // We need to invert and offset the start angle
+        double startAngle = 270 - arc.getStartAngle();
+        if (startAngle < 0) {
+            startAngle += 360;
+        }
+
+        Path path = new Path();
+        Arc2D arc2D = new Arc2D.Double();
+        Point center = arc.getCenterPoint();
+        arc2D.setArcByCenter(center.getX(), center.getY(), arc.getRadius(), startAngle, arc.getTotalAngle(),
+                Arc2D.OPEN);
+        path.append(arc2D);
+        return path;
+    }
+
+    /**
+     * Adds the line to the current line path of the layer if it continues from the previous line,
+     * otherwise a new line path is started.
+     */
+    private void addLine(LayerEntities layer, DXFLine line) {
+        if (layer.lastLinePoint != null && !layer.lastLinePoint.equals(line.getStartPoint())) {
+            layer.finishLine();
+        }
+
+        if (layer.lastLinePoint == null) {
+            layer.linePath = new Path2D.Double();
+            layer.linePath.moveTo(convertCoordinate(line.getStartPoint().getX()),
+                    convertCoordinate(line.getStartPoint().getY()));
+        }
+
+        layer.linePath.lineTo(convertCoordinate(line.getEndPoint().getX()), convertCoordinate(line.getEndPoint().getY()));
+        layer.lastLinePoint = line.getEndPoint();
+    }
+
+    private double convertCoordinate(double value) {
+        if (settings.getPreferredUnits() == UnitUtils.Units.INCH) {
+            return value * MILLIMETERS_PER_INCH;
+        }
+        return value;
+    }
+
+    private Entity convertCircle(DXFCircle circle) {
+        Bounds circleBound = circle.getBounds();
+        double centerX = (circleBound.getMaximumX() - circleBound.getMinimumX()) / 2 + circleBound.getMinimumX();
+        double centerY = (circleBound.getMaximumY() - circleBound.getMinimumY()) / 2 + circleBound.getMinimumY();
+        double radius = convertCoordinate(circle.getRadius());
+        Ellipse ellipse = new Ellipse(convertCoordinate(centerX) - radius, convertCoordinate(centerY) - radius);
+        ellipse.setSize(new Size(radius * 2, radius * 2));
+        return ellipse;
+    }
+
+    private Entity convertPoint(DXFPoint point) {
+        return new com.willwinder.ugs.nbp.designer.entities.cuttable.Point(convertCoordinate(point.getX()),
+                convertCoordinate(point.getY()));
+    }
+
+    /**
+     * The converted entities of a layer grouped by their type
+     */
+    private static class LayerEntities {
+        private final String name;
+        private final List<Entity> points = new ArrayList<>();
+        private final List<Entity> circles = new ArrayList<>();
+        private final List<Entity> lines = new ArrayList<>();
+        private final List<Entity> arcs = new ArrayList<>();
+        private final List<Entity> polylines = new ArrayList<>();
+        private final List<Entity> splines = new ArrayList<>();
+        private final List<Entity> ellipses = new ArrayList<>();
+        private Path2D.Double linePath;
+        private Point lastLinePoint;
+
+        private LayerEntities(String name) {
+            this.name = name;
+        }
+
+        private void finishLine() {
+            if (linePath != null) {
+                Path path = new Path();
+                path.append(linePath);
+                lines.add(path);
+            }
+            linePath = null;
+            lastLinePoint = null;
+        }
+
+        private Group toGroup() {
+            finishLine();
+
+            Group layerGroup = new Group();
+            layerGroup.setName(name);
+            addGroup(layerGroup, "Points", points);
+            addGroup(layerGroup, "Circles", circles);
+            addGroup(layerGroup, "Lines", lines);
+            addGroup(layerGroup, "Arcs", arcs);
+
+            List<Entity> allPolylines = new ArrayList<>(polylines.size() + splines.size());
+            allPolylines.addAll(polylines);
+            allPolylines.addAll(splines);
+            addGroup(layerGroup, "Polyline", allPolylines);
+            addGroup(layerGroup, "Ellipse", ellipses);
+            return layerGroup;
+        }
+
+        private static void addGroup(Group layerGroup, String name, List<Entity> entities) {
+            if (entities.isEmpty()) {
+                return;
+            }
+
+            Group group = new Group();
+            group.setName(name);
+            group.addAll(entities);
+            layerGroup.addChild(group);
+        }
+    }
+}
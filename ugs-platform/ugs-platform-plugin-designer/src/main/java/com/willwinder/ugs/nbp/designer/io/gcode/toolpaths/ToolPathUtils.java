@@ -113,8 +113,11 @@ public class ToolPathUtils {
     }
 
     public static Geometry convertAreaToGeometry(final Area area, final GeometryFactory factory) {
+        return convertAreaToGeometry(area, factory, FLATNESS_PRECISION);
+    }
 
-        PathIterator iter = area.getPathIterator(null, FLATNESS_PRECISION);
+    public static Geometry convertAreaToGeometry(final Area area, final GeometryFactory factory, double flatness) {
+        PathIterator iter = area.getPathIterator(null, flatness);
 
         PrecisionModel precisionModel = factory.getPrecisionModel();
         Polygonizer polygonizer = new Polygonizer(true);
@@ -0,0 +1,189 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.io.png;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * A PNG encoder that writes an 8-bit RGB image row by row to a stream. Only a single row is kept by
+ * the encoder, so images of any size can be written without having the whole image in memory.
+ *
+ * @author Joacim Breiler
+ */
+public class PngEncoder {
+    private static final byte[] SIGNATURE = {(byte) 137, 80, 78, 71, 13, 10, 26, 10};
+    private static final int BYTES_PER_PIXEL = 3;
+    private static final int FILTER_SUB = 1;
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final double INCHES_PER_METER = 39.3700787;
+
+    private final DataOutputStream outputStream;
+    private final int width;
+    private final int height;
+    private final byte[] row;
+    private final DeflaterOutputStream imageDataStream;
+    private final Deflater deflater;
+    private int writtenRows;
+
+    /**
+     * Creates an encoder and writes the image header
+     *
+     * @param outputStream the stream to write the image to, it will not be closed by the encoder
+     * @param width        the width of the image in pixels
+     * @param height       the height of the image in pixels
+     * @param dpi          the resolution of the image in dots per inch
+     * @throws IOException if the header couldn't be written
+     */
+    public PngEncoder(OutputStream outputStream, int width, int height, double dpi) throws IOException {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("The image size must be positive");
+        }
+
+        this.outputStream = new DataOutputStream(outputStream);
+        this.width = width;
+        this.height = height;
+        this.row = new byte[1 + width * BYTES_PER_PIXEL];
+
+        this.outputStream.write(SIGNATURE);
+        writeHeader();
+        writePhysicalDimensions(dpi);
+
+        deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        imageDataStream = new DeflaterOutputStream(new ImageDataOutputStream(), deflater, CHUNK_SIZE);
+    }
+
+    /**
+     * Writes the given rows of pixels to the image
+     *
+     * @param pixels   the pixels in the default RGB color model, the alpha channel is ignored
+     * @param offset   the offset of the first pixel in the array
+     * @param scanSize the distance in pixels between each row in the array
+     * @param rows     the number of rows to write
+     * @throws IOException if the rows couldn't be written
+     */
+    public void writeRows(int[] pixels, int offset, int scanSize, int rows) throws IOException {
+        if (writtenRows + rows > height) {
+            throw new IllegalStateException("Trying to write more rows than the height of the image");
+        }
+
+        for (int y = 0; y < rows; y++) {
+            writeRow(pixels, offset + y * scanSize);
+        }
+    }
+
+    /**
+     * Writes the remaining image data and the end of the image, all rows must have been written
+     *
+     * @throws IOException if the image couldn't be written
+     */
+    public void finish() throws IOException {
+        if (writtenRows != height) {
+            throw new IllegalStateException("Only " + writtenRows + " of " + height + " rows were written");
+        }
+
+        imageDataStream.finish();
+        deflater.end();
+        writeChunk("IEND", new byte[0], 0);
+        outputStream.flush();
+    }
+
+    private void writeRow(int[] pixels, int offset) throws IOException {
+        // Uses the sub filter which stores the difference to the previous pixel, it compresses
+        // areas with the same color well without having to look at the previous row
+        row[0] = FILTER_SUB;
+        int previous = 0;
+        for (int x = 0; x < width; x++) {
+            int pixel = pixels[offset + x];
+            int index = 1 + x * BYTES_PER_PIXEL;
+            row[index] = (byte) ((pixel >> 16) - (previous >> 16));
+            row[index + 1] = (byte) ((pixel >> 8) - (previous >> 8));
+            row[index + 2] = (byte) (pixel - previous);
+            previous = pixel;
+        }
+        imageDataStream.write(row);
+        writtenRows++;
+    }
+
+    private void writeHeader() throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerStream = new DataOutputStream(header);
+        headerStream.writeInt(width);
+        headerStream.writeInt(height);
+        headerStream.writeByte(8); // Bit depth
+        headerStream.writeByte(2); // Color type RGB
+        headerStream.writeByte(0); // Compression method
+        headerStream.writeByte(0); // Filter method
+        headerStream.writeByte(0); // No interlace
+        writeChunk("IHDR", header.toByteArray(), header.size());
+    }
+
+    private void writePhysicalDimensions(double dpi) throws IOException {
+        int pixelsPerMeter = (int) Math.round(dpi * INCHES_PER_METER);
+        ByteArrayOutputStream dimensions = new ByteArrayOutputStream();
+        DataOutputStream dimensionsStream = new DataOutputStream(dimensions);
+        dimensionsStream.writeInt(pixelsPerMeter);
+        dimensionsStream.writeInt(pixelsPerMeter);
+        dimensionsStream.writeByte(1); // Unit is meter
+        writeChunk("pHYs", dimensions.toByteArray(), dimensions.size());
+    }
+
+    private void writeChunk(String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+
+        outputStream.writeInt(length);
+        outputStream.write(typeBytes);
+        outputStream.write(data, 0, length);
+        outputStream.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Writes the compressed image data as IDAT chunks
+     */
+    private class ImageDataOutputStream extends OutputStream {
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return;
+            }
+
+            if (offset == 0) {
+                writeChunk("IDAT", bytes, length);
+            } else {
+                byte[] data = new byte[length];
+                System.arraycopy(bytes, offset, data, 0, length);
+                writeChunk("IDAT", data, length);
+            }
+        }
+    }
+}
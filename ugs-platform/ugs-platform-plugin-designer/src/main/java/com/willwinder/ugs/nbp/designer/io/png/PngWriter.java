@@ -1,5 +1,5 @@
 /*
-    Copyright 2021 Will Winder
+    Copyright 2021-2025 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -22,19 +22,37 @@ import com.willwinder.ugs.nbp.designer.io.DesignWriter;
 import com.willwinder.ugs.nbp.designer.io.DesignWriterException;
 import com.willwinder.ugs.nbp.designer.logic.Controller;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import java.io.*;
 
 /**
+ * Writes the design as a PNG image with the given resolution. The image is rendered in bands
+ * which are streamed to the file, making it possible to export large designs in a high resolution.
+ *
  * @author Joacim Breiler
  */
 public class PngWriter implements DesignWriter {
+    public static final double DEFAULT_DPI = 150;
+
+    private final double dpi;
+
+    public PngWriter() {
+        this(DEFAULT_DPI);
+    }
+
+    /**
+     * Creates a PNG writer
+     *
+     * @param dpi the resolution of the image in dots per inch
+     */
+    public PngWriter(double dpi) {
+        this.dpi = dpi;
+    }
+
     @Override
     public void write(File file, Controller controller) {
-        try {
-            write(new FileOutputStream(file), controller);
-        } catch (FileNotFoundException e) {
+        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
+            write(outputStream, controller);
+        } catch (IOException e) {
             throw new DesignWriterException("Couldn't write to file", e);
         }
     }
@@ -43,8 +61,8 @@ public class PngWriter implements DesignWriter {
     public void write(OutputStream outputStream, Controller controller) {
         try {
             controller.getSelectionManager().clearSelection();
-            BufferedImage bi = controller.getDrawing().getImage();
-            ImageIO.write(bi, "png", outputStream);
+            TiledPngRenderer renderer = new TiledPngRenderer(controller.getDrawing().getRootEntity(), dpi);
+            renderer.render(outputStream);
         } catch (IOException e) {
             throw new DesignWriterException("Couldn't write to file", e);
         }
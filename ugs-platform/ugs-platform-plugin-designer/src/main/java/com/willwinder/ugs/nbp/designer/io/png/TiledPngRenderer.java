@@ -0,0 +1,190 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.io.png;
+
+import com.willwinder.ugs.nbp.designer.entities.EntityGroup;
+import com.willwinder.ugs.nbp.designer.gui.Colors;
+import com.willwinder.ugs.nbp.designer.gui.Drawing;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Renders the entities of a drawing to a PNG image with a given resolution. The image is rendered
+ * in horizontal bands in parallel which are written to the PNG in order as soon as they are done.
+ * Only a limited number of bands are kept in memory at the same time, so the memory used is bounded
+ * by the width of the image and not by the size of the whole image.
+ * <p>
+ * The entities are rendered using a drawing with a fixed scale matching the resolution, so that the
+ * stroke widths are independent of the current zoom level of the editor.
+ *
+ * @author Joacim Breiler
+ */
+public class TiledPngRenderer {
+    /**
+     * The maximum number of pixels in each rendered band
+     */
+    public static final int MAX_BAND_PIXELS = 1 << 22;
+
+    private static final double MILLIMETERS_PER_INCH = 25.4;
+
+    private final EntityGroup entities;
+    private final double dpi;
+    private final int parallelism;
+    private final int maxBandPixels;
+
+    /**
+     * Creates a renderer
+     *
+     * @param entities the entities to render
+     * @param dpi      the resolution of the image in dots per inch
+     */
+    public TiledPngRenderer(EntityGroup entities, double dpi) {
+        this(entities, dpi, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * Creates a renderer
+     *
+     * @param entities    the entities to render
+     * @param dpi         the resolution of the image in dots per inch
+     * @param parallelism the number of bands to render in parallel
+     */
+    public TiledPngRenderer(EntityGroup entities, double dpi, int parallelism) {
+        this(entities, dpi, parallelism, MAX_BAND_PIXELS);
+    }
+
+    TiledPngRenderer(EntityGroup entities, double dpi, int parallelism, int maxBandPixels) {
+        if (dpi <= 0) {
+            throw new IllegalArgumentException("The resolution must be positive");
+        }
+        this.entities = entities;
+        this.dpi = dpi;
+        this.parallelism = Math.max(1, parallelism);
+        this.maxBandPixels = maxBandPixels;
+    }
+
+    /**
+     * Renders the entities and writes them as a PNG image to the given stream
+     *
+     * @param outputStream the stream to write to, it will not be closed
+     * @throws IOException if the image couldn't be written
+     */
+    public void render(OutputStream outputStream) throws IOException {
+        double pixelsPerMillimeter = dpi / MILLIMETERS_PER_INCH;
+        Drawing drawing = new Drawing(pixelsPerMillimeter);
+        Rectangle2D bounds = getImageBounds(pixelsPerMillimeter);
+        int width = Math.max(1, (int) Math.ceil(bounds.getWidth() * pixelsPerMillimeter));
+        int height = Math.max(1, (int) Math.ceil(bounds.getHeight() * pixelsPerMillimeter));
+        int bandHeight = getBandHeight(width, height);
+
+        PngEncoder encoder = new PngEncoder(outputStream, width, height, dpi);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            // Keeps at most one extra band waiting to be written for each thread
+            Deque<Future<BufferedImage>> pendingBands = new ArrayDeque<>();
+            int maxPendingBands = parallelism * 2;
+            for (int bandY = 0; bandY < height; bandY += bandHeight) {
+                if (pendingBands.size() >= maxPendingBands) {
+                    writeBand(encoder, pendingBands.removeFirst());
+                }
+
+                int y = bandY;
+                int rows = Math.min(bandHeight, height - bandY);
+                pendingBands.addLast(executor.submit(() -> renderBand(drawing, bounds, pixelsPerMillimeter, width, y, rows)));
+            }
+
+            while (!pendingBands.isEmpty()) {
+                writeBand(encoder, pendingBands.removeFirst());
+            }
+            encoder.finish();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the bounds in millimeters of the area to render with a margin for the stroke width
+     */
+    private Rectangle2D getImageBounds(double pixelsPerMillimeter) {
+        Rectangle2D bounds = entities.getBounds();
+        double margin = 2 / pixelsPerMillimeter;
+        return new Rectangle2D.Double(bounds.getMinX() - margin, bounds.getMinY() - margin,
+                bounds.getWidth() + margin * 2, bounds.getHeight() + margin * 2);
+    }
+
+    private int getBandHeight(int width, int height) {
+        return Math.max(1, Math.min(height, maxBandPixels / width));
+    }
+
+    private BufferedImage renderBand(Drawing drawing, Rectangle2D bounds, double pixelsPerMillimeter, int width, int bandY, int rows) {
+        BufferedImage image = new BufferedImage(width, rows, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(Colors.BACKGROUND);
+            graphics.fillRect(0, 0, width, rows);
+
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_QUALITY);
+
+            // Flips the y-axis so that the top of the design is at the top of the image and moves to the band
+            AffineTransform transform = new AffineTransform();
+            transform.translate(0, -bandY);
+            transform.scale(pixelsPerMillimeter, -pixelsPerMillimeter);
+            transform.translate(-bounds.getMinX(), -bounds.getMaxY());
+            graphics.setTransform(transform);
+            graphics.setClip(new Rectangle2D.Double(bounds.getMinX(), bounds.getMaxY() - (bandY + rows) / pixelsPerMillimeter,
+                    bounds.getWidth(), rows / pixelsPerMillimeter));
+
+            entities.render(graphics, drawing);
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    private static void writeBand(PngEncoder encoder, Future<BufferedImage> band) throws IOException {
+        BufferedImage image;
+        try {
+            image = band.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("The rendering was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not render image", e.getCause());
+        }
+
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        encoder.writeRows(pixels, 0, image.getWidth(), image.getHeight());
+    }
+}
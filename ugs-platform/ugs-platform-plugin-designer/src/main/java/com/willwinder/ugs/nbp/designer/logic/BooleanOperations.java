@@ -0,0 +1,176 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.logic;
+
+import com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathUtils;
+import org.locationtech.jts.awt.ShapeWriter;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.operation.overlayng.OverlayNG;
+import org.locationtech.jts.operation.overlayng.OverlayNGRobust;
+
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Boolean operations on shapes. Operations with a few shapes are made using {@link Area} which keeps
+ * the curves of the shapes. Operations with many shapes are made using JTS geometries instead, as
+ * {@link Area} scales badly when combining many shapes one after another. The curves are then flattened
+ * into line segments with a maximum deviation of {@link #FLATNESS}.
+ * <p>
+ * The shapes are converted to geometries in parallel, unions are made using cascaded unions that are
+ * reduced in parallel chunks and the result is converted back to a shape once.
+ *
+ * @author Joacim Breiler
+ */
+public class BooleanOperations {
+    /**
+     * The maximum distance between a curve and the line segments used for approximating it
+     */
+    public static final double FLATNESS = 0.01;
+
+    /**
+     * The maximum number of shapes in an operation that will be made using {@link Area}
+     */
+    public static final int MAX_AREA_OPERANDS = 16;
+
+    /**
+     * The minimum number of geometries to union in each parallel chunk
+     */
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+    private BooleanOperations() {
+    }
+
+    /**
+     * Combines all shapes into one
+     *
+     * @param shapes the shapes to combine
+     * @return the union of all shapes
+     */
+    public static Shape union(List<Shape> shapes) {
+        if (shapes.size() <= MAX_AREA_OPERANDS) {
+            Area result = new Area();
+            shapes.forEach(shape -> result.add(new Area(shape)));
+            return result;
+        }
+
+        return toShape(unionGeometries(toGeometries(shapes)));
+    }
+
+    /**
+     * Subtracts all the given shapes from a shape
+     *
+     * @param shape       the shape to subtract from
+     * @param subtrahends the shapes to subtract
+     * @return the remaining shape
+     */
+    public static Shape subtract(Shape shape, List<Shape> subtrahends) {
+        if (subtrahends.size() < MAX_AREA_OPERANDS) {
+            Area result = new Area(shape);
+            Rectangle2D bounds = result.getBounds2D();
+            subtrahends.stream()
+                    .filter(subtrahend -> bounds.intersects(subtrahend.getBounds2D()))
+                    .forEach(subtrahend -> result.subtract(new Area(subtrahend)));
+            return result;
+        }
+
+        Geometry geometry = toGeometry(shape);
+        Envelope envelope = geometry.getEnvelopeInternal();
+
+        // Shapes outside the shape won't affect the result
+        List<Geometry> geometries = toGeometries(subtrahends).stream()
+                .filter(subtrahend -> envelope.intersects(subtrahend.getEnvelopeInternal()))
+                .toList();
+        if (geometries.isEmpty()) {
+            return toShape(geometry);
+        }
+
+        return toShape(OverlayNGRobust.overlay(geometry, unionGeometries(geometries), OverlayNG.DIFFERENCE));
+    }
+
+    /**
+     * Creates a shape from the area shared by all shapes
+     *
+     * @param shapes the shapes to intersect
+     * @return the intersection of all shapes
+     */
+    public static Shape intersect(List<Shape> shapes) {
+        if (shapes.size() <= MAX_AREA_OPERANDS) {
+            if (shapes.isEmpty()) {
+                return new Area();
+            }
+
+            Area result = new Area(shapes.get(0));
+            shapes.stream().skip(1).forEach(shape -> result.intersect(new Area(shape)));
+            return result;
+        }
+
+        Geometry result = shapes.parallelStream()
+                .map(BooleanOperations::toGeometry)
+                .reduce((geometry1, geometry2) -> OverlayNGRobust.overlay(geometry1, geometry2, OverlayNG.INTERSECTION))
+                .orElseGet(GEOMETRY_FACTORY::createPolygon);
+        return toShape(result);
+    }
+
+    private static Geometry unionGeometries(List<Geometry> geometries) {
+        if (geometries.isEmpty()) {
+            return GEOMETRY_FACTORY.createPolygon();
+        }
+
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, geometries.size() / Runtime.getRuntime().availableProcessors() + 1);
+        if (geometries.size() <= chunkSize) {
+            return OverlayNGRobust.union(GEOMETRY_FACTORY.buildGeometry(geometries));
+        }
+
+        int chunks = (geometries.size() + chunkSize - 1) / chunkSize;
+        List<Geometry> chunkUnions = IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> geometries.subList(chunk * chunkSize, Math.min(geometries.size(), (chunk + 1) * chunkSize)))
+                .map(chunkGeometries -> OverlayNGRobust.union(GEOMETRY_FACTORY.buildGeometry(chunkGeometries)))
+                .toList();
+        return OverlayNGRobust.union(GEOMETRY_FACTORY.buildGeometry(chunkUnions));
+    }
+
+    private static List<Geometry> toGeometries(List<Shape> shapes) {
+        return shapes.parallelStream()
+                .map(BooleanOperations::toGeometry)
+                .filter(geometry -> !geometry.isEmpty())
+                .toList();
+    }
+
+    private static Geometry toGeometry(Shape shape) {
+        return ToolPathUtils.convertAreaToGeometry(new Area(shape), GEOMETRY_FACTORY, FLATNESS);
+    }
+
+    private static Shape toShape(Geometry geometry) {
+        // Normalizing gives shells and holes opposite orientations making the holes work with non-zero winding
+        Shape shape = new ShapeWriter().toShape(geometry.norm());
+        Path2D.Double path = new Path2D.Double(Path2D.WIND_NON_ZERO);
+        path.append(shape, false);
+        return path;
+    }
+}
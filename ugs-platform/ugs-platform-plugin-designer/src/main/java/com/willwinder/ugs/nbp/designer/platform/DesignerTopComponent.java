@@ -98,6 +98,7 @@ public class DesignerTopComponent extends TopComponent implements UndoManagerLis
 
         // Add a settings listener to sync settings to the platform configuration
         controller.getSettings().addListener(() -> SettingsAdapter.saveSettings(controller.getSettings()));
+        controller.getUndoManager().setMemoryBudget(SettingsAdapter.loadUndoMemoryBudget());
     }
 
     private void loadDesign(UgsDataObject dataObject) {
@@ -18,6 +18,7 @@ package com.willwinder.ugs.nbp.designer.platform;
     along with UGS.  If not, see <http://www.gnu.org/licenses/>.
  */
 
+import com.willwinder.ugs.nbp.designer.actions.SimpleUndoManager;
 import com.willwinder.ugs.nbp.designer.model.Settings;
 import org.openide.util.NbPreferences;
 
@@ -38,6 +39,7 @@ public class SettingsAdapter {
     private static final String TOOL_STEP_OVER = "toolStepOver";
     private static final String DEPTH_PER_PASS = "depthPerPass";
     private static final String STOCK_THICKNESS = "stockThickness";
+    private static final String UNDO_MEMORY_BUDGET = "undoMemoryBudget";
 
     private SettingsAdapter() {}
 
@@ -68,4 +70,13 @@ public class SettingsAdapter {
         preferences.putDouble(TOOL_STEP_OVER, settings.getToolStepOver());
         preferences.putDouble(STOCK_THICKNESS, settings.getStockThickness());
     }
+
+    /**
+     * Loads the amount of memory in bytes that the undo history is allowed to use
+     *
+     * @return the memory budget in bytes
+     */
+    public static long loadUndoMemoryBudget() {
+        return preferences.getLong(UNDO_MEMORY_BUDGET, SimpleUndoManager.DEFAULT_MEMORY_BUDGET);
+    }
 }
@@ -461,10 +461,10 @@ public class ImageTracer{
 
 
 	// Lookup tables for pathscan
-	static byte [] pathscan_dir_lookup = {0,0,3,0, 1,0,3,0, 0,3,3,1, 0,3,0,0};
-	static boolean [] pathscan_holepath_lookup = {false,false,false,false, false,false,false,true, false,false,false,true, false,true,true,false };
+	public static byte [] pathscan_dir_lookup = {0,0,3,0, 1,0,3,0, 0,3,3,1, 0,3,0,0};
+	public static boolean [] pathscan_holepath_lookup = {false,false,false,false, false,false,false,true, false,false,false,true, false,true,true,false };
 	// pathscan_combined_lookup[ arr[py][px] ][ dir ] = [nextarrpypx, nextdir, deltapx, deltapy];
-	static byte [][][] pathscan_combined_lookup = {
+	public static byte [][][] pathscan_combined_lookup = {
 			{{-1,-1,-1,-1}, {-1,-1,-1,-1}, {-1,-1,-1,-1}, {-1,-1,-1,-1}},// arr[py][px]==0 is invalid
 			{{ 0, 1, 0,-1}, {-1,-1,-1,-1}, {-1,-1,-1,-1}, { 0, 2,-1, 0}},
 			{{-1,-1,-1,-1}, {-1,-1,-1,-1}, { 0, 1, 0,-1}, { 0, 0, 1, 0}},
@@ -888,7 +888,7 @@ public class ImageTracer{
 	}// End of getsvgstring()
 
 
-	static String tosvgcolorstr (byte[] c){
+	public static String tosvgcolorstr (byte[] c){
 		return "fill=\"rgb("+(c[0]+128)+","+(c[1]+128)+","+(c[2]+128)+")\" stroke=\"rgb("+(c[0]+128)+","+(c[1]+128)+","+(c[2]+128)+")\" stroke-width=\"1\" opacity=\""+((c[3]+128)/255.0)+"\" ";
 	}
 
@@ -899,7 +899,7 @@ public class ImageTracer{
 
 
 	// Selective Gaussian blur for preprocessing
-	static ImageData blur (ImageData imgd, float rad, float del){
+	public static ImageData blur (ImageData imgd, float rad, float del){
 		int i,j,k,d,idx;
 		double racc,gacc,bacc,aacc,wacc;
 		ImageData imgd2 = new ImageData(imgd.width,imgd.height,new byte[imgd.width*imgd.height*4]);
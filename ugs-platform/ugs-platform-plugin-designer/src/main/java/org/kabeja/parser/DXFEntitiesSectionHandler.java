@@ -35,6 +35,7 @@ public class DXFEntitiesSectionHandler extends AbstractSectionHandler
     protected Hashtable handlers = new Hashtable();
     protected DXFEntityHandler handler = null;
     protected boolean parseEntity = false;
+    protected DXFEntityListener entityListener = null;
 
     public DXFEntitiesSectionHandler() {
     }
@@ -113,10 +114,25 @@ public class DXFEntitiesSectionHandler extends AbstractSectionHandler
             handler.endDXFEntity();
 
             DXFEntity entity = handler.getDXFEntity();
-            doc.addDXFEntity(entity);
+            if (entityListener != null) {
+                // Streaming mode, the entity is handed over without being kept in the document
+                entity.setDXFDocument(doc);
+                entityListener.onDXFEntity(entity);
+            } else {
+                doc.addDXFEntity(entity);
+            }
         }
     }
 
+    /**
+     * Sets a listener that will receive all parsed entities instead of them being added to the document
+     *
+     * @param entityListener the listener or null to add the entities to the document
+     */
+    public void setDXFEntityListener(DXFEntityListener entityListener) {
+        this.entityListener = entityListener;
+    }
+
     public void addDXFEntityHandler(DXFEntityHandler handler) {
         handler.setDXFDocument(doc);
         handlers.put(handler.getDXFEntityName(), handler);
@@ -0,0 +1,18 @@
+package org.kabeja.parser;
+
+import org.kabeja.dxf.DXFEntity;
+
+/**
+ * A listener that receives each entity as soon as it has been parsed instead of the entity being
+ * added to the {@link org.kabeja.dxf.DXFDocument}. Makes it possible to convert the entities while
+ * streaming a file without keeping the whole document in memory.
+ */
+public interface DXFEntityListener {
+
+    /**
+     * Called when an entity in the ENTITIES section has been parsed
+     *
+     * @param entity the parsed entity
+     */
+    void onDXFEntity(DXFEntity entity);
+}
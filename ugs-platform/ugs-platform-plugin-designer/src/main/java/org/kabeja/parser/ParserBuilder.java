@@ -26,6 +26,7 @@ import org.kabeja.parser.entities.DXFBodyHandler;
 import org.kabeja.parser.entities.DXFCircleHandler;
 import org.kabeja.parser.entities.DXFDimensionHandler;
 import org.kabeja.parser.entities.DXFEllipseHandler;
+import org.kabeja.parser.entities.DXFEntityHandler;
 import org.kabeja.parser.entities.DXFHatchHandler;
 import org.kabeja.parser.entities.DXFImageHandler;
 import org.kabeja.parser.entities.DXFInsertHandler;
@@ -285,6 +286,33 @@ public class ParserBuilder {
         return parser;
     }
 
+    /**
+     * Creates a parser that streams the entities to the listener instead of building a complete
+     * document. Only the layer table and the given entity types are parsed, all other sections such as
+     * blocks and objects and all other entity types are skipped without being kept in memory.
+     *
+     * @param entityListener the listener that will receive each parsed entity
+     * @param entityHandlers the handlers for the entity types to parse
+     * @return the streaming parser
+     */
+    public static Parser createStreamingParser(DXFEntityListener entityListener, DXFEntityHandler... entityHandlers) {
+        DXFParser parser = new DXFParser();
+
+        // The layers are needed for resolving the entity layers
+        HandlerManager handlerManager = new DXFTableSectionHandler();
+        parser.addHandler(handlerManager);
+        handlerManager.addHandler(new DXFLayerTableHandler());
+
+        DXFEntitiesSectionHandler entitiesSectionHandler = new DXFEntitiesSectionHandler();
+        entitiesSectionHandler.setDXFEntityListener(entityListener);
+        for (DXFEntityHandler entityHandler : entityHandlers) {
+            entitiesSectionHandler.addHandler(entityHandler);
+        }
+        parser.addHandler(entitiesSectionHandler);
+
+        return parser;
+    }
+
     /**
      * @see org.kabeja.parser.SAXParserBuilder the SAXParserBuilder for XML
      *      description
@@ -0,0 +1,138 @@
+package com.willwinder.ugs.nbp.designer.actions;
+
+import com.willwinder.ugs.nbp.designer.entities.Entity;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Group;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Path;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Rectangle;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SimpleUndoManagerTest {
+
+    @Test
+    public void undoAndRedoShouldMoveActionsBetweenStacks() {
+        SimpleUndoManager undoManager = new SimpleUndoManager();
+        Rectangle rectangle = new Rectangle(0, 0);
+        MoveAction moveAction = new MoveAction(List.of(rectangle), new Point2D.Double(10, 0));
+        moveAction.execute();
+        undoManager.addAction(moveAction);
+
+        undoManager.undo();
+        assertEquals(0, rectangle.getPosition().getX(), 0.01);
+        assertFalse(undoManager.canUndo());
+        assertTrue(undoManager.canRedo());
+
+        undoManager.redo();
+        assertEquals(10, rectangle.getPosition().getX(), 0.01);
+        assertTrue(undoManager.canUndo());
+        assertEquals("move entity", undoManager.getUndoPresentationName());
+    }
+
+    @Test
+    public void addActionShouldRemoveOldestActionsWhenBudgetIsExceeded() {
+        SimpleUndoManager undoManager = new SimpleUndoManager(MemoryUsageUtils.ACTION_SIZE * 3);
+        List<TestAction> actions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            TestAction action = new TestAction("action " + i);
+            actions.add(action);
+            undoManager.addAction(action);
+        }
+
+        assertEquals(MemoryUsageUtils.ACTION_SIZE * 3, undoManager.getMemoryUsage());
+
+        // Only the three latest actions should be kept
+        undoManager.undo();
+        undoManager.undo();
+        undoManager.undo();
+        assertFalse(undoManager.canUndo());
+        assertEquals(List.of(false, false, true, true, true), actions.stream().map(TestAction::isUndone).toList());
+    }
+
+    @Test
+    public void addActionShouldAlwaysKeepLatestAction() {
+        SimpleUndoManager undoManager = new SimpleUndoManager(0);
+        undoManager.addAction(new TestAction("action 1"));
+        undoManager.addAction(new TestAction("action 2"));
+
+        assertTrue(undoManager.canUndo());
+        assertEquals("action 2", undoManager.getUndoPresentationName());
+        undoManager.undo();
+        assertFalse(undoManager.canUndo());
+    }
+
+    @Test
+    public void setMemoryBudgetShouldRemoveOldestActions() {
+        SimpleUndoManager undoManager = new SimpleUndoManager();
+        undoManager.addAction(new TestAction("action 1"));
+        undoManager.addAction(new TestAction("action 2"));
+        assertEquals(MemoryUsageUtils.ACTION_SIZE * 2, undoManager.getMemoryUsage());
+
+        undoManager.setMemoryBudget(MemoryUsageUtils.ACTION_SIZE);
+
+        assertEquals(MemoryUsageUtils.ACTION_SIZE, undoManager.getMemoryUsage());
+        assertEquals("action 2", undoManager.getUndoPresentationName());
+    }
+
+    @Test
+    public void clearShouldResetMemoryUsage() {
+        SimpleUndoManager undoManager = new SimpleUndoManager();
+        undoManager.addAction(new TestAction("action 1"));
+
+        undoManager.clear();
+
+        assertEquals(0, undoManager.getMemoryUsage());
+    }
+
+    @Test
+    public void removedEntitiesShouldBeIncludedInMemoryUsage() {
+        Path path = new Path();
+        path.moveTo(0, 0);
+        for (int i = 1; i <= 100; i++) {
+            path.lineTo(i, i);
+        }
+        Group group = new Group();
+        group.addChild(path);
+        List<Entity> entities = List.of(group);
+
+        long referenceSize = MemoryUsageUtils.estimateReferences(entities);
+        long entitiesSize = MemoryUsageUtils.estimateEntities(entities);
+
+        assertEquals(MemoryUsageUtils.ACTION_SIZE + MemoryUsageUtils.REFERENCE_SIZE, referenceSize);
+        assertTrue(entitiesSize > 101 * MemoryUsageUtils.SEGMENT_SIZE);
+        assertEquals(entitiesSize, new DeleteAction.UndoableDeleteAction(null, entities).getMemoryUsage());
+    }
+
+    private static class TestAction implements UndoableAction {
+        private final String name;
+        private boolean undone;
+
+        private TestAction(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void redo() {
+            undone = false;
+        }
+
+        @Override
+        public void undo() {
+            undone = true;
+        }
+
+        public boolean isUndone() {
+            return undone;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -361,4 +361,33 @@ public class EntityGroupTest {
         assertEquals(new Size(5, 5), rectangle1.getSize());
         assertEquals(new Size(5, 5), rectangle2.getSize());
     }
+
+    @Test
+    public void addAllShouldIgnoreEntitiesAlreadyInGroup() {
+        EntityGroup entityGroup = new EntityGroup();
+        EntityGroup childGroup = new EntityGroup();
+        Rectangle rectangle1 = new Rectangle(0, 0);
+        childGroup.addChild(rectangle1);
+        entityGroup.addChild(childGroup);
+
+        Rectangle rectangle2 = new Rectangle(10, 10);
+        entityGroup.addAll(List.of(rectangle1, rectangle2, rectangle2, childGroup));
+
+        assertEquals(List.of(childGroup, rectangle2), entityGroup.getChildren());
+    }
+
+    @Test
+    public void addAllShouldUpdateBounds() {
+        EntityGroup entityGroup = new EntityGroup();
+        Rectangle rectangle1 = new Rectangle(0, 0);
+        rectangle1.setSize(new Size(10, 10));
+        entityGroup.addChild(rectangle1);
+        assertEquals(10, entityGroup.getBounds().getWidth(), 0.1);
+
+        Rectangle rectangle2 = new Rectangle(10, 0);
+        rectangle2.setSize(new Size(10, 10));
+        entityGroup.addAll(List.of(rectangle2));
+
+        assertEquals(20, entityGroup.getBounds().getWidth(), 0.1);
+    }
 }
@@ -0,0 +1,55 @@
+package com.willwinder.ugs.nbp.designer.entities.cuttable;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Font;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.Rectangle2D;
+
+import static org.junit.Assert.assertEquals;
+
+public class GlyphOutlineCacheTest {
+
+    @Before
+    public void setUp() {
+        GlyphOutlineCache.clear();
+    }
+
+    @Test
+    public void createTextShapeShouldHaveSameBoundsAsGlyphVector() {
+        Font font = new Font(Font.SANS_SERIF, Font.PLAIN, 18);
+        String text = "Hello world";
+
+        GlyphVector glyphVector = font.createGlyphVector(new FontRenderContext(null, false, false), text);
+        Rectangle2D expectedBounds = glyphVector.getOutline(0, 0).getBounds2D();
+        Rectangle2D bounds = GlyphOutlineCache.createTextShape(font, text).getBounds2D();
+
+        assertEquals(expectedBounds.getMinX(), bounds.getMinX(), 0.01);
+        assertEquals(expectedBounds.getMinY(), bounds.getMinY(), 0.01);
+        assertEquals(expectedBounds.getMaxX(), bounds.getMaxX(), 0.01);
+        assertEquals(expectedBounds.getMaxY(), bounds.getMaxY(), 0.01);
+    }
+
+    @Test
+    public void createTextShapeShouldCacheEachCodePointOnce() {
+        Font font = new Font(Font.SANS_SERIF, Font.PLAIN, 18);
+
+        GlyphOutlineCache.createTextShape(font, "aabba");
+        assertEquals(2, GlyphOutlineCache.size());
+
+        GlyphOutlineCache.createTextShape(font.deriveFont(Font.BOLD), "ab");
+        assertEquals(4, GlyphOutlineCache.size());
+    }
+
+    @Test
+    public void textShapeShouldBeFlippedAroundTheBaseline() {
+        Text text = new Text();
+        text.setText("A");
+
+        Shape shape = text.getRelativeShape();
+        assertEquals(0, shape.getBounds2D().getMinY(), 0.5);
+    }
+}
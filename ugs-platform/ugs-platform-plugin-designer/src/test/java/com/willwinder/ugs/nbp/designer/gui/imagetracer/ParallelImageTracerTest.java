@@ -0,0 +1,108 @@
+package com.willwinder.ugs.nbp.designer.gui.imagetracer;
+
+import jankovicsandras.imagetracer.ImageTracer;
+import org.junit.Test;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelImageTracerTest {
+
+    @Test
+    public void imageToSVGShouldGenerateSameOutputAsImageTracer() throws Exception {
+        BufferedImage image = createImage(300, 220);
+        HashMap<String, Float> options = createOptions();
+
+        String expected = ImageTracer.imageToSVG(image, new HashMap<>(options), createPalette(8));
+        String result = new ParallelImageTracer(options, 4).imageToSVG(image, createPalette(8));
+
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void imageToSVGShouldGenerateSameOutputWithBlur() throws Exception {
+        BufferedImage image = createImage(150, 130);
+        HashMap<String, Float> options = createOptions();
+        options.put("blurradius", 2f);
+        options.put("blurdelta", 40f);
+
+        String expected = ImageTracer.imageToSVG(image, new HashMap<>(options), createPalette(5));
+        String result = new ParallelImageTracer(options, 3).imageToSVG(image, createPalette(5));
+
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void imageToSVGShouldReportProgress() {
+        BufferedImage image = createImage(100, 200);
+        ParallelImageTracer tracer = new ParallelImageTracer(createOptions(), 2);
+        AtomicInteger lastCompleted = new AtomicInteger();
+        AtomicInteger lastTotal = new AtomicInteger();
+        tracer.addListener((completed, total) -> {
+            lastCompleted.accumulateAndGet(completed, Math::max);
+            lastTotal.set(total);
+        });
+
+        tracer.imageToSVG(image, createPalette(4));
+
+        assertTrue(lastTotal.get() > 0);
+        assertEquals(lastTotal.get(), lastCompleted.get());
+    }
+
+    @Test(expected = CancellationException.class)
+    public void imageToSVGShouldThrowExceptionWhenCancelled() {
+        BufferedImage image = createImage(100, 100);
+        ParallelImageTracer tracer = new ParallelImageTracer(createOptions(), 2);
+        tracer.addListener((completed, total) -> tracer.cancel());
+        tracer.imageToSVG(image, createPalette(4));
+    }
+
+    private static HashMap<String, Float> createOptions() {
+        HashMap<String, Float> options = new HashMap<>();
+        options.put("ltres", 1f);
+        options.put("qtres", 1f);
+        options.put("pathomit", 4f);
+        options.put("colorsampling", 0f);
+        options.put("mincolorratio", 0f);
+        options.put("colorquantcycles", 3f);
+        options.put("roundcoords", 1f);
+        return options;
+    }
+
+    private static BufferedImage createImage(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.BLACK, width, height, Color.WHITE));
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.DARK_GRAY);
+        g.fillOval(width / 4, height / 4, width / 2, height / 2);
+        g.setColor(Color.LIGHT_GRAY);
+        g.setStroke(new BasicStroke(5));
+        g.drawLine(0, height, width, 0);
+        g.drawString("UGS", width / 3, height / 2);
+        g.dispose();
+        return image;
+    }
+
+    private static byte[][] createPalette(int numberOfColors) {
+        byte[][] palette = new byte[numberOfColors][4];
+        int step = 255 / numberOfColors;
+        for (int i = 0; i < numberOfColors; i++) {
+            byte value = (byte) (-128 + (i * step));
+            palette[i][0] = value;
+            palette[i][1] = value;
+            palette[i][2] = value;
+            palette[i][3] = (byte) 127;
+        }
+        return palette;
+    }
+}
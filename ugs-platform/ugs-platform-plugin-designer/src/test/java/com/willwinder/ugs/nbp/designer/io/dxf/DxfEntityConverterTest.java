@@ -0,0 +1,83 @@
+package com.willwinder.ugs.nbp.designer.io.dxf;
+
+import com.willwinder.ugs.nbp.designer.entities.Entity;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Group;
+import com.willwinder.universalgcodesender.utils.Settings;
+import org.junit.Test;
+import org.kabeja.dxf.DXFConstants;
+import org.kabeja.dxf.DXFDocument;
+import org.kabeja.dxf.DXFLayer;
+import org.kabeja.dxf.DXFLine;
+import org.kabeja.dxf.helpers.Point;
+import org.kabeja.parser.DXFParser;
+import org.kabeja.parser.Parser;
+import org.kabeja.parser.ParserBuilder;
+import org.kabeja.parser.entities.DXFSplineHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DxfEntityConverterTest {
+
+    @Test
+    public void connectedLinesShouldBeJoinedToOnePath() {
+        DXFDocument document = createDocument("LAYER_1");
+        DxfEntityConverter converter = new DxfEntityConverter(new Settings());
+        converter.onDXFEntity(createLine(document, "LAYER_1", 0, 0, 10, 0));
+        converter.onDXFEntity(createLine(document, "LAYER_1", 10, 0, 10, 10));
+        converter.onDXFEntity(createLine(document, "LAYER_1", 20, 20, 30, 30));
+
+        Group layer = (Group) converter.getResult().getChildren().get(0);
+        assertEquals("LAYER_1", layer.getName());
+
+        Group lines = (Group) layer.getChildren().get(0);
+        assertEquals("Lines", lines.getName());
+        assertEquals(2, lines.getChildren().size());
+    }
+
+    @Test
+    public void entitiesShouldBeGroupedByLayerInOrderOfAppearance() {
+        DXFDocument document = createDocument("LAYER_1", "LAYER_2");
+        DxfEntityConverter converter = new DxfEntityConverter(new Settings());
+        converter.onDXFEntity(createLine(document, "LAYER_2", 0, 0, 10, 0));
+        converter.onDXFEntity(createLine(document, "LAYER_1", 0, 0, 10, 0));
+        converter.onDXFEntity(createLine(document, "MISSING_LAYER", 0, 0, 10, 0));
+
+        List<String> layerNames = converter.getResult().getChildren().stream().map(Entity::getName).toList();
+        assertEquals(List.of("LAYER_2", "LAYER_1", DXFConstants.DEFAULT_LAYER), layerNames);
+    }
+
+    @Test
+    public void streamingParserShouldNotKeepEntitiesInDocument() throws Exception {
+        List<String> types = new ArrayList<>();
+        Parser parser = ParserBuilder.createStreamingParser(entity -> types.add(entity.getType()), new DXFSplineHandler());
+        parser.parse(DxfEntityConverterTest.class.getResourceAsStream("/R14.dxf"), DXFParser.DEFAULT_ENCODING);
+
+        assertFalse(types.isEmpty());
+        assertTrue(types.stream().allMatch(DXFConstants.ENTITY_TYPE_SPLINE::equals));
+        assertFalse(parser.getDocument().getDXFLayer("LAYER_1").getDXFEntityTypeIterator().hasNext());
+    }
+
+    private static DXFDocument createDocument(String... layerNames) {
+        DXFDocument document = new DXFDocument();
+        for (String layerName : layerNames) {
+            DXFLayer layer = new DXFLayer();
+            layer.setName(layerName);
+            document.addDXFLayer(layer);
+        }
+        return document;
+    }
+
+    private static DXFLine createLine(DXFDocument document, String layerName, double x1, double y1, double x2, double y2) {
+        DXFLine line = new DXFLine();
+        line.setDXFDocument(document);
+        line.setLayerName(layerName);
+        line.setStartPoint(new Point(x1, y1, 0));
+        line.setEndPoint(new Point(x2, y2, 0));
+        return line;
+    }
+}
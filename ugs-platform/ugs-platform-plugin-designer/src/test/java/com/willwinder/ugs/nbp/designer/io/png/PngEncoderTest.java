@@ -0,0 +1,55 @@
+package com.willwinder.ugs.nbp.designer.io.png;
+
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class PngEncoderTest {
+
+    @Test
+    public void writeRowsShouldEncodeAReadableImage() throws IOException {
+        int width = 7;
+        int height = 5;
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = (i * 37) << 16 | (i * 11) << 8 | (255 - i);
+        }
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PngEncoder encoder = new PngEncoder(outputStream, width, height, 300);
+        encoder.writeRows(pixels, 0, width, 2);
+        encoder.writeRows(pixels, width * 2, width, 3);
+        encoder.finish();
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(outputStream.toByteArray()));
+        assertEquals(width, image.getWidth());
+        assertEquals(height, image.getHeight());
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                assertEquals(pixels[y * width + x] & 0xFFFFFF, image.getRGB(x, y) & 0xFFFFFF);
+            }
+        }
+    }
+
+    @Test
+    public void finishShouldThrowErrorIfAllRowsHaveNotBeenWritten() throws IOException {
+        PngEncoder encoder = new PngEncoder(new ByteArrayOutputStream(), 2, 2, 96);
+        encoder.writeRows(new int[4], 0, 2, 1);
+
+        assertThrows(IllegalStateException.class, encoder::finish);
+    }
+
+    @Test
+    public void writeRowsShouldThrowErrorIfWritingTooManyRows() throws IOException {
+        PngEncoder encoder = new PngEncoder(new ByteArrayOutputStream(), 2, 2, 96);
+
+        assertThrows(IllegalStateException.class, () -> encoder.writeRows(new int[6], 0, 2, 3));
+    }
+}
@@ -0,0 +1,62 @@
+package com.willwinder.ugs.nbp.designer.io.png;
+
+import com.willwinder.ugs.nbp.designer.entities.EntityGroup;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.CutType;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Rectangle;
+import com.willwinder.ugs.nbp.designer.gui.Colors;
+import com.willwinder.ugs.nbp.designer.model.Size;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class TiledPngRendererTest {
+
+    @Test
+    public void renderShouldRenderTheEntitiesInMultipleBands() throws IOException {
+        Rectangle rectangle = new Rectangle(10, 10);
+        rectangle.setSize(new Size(40, 20));
+        rectangle.setCutType(CutType.LASER_FILL);
+        EntityGroup entities = new EntityGroup();
+        entities.addChild(rectangle);
+
+        // Renders with one pixel per millimeter in bands of two rows
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        TiledPngRenderer renderer = new TiledPngRenderer(entities, 25.4, 3, 44 * 2);
+        renderer.render(outputStream);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(outputStream.toByteArray()));
+        assertEquals(44, image.getWidth());
+        assertEquals(24, image.getHeight());
+
+        int background = Colors.BACKGROUND.getRGB() & 0xFFFFFF;
+        assertEquals(background, image.getRGB(0, 0) & 0xFFFFFF);
+        assertEquals(background, image.getRGB(0, 12) & 0xFFFFFF);
+        for (int y = 2; y < 22; y++) {
+            assertNotEquals("Expected the rectangle to be rendered on row " + y, background, image.getRGB(22, y) & 0xFFFFFF);
+        }
+    }
+
+    @Test
+    public void renderShouldUseAFixedMarginInPixelsForAnyResolution() throws IOException {
+        Rectangle rectangle = new Rectangle(10, 10);
+        rectangle.setSize(new Size(40, 20));
+        rectangle.setCutType(CutType.LASER_FILL);
+        EntityGroup entities = new EntityGroup();
+        entities.addChild(rectangle);
+
+        // Renders with two pixels per millimeter with a margin of two pixels
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new TiledPngRenderer(entities, 50.8, 1).render(outputStream);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(outputStream.toByteArray()));
+        assertEquals(84, image.getWidth());
+        assertEquals(44, image.getHeight());
+    }
+}
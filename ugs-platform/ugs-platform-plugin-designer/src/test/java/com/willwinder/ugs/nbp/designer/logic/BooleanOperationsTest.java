@@ -0,0 +1,156 @@
+package com.willwinder.ugs.nbp.designer.logic;
+
+import com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathUtils;
+import org.junit.Test;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BooleanOperationsTest {
+
+    @Test
+    public void unionShouldCombineOverlappingShapes() {
+        Shape shape = BooleanOperations.union(List.of(
+                new Rectangle2D.Double(0, 0, 10, 10),
+                new Rectangle2D.Double(5, 0, 10, 10)
+        ));
+
+        assertEquals(150, getArea(shape), 0.001);
+        assertEquals(new Rectangle2D.Double(0, 0, 15, 10), shape.getBounds2D());
+    }
+
+    @Test
+    public void subtractShouldCreateHoles() {
+        Shape shape = BooleanOperations.subtract(new Rectangle2D.Double(0, 0, 100, 100), List.of(
+                new Rectangle2D.Double(10, 10, 10, 10),
+                new Rectangle2D.Double(15, 15, 10, 10),
+                new Rectangle2D.Double(50, 50, 10, 10)
+        ));
+
+        assertEquals(10000 - 175 - 100, getArea(shape), 0.001);
+        assertTrue("The holes should not be filled using the non-zero winding rule", shape.contains(100 - 1, 100 - 1));
+        assertTrue(!shape.contains(55, 55));
+    }
+
+    @Test
+    public void subtractShouldIgnoreShapesOutsideTheShape() {
+        Shape shape = BooleanOperations.subtract(new Rectangle2D.Double(0, 0, 10, 10), List.of(
+                new Rectangle2D.Double(20, 20, 10, 10)
+        ));
+
+        assertEquals(100, getArea(shape), 0.001);
+    }
+
+    @Test
+    public void intersectShouldReturnTheSharedArea() {
+        Shape shape = BooleanOperations.intersect(List.of(
+                new Rectangle2D.Double(0, 0, 10, 10),
+                new Rectangle2D.Double(5, 5, 10, 10)
+        ));
+
+        assertEquals(25, getArea(shape), 0.001);
+        assertEquals(new Rectangle2D.Double(5, 5, 5, 5), shape.getBounds2D());
+    }
+
+    @Test
+    public void intersectWithoutOverlapShouldReturnEmptyShape() {
+        Shape shape = BooleanOperations.intersect(List.of(
+                new Rectangle2D.Double(0, 0, 10, 10),
+                new Rectangle2D.Double(20, 20, 10, 10)
+        ));
+
+        assertTrue(new Area(shape).isEmpty());
+    }
+
+    @Test
+    public void subtractShouldMatchAreaSubtraction() {
+        Shape panel = new Rectangle2D.Double(0, 0, 200, 200);
+        List<Shape> holes = createHoles(100);
+
+        Area area = new Area(panel);
+        holes.forEach(hole -> area.subtract(new Area(hole)));
+
+        Shape shape = BooleanOperations.subtract(panel, holes);
+        assertEquals(getArea(area), getArea(shape), 0.5);
+    }
+
+    @Test
+    public void unionShouldMatchAreaUnion() {
+        List<Shape> shapes = createHoles(100);
+
+        Area area = new Area();
+        shapes.forEach(shape -> area.add(new Area(shape)));
+
+        Shape shape = BooleanOperations.union(shapes);
+        assertEquals(getArea(area), getArea(shape), 0.5);
+    }
+
+    @Test
+    public void unionOfFewShapesShouldKeepCurves() {
+        Shape shape = BooleanOperations.union(List.of(
+                new Ellipse2D.Double(0, 0, 10, 10),
+                new Ellipse2D.Double(5, 0, 10, 10)
+        ));
+
+        assertTrue(hasCurves(shape));
+    }
+
+    @Test
+    public void subtractWithFewShapesShouldKeepCurves() {
+        Shape shape = BooleanOperations.subtract(new Rectangle2D.Double(0, 0, 100, 100), List.of(
+                new Ellipse2D.Double(10, 10, 10, 10)
+        ));
+
+        assertTrue(hasCurves(shape));
+        assertTrue(!shape.contains(15, 15));
+    }
+
+    @Test
+    public void intersectWithFewShapesShouldKeepCurves() {
+        Shape shape = BooleanOperations.intersect(List.of(
+                new Ellipse2D.Double(0, 0, 10, 10),
+                new Rectangle2D.Double(0, 0, 10, 5)
+        ));
+
+        assertTrue(hasCurves(shape));
+    }
+
+    private static boolean hasCurves(Shape shape) {
+        double[] coordinates = new double[6];
+        for (PathIterator iterator = shape.getPathIterator(null); !iterator.isDone(); iterator.next()) {
+            int segmentType = iterator.currentSegment(coordinates);
+            if (segmentType == PathIterator.SEG_CUBICTO || segmentType == PathIterator.SEG_QUADTO) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates overlapping circles spread out over the panel
+     */
+    private static List<Shape> createHoles(int count) {
+        List<Shape> holes = new ArrayList<>();
+        int columns = (int) Math.ceil(Math.sqrt(count));
+        double spacing = 200d / columns;
+        for (int i = 0; i < count; i++) {
+            double x = (i % columns) * spacing;
+            double y = (i / columns) * spacing;
+            holes.add(new Ellipse2D.Double(x, y, spacing * 0.8, spacing * 1.4));
+        }
+        return holes;
+    }
+
+    private static double getArea(Shape shape) {
+        return ToolPathUtils.convertAreaToGeometry(new Area(shape), new GeometryFactory(), BooleanOperations.FLATNESS).getArea();
+    }
+}
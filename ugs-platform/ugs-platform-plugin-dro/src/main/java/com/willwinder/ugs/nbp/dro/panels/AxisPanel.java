@@ -123,9 +123,8 @@ public class AxisPanel extends JPanel {
     }
 
     private void setLabelValue(CoordinateLabel label, double value) {
-        if (label.getValue() != value) {
+        if (label.setValue(value)) {
             highlightLabels();
-            label.setValue(value);
         }
     }
 
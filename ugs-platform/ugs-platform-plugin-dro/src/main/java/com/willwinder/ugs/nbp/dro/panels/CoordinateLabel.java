@@ -19,11 +19,14 @@
 package com.willwinder.ugs.nbp.dro.panels;
 
 import javax.swing.SwingConstants;
-import java.text.DecimalFormat;
 
+/**
+ * A label for showing a coordinate with three decimals. The text is only updated if the
+ * displayed value has changed.
+ */
 public class CoordinateLabel extends HighlightableLabel {
 
-    private final DecimalFormat decimalFormatter = new DecimalFormat("0.000");
+    private final NumberText numberText = new NumberText(3);
     private double value = 0.0;
 
     public CoordinateLabel(double value) {
@@ -35,9 +38,19 @@ public class CoordinateLabel extends HighlightableLabel {
         return value;
     }
 
-    public void setValue(double value) {
+    /**
+     * Sets the value of the label
+     *
+     * @param value the value to show
+     * @return true if the displayed text was changed
+     */
+    public boolean setValue(double value) {
         this.value = value;
-        String textValue = decimalFormatter.format(value);
-        setText(textValue);
+        if (!numberText.setValue(value)) {
+            return false;
+        }
+
+        setText(numberText.getText());
+        return true;
     }
 }
@@ -0,0 +1,89 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.dro.panels;
+
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+
+import javax.swing.Timer;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the latest controller status and renders it on a fixed frame cadence in the event dispatch
+ * thread. Statuses can be received at any rate from any thread, only the latest one will be rendered
+ * on the next frame and no frames are rendered if no new status has been received.
+ *
+ * @author Joacim Breiler
+ */
+public class DroRenderModel {
+    /**
+     * The time between each frame in milliseconds
+     */
+    public static final int FRAME_INTERVAL = 33;
+
+    private final AtomicReference<ControllerStatus> pendingStatus = new AtomicReference<>();
+    private final Consumer<ControllerStatus> renderer;
+    private final Timer timer;
+
+    /**
+     * Creates a render model
+     *
+     * @param renderer the function to render the status, will be called in the event dispatch thread
+     */
+    public DroRenderModel(Consumer<ControllerStatus> renderer) {
+        this.renderer = renderer;
+        this.timer = new Timer(FRAME_INTERVAL, e -> renderFrame());
+        this.timer.setCoalesce(true);
+    }
+
+    /**
+     * Sets the latest status to be rendered on the next frame, replacing any status that hasn't been rendered yet
+     *
+     * @param status the status to render
+     */
+    public void setStatus(ControllerStatus status) {
+        if (status != null) {
+            pendingStatus.set(status);
+        }
+    }
+
+    /**
+     * Starts rendering frames, should be called when the component is shown
+     */
+    public void start() {
+        timer.start();
+    }
+
+    /**
+     * Stops rendering frames, should be called when the component is hidden
+     */
+    public void stop() {
+        timer.stop();
+    }
+
+    /**
+     * Renders the latest status if a new one has been received since the last frame
+     */
+    void renderFrame() {
+        ControllerStatus status = pendingStatus.getAndSet(null);
+        if (status != null) {
+            renderer.accept(status);
+        }
+    }
+}
@@ -56,6 +56,7 @@ import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
 
@@ -86,6 +87,11 @@ public class MachineStatusPanel extends JPanel implements UGSEventListener, Axis
     private Units units;
     private final Map<Axis, AxisPanel> axisPanels = new EnumMap<>(Axis.class);
     private final DecimalFormat decimalFormatter = new DecimalFormat("0.000");
+    private final transient DroRenderModel renderModel = new DroRenderModel(this::onControllerStatusReceived);
+    private final transient NumberText feedText = new NumberText();
+    private final transient NumberText spindleSpeedText = new NumberText();
+    private ControllerState currentState;
+    private EnabledPins currentEnabledPins;
 
 
     public MachineStatusPanel(BackendAPI backend) {
@@ -176,6 +182,7 @@ public class MachineStatusPanel extends JPanel implements UGSEventListener, Axis
     }
 
     private void resetStatePinComponents() {
+        currentEnabledPins = null;
         pinStatesLabel.setText("");
         pinStatesLabel.setForeground(ThemeColors.GREY);
         pinStatePanel.setForeground(ThemeColors.GREY);
@@ -185,6 +192,18 @@ public class MachineStatusPanel extends JPanel implements UGSEventListener, Axis
         Arrays.stream(labels).forEach(l -> l.setText(l.getText().toUpperCase()));
     }
 
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        renderModel.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        renderModel.stop();
+        super.removeNotify();
+    }
+
     @Override
     public void setEnabled(boolean enabled) {
         // Disable this functionality as the styling will get messed up otherwise
@@ -208,10 +227,11 @@ public class MachineStatusPanel extends JPanel implements UGSEventListener, Axis
         if (evt instanceof ControllerStateEvent) {
             updateControls();
         } else if (evt instanceof ControllerStatusEvent controllerStatusEvent) {
-            onControllerStatusReceived(controllerStatusEvent.getStatus());
+            // The status is rendered on the next frame
+            renderModel.setStatus(controllerStatusEvent.getStatus());
         } else if (evt instanceof SettingChangedEvent) {
             if (backend.getController() != null) {
-                onControllerStatusReceived(backend.getController().getControllerStatus());
+                renderModel.setStatus(backend.getController().getControllerStatus());
             }
             updateControls();
         }
@@ -246,38 +266,49 @@ public class MachineStatusPanel extends JPanel implements UGSEventListener, Axis
         }
     }
 
+    /**
+     * Renders the status, only labels with changed texts will be updated. Is called from the render
+     * model in the event dispatch thread.
+     *
+     * @param status the latest controller status
+     */
     private void onControllerStatusReceived(ControllerStatus status) {
         this.updateStatePanel(status.getState());
-        resetStatePinComponents();
-
         updatePinStates(status);
 
         this.setUnits(backend.getSettings().getPreferredUnits());
 
-        Arrays.stream(Axis.values())
-                .filter(axisPanels::containsKey)
-                .forEach(axis -> {
-                    if (status.getMachineCoord() != null) {
-                        Position machineCoord = status.getMachineCoord().getPositionIn(units);
-                        axisPanels.get(axis).setMachinePosition(machineCoord.get(axis));
-                    }
+        Position machineCoord = status.getMachineCoord() != null ? status.getMachineCoord().getPositionIn(units) : null;
+        Position workCoord = status.getWorkCoord() != null ? status.getWorkCoord().getPositionIn(units) : null;
+        for (Axis axis : Axis.values()) {
+            AxisPanel panel = axisPanels.get(axis);
+            if (panel == null) {
+                continue;
+            }
 
-                    if (status.getWorkCoord() != null) {
-                        Position workCoord = status.getWorkCoord().getPositionIn(units);
-                        axisPanels.get(axis).setWorkPosition(workCoord.get(axis));
-                    }
-                });
+            if (machineCoord != null) {
+                panel.setMachinePosition(machineCoord.get(axis));
+            }
+
+            if (workCoord != null) {
+                panel.setWorkPosition(workCoord.get(axis));
+            }
+        }
 
         // Use real-time values if available, otherwise show the target values.
         int feedSpeed = status.getFeedSpeed() != null
                 ? (int) (status.getFeedSpeed() * UnitUtils.scaleUnits(status.getFeedSpeedUnits(), backend.getSettings().getPreferredUnits()))
                 : (int) this.backend.getGcodeState().feedRate;
-        this.feedValue.setText(Integer.toString(feedSpeed));
+        if (feedText.setValue(feedSpeed)) {
+            this.feedValue.setText(feedText.getText());
+        }
 
         int spindleSpeed = status.getSpindleSpeed() != null
                 ? status.getSpindleSpeed().intValue()
                 : (int) this.backend.getGcodeState().spindleSpeed;
-        this.spindleSpeedValue.setText(Integer.toString(spindleSpeed));
+        if (spindleSpeedText.setValue(spindleSpeed)) {
+            this.spindleSpeedValue.setText(spindleSpeedText.getText());
+        }
 
         GcodeState state = backend.getGcodeState();
         if (state == null) {
@@ -295,11 +326,16 @@ public class MachineStatusPanel extends JPanel implements UGSEventListener, Axis
     }
 
     private void updatePinStates(ControllerStatus status) {
-        if (status.getEnabledPins() == null) {
+        EnabledPins ep = status.getEnabledPins();
+        if (Objects.equals(ep, currentEnabledPins)) {
             return;
         }
 
-        EnabledPins ep = status.getEnabledPins();
+        resetStatePinComponents();
+        currentEnabledPins = ep;
+        if (ep == null) {
+            return;
+        }
 
         List<String> enabled = new ArrayList<>();
         if (ep.x()) enabled.add(Translations.PIN_X);
@@ -322,6 +358,11 @@ public class MachineStatusPanel extends JPanel implements UGSEventListener, Axis
     }
 
     private void updateStatePanel(ControllerState state) {
+        if (state == currentState) {
+            return;
+        }
+
+        currentState = state;
         String text = Utils.getControllerStateText(state);
         activeStatePanel.setBackground(Utils.getControllerStateBackgroundColor(state));
         activeStateValueLabel.setForeground(Utils.getControllerStateForegroundColor(state));
@@ -0,0 +1,170 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.dro.panels;
+
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Formats numbers into a reusable character buffer and keeps track of if the displayed text has
+ * changed. Numbers are formatted without allocating any objects and a new string is only created
+ * when the text actually differs from the previous value.
+ *
+ * @author Joacim Breiler
+ */
+public class NumberText {
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+
+    /**
+     * Values larger than this can't be scaled to a long with the maximum number of decimals
+     */
+    private static final double MAX_VALUE = 1e12;
+
+    private static final char[] NAN = "NaN".toCharArray();
+
+    private final int decimals;
+    private final char decimalSeparator;
+    private final char[] buffer = new char[32];
+    private final char[] chars = new char[32];
+    private int length;
+    private String text = "";
+
+    /**
+     * Creates a text for integer numbers
+     */
+    public NumberText() {
+        this(0);
+    }
+
+    /**
+     * Creates a text for decimal numbers using the decimal separator of the default locale
+     *
+     * @param decimals the number of decimals to show
+     */
+    public NumberText(int decimals) {
+        this(decimals, DecimalFormatSymbols.getInstance().getDecimalSeparator());
+    }
+
+    /**
+     * Creates a text for decimal numbers
+     *
+     * @param decimals         the number of decimals to show
+     * @param decimalSeparator the character to separate the decimals with
+     */
+    public NumberText(int decimals, char decimalSeparator) {
+        if (decimals < 0 || decimals >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("The number of decimals must be between 0 and " + (POWERS_OF_TEN.length - 1));
+        }
+        this.decimals = decimals;
+        this.decimalSeparator = decimalSeparator;
+    }
+
+    /**
+     * Formats the value rounded to the number of decimals
+     *
+     * @param value the value to format
+     * @return true if the formatted text was changed
+     */
+    public boolean setValue(double value) {
+        int newLength;
+        if (Double.isNaN(value)) {
+            System.arraycopy(NAN, 0, buffer, 0, NAN.length);
+            newLength = NAN.length;
+        } else {
+            long scaledValue = Math.round(Math.min(Math.abs(value), MAX_VALUE) * POWERS_OF_TEN[decimals]);
+            newLength = format(scaledValue, value < 0 && scaledValue != 0);
+        }
+        return update(newLength);
+    }
+
+    /**
+     * Formats the value as an integer
+     *
+     * @param value the value to format
+     * @return true if the formatted text was changed
+     */
+    public boolean setValue(long value) {
+        if (decimals != 0) {
+            return setValue((double) value);
+        }
+
+        // Long.MIN_VALUE can't be negated, clamp it
+        long absoluteValue = value == Long.MIN_VALUE ? Long.MAX_VALUE : Math.abs(value);
+        return update(format(absoluteValue, value < 0));
+    }
+
+    /**
+     * Returns the formatted text, a new string will only be created if the text has changed since the last call
+     *
+     * @return the formatted text
+     */
+    public String getText() {
+        if (text == null) {
+            text = new String(chars, 0, length);
+        }
+        return text;
+    }
+
+    /**
+     * Writes the digits of the scaled value from the end of the buffer and moves them to the start
+     */
+    private int format(long scaledValue, boolean negative) {
+        int position = buffer.length;
+        for (int i = 0; i < decimals; i++) {
+            buffer[--position] = (char) ('0' + scaledValue % 10);
+            scaledValue /= 10;
+        }
+
+        if (decimals > 0) {
+            buffer[--position] = decimalSeparator;
+        }
+
+        do {
+            buffer[--position] = (char) ('0' + scaledValue % 10);
+            scaledValue /= 10;
+        } while (scaledValue > 0);
+
+        if (negative) {
+            buffer[--position] = '-';
+        }
+
+        int newLength = buffer.length - position;
+        System.arraycopy(buffer, position, buffer, 0, newLength);
+        return newLength;
+    }
+
+    private boolean update(int newLength) {
+        if (newLength == length && equals(buffer, chars, length)) {
+            return false;
+        }
+
+        System.arraycopy(buffer, 0, chars, 0, newLength);
+        length = newLength;
+        text = null;
+        return true;
+    }
+
+    private static boolean equals(char[] a, char[] b, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
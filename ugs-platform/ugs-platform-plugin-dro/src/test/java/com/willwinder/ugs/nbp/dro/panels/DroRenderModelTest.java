@@ -0,0 +1,38 @@
+package com.willwinder.ugs.nbp.dro.panels;
+
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DroRenderModelTest {
+
+    @Test
+    public void renderFrameShouldOnlyRenderLatestStatus() {
+        List<ControllerStatus> renderedStatuses = new ArrayList<>();
+        DroRenderModel renderModel = new DroRenderModel(renderedStatuses::add);
+
+        ControllerStatus status1 = new ControllerStatus(ControllerState.RUN, null, null);
+        ControllerStatus status2 = new ControllerStatus(ControllerState.IDLE, null, null);
+        renderModel.setStatus(status1);
+        renderModel.setStatus(status2);
+        renderModel.renderFrame();
+
+        assertEquals(List.of(status2), renderedStatuses);
+    }
+
+    @Test
+    public void renderFrameShouldNotRenderWithoutNewStatus() {
+        List<ControllerStatus> renderedStatuses = new ArrayList<>();
+        DroRenderModel renderModel = new DroRenderModel(renderedStatuses::add);
+
+        renderModel.setStatus(new ControllerStatus(ControllerState.RUN, null, null));
+        renderModel.renderFrame();
+        renderModel.renderFrame();
+
+        assertEquals(1, renderedStatuses.size());
+    }
+}
@@ -0,0 +1,76 @@
+package com.willwinder.ugs.nbp.dro.panels;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class NumberTextTest {
+
+    @Test
+    public void setValueShouldFormatDecimals() {
+        NumberText numberText = new NumberText(3, '.');
+
+        numberText.setValue(1.2345);
+        assertEquals("1.235", numberText.getText());
+
+        numberText.setValue(-12.5);
+        assertEquals("-12.500", numberText.getText());
+
+        numberText.setValue(0.0);
+        assertEquals("0.000", numberText.getText());
+
+        numberText.setValue(1234567.0009);
+        assertEquals("1234567.001", numberText.getText());
+    }
+
+    @Test
+    public void setValueShouldNotShowNegativeZero() {
+        NumberText numberText = new NumberText(3, '.');
+        numberText.setValue(-0.0001);
+        assertEquals("0.000", numberText.getText());
+    }
+
+    @Test
+    public void setValueShouldUseDecimalSeparator() {
+        NumberText numberText = new NumberText(2, ',');
+        numberText.setValue(3.14159);
+        assertEquals("3,14", numberText.getText());
+    }
+
+    @Test
+    public void setValueShouldFormatIntegers() {
+        NumberText numberText = new NumberText();
+
+        numberText.setValue(1500);
+        assertEquals("1500", numberText.getText());
+
+        numberText.setValue(-42);
+        assertEquals("-42", numberText.getText());
+
+        numberText.setValue(0);
+        assertEquals("0", numberText.getText());
+    }
+
+    @Test
+    public void setValueShouldHandleNaN() {
+        NumberText numberText = new NumberText(3, '.');
+        numberText.setValue(Double.NaN);
+        assertEquals("NaN", numberText.getText());
+    }
+
+    @Test
+    public void setValueShouldReturnFalseIfDisplayedTextIsUnchanged() {
+        NumberText numberText = new NumberText(3, '.');
+        assertTrue(numberText.setValue(1.0));
+        String text = numberText.getText();
+
+        // A change smaller than the displayed precision should not change the text
+        assertFalse(numberText.setValue(1.0001));
+        assertSame(text, numberText.getText());
+
+        assertTrue(numberText.setValue(1.001));
+        assertEquals("1.001", numberText.getText());
+    }
+}
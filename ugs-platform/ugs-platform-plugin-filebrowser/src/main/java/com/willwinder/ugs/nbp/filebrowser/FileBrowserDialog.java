@@ -20,10 +20,13 @@ package com.willwinder.ugs.nbp.filebrowser;
 
 import com.willwinder.universalgcodesender.model.File;
 import com.willwinder.universalgcodesender.IFileService;
+import com.willwinder.universalgcodesender.connection.xmodem.TransferProgress;
+import com.willwinder.universalgcodesender.connection.xmodem.TransferProgressListener;
 import com.willwinder.universalgcodesender.uielements.components.TableCellListener;
 import com.willwinder.universalgcodesender.uielements.helpers.LoaderDialogHelper;
 import com.willwinder.universalgcodesender.utils.ThreadHelper;
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.FileUtils;
+import org.netbeans.api.progress.ProgressHandle;
 import org.openide.util.ImageUtilities;
 
 import javax.swing.AbstractAction;
@@ -42,9 +45,13 @@ import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.event.ActionEvent;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.logging.Logger;
 
 public class FileBrowserDialog extends JDialog implements ListSelectionListener {
@@ -111,9 +118,11 @@ public class FileBrowserDialog extends JDialog implements ListSelectionListener
         ThreadHelper.invokeLater(() -> {
             try {
                 File currentFile = new File(currentFilename, currentFilename, 0);
-                byte[] bytes = fileService.downloadFile(currentFile);
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                fileService.downloadFile(currentFile, outputStream, TransferProgressListener.NONE);
                 Thread.sleep(2000);
-                fileService.uploadFile(newFilename, bytes);
+                byte[] bytes = outputStream.toByteArray();
+                fileService.uploadFile(newFilename, new ByteArrayInputStream(bytes), bytes.length, TransferProgressListener.NONE);
                 Thread.sleep(2000);
                 fileService.deleteFile(currentFile);
             } catch (IOException | InterruptedException ex) {
@@ -148,13 +157,15 @@ public class FileBrowserDialog extends JDialog implements ListSelectionListener
         if (status == JFileChooser.APPROVE_OPTION) {
             setEnabled(false);
             LoaderDialogHelper.showDialog("Uploading file", 1500, this);
+            java.io.File selectedFile = fileChooser.getSelectedFile();
             ThreadHelper.invokeLater(() -> {
-                try {
-                    byte[] buffer = IOUtils.toByteArray(new FileInputStream(fileChooser.getSelectedFile()));
-                    fileService.uploadFile(fileChooser.getSelectedFile().getName(), buffer);
+                ProgressHandle progressHandle = createProgressHandle("Uploading " + selectedFile.getName());
+                try (InputStream inputStream = new FileInputStream(selectedFile)) {
+                    fileService.uploadFile(selectedFile.getName(), inputStream, selectedFile.length(), progress -> updateProgress(progressHandle, progress));
                 } catch (IOException ex) {
                     ex.printStackTrace();
                 } finally {
+                    progressHandle.finish();
                     LoaderDialogHelper.closeDialog();
                     setEnabled(true);
                 }
@@ -184,13 +195,15 @@ public class FileBrowserDialog extends JDialog implements ListSelectionListener
         if (status == JFileChooser.APPROVE_OPTION) {
             setEnabled(false);
             LoaderDialogHelper.showDialog("Downloading file", 1500, this);
+            java.io.File selectedFile = fileChooser.getSelectedFile();
             ThreadHelper.invokeLater(() -> {
-                try {
-                    byte[] bytes = fileService.downloadFile(file);
-                    IOUtils.write(bytes, new FileOutputStream(fileChooser.getSelectedFile()));
+                ProgressHandle progressHandle = createProgressHandle("Downloading " + file.getName());
+                try (OutputStream outputStream = new FileOutputStream(selectedFile)) {
+                    fileService.downloadFile(file, outputStream, progress -> updateProgress(progressHandle, progress));
                 } catch (IOException ex) {
                     ex.printStackTrace();
                 } finally {
+                    progressHandle.finish();
                     LoaderDialogHelper.closeDialog();
                     setEnabled(true);
                 }
@@ -198,6 +211,21 @@ public class FileBrowserDialog extends JDialog implements ListSelectionListener
         }
     }
 
+    private static ProgressHandle createProgressHandle(String displayName) {
+        ProgressHandle progressHandle = ProgressHandle.createHandle(displayName);
+        progressHandle.start(100);
+        return progressHandle;
+    }
+
+    private static void updateProgress(ProgressHandle progressHandle, TransferProgress progress) {
+        String message = FileUtils.byteCountToDisplaySize(progress.bytesTransferred()) + " (" + FileUtils.byteCountToDisplaySize((long) progress.getBytesPerSecond()) + "/s)";
+        if (progress.getPercent() < 0) {
+            progressHandle.progress(message);
+        } else {
+            progressHandle.progress(message, (int) progress.getPercent());
+        }
+    }
+
     private void handleFileDelete() {
         setEnabled(false);
         LoaderDialogHelper.showDialog("Deleting file", 1500, this);
@@ -18,10 +18,14 @@
  */
 package com.willwinder.ugs.nbp.filebrowser;
 
-import com.willwinder.universalgcodesender.File;
 import com.willwinder.universalgcodesender.IFileService;
+import com.willwinder.universalgcodesender.connection.xmodem.TransferProgress;
+import com.willwinder.universalgcodesender.connection.xmodem.TransferProgressListener;
+import com.willwinder.universalgcodesender.model.File;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
@@ -48,6 +52,36 @@ public class FileBrowserDialogTest {
                 fileList.add(new File(filename, filename, data.length));
             }
 
+            @Override
+            public void downloadFile(File file, OutputStream outputStream, TransferProgressListener listener) throws IOException {
+                byte[] data = downloadFile(file);
+                long start = System.currentTimeMillis();
+                for (int offset = 0; offset < data.length; offset++) {
+                    outputStream.write(data[offset]);
+                    listener.onProgress(new TransferProgress(offset + 1L, data.length, System.currentTimeMillis() - start));
+                }
+            }
+
+            @Override
+            public void uploadFile(String filename, InputStream inputStream, long length, TransferProgressListener listener) throws IOException {
+                // Simulates a slow transfer to show the progress
+                byte[] buffer = new byte[1024];
+                long transferred = 0;
+                long start = System.currentTimeMillis();
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    transferred += read;
+                    listener.onProgress(new TransferProgress(transferred, length, System.currentTimeMillis() - start));
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("The transfer was interrupted", e);
+                    }
+                }
+                fileList.add(new File(filename, filename, transferred));
+            }
+
             @Override
             public void deleteFile(File file) throws IOException {
                 fileList.removeIf(f -> f.getAbsolutePath().equalsIgnoreCase(file.getAbsolutePath()));
@@ -56,6 +56,8 @@ public class JoystickOptionsPanel extends AbstractOptionsPanel implements Joysti
     private JPanel leftPanel;
     private JPanel rightPanel;
     private JSpinner thresholdSpinner;
+    private JSpinner smoothingSpinner;
+    private JSpinner updateFrequencySpinner;
 
     JoystickOptionsPanel(JoystickOptionsPanelController controller) {
         super(controller);
@@ -113,6 +115,16 @@ public class JoystickOptionsPanel extends AbstractOptionsPanel implements Joysti
         thresholdSpinner.addChangeListener(this::onThresholdChange);
         rightPanel.add(thresholdSpinner, "wmin 150, hmin 24, wrap");
 
+        rightPanel.add(new JLabel(Localization.getString("platform.plugin.joystick.axisSmoothing")), "wmin 100, hmin 24");
+        smoothingSpinner = new JSpinner(new SpinnerNumberModel(Settings.getAxisSmoothing(), 0, 1000, 5));
+        smoothingSpinner.addChangeListener(e -> Settings.setAxisSmoothing((Integer) smoothingSpinner.getValue()));
+        rightPanel.add(smoothingSpinner, "wmin 150, hmin 24, wrap");
+
+        rightPanel.add(new JLabel(Localization.getString("platform.plugin.joystick.axisUpdateFrequency")), "wmin 100, hmin 24");
+        updateFrequencySpinner = new JSpinner(new SpinnerNumberModel(Settings.getAxisUpdateFrequency(), 1, 1000, 5));
+        updateFrequencySpinner.addChangeListener(e -> Settings.setAxisUpdateFrequency((Integer) updateFrequencySpinner.getValue()));
+        rightPanel.add(updateFrequencySpinner, "wmin 150, hmin 24, wrap");
+
         add(rightPanel, "grow");
     }
 
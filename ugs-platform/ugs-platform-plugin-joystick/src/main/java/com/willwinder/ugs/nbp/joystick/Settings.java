@@ -146,6 +146,43 @@ public class Settings {
         preferences.putFloat("axisThreshold", threshold);
     }
 
+    /**
+     * Returns the time constant in milliseconds used for smoothing the analog axis values. A higher value
+     * will filter more noise from the controller but will make it respond slower.
+     *
+     * @return the smoothing time in milliseconds, zero if no smoothing should be used
+     */
+    public static int getAxisSmoothing() {
+        return preferences.getInt("axisSmoothing", 20);
+    }
+
+    /**
+     * Sets the time constant in milliseconds used for smoothing the analog axis values.
+     *
+     * @param smoothing the smoothing time in milliseconds, zero disables the smoothing
+     */
+    public static void setAxisSmoothing(int smoothing) {
+        preferences.putInt("axisSmoothing", smoothing);
+    }
+
+    /**
+     * Returns the maximum number of times per second that changes to the analog axes are dispatched to the actions.
+     *
+     * @return the update frequency in Hz
+     */
+    public static int getAxisUpdateFrequency() {
+        return preferences.getInt("axisUpdateFrequency", 50);
+    }
+
+    /**
+     * Sets the maximum number of times per second that changes to the analog axes are dispatched to the actions.
+     *
+     * @param frequency the update frequency in Hz
+     */
+    public static void setAxisUpdateFrequency(int frequency) {
+        preferences.putInt("axisUpdateFrequency", frequency);
+    }
+
     /**
      * Gets the custom mapping in the gamecontrollerdb-format (https://github.com/gabomdq/SDL_GameControllerDB)
      *
@@ -0,0 +1,127 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.joystick.driver;
+
+/**
+ * Filters the raw values read from an analog joystick axis before they are dispatched
+ * to the jog actions. Values within the deadband are treated as zero and the remaining range
+ * is rescaled so that the value starts from zero at the edge of the deadband. The values are then
+ * smoothed exponentially to remove noise from the stick.
+ * <p>
+ * Releasing the stick bypasses the smoothing so that the machine stops as soon as possible.
+ *
+ * @author Joacim Breiler
+ */
+public class AxisFilter {
+    /**
+     * The smallest change of the value that is considered meaningful to dispatch
+     */
+    public static final float MIN_CHANGE = 0.01f;
+
+    private float deadband;
+    private long smoothingNanos;
+    private float value;
+    private float dispatchedValue;
+    private long lastUpdateTime = -1;
+
+    /**
+     * Creates an axis filter
+     *
+     * @param deadband        the value range around zero that should be ignored, between 0.0 and 1.0
+     * @param smoothingMillis the time constant of the smoothing in milliseconds, zero disables the smoothing
+     */
+    public AxisFilter(float deadband, long smoothingMillis) {
+        setDeadband(deadband);
+        setSmoothing(smoothingMillis);
+    }
+
+    public void setDeadband(float deadband) {
+        this.deadband = Math.max(0, Math.min(deadband, 0.99f));
+    }
+
+    public void setSmoothing(long smoothingMillis) {
+        this.smoothingNanos = Math.max(0, smoothingMillis) * 1_000_000;
+    }
+
+    /**
+     * Updates the filter with a new raw value from the axis
+     *
+     * @param rawValue the value read from the axis between -1.0 and 1.0
+     * @param time     the time in nanoseconds when the value was read
+     * @return the filtered value
+     */
+    public float update(float rawValue, long time) {
+        float target = applyDeadband(rawValue);
+        if (target == 0 || smoothingNanos == 0 || lastUpdateTime < 0) {
+            value = target;
+        } else {
+            double alpha = 1 - Math.exp(-(time - lastUpdateTime) / (double) smoothingNanos);
+            value += (float) ((target - value) * alpha);
+
+            // Settle on the target to not dispatch an endless tail of tiny changes
+            if (Math.abs(target - value) < MIN_CHANGE / 2) {
+                value = target;
+            }
+        }
+
+        lastUpdateTime = time;
+        return value;
+    }
+
+    /**
+     * Returns if the filtered value has changed enough since it was last dispatched. Reaching
+     * zero or the end of the range is always considered a meaningful change.
+     *
+     * @return true if the value should be dispatched
+     */
+    public boolean hasChanged() {
+        if (value == dispatchedValue) {
+            return false;
+        }
+        return value == 0 || Math.abs(value) == 1 || Math.abs(value - dispatchedValue) >= MIN_CHANGE;
+    }
+
+    /**
+     * Marks the current value as dispatched
+     */
+    public void markDispatched() {
+        dispatchedValue = value;
+    }
+
+    public float getValue() {
+        return value;
+    }
+
+    /**
+     * Resets the filter to zero, for instance when the controller has been disconnected
+     */
+    public void reset() {
+        value = 0;
+        dispatchedValue = 0;
+        lastUpdateTime = -1;
+    }
+
+    private float applyDeadband(float rawValue) {
+        float magnitude = Math.min(Math.abs(rawValue), 1);
+        if (magnitude <= deadband) {
+            return 0;
+        }
+        return Math.copySign((magnitude - deadband) / (1 - deadband), rawValue);
+    }
+}
@@ -45,7 +45,9 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
@@ -68,14 +70,30 @@ public class JamepadJoystickDriver extends AbstractJoystickDriver {
      */
     private static final int READ_DELAY_MILLISECONDS = 1;
     private static final long CONNECT_DELAY_MILLISECONDS = 5000;
+
+    /**
+     * The number of dispatched axis updates to collect before logging the input latency
+     */
+    private static final int LATENCY_LOG_INTERVAL = 500;
     private final ExecutorService joystickReadThread;
     private ControllerManager controllerManager;
     private JamepadJoystickDevice currentDevice;
     private boolean isRunning;
     private List<ControllerButton> availableButtons;
+    private final Map<ControllerAxis, AxisFilter> axisFilters = new EnumMap<>(ControllerAxis.class);
+    private long lastAxisDispatchTime;
+
+    /**
+     * The time when the oldest axis change that hasn't yet been dispatched was read, zero if none
+     */
+    private long pendingAxisChangeTime;
+    private long latencyCount;
+    private long latencyTotal;
+    private long latencyMax;
 
     public JamepadJoystickDriver() {
         joystickReadThread = Executors.newSingleThreadExecutor();
+        Arrays.stream(ControllerAxis.values()).forEach(axis -> axisFilters.put(axis, new AxisFilter(Settings.getAxisThreshold(), Settings.getAxisSmoothing())));
     }
 
     private File writeTemporaryDbFile() throws IOException {
@@ -113,6 +131,8 @@ public class JamepadJoystickDriver extends AbstractJoystickDriver {
 
                 LOGGER.info("readDataLoop returned - possible controller unplug/replug");
                 currentDevice = null;
+                axisFilters.values().forEach(AxisFilter::reset);
+                pendingAxisChangeTime = 0;
                 joystickState.clear();
                 notifyJoystickUpdated();
                 notifyDeviceChanged();
@@ -172,25 +192,72 @@ public class JamepadJoystickDriver extends AbstractJoystickDriver {
         }
 
         Arrays.asList(ControllerButton.values()).forEach(this::updateJoystickButtonState);
-        Arrays.asList(ControllerAxis.values()).forEach(this::updateJoystickAxisState);
+        boolean buttonsChanged = joystickState.isDirty();
+
+        long time = System.nanoTime();
+        float deadband = Settings.getAxisThreshold();
+        long smoothing = Settings.getAxisSmoothing();
+        boolean axisChanged = false;
+        boolean axisStopped = false;
+        for (ControllerAxis controllerAxis : ControllerAxis.values()) {
+            AxisFilter filter = axisFilters.get(controllerAxis);
+            filter.setDeadband(deadband);
+            filter.setSmoothing(smoothing);
+            filter.update(readAxisValue(controllerAxis), time);
+            if (filter.hasChanged()) {
+                axisChanged = true;
+                axisStopped |= filter.getValue() == 0;
+            }
+        }
+
+        if (axisChanged && pendingAxisChangeTime == 0) {
+            pendingAxisChangeTime = time;
+        }
+
+        // Coalesce the axis changes to the update frequency, but never delay stopping an axis
+        long updateInterval = TimeUnit.SECONDS.toNanos(1) / Math.max(1, Settings.getAxisUpdateFrequency());
+        boolean dispatchAxes = axisChanged && (axisStopped || buttonsChanged || time - lastAxisDispatchTime >= updateInterval);
+        if (dispatchAxes) {
+            axisFilters.forEach((controllerAxis, filter) -> {
+                joystickState.setAxis(Utils.getJoystickAxisFromControllerAxis(controllerAxis), filter.getValue());
+                filter.markDispatched();
+            });
+            lastAxisDispatchTime = time;
+        }
 
         if (joystickState.isDirty()) {
             notifyJoystickUpdated();
         }
+
+        if (dispatchAxes) {
+            recordLatency(System.nanoTime() - pendingAxisChangeTime);
+            pendingAxisChangeTime = 0;
+        }
+    }
+
+    /**
+     * Records the time from when an axis change was read until it has been handled by the listeners
+     * and periodically logs the statistics.
+     *
+     * @param latency the latency in nanoseconds
+     */
+    private void recordLatency(long latency) {
+        latencyCount++;
+        latencyTotal += latency;
+        latencyMax = Math.max(latencyMax, latency);
+        if (latencyCount >= LATENCY_LOG_INTERVAL) {
+            LOGGER.fine(String.format("Joystick input latency over %d updates: average %.2fms, max %.2fms", latencyCount, latencyTotal / (latencyCount * 1_000_000d), latencyMax / 1_000_000d));
+            latencyCount = 0;
+            latencyTotal = 0;
+            latencyMax = 0;
+        }
     }
 
-    private void updateJoystickAxisState(ControllerAxis controllerAxis) throws JoystickException {
+    private float readAxisValue(ControllerAxis controllerAxis) throws JoystickException {
         try {
-            // We might have rounding errors from the controller, ignore the low value range
             float value = currentDevice.controller().getAxisState(controllerAxis);
-            float axisThreshold = Settings.getAxisThreshold();
-            if (value < axisThreshold && value > -axisThreshold) {
-                value = 0;
-            }
-
             JoystickControl axis = Utils.getJoystickAxisFromControllerAxis(controllerAxis);
-            boolean reverseAxis = Settings.isReverseAxis(axis);
-            joystickState.setAxis(axis, reverseAxis ? -value : value);
+            return Settings.isReverseAxis(axis) ? -value : value;
         } catch (ControllerUnpluggedException e) {
             throw new JoystickException("Couldn't read value from joystick axis", e);
         }
@@ -0,0 +1,81 @@
+package com.willwinder.ugs.nbp.joystick.driver;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AxisFilterTest {
+    private static final long ONE_MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void updateShouldIgnoreValuesWithinDeadband() {
+        AxisFilter filter = new AxisFilter(0.1f, 0);
+        assertEquals(0, filter.update(0.05f, 0), 0.0001);
+        assertEquals(0, filter.update(-0.1f, ONE_MILLISECOND), 0.0001);
+        assertFalse(filter.hasChanged());
+    }
+
+    @Test
+    public void updateShouldRescaleValuesOutsideDeadband() {
+        AxisFilter filter = new AxisFilter(0.2f, 0);
+        assertEquals(0.5, filter.update(0.6f, 0), 0.0001);
+        assertEquals(-1, filter.update(-1f, ONE_MILLISECOND), 0.0001);
+        assertEquals(0.125, filter.update(0.3f, 2 * ONE_MILLISECOND), 0.0001);
+    }
+
+    @Test
+    public void updateShouldSmoothValues() {
+        AxisFilter filter = new AxisFilter(0, 10);
+        filter.update(0.5f, 0);
+
+        // After one time constant the value should have moved about 63% towards the target
+        float value = filter.update(1f, 10 * ONE_MILLISECOND);
+        assertEquals(0.5 + 0.5 * 0.632, value, 0.001);
+
+        // Eventually it should settle on the target
+        for (int i = 2; i < 20; i++) {
+            value = filter.update(1f, i * 10 * ONE_MILLISECOND);
+        }
+        assertEquals(1, value, 0);
+    }
+
+    @Test
+    public void updateShouldStopImmediatelyWhenReleased() {
+        AxisFilter filter = new AxisFilter(0.1f, 100);
+        filter.update(1f, 0);
+        filter.markDispatched();
+
+        assertEquals(0, filter.update(0.02f, ONE_MILLISECOND), 0);
+        assertTrue(filter.hasChanged());
+    }
+
+    @Test
+    public void hasChangedShouldIgnoreSmallChanges() {
+        AxisFilter filter = new AxisFilter(0, 0);
+        filter.update(0.5f, 0);
+        assertTrue(filter.hasChanged());
+        filter.markDispatched();
+
+        filter.update(0.505f, ONE_MILLISECOND);
+        assertFalse(filter.hasChanged());
+
+        filter.update(0.52f, 2 * ONE_MILLISECOND);
+        assertTrue(filter.hasChanged());
+    }
+
+    @Test
+    public void resetShouldSetValueToZero() {
+        AxisFilter filter = new AxisFilter(0, 0);
+        filter.update(0.5f, 0);
+        filter.markDispatched();
+
+        filter.reset();
+
+        assertEquals(0, filter.getValue(), 0);
+        assertFalse(filter.hasChanged());
+    }
+}
@@ -152,6 +152,10 @@ public class WorkflowPanel extends JPanel {
         fileTable.setRowSelectionInterval(fileIndex, fileIndex);
     }
 
+    public File getFile(int fileIndex) {
+        return model.get(fileIndex).getFile();
+    }
+
     public String getToolName(int fileIndex) {
         return model.get(fileIndex).getTool().getName();
     }
@@ -64,6 +64,11 @@ public final class WorkflowWindowTopComponent extends TopComponent implements UG
     public final static String ACTION_ID = "com.willwinder.ugs.nbm.workflow.WorkflowWindowTopComponent";
     public final static String TITLE = Localization.getString("platform.window.workflow");
     public final static String CATEGORY = LocalizingService.CATEGORY_WINDOW;
+
+    /**
+     * The number of upcoming files to preprocess while the current file is being sent
+     */
+    private static final int LOOK_AHEAD_FILES = 2;
     private final BackendAPI backend;
     private final WorkflowPanel workflowPanel = new WorkflowPanel();
 
@@ -103,13 +108,16 @@ public final class WorkflowWindowTopComponent extends TopComponent implements UG
      * Events from backend. Take specific actions based on the control state.
      * File state change - FILE_LOADED: Add the file to the workflow, always do this if the workflow page is loaded.
      * File state change - FILE_STREAM_COMPLETE: When the file send job has finished.
+     * Stream started - Preprocess the upcoming files so that they are ready when the current job has finished.
      *
      * @param cse the event
      */
     @Override
     public void UGSEvent(UGSEvent cse) {
         if (cse instanceof StreamEvent streamEvent) {
-            if (streamEvent.getType() == StreamEventType.STREAM_COMPLETE) {
+            if (streamEvent.getType() == StreamEventType.STREAM_STARTED) {
+                preprocessUpcomingFiles(backend.getGcodeFile());
+            } else if (streamEvent.getType() == StreamEventType.STREAM_COMPLETE) {
                 completeFile(backend.getGcodeFile());
             }
         }
@@ -149,6 +157,24 @@ public final class WorkflowWindowTopComponent extends TopComponent implements UG
 
     }
 
+    /**
+     * Preprocesses the files following the current file in the background so that they can be
+     * loaded directly when the current file is completed.
+     *
+     * @param currentFile the file that is currently being sent
+     */
+    private void preprocessUpcomingFiles(File currentFile) {
+        if (currentFile == null) return;
+
+        int fileIndex = workflowPanel.getFileIndex(currentFile);
+        if (fileIndex < 0) return;
+
+        int lastFileIndex = Math.min(fileIndex + LOOK_AHEAD_FILES, workflowPanel.getFileCount() - 1);
+        for (int i = fileIndex + 1; i <= lastFileIndex; i++) {
+            backend.preprocessGcodeFile(workflowPanel.getFile(i));
+        }
+    }
+
     private String getMessage(File completedFile) {
         String message;
 
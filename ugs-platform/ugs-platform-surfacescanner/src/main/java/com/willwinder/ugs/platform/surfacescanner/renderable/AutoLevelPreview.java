@@ -19,36 +19,53 @@
 package com.willwinder.ugs.platform.surfacescanner.renderable;
 
 import com.google.common.collect.ImmutableCollection;
-import com.google.common.collect.Iterables;
+import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2;
 import com.jogamp.opengl.GLAutoDrawable;
+import static com.jogamp.opengl.fixedfunc.GLPointerFunc.GL_COLOR_ARRAY;
+import static com.jogamp.opengl.fixedfunc.GLPointerFunc.GL_VERTEX_ARRAY;
 import com.jogamp.opengl.util.gl2.GLUT;
 import com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions;
 import static com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions.VISUALIZER_OPTION_AUTOLEVEL_PREVIEW;
 import com.willwinder.ugs.nbm.visualizer.shared.Renderable;
-import com.willwinder.universalgcodesender.model.CNCPoint;
 import com.willwinder.universalgcodesender.model.Position;
 import com.willwinder.universalgcodesender.model.UnitUtils;
 import com.willwinder.universalgcodesender.model.UnitUtils.Units;
 
-import java.util.Arrays;
-import java.util.stream.DoubleStream;
+import java.nio.Buffer;
 
 /**
  * @author wwinder
  */
 public class AutoLevelPreview extends Renderable {
+    private static final int VERTEX_BUFFER = 0;
+    private static final int COLOR_BUFFER = 1;
+
     private final GLUT glut;
 
-    private ImmutableCollection<Position> positions;
-    private Position[][] grid = null;
+    private volatile ImmutableCollection<Position> positions;
+    private Units units;
+
+    /**
+     * The bounds of the probe start positions
+     */
+    private Position probeMin;
+    private Position probeMax;
+
+    /**
+     * The probed surface, rebuilt incrementally as the probe rows are changed
+     */
+    private volatile SurfaceMesh surfaceMesh;
 
-    // The maximum distance of a probe used for coloring.
-    private double maxZ;
-    private double minZ;
+    /**
+     * The surface mesh that has been uploaded to the vertex buffers
+     */
+    private SurfaceMesh uploadedSurfaceMesh;
+    private final int[] bufferIds = new int[2];
+    private boolean vertexBuffersSupported;
 
-    private float[] high = {0, 255, 0}; // green
-    private float[] low = {255, 0, 0}; // red
+    private float[] high = {0, 1, 0, 1}; // green
+    private float[] low = {1, 0, 0, 1}; // red
 
     public AutoLevelPreview(String title) {
         super(10, title, VISUALIZER_OPTION_AUTOLEVEL_PREVIEW);
@@ -70,6 +87,19 @@ public class AutoLevelPreview extends Renderable {
 
     @Override
     public void init(GLAutoDrawable drawable) {
+        GL2 gl = drawable.getGL().getGL2();
+        vertexBuffersSupported = gl.isFunctionAvailable("glGenBuffers")
+                && gl.isFunctionAvailable("glBindBuffer")
+                && gl.isFunctionAvailable("glBufferData")
+                && gl.isFunctionAvailable("glBufferSubData")
+                && gl.isFunctionAvailable("glDeleteBuffers");
+
+        if (vertexBuffersSupported) {
+            gl.glGenBuffers(bufferIds.length, bufferIds, 0);
+        }
+
+        // Force the mesh to be uploaded to the new buffers
+        uploadedSurfaceMesh = null;
     }
 
     @Override
@@ -77,73 +107,72 @@ public class AutoLevelPreview extends Renderable {
         super.reloadPreferences(vo);
         high = VisualizerOptions.colorToFloatArray(vo.getOptionForKey(VisualizerOptions.VISUALIZER_OPTION_HIGH).value);
         low = VisualizerOptions.colorToFloatArray(vo.getOptionForKey(VisualizerOptions.VISUALIZER_OPTION_LOW).value);
+
+        SurfaceMesh mesh = surfaceMesh;
+        if (mesh != null) {
+            mesh.setColors(low, high);
+        }
     }
 
     public void updateSettings(
             ImmutableCollection<Position> positions,
             final Position[][] grid) {
-        if (positions != null && !positions.isEmpty()) {
+        if (positions == null || positions.isEmpty()) {
+            return;
+        }
+
+        if (!positions.equals(this.positions)) {
+            updateProbeBounds(positions);
             this.positions = positions;
-            this.grid = grid;
-            updateMinMaxZ();
         }
+
+        // Only the rows of the grid that has changed will be rebuilt
+        SurfaceMesh mesh = surfaceMesh;
+        if (mesh == null || !mesh.hasSameSize(grid)) {
+            mesh = new SurfaceMesh(grid);
+            mesh.setColors(low, high);
+        }
+        mesh.update(grid);
+        surfaceMesh = mesh;
     }
 
     @Override
     public void draw(GLAutoDrawable drawable, boolean idle, Position machineCoord, Position workCoord, Position objectMin, Position objectMax, double scaleFactor, Position mouseWorldCoordinates, Position rotation) {
+        ImmutableCollection<Position> currentPositions = positions;
 
         // Don't draw something invalid.
-        if (positions == null || positions.isEmpty()) {
+        if (currentPositions == null || currentPositions.isEmpty()) {
             return;
         }
 
-        Position first = Iterables.getFirst(positions, null);
-        Units unit = first.getUnits();
-
         double objectX = objectMax.x - objectMin.x;
         double objectY = objectMax.y - objectMin.y;
         double diameter = Math.max(objectX * 0.005, objectY * 0.005);
 
-        double minx, miny;
-        double maxx, maxy;
-        double minz, maxz;
-
-        minx = maxx = first.x;
-        miny = maxy = first.y;
-        minz = maxz = first.z;
-
         GL2 gl = drawable.getGL().getGL2();
         gl.glPushMatrix();
         // Scale inch to mm if needed
-        double scale = UnitUtils.scaleUnits(unit, Units.MM);
-        if (unit != Units.MM) {
+        double scale = UnitUtils.scaleUnits(units, Units.MM);
+        if (units != Units.MM) {
             gl.glScaled(scale, scale, scale);
         }
 
         // Balls indicating the probe start locations.
         gl.glColor4fv(new float[]{0.1f, 0.1f, 0.1f, 1.0f}, 0);
-        for (Position p : positions) {
+        for (Position p : currentPositions) {
             gl.glPushMatrix();
             gl.glTranslated(p.x, p.y, p.z);
             glut.glutSolidSphere(diameter / scale, 7, 7);
-
-            // update min/max
-            minx = Math.min(minx, p.x);
-            maxx = Math.max(maxx, p.x);
-            miny = Math.min(miny, p.y);
-            maxz = Math.max(maxz, p.z);
-            minz = Math.min(minz, p.z);
-            maxy = Math.max(maxy, p.y);
             gl.glPopMatrix();
         }
 
         // Outline of probe area
         gl.glPushMatrix();
         gl.glTranslated(
-                (minx + maxx) / 2,
-                (miny + maxy) / 2,
-                (minz + maxz) / 2);
-        gl.glScaled(maxx - minx, maxy - miny, maxz - minz);
+                (probeMin.x + probeMax.x) / 2,
+                (probeMin.y + probeMax.y) / 2,
+                (probeMin.z + probeMax.z) / 2);
+        gl.glScaled(probeMax.x - probeMin.x, probeMax.y - probeMin.y, probeMax.z - probeMin.z);
         gl.glColor4fv(new float[]{0.3f, 0, 0, 0.1f}, 0);
         glut.glutWireCube((float) 1.);
         gl.glPopMatrix();
@@ -152,90 +181,85 @@ public class AutoLevelPreview extends Renderable {
         gl.glPopMatrix();
     }
 
-    private void setColorForZ(GL2 gl, double zPos) {
-        float ratio = (float) ((zPos - minZ) / (maxZ - minZ));
-        float r = ratio * high[0] + (1 - ratio) * low[0];
-        float g = ratio * high[1] + (1 - ratio) * low[1];
-        float b = ratio * high[2] + (1 - ratio) * low[2];
-        float a = ratio * high[3] + (1 - ratio) * low[3];
-
-        gl.glColor4f(r, g, b, a);
-    }
-
     private void drawProbedSurface(GL2 gl) {
-        if (this.grid == null) {
+        SurfaceMesh mesh = surfaceMesh;
+        if (mesh == null || mesh.getVertexCount() == 0) {
             return;
         }
 
-        /*
-    0,5 ?   ?   ?   ?   ? 5,5
-
-        *   ?   ?   ?   ?
-          \
-        *   *   ?   ?   ?
-          x   \
-        *   *   *   ?   ?
-          x   x   \
-    0,0 *   *   *   *   ? 5,0
-
-        */
-
-        gl.glBegin(GL2.GL_TRIANGLES);
-        int xLen = this.grid.length;
-        for (int x = 0; x < xLen - 1; x++) {
-            if (this.grid[x] == null || this.grid[x + 1] == null) {
-                continue;
-            }
-
-            for (int y = 0; y < this.grid[x].length - 1; y++) {
-                Position pos1 = this.grid[x][y];
-                Position pos2 = this.grid[x + 1][y];
-                Position pos3 = this.grid[x][y + 1];
-                Position pos4 = this.grid[x + 1][y + 1];
-
-                // Bottom left of quad
-                if (pos1 != null && pos2 != null && pos3 != null) {
-                    setColorForZ(gl, pos1.z);
-                    gl.glVertex3d(pos1.x, pos1.y, pos1.z); // Left Of Triangle (Front)
-
-                    setColorForZ(gl, pos3.z);
-                    gl.glVertex3d(pos3.x, pos3.y, pos3.z); // Top Of Triangle (Front)
-
-                    setColorForZ(gl, pos2.z);
-                    gl.glVertex3d(pos2.x, pos2.y, pos2.z); // Right Of Triangle (Front)
-                }
-                // Top right of quad
-                if (pos2 != null && pos3 != null && pos4 != null) {
-                    setColorForZ(gl, pos4.z);
-                    gl.glVertex3d(pos4.x, pos4.y, pos4.z); // Right Of Triangle (Front)
-
-                    setColorForZ(gl, pos3.z);
-                    gl.glVertex3d(pos3.x, pos3.y, pos3.z); // Top Of Triangle (Front)
-
-                    setColorForZ(gl, pos2.z);
-                    gl.glVertex3d(pos2.x, pos2.y, pos2.z); // Left Of Triangle (Front)
-                }
-            }
+        gl.glEnableClientState(GL_VERTEX_ARRAY);
+        gl.glEnableClientState(GL_COLOR_ARRAY);
+        if (vertexBuffersSupported) {
+            uploadSurfaceMesh(gl, mesh);
+
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferIds[VERTEX_BUFFER]);
+            gl.glVertexPointer(3, GL.GL_FLOAT, 0, 0L);
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferIds[COLOR_BUFFER]);
+            gl.glColorPointer(4, GL.GL_FLOAT, 0, 0L);
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+        } else {
+            // Fall back on client side vertex arrays
+            mesh.rebuildDirtyStrips((firstVertex, vertexCount) -> {
+            });
+            gl.glVertexPointer(3, GL.GL_FLOAT, 0, mesh.getVertices());
+            gl.glColorPointer(4, GL.GL_FLOAT, 0, mesh.getColors());
         }
 
-        gl.glEnd();
+        gl.glDrawArrays(GL.GL_TRIANGLES, 0, mesh.getVertexCount());
+        gl.glDisableClientState(GL_COLOR_ARRAY);
+        gl.glDisableClientState(GL_VERTEX_ARRAY);
     }
 
-    private void updateMinMaxZ() {
-        // Figure out the min/max scanned points
-        minZ = getGridZStream()
-                .min()
-                .orElse(0);
+    /**
+     * Uploads the strips of the mesh that has changed since the last frame. If the mesh was
+     * replaced, the buffers are reallocated with the size of the new mesh.
+     */
+    private void uploadSurfaceMesh(GL2 gl, SurfaceMesh mesh) {
+        if (uploadedSurfaceMesh != mesh) {
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferIds[VERTEX_BUFFER]);
+            gl.glBufferData(GL.GL_ARRAY_BUFFER, (long) mesh.getVertexCount() * 3 * Float.BYTES, null, GL.GL_DYNAMIC_DRAW);
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferIds[COLOR_BUFFER]);
+            gl.glBufferData(GL.GL_ARRAY_BUFFER, (long) mesh.getVertexCount() * 4 * Float.BYTES, null, GL.GL_DYNAMIC_DRAW);
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+            mesh.setAllDirty();
+            uploadedSurfaceMesh = mesh;
+        }
 
-        maxZ = getGridZStream()
-                .max()
-                .orElse(0);
+        if (!mesh.isDirty()) {
+            return;
+        }
+
+        mesh.rebuildDirtyStrips((firstVertex, vertexCount) -> {
+            ((Buffer) mesh.getVertices()).limit((firstVertex + vertexCount) * 3);
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferIds[VERTEX_BUFFER]);
+            gl.glBufferSubData(GL.GL_ARRAY_BUFFER, (long) firstVertex * 3 * Float.BYTES, (long) vertexCount * 3 * Float.BYTES, mesh.getVertices());
+            ((Buffer) mesh.getVertices()).limit(mesh.getVertices().capacity());
+
+            ((Buffer) mesh.getColors()).limit((firstVertex + vertexCount) * 4);
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferIds[COLOR_BUFFER]);
+            gl.glBufferSubData(GL.GL_ARRAY_BUFFER, (long) firstVertex * 4 * Float.BYTES, (long) vertexCount * 4 * Float.BYTES, mesh.getColors());
+            ((Buffer) mesh.getColors()).limit(mesh.getColors().capacity());
+        });
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
     }
 
-    private DoubleStream getGridZStream() {
-        return Arrays.stream(grid).flatMap(Arrays::stream)
-                .mapToDouble(CNCPoint::getZ)
-                .filter(z -> !Double.isNaN(z));
+    private void updateProbeBounds(ImmutableCollection<Position> positions) {
+        Position first = positions.iterator().next();
+        double minx = first.x, maxx = first.x;
+        double miny = first.y, maxy = first.y;
+        double minz = first.z, maxz = first.z;
+        for (Position p : positions) {
+            minx = Math.min(minx, p.x);
+            maxx = Math.max(maxx, p.x);
+            miny = Math.min(miny, p.y);
+            maxy = Math.max(maxy, p.y);
+            minz = Math.min(minz, p.z);
+            maxz = Math.max(maxz, p.z);
+        }
+
+        units = first.getUnits();
+        probeMin = new Position(minx, miny, minz, units);
+        probeMax = new Position(maxx, maxy, maxz, units);
     }
 
     @Override
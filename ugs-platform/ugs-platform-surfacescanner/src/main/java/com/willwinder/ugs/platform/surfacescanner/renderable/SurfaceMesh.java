@@ -0,0 +1,318 @@
+/*
+    Copyright 2025 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.platform.surfacescanner.renderable;
+
+import com.jogamp.common.nio.Buffers;
+import com.willwinder.universalgcodesender.model.Position;
+
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Keeps the triangles of a probed surface in vertex and color buffers that can be uploaded to
+ * a vertex buffer object. The mesh is divided into strips, one between each pair of adjacent
+ * probe rows in the grid, so that only the strips touching probe points that have changed needs
+ * to be rebuilt while the surface is being scanned.
+ * <p>
+ * Each vertex is colored by its height, going from the low color at the lowest probed point to the
+ * high color at the highest probed point. If the height range changes all strips are rebuilt.
+ *
+ * <pre>
+ *     0,5 ?   ?   ?   ?   ? 5,5
+ *
+ *         *   ?   ?   ?   ?
+ *           \
+ *         *   *   ?   ?   ?
+ *           x   \
+ *         *   *   *   ?   ?
+ *           x   x   \
+ *     0,0 *   *   *   *   ? 5,0
+ * </pre>
+ *
+ * @author Joacim Breiler
+ */
+public class SurfaceMesh {
+    /**
+     * Two triangles for each cell in the grid
+     */
+    public static final int VERTICES_PER_CELL = 6;
+
+    private final int rows;
+    private final int columns;
+
+    /**
+     * A copy of the probe points (x, y, z) used for detecting which rows that have changed
+     */
+    private final double[] points;
+    private final BitSet dirtyStrips;
+    private final FloatBuffer vertices;
+    private final FloatBuffer colors;
+
+    private float[] lowColor = {1, 0, 0, 1};
+    private float[] highColor = {0, 1, 0, 1};
+    private double minZ = Double.NaN;
+    private double maxZ = Double.NaN;
+
+    /**
+     * A callback for each strip of the mesh that has been rebuilt
+     */
+    public interface StripListener {
+        /**
+         * @param firstVertex the index of the first vertex in the strip
+         * @param vertexCount the number of vertices in the strip
+         */
+        void onStripUpdated(int firstVertex, int vertexCount);
+    }
+
+    /**
+     * Creates a mesh with the same size as the given probe grid
+     *
+     * @param grid the probe positions indexed by [x][y]
+     */
+    public SurfaceMesh(Position[][] grid) {
+        this.rows = grid.length;
+        this.columns = rows > 0 ? grid[0].length : 0;
+        this.points = new double[rows * columns * 3];
+        Arrays.fill(points, Double.NaN);
+        this.dirtyStrips = new BitSet(getStripCount());
+        this.vertices = Buffers.newDirectFloatBuffer(Math.max(1, getVertexCount() * 3));
+        this.colors = Buffers.newDirectFloatBuffer(Math.max(1, getVertexCount() * 4));
+        dirtyStrips.set(0, getStripCount());
+    }
+
+    /**
+     * Returns true if this mesh has the same dimensions as the given grid
+     *
+     * @param grid the probe positions indexed by [x][y]
+     * @return true if the mesh can be updated with the grid
+     */
+    public boolean hasSameSize(Position[][] grid) {
+        if (grid.length != rows) {
+            return false;
+        }
+
+        for (Position[] row : grid) {
+            if (row == null || row.length != columns) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Updates the mesh with the probe positions from the grid, marking the strips next to any changed
+     * points as dirty.
+     *
+     * @param grid the probe positions indexed by [x][y], needs to have the same size as the mesh
+     */
+    public synchronized void update(Position[][] grid) {
+        for (int x = 0; x < rows; x++) {
+            for (int y = 0; y < columns; y++) {
+                Position position = grid[x][y];
+                int index = (x * columns + y) * 3;
+                if (position == null) {
+                    if (setPoint(index, Double.NaN, Double.NaN, Double.NaN)) {
+                        setRowDirty(x);
+                    }
+                } else if (setPoint(index, position.x, position.y, position.z)) {
+                    setRowDirty(x);
+                }
+            }
+        }
+
+        updateMinMaxZ();
+    }
+
+    /**
+     * Sets the colors used for the lowest and highest point, this will rebuild all strips
+     *
+     * @param lowColor  the color of the lowest point as RGBA
+     * @param highColor the color of the highest point as RGBA
+     */
+    public synchronized void setColors(float[] lowColor, float[] highColor) {
+        if (!Arrays.equals(this.lowColor, lowColor) || !Arrays.equals(this.highColor, highColor)) {
+            this.lowColor = Arrays.copyOf(lowColor, 4);
+            this.highColor = Arrays.copyOf(highColor, 4);
+            dirtyStrips.set(0, getStripCount());
+        }
+    }
+
+    /**
+     * Marks all strips as dirty, for instance if the buffer containing the vertices was lost
+     */
+    public synchronized void setAllDirty() {
+        dirtyStrips.set(0, getStripCount());
+    }
+
+    /**
+     * Returns true if any strips needs to be rebuilt
+     *
+     * @return true if there are dirty strips
+     */
+    public synchronized boolean isDirty() {
+        return !dirtyStrips.isEmpty();
+    }
+
+    /**
+     * Rebuilds the vertices and colors of all dirty strips, notifying the listener of each
+     * rebuilt strip so that the corresponding part of the buffers can be uploaded.
+     *
+     * @param listener a listener to notify for each rebuilt strip
+     */
+    public synchronized void rebuildDirtyStrips(StripListener listener) {
+        int verticesPerStrip = getVerticesPerStrip();
+        for (int strip = dirtyStrips.nextSetBit(0); strip >= 0; strip = dirtyStrips.nextSetBit(strip + 1)) {
+            int firstVertex = strip * verticesPerStrip;
+            ((Buffer) vertices).position(firstVertex * 3);
+            ((Buffer) colors).position(firstVertex * 4);
+            for (int y = 0; y < columns - 1; y++) {
+                int point1 = strip * columns + y;
+                int point2 = (strip + 1) * columns + y;
+                int point3 = strip * columns + y + 1;
+                int point4 = (strip + 1) * columns + y + 1;
+
+                // Bottom left of quad
+                addTriangle(point1, point3, point2);
+
+                // Top right of quad
+                addTriangle(point4, point3, point2);
+            }
+
+            ((Buffer) vertices).position(firstVertex * 3);
+            ((Buffer) colors).position(firstVertex * 4);
+            listener.onStripUpdated(firstVertex, verticesPerStrip);
+        }
+
+        dirtyStrips.clear();
+        ((Buffer) vertices).rewind();
+        ((Buffer) colors).rewind();
+    }
+
+    /**
+     * Returns the vertices of the whole mesh with three floats per vertex. The buffer
+     * position is set to the first vertex of the strip while notifying a {@link StripListener}.
+     *
+     * @return the vertex buffer
+     */
+    public FloatBuffer getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Returns the colors of the whole mesh with four floats (RGBA) per vertex. The buffer
+     * position is set to the first vertex of the strip while notifying a {@link StripListener}.
+     *
+     * @return the color buffer
+     */
+    public FloatBuffer getColors() {
+        return colors;
+    }
+
+    public int getStripCount() {
+        return Math.max(0, rows - 1);
+    }
+
+    public int getVerticesPerStrip() {
+        return Math.max(0, columns - 1) * VERTICES_PER_CELL;
+    }
+
+    public int getVertexCount() {
+        return getStripCount() * getVerticesPerStrip();
+    }
+
+    public synchronized double getMinZ() {
+        return minZ;
+    }
+
+    public synchronized double getMaxZ() {
+        return maxZ;
+    }
+
+    private boolean setPoint(int index, double x, double y, double z) {
+        if (Double.compare(points[index], x) == 0 && Double.compare(points[index + 1], y) == 0 && Double.compare(points[index + 2], z) == 0) {
+            return false;
+        }
+
+        points[index] = x;
+        points[index + 1] = y;
+        points[index + 2] = z;
+        return true;
+    }
+
+    private void setRowDirty(int row) {
+        if (row > 0) {
+            dirtyStrips.set(row - 1);
+        }
+
+        if (row < getStripCount()) {
+            dirtyStrips.set(row);
+        }
+    }
+
+    private void updateMinMaxZ() {
+        double newMinZ = Double.NaN;
+        double newMaxZ = Double.NaN;
+        for (int i = 2; i < points.length; i += 3) {
+            double z = points[i];
+            if (!Double.isNaN(z)) {
+                newMinZ = Double.isNaN(newMinZ) ? z : Math.min(newMinZ, z);
+                newMaxZ = Double.isNaN(newMaxZ) ? z : Math.max(newMaxZ, z);
+            }
+        }
+
+        // The colors of all vertices depends on the height range
+        if (Double.compare(newMinZ, minZ) != 0 || Double.compare(newMaxZ, maxZ) != 0) {
+            minZ = newMinZ;
+            maxZ = newMaxZ;
+            dirtyStrips.set(0, getStripCount());
+        }
+    }
+
+    private void addTriangle(int point1, int point2, int point3) {
+        if (!isProbed(point1) || !isProbed(point2) || !isProbed(point3)) {
+            // Add a degenerate triangle that won't be rendered to keep the layout of the buffer
+            for (int i = 0; i < 3; i++) {
+                vertices.put(0).put(0).put(0);
+                colors.put(0).put(0).put(0).put(0);
+            }
+            return;
+        }
+
+        addVertex(point1);
+        addVertex(point2);
+        addVertex(point3);
+    }
+
+    private void addVertex(int point) {
+        int index = point * 3;
+        vertices.put((float) points[index]).put((float) points[index + 1]).put((float) points[index + 2]);
+
+        double range = maxZ - minZ;
+        float ratio = range > 0 ? (float) ((points[index + 2] - minZ) / range) : 1f;
+        for (int i = 0; i < 4; i++) {
+            colors.put(ratio * highColor[i] + (1 - ratio) * lowColor[i]);
+        }
+    }
+
+    private boolean isProbed(int point) {
+        return !Double.isNaN(points[point * 3 + 2]);
+    }
+}
@@ -0,0 +1,142 @@
+package com.willwinder.ugs.platform.surfacescanner.renderable;
+
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SurfaceMeshTest {
+    private static final float[] LOW = {1, 0, 0, 1};
+    private static final float[] HIGH = {0, 1, 0, 1};
+
+    @Test
+    public void meshShouldHaveOneStripBetweenEachRow() {
+        SurfaceMesh mesh = new SurfaceMesh(createGrid(4, 3));
+        assertEquals(3, mesh.getStripCount());
+        assertEquals(2 * SurfaceMesh.VERTICES_PER_CELL, mesh.getVerticesPerStrip());
+        assertEquals(3 * 2 * SurfaceMesh.VERTICES_PER_CELL, mesh.getVertexCount());
+    }
+
+    @Test
+    public void rebuildDirtyStripsShouldOnlyRebuildStripsNextToChangedRows() {
+        Position[][] grid = createGrid(4, 3);
+        SurfaceMesh mesh = new SurfaceMesh(grid);
+        mesh.setColors(LOW, HIGH);
+        grid[0][0].z = 0;
+        grid[3][2].z = 1;
+        mesh.update(grid);
+        mesh.rebuildDirtyStrips((firstVertex, vertexCount) -> {
+        });
+        assertFalse(mesh.isDirty());
+
+        // Changing a point without changing the height range
+        grid[1][1].z = 0.5;
+        mesh.update(grid);
+
+        List<Integer> rebuiltVertices = new ArrayList<>();
+        mesh.rebuildDirtyStrips((firstVertex, vertexCount) -> rebuiltVertices.add(firstVertex));
+        assertEquals(List.of(0, mesh.getVerticesPerStrip()), rebuiltVertices);
+    }
+
+    @Test
+    public void updateShouldRebuildAllStripsWhenHeightRangeChanges() {
+        Position[][] grid = createGrid(4, 3);
+        SurfaceMesh mesh = new SurfaceMesh(grid);
+        grid[0][0].z = 0;
+        grid[0][1].z = 1;
+        mesh.update(grid);
+        mesh.rebuildDirtyStrips((firstVertex, vertexCount) -> {
+        });
+
+        grid[3][2].z = 2;
+        mesh.update(grid);
+
+        List<Integer> rebuiltVertices = new ArrayList<>();
+        mesh.rebuildDirtyStrips((firstVertex, vertexCount) -> rebuiltVertices.add(firstVertex));
+        assertEquals(3, rebuiltVertices.size());
+        assertEquals(0, mesh.getMinZ(), 0.001);
+        assertEquals(2, mesh.getMaxZ(), 0.001);
+    }
+
+    @Test
+    public void updateWithoutChangesShouldNotMakeMeshDirty() {
+        Position[][] grid = createGrid(3, 3);
+        SurfaceMesh mesh = new SurfaceMesh(grid);
+        mesh.update(grid);
+        mesh.rebuildDirtyStrips((firstVertex, vertexCount) -> {
+        });
+
+        mesh.update(grid);
+        assertFalse(mesh.isDirty());
+    }
+
+    @Test
+    public void rebuildDirtyStripsShouldColorVerticesByHeight() {
+        Position[][] grid = createGrid(2, 2);
+        grid[0][0].z = 0;
+        grid[1][0].z = 0;
+        grid[0][1].z = 1;
+        grid[1][1].z = 1;
+
+        SurfaceMesh mesh = new SurfaceMesh(grid);
+        mesh.setColors(LOW, HIGH);
+        mesh.update(grid);
+        mesh.rebuildDirtyStrips((firstVertex, vertexCount) -> {
+        });
+
+        // The first vertex is the lowest point
+        assertEquals(0, mesh.getVertices().get(2), 0.001);
+        assertEquals(1, mesh.getColors().get(0), 0.001);
+        assertEquals(0, mesh.getColors().get(1), 0.001);
+
+        // The second vertex is the highest point
+        assertEquals(1, mesh.getVertices().get(5), 0.001);
+        assertEquals(0, mesh.getColors().get(4), 0.001);
+        assertEquals(1, mesh.getColors().get(5), 0.001);
+    }
+
+    @Test
+    public void rebuildDirtyStripsShouldCollapseTrianglesWithPointsNotProbed() {
+        Position[][] grid = createGrid(2, 2);
+        grid[0][0].z = 1;
+        grid[1][0].z = 1;
+        grid[0][1].z = 1;
+
+        SurfaceMesh mesh = new SurfaceMesh(grid);
+        mesh.update(grid);
+        mesh.rebuildDirtyStrips((firstVertex, vertexCount) -> {
+        });
+
+        // The first triangle is complete
+        assertEquals(1, mesh.getVertices().get(2), 0.001);
+
+        // The second triangle needs the fourth point
+        for (int i = 9; i < 18; i++) {
+            assertEquals(0, mesh.getVertices().get(i), 0.001);
+        }
+    }
+
+    @Test
+    public void hasSameSizeShouldCompareGridDimensions() {
+        SurfaceMesh mesh = new SurfaceMesh(createGrid(3, 2));
+        assertTrue(mesh.hasSameSize(createGrid(3, 2)));
+        assertFalse(mesh.hasSameSize(createGrid(2, 3)));
+        assertFalse(mesh.hasSameSize(createGrid(3, 3)));
+    }
+
+    private static Position[][] createGrid(int xLength, int yLength) {
+        Position[][] grid = new Position[xLength][yLength];
+        for (int x = 0; x < xLength; x++) {
+            for (int y = 0; y < yLength; y++) {
+                grid[x][y] = new Position(x, y, Double.NaN, UnitUtils.Units.MM);
+            }
+        }
+        return grid;
+    }
+}
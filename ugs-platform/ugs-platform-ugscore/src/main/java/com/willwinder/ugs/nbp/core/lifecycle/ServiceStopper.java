@@ -34,6 +34,7 @@ public class ServiceStopper implements Runnable {
         // Save settings.
         Settings settings = CentralLookup.getDefault().lookup(Settings.class);
         SettingsFactory.saveSettings(settings);
+        SettingsFactory.flushSettings();
     }
     
 }
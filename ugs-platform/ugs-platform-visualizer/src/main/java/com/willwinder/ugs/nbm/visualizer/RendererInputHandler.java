@@ -33,7 +33,9 @@ import com.willwinder.universalgcodesender.model.UnitUtils.Units;
 import com.willwinder.universalgcodesender.model.events.CommandEvent;
 import com.willwinder.universalgcodesender.model.events.CommandEventType;
 import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
+import com.willwinder.universalgcodesender.model.events.FilePreprocessedEvent;
 import com.willwinder.universalgcodesender.model.events.FileStateEvent;
+import com.willwinder.universalgcodesender.model.events.PreprocessedFileDiscardedEvent;
 import com.willwinder.universalgcodesender.utils.Settings;
 import com.willwinder.universalgcodesender.utils.Settings.FileStats;
 
@@ -156,6 +158,10 @@ public class RendererInputHandler implements
             }
 
             animator.resume();
+        } else if (cse instanceof FilePreprocessedEvent filePreprocessedEvent) {
+            gcodeModel.preloadGcodeFile(filePreprocessedEvent.getProcessedFile().getAbsolutePath());
+        } else if (cse instanceof PreprocessedFileDiscardedEvent preprocessedFileDiscardedEvent) {
+            gcodeModel.discardPreloadedGcodeFile(preprocessedFileDiscardedEvent.getProcessedFile().getAbsolutePath());
         } else if (cse instanceof ControllerStatusEvent controllerStatusEvent) {
             gcodeRenderer.setMachineCoordinate(controllerStatusEvent.getStatus().getMachineCoord());
             gcodeRenderer.setWorkCoordinate(controllerStatusEvent.getStatus().getWorkCoord());
@@ -40,19 +40,26 @@ import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
 import com.willwinder.universalgcodesender.utils.GUIHelpers;
 import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.ThreadHelper;
+import com.willwinder.universalgcodesender.utils.TiledGcodeStreamReader;
 import com.willwinder.universalgcodesender.visualizer.GcodeViewParse;
 import com.willwinder.universalgcodesender.visualizer.LineSegment;
 import com.willwinder.universalgcodesender.visualizer.VisualizerUtils;
 
 import java.awt.Color;
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -62,6 +69,16 @@ import java.util.logging.Logger;
 public class GcodeModel extends Renderable implements UGSEventListener {
     public static final double ARC_SEGMENT_LENGTH = 0.8;
     private static final Logger logger = Logger.getLogger(GcodeModel.class.getName());
+
+    /**
+     * The maximum number of preloaded files to keep
+     */
+    private static final int MAX_PRELOADED_GEOMETRIES = 2;
+
+    /**
+     * Files with more line segments than this will not be preloaded
+     */
+    private static final int MAX_PRELOADED_LINE_SEGMENTS = 1_000_000;
     private final GcodeLineColorizer colorizer = new GcodeLineColorizer();
     private final BackendAPI backend;
     private boolean colorArrayDirty;
@@ -84,6 +101,13 @@ public class GcodeModel extends Renderable implements UGSEventListener {
     private Position objectMax;
     private Position objectSize;
 
+    // Geometry of preprocessed files that may be loaded next, guarded by itself
+    private final Map<String, GcodeGeometry> preloadedGeometries = new LinkedHashMap<>();
+    private final ExecutorService preloadExecutor = ThreadHelper.createLowPriorityExecutor("Visualizer preloader");
+
+    private record GcodeGeometry(List<LineSegment> lineSegments, Position min, Position max, double maxSpindleSpeed, double maxFeedRate) {
+    }
+
     public GcodeModel(String title, BackendAPI backend) {
         super(10, title, VISUALIZER_OPTION_MODEL);
         objectSize = new Position(0, 0, 0);
@@ -114,6 +138,54 @@ public class GcodeModel extends Renderable implements UGSEventListener {
         return result;
     }
 
+    /**
+     * Builds the geometry of a processed gcode file in the background so that it can be shown
+     * without delay if the file is loaded later. Only the most recently preloaded files are kept.
+     *
+     * @param file the processed gcode file
+     */
+    public void preloadGcodeFile(String file) {
+        preloadExecutor.execute(() -> {
+            synchronized (preloadedGeometries) {
+                if (preloadedGeometries.containsKey(file)) {
+                    return;
+                }
+            }
+
+            try {
+                GcodeGeometry geometry = loadGeometry(file);
+                if (geometry.lineSegments().size() > MAX_PRELOADED_LINE_SEGMENTS) {
+                    return;
+                }
+
+                synchronized (preloadedGeometries) {
+                    preloadedGeometries.put(file, geometry);
+                    Iterator<GcodeGeometry> iterator = preloadedGeometries.values().iterator();
+                    while (preloadedGeometries.size() > MAX_PRELOADED_GEOMETRIES && iterator.hasNext()) {
+                        iterator.next();
+                        iterator.remove();
+                    }
+                }
+            } catch (GcodeParserException | IOException e) {
+                logger.log(Level.WARNING, "Could not preload the gcode file " + file, e);
+            }
+        });
+    }
+
+    /**
+     * Releases the preloaded geometry of a processed gcode file that has been discarded. This is done
+     * in the preloader thread so that a file that is currently being preloaded is also released.
+     *
+     * @param file the processed gcode file
+     */
+    public void discardPreloadedGcodeFile(String file) {
+        preloadExecutor.execute(() -> {
+            synchronized (preloadedGeometries) {
+                preloadedGeometries.remove(file);
+            }
+        });
+    }
+
     /**
      * This is used to gray out completed commands.
      */
@@ -214,21 +286,18 @@ public class GcodeModel extends Renderable implements UGSEventListener {
 
         try {
             logger.log(Level.INFO, "About to process {}", gcodeFile);
-            GcodeViewParse gcvp = new GcodeViewParse();
-            gcodeLineList = loadModel(gcvp);
-
-            // Convert LineSegments to points.
-            this.pointList = new ArrayList<>(gcodeLineList.size());
-
-            for (LineSegment ls : gcodeLineList) {
-                this.pointList.add(VisualizerUtils.toCartesian(ls));
+            GcodeGeometry geometry = takePreloadedGeometry(gcodeFile);
+            if (geometry == null) {
+                geometry = loadGeometry(gcodeFile);
             }
+
+            this.pointList = geometry.lineSegments();
             gcodeLineList = pointList;
 
-            this.objectMin = gcvp.getMinimumExtremes();
-            this.objectMax = gcvp.getMaximumExtremes();
-            this.colorizer.setMaxSpindleSpeed(gcvp.getMaxSpindleSpeed());
-            this.colorizer.setMaxFeedRate(gcvp.getMaxFeedRate());
+            this.objectMin = geometry.min();
+            this.objectMax = geometry.max();
+            this.colorizer.setMaxSpindleSpeed(geometry.maxSpindleSpeed());
+            this.colorizer.setMaxFeedRate(geometry.maxFeedRate());
 
             if (gcodeLineList.isEmpty()) {
                 return false;
@@ -264,16 +333,52 @@ public class GcodeModel extends Renderable implements UGSEventListener {
         return true;
     }
 
-    private List<LineSegment> loadModel(GcodeViewParse gcvp) throws IOException, GcodeParserException {
-        try (IGcodeStreamReader gsr = new GcodeStreamReader(new File(gcodeFile), new DefaultCommandCreator())) {
+    private GcodeGeometry takePreloadedGeometry(String file) {
+        // A preloaded geometry doesn't include any tiling of the program
+        if (!backend.getGcodeTileOffsets().isEmpty()) {
+            return null;
+        }
+
+        synchronized (preloadedGeometries) {
+            return preloadedGeometries.remove(file);
+        }
+    }
+
+    private GcodeGeometry loadGeometry(String file) throws IOException, GcodeParserException {
+        GcodeViewParse gcvp = new GcodeViewParse();
+        List<LineSegment> lineSegments = loadModel(gcvp, file);
+
+        // Convert LineSegments to points.
+        List<LineSegment> points = new ArrayList<>(lineSegments.size());
+        for (LineSegment ls : lineSegments) {
+            points.add(VisualizerUtils.toCartesian(ls));
+        }
+
+        return new GcodeGeometry(points, gcvp.getMinimumExtremes(), gcvp.getMaximumExtremes(), gcvp.getMaxSpindleSpeed(), gcvp.getMaxFeedRate());
+    }
+
+    private List<LineSegment> loadModel(GcodeViewParse gcvp, String file) throws IOException, GcodeParserException {
+        try (IGcodeStreamReader gsr = createGcodeStreamReader(file)) {
             return gcvp.toObjFromReader(gsr, ARC_SEGMENT_LENGTH);
         } catch (GcodeStreamReader.NotGcodeStreamFile e) {
             List<String> linesInFile;
-            linesInFile = VisualizerUtils.readFiletoArrayList(this.gcodeFile);
+            linesInFile = VisualizerUtils.readFiletoArrayList(file);
             return gcvp.toObjRedux(linesInFile, ARC_SEGMENT_LENGTH);
         }
     }
 
+    /**
+     * Creates a reader for the gcode file, showing all tiles if the loaded program has been tiled.
+     */
+    private IGcodeStreamReader createGcodeStreamReader(String gcodeFile) throws GcodeStreamReader.NotGcodeStreamFile, FileNotFoundException {
+        File file = new File(gcodeFile);
+        List<Position> tileOffsets = backend.getGcodeTileOffsets();
+        if (!tileOffsets.isEmpty() && file.equals(backend.getProcessedGcodeFile())) {
+            return new TiledGcodeStreamReader(file, new DefaultCommandCreator(), tileOffsets);
+        }
+        return new GcodeStreamReader(file, new DefaultCommandCreator());
+    }
+
     /**
      * Convert the gcodeLineList into vertex and color arrays.
      */